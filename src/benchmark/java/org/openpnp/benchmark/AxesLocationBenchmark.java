@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openpnp.machine.reference.axis.ReferenceControllerAxis;
+import org.openpnp.model.AxesLocation;
+import org.openpnp.spi.Axis;
+
+/**
+ * Benchmarks the {@link AxesLocation} arithmetic that the motion planner performs per moveTo(), and the
+ * momentary location sampling that Motion.getMomentaryLocation() performs when interpolating or simulating
+ * motion.
+ *
+ * The axes are those of an XYZC machine with additional Z and C axes per extra nozzle. With indexed=true the
+ * axes have their dense index assigned, as the machine does at configuration time. With indexed=false they
+ * have none, so the AxesLocation falls back to its map storage, like before the primitive representation.
+ * Run with -prof gc to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AxesLocationBenchmark {
+    /**
+     * Number of nozzles, each with its own Z and C axis.
+     */
+    @Param({"1", "4"})
+    public int nozzles;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private List<ReferenceControllerAxis> axes;
+    private AxesLocation current;
+    private AxesLocation target;
+    private AxesLocation backlashOffset;
+    private double [] profileCoordinates;
+    private double time;
+
+    @Setup(Level.Trial)
+    public void setupAxes() {
+        axes = new ArrayList<>();
+        axes.add(createAxis("X", Axis.Type.X));
+        axes.add(createAxis("Y", Axis.Type.Y));
+        for (int nozzle = 1; nozzle <= nozzles; nozzle++) {
+            axes.add(createAxis("Z"+nozzle, Axis.Type.Z));
+            axes.add(createAxis("C"+nozzle, Axis.Type.Rotation));
+        }
+        int index = 0;
+        for (ReferenceControllerAxis axis : axes) {
+            axis.setAxisIndex(indexed ? index : -1);
+            index++;
+        }
+        // Fixed seed, so all runs and releases see the same corpus.
+        Random random = new Random(4711);
+        current = AxesLocation.fromCoordinates(axes, (axis) -> random.nextDouble()*300);
+        target = AxesLocation.fromCoordinates(axes.subList(0, 4), (axis) -> random.nextDouble()*300);
+        backlashOffset = AxesLocation.fromCoordinates(axes.subList(0, 2), (axis) -> 0.05);
+        profileCoordinates = new double [axes.size()];
+        for (int i = 0; i < profileCoordinates.length; i++) {
+            profileCoordinates[i] = random.nextDouble()*300;
+        }
+    }
+
+    private static ReferenceControllerAxis createAxis(String name, Axis.Type type) {
+        ReferenceControllerAxis axis = new ReferenceControllerAxis();
+        axis.setName(name);
+        axis.setType(type);
+        return axis;
+    }
+
+    /**
+     * The pattern of AbstractMotionPlanner.moveTo() and createBacklashCompensatedMotion(): substitute the
+     * target into the current location, apply the backlash offset and derive the move vector and its length.
+     */
+    @Benchmark
+    public void moveTo(Blackhole blackhole) {
+        AxesLocation newLocation = current.put(target);
+        AxesLocation compensatedCurrent = current.add(backlashOffset);
+        AxesLocation compensatedNew = newLocation.subtract(backlashOffset);
+        AxesLocation segment = compensatedNew.subtract(compensatedCurrent);
+        double distance = segment.getEuclideanMetric();
+        AxesLocation unit = segment.multiply(1.0/Math.max(distance, 1e-9));
+        blackhole.consume(unit.dotProduct(segment));
+        blackhole.consume(compensatedNew.getCoordinate(axes.get(0)));
+    }
+
+    /**
+     * The pattern of Motion.getMomentaryLocation(), sampling all the axes at a moment in time.
+     */
+    @Benchmark
+    public AxesLocation momentaryLocation() {
+        time += 0.001;
+        return AxesLocation.fromCoordinates(axes, 
+                (axis) -> profileCoordinates[axis.getAxisIndex() < 0 ? 0 : axis.getAxisIndex()] + time);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpnp.machine.reference.camera.calibration.CameraCalibrationUtils;
+
+/**
+ * Benchmarks {@link CameraCalibrationUtils#computeBestCameraParameters(double[][][], double[][][],
+ * double[][][], List, double[], int)}, the camera model solver of the AdvancedCalibration, with the
+ * model evaluated sequentially and in parallel.
+ *
+ * The test pattern points are laid out like the AdvancedCalibration collects them, i.e. the
+ * savedTestPattern3dPointsList and savedTestPatternImagePointsList, alternating between a primary
+ * and a secondary calibration Z. As no saved calibration data comes with the sources, the image
+ * points are synthesized by projecting the 3D points through a known camera with some lens
+ * distortion and tilt, plus measurement noise. The solver starts from a perturbed guess, as it
+ * would from the OpenCV estimates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CameraCalibrationBenchmark {
+    static final double primaryZ = 0;
+    static final double secondaryZ = 10;
+
+    /**
+     * Number of test patterns, i.e. calibration fiducial positions.
+     */
+    @Param({"2", "8"})
+    public int testPatterns;
+
+    /**
+     * Number of points collected per test pattern.
+     */
+    @Param({"250", "1000"})
+    public int pointsPerTestPattern;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private double[][][] testPattern3dPoints;
+    private double[][][] testPatternImagePoints;
+    private double[] startParameters;
+
+    @Setup(Level.Trial)
+    public void setupTestPatterns() {
+        // Fixed seed, so all runs and releases see the same corpus.
+        Random random = new Random(4711);
+        // fx, fy, cx, cy, k1, k2, p1, p2, k3, Rx, Ry, Rz, cam_z, then cam_x, cam_y per test pattern.
+        double[] parameters = new double[13 + 2*testPatterns];
+        parameters[0] = 1400;
+        parameters[1] = 1400;
+        parameters[2] = 640;
+        parameters[3] = 360;
+        parameters[4] = -0.12;
+        parameters[5] = 0.05;
+        parameters[6] = 0.001;
+        parameters[7] = -0.0005;
+        parameters[8] = -0.01;
+        // Looking down, slightly tilted and rotated.
+        parameters[9] = Math.PI + 0.003;
+        parameters[10] = 0.002;
+        parameters[11] = 0.01;
+        parameters[12] = 40;
+
+        testPattern3dPoints = new double[testPatterns][pointsPerTestPattern][];
+        testPatternImagePoints = new double[testPatterns][pointsPerTestPattern][];
+        for (int iTP = 0; iTP < testPatterns; iTP++) {
+            double camX = 100 + random.nextDouble()*0.2 - 0.1;
+            double camY = 50 + random.nextDouble()*0.2 - 0.1;
+            parameters[13 + 2*iTP] = camX;
+            parameters[14 + 2*iTP] = camY;
+            double z = (iTP % 2 == 0) ? primaryZ : secondaryZ;
+            double radius = 0.4*(parameters[12] - z)*parameters[3]/parameters[1];
+            for (int iPt = 0; iPt < pointsPerTestPattern; iPt++) {
+                // Radial lines, like the calibration rig is moved.
+                double angle = 2*Math.PI*random.nextInt(16)/16;
+                double r = radius*random.nextDouble();
+                double[] point = new double[] {
+                        camX + r*Math.cos(angle),
+                        camY + r*Math.sin(angle),
+                        z };
+                double[] imagePoint = project(parameters, iTP, point);
+                imagePoint[0] += 0.2*random.nextGaussian();
+                imagePoint[1] += 0.2*random.nextGaussian();
+                testPattern3dPoints[iTP][iPt] = point;
+                testPatternImagePoints[iTP][iPt] = imagePoint;
+            }
+        }
+
+        startParameters = parameters.clone();
+        startParameters[0] *= 1.02;
+        startParameters[1] *= 1.02;
+        for (int i = 4; i <= 8; i++) {
+            startParameters[i] = 0;
+        }
+        startParameters[9] -= 0.003;
+        startParameters[10] = 0;
+        startParameters[12] += 0.5;
+    }
+
+    @Setup(Level.Iteration)
+    public void setupEvaluation() {
+        CameraCalibrationUtils.setParallelEvaluation(parallel);
+    }
+
+    @Benchmark
+    public double computeBestCameraParameters() throws Exception {
+        double[][][] modeledImagePoints = new double[testPatterns][][];
+        List<Integer> outlierPoints = new ArrayList<>();
+        return CameraCalibrationUtils.computeBestCameraParameters(testPattern3dPoints,
+                testPatternImagePoints, modeledImagePoints, outlierPoints,
+                startParameters.clone(), CameraCalibrationUtils.FIX_PRINCIPAL_POINT);
+    }
+
+    /**
+     * Projects the 3D machine point to the image, using the camera model U = K * D( R * (X - T) )
+     * of the solver.
+     */
+    static double[] project(double[] parameters, int iTP, double[] point) {
+        double[] rotation = rotationMatrix(parameters[9], parameters[10], parameters[11]);
+        double dx = point[0] - parameters[13 + 2*iTP];
+        double dy = point[1] - parameters[14 + 2*iTP];
+        double dz = point[2] - parameters[12];
+        double cx = rotation[0]*dx + rotation[1]*dy + rotation[2]*dz;
+        double cy = rotation[3]*dx + rotation[4]*dy + rotation[5]*dz;
+        double cz = rotation[6]*dx + rotation[7]*dy + rotation[8]*dz;
+        double x = cx/cz;
+        double y = cy/cz;
+        double r2 = x*x + y*y;
+        double radial = 1 + parameters[4]*r2 + parameters[5]*r2*r2 + parameters[8]*r2*r2*r2;
+        double xd = x*radial + 2*parameters[6]*x*y + parameters[7]*(r2 + 2*x*x);
+        double yd = y*radial + parameters[6]*(r2 + 2*y*y) + 2*parameters[7]*x*y;
+        return new double[] {
+                parameters[0]*xd + parameters[2],
+                parameters[1]*yd + parameters[3] };
+    }
+
+    /**
+     * @return The row-major 3x3 rotation matrix of the rotation vector, after Rodrigues.
+     */
+    static double[] rotationMatrix(double rx, double ry, double rz) {
+        double theta = Math.sqrt(rx*rx + ry*ry + rz*rz);
+        double kx = rx/theta;
+        double ky = ry/theta;
+        double kz = rz/theta;
+        double c = Math.cos(theta);
+        double s = Math.sin(theta);
+        double t = 1 - c;
+        return new double[] {
+                c + kx*kx*t,     kx*ky*t - kz*s,  kx*kz*t + ky*s,
+                ky*kx*t + kz*s,  c + ky*ky*t,     ky*kz*t - kx*s,
+                kz*kx*t - ky*s,  kz*ky*t + kx*s,  c + kz*kz*t };
+    }
+}
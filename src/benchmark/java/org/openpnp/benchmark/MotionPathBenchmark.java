@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpnp.model.AbstractMotionPath;
+import org.openpnp.model.MotionProfile;
+import org.openpnp.model.MotionProfile.ProfileOption;
+
+/**
+ * Benchmarks {@link AbstractMotionPath#solve(double, int)} on long continuous paths, as planned by
+ * the ReferenceAdvancedMotionPlanner when continuous motion is allowed.
+ *
+ * The path follows the moveToLocationAtSafeZ() pattern of a job on an XYZC machine with a shared Z
+ * axis for two nozzles: travel at Safe Z to the feeder, down to pick, up, travel to the bottom
+ * camera, travel to the placement while rotating, down to place, up. Moves within the Safe Z zone
+ * are uncoordinated, just like ReferenceAdvancedMotionPlanner.addMotion() flags them.
+ *
+ * The solver changes the profiles in place, therefore the single moves are re-created and
+ * pre-solved for each invocation, outside of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MotionPathBenchmark {
+    static final double safeZ = -7;
+    static final double pickZ = -15;
+    static final double placeZ = -13;
+
+    /**
+     * Number of pick and place cycles in the path.
+     */
+    @Param({"1", "4", "16"})
+    public int cycles;
+
+    /**
+     * The jerk limit in mm/s³, 0 meaning constant acceleration.
+     */
+    @Param({"0", "30000"})
+    public double jerk;
+
+    @Param({"0.75"})
+    public double approximation;
+
+    @Param({"3"})
+    public int iterations;
+
+    private List<double []> waypoints;
+    private BenchmarkPath path;
+
+    @Setup(Level.Trial)
+    public void setupWaypoints() {
+        // Fixed seed, so all runs and releases see the same corpus.
+        Random random = new Random(4711);
+        waypoints = new ArrayList<>();
+        double [] feeder = new double [] { 0, 0 };
+        double [] camera = new double [] { 200, 20 };
+        waypoints.add(new double [] { 0, 0, safeZ, 0, 1 });
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            int nozzle = 1 + (cycle % 2);
+            double zSign = (nozzle == 1 ? 1 : -1);
+            feeder[0] = 10 + 8*random.nextInt(40);
+            feeder[1] = 380;
+            double [] placement = new double [] {
+                    50 + random.nextDouble()*250,
+                    50 + random.nextDouble()*250,
+            };
+            double rotation = 90*random.nextInt(4) + random.nextDouble()*2 - 1;
+            // Pick.
+            waypoints.add(new double [] { feeder[0], feeder[1], zSign*safeZ, 0, nozzle });
+            waypoints.add(new double [] { feeder[0], feeder[1], zSign*pickZ, 0, nozzle });
+            waypoints.add(new double [] { feeder[0], feeder[1], zSign*safeZ, 0, nozzle });
+            // Bottom vision.
+            waypoints.add(new double [] { camera[0], camera[1], zSign*safeZ, rotation, nozzle });
+            // Place.
+            waypoints.add(new double [] { placement[0], placement[1], zSign*safeZ, rotation, nozzle });
+            waypoints.add(new double [] { placement[0], placement[1], zSign*placeZ, rotation, nozzle });
+            waypoints.add(new double [] { placement[0], placement[1], zSign*safeZ, rotation, nozzle });
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupPath() {
+        path = new BenchmarkPath();
+        double [] previous = null;
+        for (double [] waypoint : waypoints) {
+            if (previous != null) {
+                path.addMove(previous, waypoint, jerk);
+            }
+            previous = waypoint;
+        }
+    }
+
+    @Benchmark
+    public double solvePath() throws Exception {
+        path.solve(approximation, iterations);
+        return path.getOverallTime();
+    }
+
+    static class BenchmarkPath extends AbstractMotionPath {
+        private final List<MotionProfile []> path = new ArrayList<>();
+
+        @Override
+        public int size() {
+            return path.size();
+        }
+
+        @Override
+        public MotionProfile[] get(int i) {
+            return path.get(i);
+        }
+
+        void addMove(double [] from, double [] to, double jerk) {
+            boolean inSafeZone = Math.abs(from[2]) <= -safeZ && Math.abs(to[2]) <= -safeZ;
+            double zMin, zMax;
+            int options;
+            if (inSafeZone) {
+                zMin = safeZ;
+                zMax = -safeZ;
+                options = ProfileOption.SynchronizeStraighten.flag();
+            }
+            else {
+                if (to[4] == 1) {
+                    zMin = -20;
+                    zMax = 5;
+                }
+                else {
+                    zMin = -5;
+                    zMax = 20;
+                }
+                options = ProfileOption.Coordinated.flag();
+            }
+            MotionProfile [] profiles = new MotionProfile [] {
+                    new MotionProfile(from[0], to[0], 0, 0, 0, 0,
+                            0, 1000, 700, 2000, 2000, jerk, 0, Double.POSITIVE_INFINITY, options),
+                    new MotionProfile(from[1], to[1], 0, 0, 0, 0,
+                            0, 500, 700, 1000, 1000, jerk, 0, Double.POSITIVE_INFINITY, options),
+                    new MotionProfile(from[2], to[2], 0, 0, 0, 0,
+                            zMin, zMax, 700, 2000, 2000, jerk, 0, Double.POSITIVE_INFINITY, options),
+                    new MotionProfile(from[3], to[3], 0, 0, 0, 0,
+                            -10000, 10000, 5000, 20000, 20000, jerk*10, 0, Double.POSITIVE_INFINITY, options),
+            };
+            // Pre-solve as single moves, like Motion does.
+            if (inSafeZone) {
+                MotionProfile.synchronizeProfiles(profiles);
+            }
+            else {
+                MotionProfile.coordinateProfiles(profiles);
+            }
+            path.add(profiles);
+        }
+
+        double getOverallTime() {
+            double time = 0;
+            for (MotionProfile [] profiles : path) {
+                time += profiles[0].getTime();
+            }
+            return time;
+        }
+    }
+}
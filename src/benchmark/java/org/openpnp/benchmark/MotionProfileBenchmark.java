@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openpnp.model.MotionProfile;
+import org.openpnp.model.MotionProfile.ProfileOption;
+
+/**
+ * Benchmarks the single move solvers of {@link MotionProfile}.
+ *
+ * The corpus consists of typical pick and place moves: long and short X/Y travel, Z down/up moves
+ * to pick and place height, and C rotations. As the solvers store their solution in the profile,
+ * each invocation solves fresh copies of the template profiles. The copying is negligible against
+ * the solving.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MotionProfileBenchmark {
+    /**
+     * The jerk limit in mm/s³, 0 meaning constant acceleration.
+     */
+    @Param({"0", "30000", "90000"})
+    public double jerk;
+
+    /**
+     * Whether simplified S-Curves are used (only effective with a jerk limit).
+     */
+    @Param({"false", "true"})
+    public boolean sCurves;
+
+    private List<MotionProfile> singleAxisMoves;
+    private List<MotionProfile[]> coordinatedMoves;
+    private List<MotionProfile[]> uncoordinatedMoves;
+
+    @Setup
+    public void setup() {
+        int options = (sCurves ? ProfileOption.SimplifiedSCurve.flag() : 0);
+        singleAxisMoves = new ArrayList<>();
+        // Long, medium, short, tiny and micro travel.
+        for (double distance : new double[] { 600, 200, 50, 10, 1, 0.01 }) {
+            singleAxisMoves.add(axisProfile(0, distance, 0, 1000, 700, 2000, options));
+            singleAxisMoves.add(axisProfile(distance, 0, 0, 1000, 700, 2000, options));
+        }
+        // Z moves to pick/place height.
+        singleAxisMoves.add(axisProfile(-7, -15, -20, 5, 700, 2000, options));
+        singleAxisMoves.add(axisProfile(-15, -7, -20, 5, 700, 2000, options));
+        // Low feed-rate move.
+        singleAxisMoves.add(axisProfile(0, 200, 0, 1000, 100, 2000, options));
+        // Unconstrained entry/exit, as used in continuous paths.
+        singleAxisMoves.add(axisProfile(0, 100, 0, 1000, 700, 2000,
+                options | ProfileOption.UnconstrainedExit.flag()));
+        singleAxisMoves.add(axisProfile(0, 100, 0, 1000, 700, 2000,
+                options | ProfileOption.UnconstrainedEntry.flag()));
+
+        coordinatedMoves = new ArrayList<>();
+        uncoordinatedMoves = new ArrayList<>();
+        double [][] moves = new double [][] {
+            // x0, y0, z0, c0, x1, y1, z1, c1
+            { 0, 0, -7, 0, 300, 200, -7, 90 },
+            { 300, 200, -7, 90, 310, 205, -7, -45 },
+            { 10, 400, -7, 0, 250, 20, -7, 180 },
+            { 100, 100, -7, 0, 100, 100, -15, 0 },
+            { 100, 100, -15, 0, 100, 100, -7, 0 },
+            { 50, 50, -7, 0, 51, 50.5, -7, 1 },
+            { 0, 0, -7, 0, 0, 0, -7, 360 },
+        };
+        for (double [] move : moves) {
+            coordinatedMoves.add(xyzcProfiles(move, options | ProfileOption.Coordinated.flag()));
+            uncoordinatedMoves.add(xyzcProfiles(move, options
+                    | ProfileOption.SynchronizeStraighten.flag()
+                    | ProfileOption.SynchronizeEarlyBird.flag()
+                    | ProfileOption.SynchronizeLastMinute.flag()));
+        }
+    }
+
+    private MotionProfile axisProfile(double s0, double s1, double sMin, double sMax,
+            double vMax, double aMax, int options) {
+        return new MotionProfile(
+                s0, s1, 0, 0, 0, 0,
+                sMin, sMax, vMax, aMax, aMax, jerk, 0, Double.POSITIVE_INFINITY,
+                options);
+    }
+
+    private MotionProfile[] xyzcProfiles(double [] move, int options) {
+        return new MotionProfile[] {
+                axisProfile(move[0], move[4], 0, 1000, 700, 2000, options),
+                axisProfile(move[1], move[5], 0, 500, 700, 1000, options),
+                axisProfile(move[2], move[6], -20, 5, 700, 2000, options),
+                axisProfile(move[3], move[7], -10000, 10000, 5000, 20000, options),
+        };
+    }
+
+    private static MotionProfile[] copy(MotionProfile[] templates) {
+        MotionProfile[] profiles = new MotionProfile[templates.length];
+        for (int i = 0; i < templates.length; i++) {
+            profiles[i] = new MotionProfile(templates[i]);
+        }
+        return profiles;
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (MotionProfile template : singleAxisMoves) {
+            MotionProfile profile = new MotionProfile(template);
+            profile.solve();
+            blackhole.consume(profile.getTime());
+        }
+    }
+
+    @Benchmark
+    public void solveForVelocity(Blackhole blackhole) {
+        for (MotionProfile template : singleAxisMoves) {
+            MotionProfile profile = new MotionProfile(template);
+            blackhole.consume(profile.solveForVelocity(80, 2.0, 0.000001));
+        }
+    }
+
+    @Benchmark
+    public void coordinateProfiles(Blackhole blackhole) {
+        for (MotionProfile[] templates : coordinatedMoves) {
+            MotionProfile[] profiles = copy(templates);
+            MotionProfile.coordinateProfiles(profiles);
+            blackhole.consume(profiles[0].getTime());
+        }
+    }
+
+    @Benchmark
+    public void synchronizeProfiles(Blackhole blackhole) {
+        for (MotionProfile[] templates : uncoordinatedMoves) {
+            MotionProfile[] profiles = copy(templates);
+            MotionProfile.synchronizeProfiles(profiles);
+            blackhole.consume(profiles[0].getTime());
+        }
+    }
+}
@@ -78,6 +78,7 @@ import org.openpnp.events.PlacementsHolderLocationChangedEvent;
 import org.openpnp.gui.JobPanel.OpenRecentJobAction;
 import org.openpnp.gui.components.AutoSelectTextTable;
 import org.openpnp.gui.components.ExistingBoardOrPanelDialog;
+import org.openpnp.gui.components.JobTimingDialog;
 import org.openpnp.gui.processes.MultiPlacementBoardLocationProcess;
 import org.openpnp.gui.support.ActionGroup;
 import org.openpnp.gui.support.CustomBooleanRenderer;
@@ -1174,6 +1175,18 @@ public class JobPanel extends JPanel {
         }
     };
 
+    public final Action showJobTimingAction = new AbstractAction() {
+        {
+            putValue(NAME, Translations.getString("JobPanel.Action.Job.ShowJobTiming")); //$NON-NLS-1$
+            putValue(SHORT_DESCRIPTION, Translations.getString("JobPanel.Action.Job.ShowJobTiming.Description")); //$NON-NLS-1$
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent arg0) {
+            JobTimingDialog.showDialog(JobPanel.this);
+        }
+    };
+
     public final Action addBoardAction = new AbstractAction() {
         {
             putValue(NAME, Translations.getString("JobPanel.Action.Job.AddBoard")); //$NON-NLS-1$
@@ -48,6 +48,7 @@ import java.security.InvalidParameterException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -505,6 +506,7 @@ public class MainFrame extends JFrame {
         mnJob.addSeparator();
         
         mnJob.add(new JMenuItem(jobPanel.resetAllPlacedAction));
+        mnJob.add(new JMenuItem(jobPanel.showJobTimingAction));
 
         // Machine
         //////////////////////////////////////////////////////////////////////
@@ -1073,6 +1075,12 @@ public class MainFrame extends JFrame {
         dialog.setVisible(true);
     }
 
+    /**
+     * Saves the preferences and the configuration. The configuration files are written in the 
+     * background, write errors are shown when the write completes.
+     * 
+     * @return false if the configuration could not be saved.
+     */
     public boolean saveConfig() {
         // Save the configuration
         try {
@@ -1082,23 +1090,36 @@ public class MainFrame extends JFrame {
             MessageBoxes.errorBox(MainFrame.this, "Save Preferences", e); //$NON-NLS-1$
         }
         
+        // The configuration is serialized right here, only the files are written in the background.
+        CompletableFuture<Void> saved;
         try {
-            configuration.save();
+            saved = configuration.saveAsync();
         }
         catch (Exception e) {
-			String message = "There was a problem saving the configuration. The reason was:\n\n" + e.getMessage() //$NON-NLS-1$
-					+ "\n\n"; //$NON-NLS-1$
-			message = message.replaceAll("\n", "<br/>"); //$NON-NLS-1$ //$NON-NLS-2$
-			message = message.replaceAll("\r", ""); //$NON-NLS-1$ //$NON-NLS-2$
-			message = "<html><body width=\"400\">" + message + "</body></html>"; //$NON-NLS-1$ //$NON-NLS-2$
-			JOptionPane.showMessageDialog(this, message, "Configuration Save Error", JOptionPane.ERROR_MESSAGE); //$NON-NLS-1$
-			return false;
+            showConfigurationSaveError(e);
+            return false;
         }
-
-        Logger.debug("Config saved successfully!"); //$NON-NLS-1$
+        saved.whenComplete((result, e) -> SwingUtilities.invokeLater(() -> {
+            if (e != null) {
+                showConfigurationSaveError(e.getCause() != null ? e.getCause() : e);
+            }
+            else {
+                Logger.debug("Config saved successfully!"); //$NON-NLS-1$
+            }
+        }));
+        configuration.confirmSaveOfModifiedPlacementsHolders();
         return true;
     }
 
+    private void showConfigurationSaveError(Throwable e) {
+        String message = "There was a problem saving the configuration. The reason was:\n\n" + e.getMessage() //$NON-NLS-1$
+                + "\n\n"; //$NON-NLS-1$
+        message = message.replaceAll("\n", "<br/>"); //$NON-NLS-1$ //$NON-NLS-2$
+        message = message.replaceAll("\r", ""); //$NON-NLS-1$ //$NON-NLS-2$
+        message = "<html><body width=\"400\">" + message + "</body></html>"; //$NON-NLS-1$ //$NON-NLS-2$
+        JOptionPane.showMessageDialog(this, message, "Configuration Save Error", JOptionPane.ERROR_MESSAGE); //$NON-NLS-1$
+    }
+
     public boolean quit() {
         Logger.info("Shutting down..."); //$NON-NLS-1$
         try {
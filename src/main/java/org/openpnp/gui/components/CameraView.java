@@ -25,6 +25,7 @@ import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -56,10 +57,13 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.prefs.Preferences;
 
 import javax.imageio.ImageIO;
@@ -137,6 +141,34 @@ public class CameraView extends JComponent implements CameraListener {
      */
     private BufferedImage lastFrame;
 
+    /**
+     * The frame waiting to be rendered by the render thread. A newer frame replaces it, i.e. frames
+     * that arrive faster than they can be rendered and painted are dropped.
+     */
+    private final AtomicReference<BufferedImage> pendingFrame = new AtomicReference<>();
+
+    private static final int RENDER_IDLE = 0;
+    private static final int RENDER_BUSY = 1;
+    private static final int RENDER_DONE = 2;
+
+    /**
+     * One of RENDER_IDLE, RENDER_BUSY (a render task is queued or running) or RENDER_DONE (the
+     * rendered frame has not been painted yet).
+     */
+    private final AtomicInteger renderState = new AtomicInteger(RENDER_IDLE);
+
+    /**
+     * The front buffer, painted by paintComponent(). Guarded by this.
+     */
+    private RenderedFrame renderedFrame;
+
+    /**
+     * The back buffer, only touched by the render thread.
+     */
+    private RenderedFrame backFrame;
+
+    private static ExecutorService renderExecutor;
+
     private LinkedHashMap<Object, Reticle> reticles = new LinkedHashMap<>();
 
     private JPopupMenu popupMenu;
@@ -571,7 +603,157 @@ public class CameraView extends JComponent implements CameraListener {
         }
         fps = 1000.0 / fpsAverage.next(System.currentTimeMillis() - lastFrameReceivedTime);
         lastFrameReceivedTime = System.currentTimeMillis();
-        repaint();
+        requestRender(img);
+    }
+
+    /**
+     * A frame pre-scaled to the view, with the geometry it was rendered for.
+     */
+    private static class RenderedFrame {
+        final BufferedImage image;
+        int imageX, imageY;
+        int scaledWidth, scaledHeight;
+        RenderingQuality renderingQuality;
+        Color background;
+
+        RenderedFrame(BufferedImage image) {
+            this.image = image;
+        }
+    }
+
+    private static synchronized ExecutorService getRenderExecutor() {
+        if (renderExecutor == null) {
+            renderExecutor = Executors.newFixedThreadPool(
+                    Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+                    (runnable) -> {
+                        Thread thread = new Thread(runnable, "CameraView render");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return renderExecutor;
+    }
+
+    /**
+     * Hands the frame to the render thread, which scales it to the view into the back buffer. At
+     * most one render task per view is in flight, and the next one is only started once the EDT has
+     * painted the last rendered frame. Frames arriving in between replace each other, so a busy EDT
+     * only ever sees the latest frame.
+     * 
+     * @param frame
+     */
+    private void requestRender(BufferedImage frame) {
+        pendingFrame.set(frame);
+        scheduleRender();
+    }
+
+    private void scheduleRender() {
+        if (pendingFrame.get() != null 
+                && renderState.compareAndSet(RENDER_IDLE, RENDER_BUSY)) {
+            getRenderExecutor().execute(this::render);
+        }
+    }
+
+    private void render() {
+        BufferedImage frame = pendingFrame.getAndSet(null);
+        boolean rendered = false;
+        try {
+            if (frame != null) {
+                rendered = renderFrame(frame);
+            }
+        }
+        catch (Exception e) {
+            Logger.warn(e);
+        }
+        finally {
+            if (rendered) {
+                renderState.set(RENDER_DONE);
+                repaint();
+            }
+            else {
+                renderState.set(RENDER_IDLE);
+                // A frame may have arrived while we were busy.
+                scheduleRender();
+            }
+        }
+    }
+
+    private boolean renderFrame(BufferedImage frame) {
+        Insets ins;
+        int width, height;
+        RenderedFrame target = backFrame;
+        int imageX, imageY, scaledWidth, scaledHeight;
+        RenderingQuality renderingQuality;
+        synchronized (this) {
+            ins = getInsets();
+            width = getWidth() - ins.left - ins.right;
+            height = getHeight() - ins.top - ins.bottom;
+            if (width <= 0 || height <= 0 
+                    || frame.getWidth() != lastSourceWidth || frame.getHeight() != lastSourceHeight) {
+                // Not displayed or scaling data not (yet) calculated for this frame, paintComponent()
+                // will fall back to scaling lastFrame itself.
+                return false;
+            }
+            imageX = this.imageX - ins.left;
+            imageY = this.imageY - ins.top;
+            scaledWidth = this.scaledWidth;
+            scaledHeight = this.scaledHeight;
+            renderingQuality = this.renderingQuality;
+        }
+        if (target == null 
+                || target.image.getWidth() != width || target.image.getHeight() != height) {
+            // Create a display compatible image, so the EDT can paint it with a simple blit.
+            GraphicsConfiguration graphicsConfiguration = getGraphicsConfiguration();
+            BufferedImage image = (graphicsConfiguration != null ? 
+                    graphicsConfiguration.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+            target = new RenderedFrame(image);
+        }
+        Color background = getBackground();
+        Graphics2D g2d = target.image.createGraphics();
+        try {
+            g2d.setColor(background);
+            g2d.fillRect(0, 0, width, height);
+            if (renderingQuality != RenderingQuality.Low) {
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            }
+            g2d.drawImage(frame, imageX, imageY, scaledWidth, scaledHeight, null);
+        }
+        finally {
+            g2d.dispose();
+        }
+        target.imageX = imageX;
+        target.imageY = imageY;
+        target.scaledWidth = scaledWidth;
+        target.scaledHeight = scaledHeight;
+        target.renderingQuality = renderingQuality;
+        target.background = background;
+        synchronized (this) {
+            // Swap the buffers.
+            backFrame = renderedFrame;
+            renderedFrame = target;
+        }
+        return true;
+    }
+
+    /**
+     * @param rendered
+     * @param ins
+     * @param width
+     * @param height
+     * @return True if the rendered frame was rendered for the current geometry of the view.
+     */
+    private boolean isRenderedFrameValid(RenderedFrame rendered, Insets ins, int width, int height) {
+        return rendered != null
+                && rendered.image.getWidth() == width
+                && rendered.image.getHeight() == height
+                && rendered.imageX == imageX - ins.left
+                && rendered.imageY == imageY - ins.top
+                && rendered.scaledWidth == scaledWidth
+                && rendered.scaledHeight == scaledHeight
+                && rendered.renderingQuality == renderingQuality
+                && getBackground().equals(rendered.background);
     }
 
     /**
@@ -651,17 +833,31 @@ public class CameraView extends JComponent implements CameraListener {
         int width = getWidth() - ins.left - ins.right;
         int height = getHeight() - ins.top - ins.bottom;
         Graphics2D g2d = (Graphics2D) g;
-        g.setColor(getBackground());
-        g2d.fillRect(ins.left, ins.top, width, height);
+        RenderedFrame rendered = renderedFrame;
+        boolean prescaled = (image != null && isRenderedFrameValid(rendered, ins, width, height));
+        if (prescaled) {
+            // The render thread has already scaled the frame to the view, just blit it.
+            g2d.drawImage(rendered.image, ins.left, ins.top, null);
+        }
+        else {
+            g.setColor(getBackground());
+            g2d.fillRect(ins.left, ins.top, width, height);
+        }
         if (image != null) {
             // Only render if there is a valid image.
-            if (renderingQuality == RenderingQuality.Low) {
-                g2d.drawImage(lastFrame, imageX, imageY, scaledWidth, scaledHeight, null);
-            }
-            else {
+            if (renderingQuality != RenderingQuality.Low) {
                 g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
                 g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
                 g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            }
+            if (prescaled) {
+                // Already drawn above.
+            }
+            else if (renderingQuality == RenderingQuality.Low) {
+                // Not (yet) rendered for this geometry, scale it here.
+                g2d.drawImage(lastFrame, imageX, imageY, scaledWidth, scaledHeight, null);
+            }
+            else {
                 AffineTransform t = new AffineTransform();
                 double scaleW = ((double)scaledWidth)/image.getWidth();
                 double scaleH = ((double)scaledHeight)/image.getHeight();
@@ -727,6 +923,14 @@ public class CameraView extends JComponent implements CameraListener {
             g2d.setColor(new Color(1f, 1f, 1f, alpha));
             g2d.fillRect(0, 0, getWidth(), getHeight());
         }
+
+        if (image != null && !prescaled) {
+            // The geometry has changed, let the render thread catch up.
+            pendingFrame.compareAndSet(null, image);
+        }
+        // The rendered frame has been painted, ready for the next.
+        renderState.compareAndSet(RENDER_DONE, RENDER_IDLE);
+        scheduleRender();
     }
     
     private boolean isPointInsideRectangle(int pointX, int pointY, int rectX1, int rectY1, int rectX2, int rectY2) {
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.gui.components;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Window;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+import javax.swing.table.AbstractTableModel;
+
+import org.openpnp.Translations;
+import org.openpnp.util.JobTiming;
+import org.openpnp.util.JobTimingReport;
+import org.openpnp.util.JobTimingReport.OperationStatistics;
+import org.openpnp.util.SimpleGraph;
+
+/**
+ * Shows the {@link JobTimingReport} of the running or last job: placements per hour, a table of
+ * the per-operation statistics and the duration histogram of the selected operation.
+ */
+@SuppressWarnings("serial")
+public class JobTimingDialog extends JDialog {
+    private static final int HISTOGRAM_BINS = 40;
+
+    private final JLabel summaryLabel = new JLabel();
+    private final OperationsTableModel tableModel = new OperationsTableModel();
+    private final JTable table = new JTable(tableModel);
+    private final HistogramView histogramView = new HistogramView();
+    private JobTimingReport report;
+
+    public JobTimingDialog(Window parent) {
+        super(parent);
+        setTitle(Translations.getString("JobTimingDialog.Title")); //$NON-NLS-1$
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+        JPanel contentPane = new JPanel(new BorderLayout());
+        contentPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        contentPane.add(summaryLabel, BorderLayout.NORTH);
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                updateHistogram();
+            }
+        });
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table),
+                histogramView);
+        splitPane.setResizeWeight(0.5);
+        contentPane.add(splitPane, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton refresh = new JButton(Translations.getString("JobTimingDialog.Refresh")); //$NON-NLS-1$
+        refresh.addActionListener(e -> refresh());
+        buttonPanel.add(refresh);
+        contentPane.add(buttonPanel, BorderLayout.SOUTH);
+
+        setContentPane(contentPane);
+        setMinimumSize(new Dimension(700, 500));
+        pack();
+        setLocationRelativeTo(parent);
+        refresh();
+    }
+
+    public static void showDialog(JComponent parent) {
+        JobTimingDialog dialog = new JobTimingDialog(SwingUtilities.getWindowAncestor(parent));
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Creates a new report from the running or last job.
+     */
+    public void refresh() {
+        JobTiming timing = JobTiming.getLast();
+        report = (timing != null ? new JobTimingReport(timing) : null);
+        if (report == null) {
+            summaryLabel.setText(Translations.getString("JobTimingDialog.NoJob")); //$NON-NLS-1$
+            tableModel.setOperations(new ArrayList<>());
+        }
+        else {
+            summaryLabel.setText(String.format(
+                    Translations.getString("JobTimingDialog.Summary"), //$NON-NLS-1$
+                    report.getPlacements(), report.getJobSeconds(), report.getPlacementsPerHour(),
+                    report.getCycles().size()));
+            tableModel.setOperations(new ArrayList<>(report.getOperations().values()));
+        }
+        updateHistogram();
+    }
+
+    private void updateHistogram() {
+        int row = table.getSelectedRow();
+        if (report == null || row < 0) {
+            histogramView.setHistogram(null, null, 0);
+            return;
+        }
+        OperationStatistics statistics = tableModel.getOperation(row);
+        histogramView.setHistogram(statistics.getOperation(),
+                report.getHistogram(statistics.getOperation(), HISTOGRAM_BINS),
+                statistics.getMaxMs());
+    }
+
+    private static class OperationsTableModel extends AbstractTableModel {
+        private final String[] columnNames = new String[] {
+                Translations.getString("JobTimingDialog.Column.Operation"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.Count"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.Total"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.Mean"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.P50"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.P95"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.Max"), //$NON-NLS-1$
+                Translations.getString("JobTimingDialog.Column.Share"), //$NON-NLS-1$
+        };
+        private List<OperationStatistics> operations = new ArrayList<>();
+
+        void setOperations(List<OperationStatistics> operations) {
+            this.operations = operations;
+            fireTableDataChanged();
+        }
+
+        OperationStatistics getOperation(int row) {
+            return operations.get(row);
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public int getRowCount() {
+            return operations.size();
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            OperationStatistics statistics = operations.get(row);
+            switch (column) {
+                case 0:
+                    return statistics.getOperation();
+                case 1:
+                    return statistics.getCount();
+                case 2:
+                    return String.format("%.1f", statistics.getTotalMs());
+                case 3:
+                    return String.format("%.1f", statistics.getMeanMs());
+                case 4:
+                    return String.format("%.1f", statistics.getP50Ms());
+                case 5:
+                    return String.format("%.1f", statistics.getP95Ms());
+                case 6:
+                    return String.format("%.1f", statistics.getMaxMs());
+                case 7:
+                    return String.format("%.1f%%", statistics.getJobShare()*100);
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static class HistogramView extends JComponent {
+        private String operation;
+        private int[] histogram;
+        private double maxMs;
+
+        HistogramView() {
+            setPreferredSize(new Dimension(600, 200));
+        }
+
+        void setHistogram(String operation, int[] histogram, double maxMs) {
+            this.operation = operation;
+            this.histogram = histogram;
+            this.maxMs = maxMs;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (histogram == null) {
+                return;
+            }
+            Graphics2D g2d = (Graphics2D) g;
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            FontMetrics fm = g2d.getFontMetrics();
+            int lineHeight = fm.getHeight();
+            int x0 = 5;
+            int y0 = lineHeight + 5;
+            int w = getWidth() - 10;
+            int h = getHeight() - y0 - lineHeight - 5;
+            if (w <= 0 || h <= 0) {
+                return;
+            }
+            int maxCount = 1;
+            for (int count : histogram) {
+                maxCount = Math.max(maxCount, count);
+            }
+            g2d.setColor(getForeground());
+            g2d.drawString(String.format("%s (max. count %d)", operation, maxCount), x0,
+                    fm.getAscent());
+            g2d.setColor(new Color(00, 0x5B, 0xD9)); // the OpenPNP blue
+            for (int i = 0; i < histogram.length; i++) {
+                int xa = x0 + i*w/histogram.length;
+                int xb = x0 + (i + 1)*w/histogram.length;
+                int bar = histogram[i]*h/maxCount;
+                g2d.fillRect(xa, y0 + h - bar, Math.max(1, xb - xa - 1), bar);
+            }
+            g2d.setColor(SimpleGraph.getDefaultGridColor());
+            g2d.drawLine(x0, y0 + h, x0 + w, y0 + h);
+            g2d.setColor(getForeground());
+            int yText = y0 + h + fm.getAscent();
+            g2d.drawString("0 ms", x0, yText);
+            String max = String.format("%.1f ms", maxMs);
+            g2d.drawString(max, x0 + w - fm.stringWidth(max), yText);
+        }
+    }
+}
@@ -109,6 +109,8 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 RowSpec.decode("max(70dlu;default):grow"),}));
 
         lblSettleMethod = new JLabel(Translations.getString(
@@ -256,9 +258,18 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
         });
         panelVision.add(settleDiagnostics, "10, 12");
 
+        lblSettlePredictive = new JLabel(Translations.getString(
+                "CameraVisionConfigurationWizard.VisionPanel.PredictiveLabel.text")); //$NON-NLS-1$
+        lblSettlePredictive.setToolTipText(Translations.getString(
+                "CameraVisionConfigurationWizard.VisionPanel.PredictiveLabel.toolTipText")); //$NON-NLS-1$
+        panelVision.add(lblSettlePredictive, "2, 14, right, default");
+
+        settlePredictive = new JCheckBox("");
+        panelVision.add(settlePredictive, "4, 14");
+
         lblSettleGraph = new JLabel(Translations.getString(
                 "CameraVisionConfigurationWizard.VisionPanel.SettleGraphLabel.text")); //$NON-NLS-1$
-        panelVision.add(lblSettleGraph, "2, 14, right, default");
+        panelVision.add(lblSettleGraph, "2, 16, right, default");
 
         settleGraph = new SimpleGraphView();
         settleGraph.addPropertyChangeListener(new PropertyChangeListener() {
@@ -270,7 +281,7 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
             }
         });
         settleGraph.setFont(new Font("Dialog", Font.PLAIN, 11));
-        panelVision.add(settleGraph, "4, 14, 11, 1, default, fill");
+        panelVision.add(settleGraph, "4, 16, 11, 1, default, fill");
     }
 
     private void adaptDialog() {
@@ -303,6 +314,9 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
         lblContrastEnhance.setVisible(!fixedTime);
         settleContrastEnhance.setVisible(!fixedTime);
 
+        lblSettlePredictive.setVisible(!fixedTime);
+        settlePredictive.setVisible(!fixedTime);
+
         lblSettleDiagnostics.setVisible(!fixedTime);
         settleDiagnostics.setVisible(!fixedTime);
 
@@ -329,6 +343,7 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
         addWrappedBinding(camera, "settleMaskCircle", settleMaskCircle, "text", doubleConverter);
         addWrappedBinding(camera, "settleContrastEnhance", settleContrastEnhance, "text", doubleConverter);
         addWrappedBinding(camera, "settleDiagnostics", settleDiagnostics, "selected");
+        addWrappedBinding(camera, "settlePredictive", settlePredictive, "selected");
         addWrappedBinding(camera, "settleGraph", settleGraph, "graph");
 
         ComponentDecorators.decorateWithAutoSelect(settleTimeMs);
@@ -505,6 +520,8 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
     private JTextField settleMaskCircle;
     private JLabel lblSettleDiagnostics;
     private JCheckBox settleDiagnostics;
+    private JLabel lblSettlePredictive;
+    private JCheckBox settlePredictive;
     private SimpleGraphView settleGraph;
     private JLabel lblSettleGraph;
     private JLabel lblSettleGradient;
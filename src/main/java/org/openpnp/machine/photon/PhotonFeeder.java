@@ -46,6 +46,11 @@ public class PhotonFeeder extends ReferenceFeeder {
 
     protected boolean initialized = false;
 
+    /**
+     * The expected duration of the feed started by prepareFeed(), or null if none was started.
+     */
+    private Duration preparedFeedDuration;
+
     @Element(required = false)
     private Location offset;
 
@@ -286,36 +291,40 @@ public class PhotonFeeder extends ReferenceFeeder {
                 continue;  // We'll initialize it on a retry
             }
 
-            // The feeder gives us expectedTimeToFeed, but it is way too conservative.
-            // Use expectedTimeToFeed to bound how long we will wait,
-            // but use polling to check the status of the feed.
-            Duration expectedFeedDuration = Duration.ofMillis(moveFeedForwardResponse.expectedTimeToFeed);
-            long endTimeNanos = System.nanoTime() + expectedFeedDuration.toNanos() * 3;
-            for (int j = 0; j <= photonProperties.getFeederCommunicationMaxRetry() || System.nanoTime() <= endTimeNanos; j++) {
-                Thread.sleep(50); // MAGIC: this feels like a good number, there is no particular reason it is this way.
+            waitForFeed(nozzle, Duration.ofMillis(moveFeedForwardResponse.expectedTimeToFeed));
+            return;
+        }
 
-                if (j == 0 && nozzle != null && Configuration.get().getMachine().isHomed() && getMoveWhileFeeding()) {
-                    MovableUtils.moveToLocationAtSafeZ(nozzle, getPickLocation().deriveLengths(null, null, nozzle.getEffectiveSafeZ(), null));
-                }
+        throw new FeedFailureException("Failed to feed for an unknown reason. Is the feeder inserted?");
+    }
 
-                MoveFeedStatus moveFeedStatus = new MoveFeedStatus(slotAddress);
-                MoveFeedStatus.Response moveFeedStatusResponse = moveFeedStatus.send(photonBus);
+    private void waitForFeed(Nozzle nozzle, Duration expectedFeedDuration) throws Exception {
+        // The feeder gives us expectedTimeToFeed, but it is way too conservative.
+        // Use expectedTimeToFeed to bound how long we will wait,
+        // but use polling to check the status of the feed.
+        long endTimeNanos = System.nanoTime() + expectedFeedDuration.toNanos() * 3;
+        for (int j = 0; j <= photonProperties.getFeederCommunicationMaxRetry() || System.nanoTime() <= endTimeNanos; j++) {
+            Thread.sleep(50); // MAGIC: this feels like a good number, there is no particular reason it is this way.
 
-                if (moveFeedStatusResponse == null) {
-                    continue; // Timeout. retry after delay.
-                }
+            if (j == 0 && nozzle != null && Configuration.get().getMachine().isHomed() && getMoveWhileFeeding()) {
+                MovableUtils.moveToLocationAtSafeZ(nozzle, getPickLocation().deriveLengths(null, null, nozzle.getEffectiveSafeZ(), null));
+            }
 
-                if (moveFeedStatusResponse.error == ErrorTypes.NONE) {
-                    return;
-                } else if (moveFeedStatusResponse.error == ErrorTypes.COULD_NOT_REACH) {
-                    throw new FeedFailureException("Feeder could not reach its destination.");
-                }
+            MoveFeedStatus moveFeedStatus = new MoveFeedStatus(slotAddress);
+            MoveFeedStatus.Response moveFeedStatusResponse = moveFeedStatus.send(photonBus);
+
+            if (moveFeedStatusResponse == null) {
+                continue; // Timeout. retry after delay.
             }
 
-            throw new FeedFailureException("Feeder timed out when we requested a feed status update.");
+            if (moveFeedStatusResponse.error == ErrorTypes.NONE) {
+                return;
+            } else if (moveFeedStatusResponse.error == ErrorTypes.COULD_NOT_REACH) {
+                throw new FeedFailureException("Feeder could not reach its destination.");
+            }
         }
 
-        throw new FeedFailureException("Failed to feed for an unknown reason. Is the feeder inserted?");
+        throw new FeedFailureException("Feeder timed out when we requested a feed status update.");
     }
 
     @Override
@@ -330,9 +339,43 @@ public class PhotonFeeder extends ReferenceFeeder {
             return;
         }
 
+        if (preparedFeedDuration != null) {
+            Duration expectedFeedDuration = preparedFeedDuration;
+            preparedFeedDuration = null;
+            if (slotAddress != null) {
+                // The feed was already started by prepareFeed(), only wait for it to complete.
+                waitForFeed(nozzle, expectedFeedDuration);
+                return;
+            }
+        }
+
         feed(nozzle, partPitch);
     }
 
+    @Override
+    public boolean prepareFeed() throws Exception {
+        if (getFeedOptions() != FeedOptions.Normal || preparedFeedDuration != null) {
+            return false;
+        }
+        findSlotAddressIfNeeded();
+        initializeIfNeeded();
+        if (!initialized) {
+            return false;
+        }
+        verifyFeederLocationIsFullyConfigured();
+
+        MoveFeedForward moveFeedForward = new MoveFeedForward(slotAddress, partPitch * 10);
+        MoveFeedForward.Response moveFeedForwardResponse = moveFeedForward.send(photonBus);
+        if (moveFeedForwardResponse == null || moveFeedForwardResponse.error != ErrorTypes.NONE) {
+            // Leave it to feed() to recover.
+            slotAddress = null;
+            initialized = false;
+            return false;
+        }
+        preparedFeedDuration = Duration.ofMillis(moveFeedForwardResponse.expectedTimeToFeed);
+        return true;
+    }
+
     public void feedOneMm() throws Exception {
         feed(null, 1);
     }
@@ -585,6 +628,45 @@ public class PhotonFeeder extends ReferenceFeeder {
         }
     }
 
+    /**
+     * Initializes all the given feeders that have a slot address and are not initialized yet, one
+     * after the other, like initializeIfNeeded() does when they are used. A feeder that fails does
+     * not stop the others, the failures are reported together at the end.
+     */
+    public static void initializeAll(List<PhotonFeeder> feeders) throws Exception {
+        List<String> failures = new ArrayList<>();
+        Exception failure = null;
+        for (PhotonFeeder feeder : feeders) {
+            try {
+                feeder.initializeIfNeeded();
+            }
+            catch (Exception e) {
+                Logger.warn(e, "Failed to initialize feeder " + feeder.getName());
+                failures.add(feeder.getName() + ": " + e.getMessage());
+                failure = e;
+            }
+        }
+        if (failures.size() == 1) {
+            throw failure;
+        }
+        else if (failures.size() > 1) {
+            throw new Exception("Failed to initialize feeders:\n" + String.join("\n", failures));
+        }
+    }
+
+    /**
+     * @return All the Photon feeders of the machine.
+     */
+    public static List<PhotonFeeder> getAllFeeders() {
+        List<PhotonFeeder> photonFeeders = new ArrayList<>();
+        for (Feeder feeder : Configuration.get().getMachine().getFeeders()) {
+            if (feeder instanceof PhotonFeeder) {
+                photonFeeders.add((PhotonFeeder) feeder);
+            }
+        }
+        return photonFeeders;
+    }
+
     @Override
     public boolean canTakeBackPart() {
         return getFeedOptions() == FeedOptions.Normal;
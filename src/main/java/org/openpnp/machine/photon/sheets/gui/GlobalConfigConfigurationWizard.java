@@ -125,6 +125,8 @@ public class GlobalConfigConfigurationWizard extends AbstractConfigurationWizard
 
             UiUtils.submitUiMachineTask(() -> {
                 PhotonFeeder.findAllFeeders(progressBarPanel::updateFeederState);
+                // Get the whole bank ready, so the job start does not have to do it feeder by feeder.
+                PhotonFeeder.initializeAll(PhotonFeeder.getAllFeeders());
                 return null;
             }, (parameter) -> {
                 resetState();
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.openpnp.model.Location;
+import org.openpnp.model.Part;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement.Status;
+
+/**
+ * An incremental index over the job placements of a job run, so the job processor does not have to
+ * filter the whole job on every cycle. The index follows the status changes of the placements and
+ * keeps:
+ * <ul>
+ * <li>the pending placements, in job order,</li>
+ * <li>the number of pending placements per rank,</li>
+ * <li>the number of incomplete placements per rank, for the current rank,</li>
+ * <li>a part to pick location cache, which is invalidated for the parts that were processed, i.e.
+ * fed, and as a whole when a feeder changes. Only locations that could be resolved are cached, so a
+ * missing or failing feeder is looked up again, once the operator has fixed it.</li>
+ * </ul>
+ */
+public class JobPlacementIndex implements PropertyChangeListener {
+    private final Map<JobPlacement, Integer> order = new IdentityHashMap<>();
+    private final Map<JobPlacement, Integer> ranks = new IdentityHashMap<>();
+    private final TreeMap<Integer, JobPlacement> pending = new TreeMap<>();
+    private final TreeMap<Integer, Integer> pendingRanks = new TreeMap<>();
+    private final TreeMap<Integer, Integer> incompleteRanks = new TreeMap<>();
+
+    private final Map<Part, Location> pickLocations = new HashMap<>();
+    private final Set<Part> dirtyParts = new HashSet<>();
+
+    public synchronized void add(JobPlacement jobPlacement) {
+        if (order.containsKey(jobPlacement)) {
+            return;
+        }
+        int index = order.size();
+        int rank = jobPlacement.getRank();
+        order.put(jobPlacement, index);
+        ranks.put(jobPlacement, rank);
+        if (jobPlacement.getStatus() == Status.Pending) {
+            pending.put(index, jobPlacement);
+            increment(pendingRanks, rank);
+        }
+        if (jobPlacement.getStatus() != Status.Complete) {
+            increment(incompleteRanks, rank);
+        }
+        jobPlacement.addPropertyChangeListener("status", this);
+    }
+
+    public synchronized void clear() {
+        for (JobPlacement jobPlacement : order.keySet()) {
+            jobPlacement.removePropertyChangeListener("status", this);
+        }
+        order.clear();
+        ranks.clear();
+        pending.clear();
+        pendingRanks.clear();
+        incompleteRanks.clear();
+        invalidatePickLocations();
+    }
+
+    @Override
+    public synchronized void propertyChange(PropertyChangeEvent evt) {
+        JobPlacement jobPlacement = (JobPlacement) evt.getSource();
+        Integer index = order.get(jobPlacement);
+        if (index == null) {
+            return;
+        }
+        Status oldStatus = (Status) evt.getOldValue();
+        Status newStatus = (Status) evt.getNewValue();
+        if (oldStatus == newStatus) {
+            return;
+        }
+        int rank = ranks.get(jobPlacement);
+        if (oldStatus == Status.Pending) {
+            pending.remove(index);
+            decrement(pendingRanks, rank);
+        }
+        else if (newStatus == Status.Pending) {
+            pending.put(index, jobPlacement);
+            increment(pendingRanks, rank);
+        }
+        if (newStatus == Status.Complete) {
+            decrement(incompleteRanks, rank);
+        }
+        else if (oldStatus == Status.Complete) {
+            increment(incompleteRanks, rank);
+        }
+        if (newStatus == Status.Processing) {
+            // The part is going to be fed, its pick location may move.
+            dirtyParts.add(jobPlacement.getPlacement().getPart());
+        }
+    }
+
+    /**
+     * @return All the pending placements, in job order.
+     */
+    public synchronized List<JobPlacement> getPendingJobPlacements() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * @param blockedRank
+     * @return The pending placements with a rank below blockedRank, in job order.
+     */
+    public synchronized List<JobPlacement> getOpenPendingJobPlacements(int blockedRank) {
+        if (pendingRanks.isEmpty() || pendingRanks.lastKey() < blockedRank) {
+            // Nothing is blocked, which is the common case.
+            return new ArrayList<>(pending.values());
+        }
+        List<JobPlacement> openPending = new ArrayList<>();
+        for (JobPlacement jobPlacement : pending.values()) {
+            if (ranks.get(jobPlacement) < blockedRank) {
+                openPending.add(jobPlacement);
+            }
+        }
+        return openPending;
+    }
+
+    /**
+     * @param blockedRank
+     * @return True if there are pending placements with a rank below blockedRank.
+     */
+    public synchronized boolean hasOpenPendingJobPlacements(int blockedRank) {
+        return !pendingRanks.isEmpty() && pendingRanks.firstKey() < blockedRank;
+    }
+
+    /**
+     * @param fallback
+     * @return The smallest rank of all the placements that are not complete, or the fallback if all
+     * are complete.
+     */
+    public synchronized int getCurrentRank(int fallback) {
+        return incompleteRanks.isEmpty() ? fallback : incompleteRanks.firstKey();
+    }
+
+    /**
+     * @param part
+     * @return The cached pick location of the part, or null if it is not cached (anymore).
+     */
+    public synchronized Location getPickLocation(Part part) {
+        if (dirtyParts.remove(part)) {
+            pickLocations.remove(part);
+        }
+        return pickLocations.get(part);
+    }
+
+    public synchronized void putPickLocation(Part part, Location location) {
+        pickLocations.put(part, location);
+    }
+
+    public synchronized void invalidatePickLocations() {
+        pickLocations.clear();
+        dirtyParts.clear();
+    }
+
+    private static void increment(TreeMap<Integer, Integer> counts, int rank) {
+        counts.merge(rank, 1, Integer::sum);
+    }
+
+    private static void decrement(TreeMap<Integer, Integer> counts, int rank) {
+        counts.computeIfPresent(rank, (k, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,647 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openpnp.machine.reference.ReferencePnpJobProcessor.JobOrderHint;
+import org.openpnp.machine.reference.ReferencePnpJobProcessor.SimplePnpJobPlanner;
+import org.openpnp.model.Location;
+import org.openpnp.model.Part;
+import org.openpnp.spi.Head;
+import org.openpnp.spi.Nozzle;
+import org.openpnp.spi.NozzleTip;
+import org.openpnp.spi.PnpJobProcessor;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement;
+import org.openpnp.util.TravelCost;
+import org.openpnp.util.Utils2D;
+import org.pmw.tinylog.Logger;
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.Root;
+
+/**
+ * A planner that schedules all the open placements of the job at once, rather than cycle by cycle.
+ *
+ * The schedule is built by simulating the cycles: nozzles keep their loaded nozzle tip as long as
+ * there are compatible placements left, and a nozzle that runs dry changes to the nozzle tip that
+ * serves most of the remaining placements. Each cycle starts with the placement closest to where
+ * the last cycle ended, and the other nozzles get the placements closest to it, so the cycles form
+ * a path across the job instead of zig-zagging. Lower ranks are always scheduled first.
+ *
+ * The job order hint is respected as far as it goes with this: the placements come sorted by the
+ * hint, and among equally good choices the one earlier in that order is taken. The nozzle tip order
+ * of the NozzleTips hints biases the choice of the nozzle tips. With the Unsorted hint, i.e. for
+ * hand-optimized jobs, the planner falls back to the SimplePnpJobPlanner.
+ *
+ * This greedy construction is then randomized (the nozzle tip preferences and the choice of the
+ * cycle's first placement) and repeated on a dedicated thread pool. Each search worker stops, when
+ * it has not found a better schedule for a while, or when the time budget is used up. The budget
+ * is scaled down with the job size. The schedule with the lowest cost, i.e. the estimated travel
+ * time plus a fixed cost per nozzle tip change, is kept.
+ *
+ * The schedule is built when the job processor prepares the planner in its PreFlight step, before
+ * the machine starts moving. On each cycle the planner hands out the next scheduled cycle. If the placements or the loaded
+ * nozzle tips are no longer what the schedule expects, e.g. because a placement failed and is
+ * retried, or because the next rank was unblocked, the remaining placements are rescheduled with
+ * a shorter time budget. With the FullyAsPlanned strategy or when nothing can be scheduled, it
+ * falls back to the SimplePnpJobPlanner.
+ *
+ * The planner has no GUI. It is selected in the machine.xml, by changing the planner element of the
+ * ReferencePnpJobProcessor to:
+ *
+ * <pre>
+ * &lt;planner class="org.openpnp.machine.reference.LookAheadPnpJobPlanner" strategy="Minimize"/&gt;
+ * </pre>
+ *
+ * The planning-time-budget-ms, replanning-time-budget-ms and nozzle-tip-change-cost attributes
+ * are optional.
+ */
+@Root
+public class LookAheadPnpJobPlanner extends SimplePnpJobPlanner {
+    @Attribute(required = false)
+    private long planningTimeBudgetMs = 2000;
+
+    @Attribute(required = false)
+    private long replanningTimeBudgetMs = 250;
+
+    /**
+     * The cost of a nozzle tip change, in seconds of travel time.
+     */
+    @Attribute(required = false)
+    private double nozzleTipChangeCost = 10.0;
+
+    /**
+     * The time budget is scaled down to this per placement, so small jobs are planned quickly.
+     */
+    private static final long timeBudgetPerPlacementMs = 20;
+
+    /**
+     * A search worker stops when this many candidates in a row were not better, plus one per
+     * placement.
+     */
+    private static final int minStaleCandidates = 100;
+
+    private static ExecutorService planningExecutor;
+
+    /**
+     * The remaining scheduled cycles.
+     */
+    private Deque<Cycle> schedule;
+
+    /**
+     * The placements that could not be scheduled, these are left to the SimplePnpJobPlanner.
+     */
+    private Set<JobPlacement> unscheduled;
+
+    private boolean scheduled;
+
+    static class Cycle {
+        final NozzleTip [] nozzleTipsBefore;
+        final List<Nozzle> nozzles = new ArrayList<>();
+        final List<NozzleTip> nozzleTips = new ArrayList<>();
+        final List<JobPlacement> jobPlacements = new ArrayList<>();
+
+        Cycle(NozzleTip [] nozzleTipsBefore) {
+            this.nozzleTipsBefore = nozzleTipsBefore;
+        }
+    }
+
+    static class Schedule {
+        final List<Cycle> cycles = new ArrayList<>();
+        final List<JobPlacement> unscheduled = new ArrayList<>();
+        double cost;
+        int nozzleTipChanges;
+    }
+
+    @Override
+    public void restart() {
+        super.restart();
+        schedule = null;
+        unscheduled = null;
+        scheduled = false;
+    }
+
+    @Override
+    public void prepare(Head head, List<JobPlacement> jobPlacements, List<NozzleTip> nozzleTips) {
+        if (strategy == Strategy.FullyAsPlanned || getJobOrder(head) == JobOrderHint.Unsorted) {
+            return;
+        }
+        schedule(head, jobPlacements, nozzleTips);
+    }
+
+    @Override
+    public List<PlannedPlacement> plan(Head head, List<JobPlacement> jobPlacements,
+            List<NozzleTip> nozzleTips) {
+        if (strategy == Strategy.FullyAsPlanned || getJobOrder(head) == JobOrderHint.Unsorted) {
+            return super.plan(head, jobPlacements, nozzleTips);
+        }
+        if (!isScheduleValid(head, jobPlacements)) {
+            schedule(head, jobPlacements, nozzleTips);
+        }
+        if (schedule == null || schedule.isEmpty()) {
+            if (nozzleTips == null || nozzleTips.isEmpty()) {
+                nozzleTips = head.getMachine().getNozzleTips();
+            }
+            return super.plan(head, jobPlacements, nozzleTips);
+        }
+        Cycle cycle = schedule.poll();
+        List<PlannedPlacement> plannedPlacements = new ArrayList<>();
+        for (int i = 0; i < cycle.jobPlacements.size(); i++) {
+            plannedPlacements.add(new PlannedPlacement(cycle.nozzles.get(i), cycle.nozzleTips.get(i),
+                    cycle.jobPlacements.get(i), null));
+            jobPlacements.remove(cycle.jobPlacements.get(i));
+        }
+        Logger.debug("Look-ahead planner planned {}, {} cycles remaining", plannedPlacements, schedule.size());
+        return sort(plannedPlacements);
+    }
+
+    /**
+     * Replaces the schedule with a new one for the given placements. The first one gets the full
+     * planning time budget, the later ones the replanning time budget.
+     */
+    private void schedule(Head head, List<JobPlacement> jobPlacements, List<NozzleTip> nozzleTips) {
+        // The NozzleTips job order hints hand over the nozzle tips in their preferred order.
+        boolean tipOrderHinted = (nozzleTips != null && !nozzleTips.isEmpty());
+        if (!tipOrderHinted) {
+            nozzleTips = head.getMachine().getNozzleTips();
+        }
+        long timeBudgetMs = scheduled ? replanningTimeBudgetMs : planningTimeBudgetMs;
+        Schedule newSchedule = createSchedule(head, jobPlacements, nozzleTips, tipOrderHinted, 
+                timeBudgetMs);
+        scheduled = true;
+        if (newSchedule == null) {
+            schedule = null;
+            unscheduled = null;
+        }
+        else {
+            schedule = new ArrayDeque<>(newSchedule.cycles);
+            unscheduled = Collections.newSetFromMap(new IdentityHashMap<>());
+            unscheduled.addAll(newSchedule.unscheduled);
+        }
+    }
+
+    private static JobOrderHint getJobOrder(Head head) {
+        PnpJobProcessor jobProcessor = head.getMachine().getPnpJobProcessor();
+        if (jobProcessor instanceof ReferencePnpJobProcessor) {
+            return ((ReferencePnpJobProcessor) jobProcessor).getJobOrder();
+        }
+        return null;
+    }
+
+    /**
+     * @return True if the remaining schedule covers exactly the given placements, and the nozzle
+     * tips are loaded as the next cycle expects.
+     */
+    protected boolean isScheduleValid(Head head, List<JobPlacement> jobPlacements) {
+        if (schedule == null) {
+            return false;
+        }
+        Set<JobPlacement> remaining = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Cycle cycle : schedule) {
+            remaining.addAll(cycle.jobPlacements);
+        }
+        int unscheduledCount = 0;
+        for (JobPlacement jobPlacement : jobPlacements) {
+            if (unscheduled.contains(jobPlacement)) {
+                unscheduledCount++;
+            }
+            else if (!remaining.contains(jobPlacement)) {
+                // New or retried placement.
+                return false;
+            }
+        }
+        if (jobPlacements.size() - unscheduledCount != remaining.size()) {
+            // Some placements are gone, e.g. errored.
+            return false;
+        }
+        Cycle next = schedule.peek();
+        if (next != null) {
+            List<Nozzle> nozzles = head.getNozzles();
+            if (nozzles.size() != next.nozzleTipsBefore.length) {
+                return false;
+            }
+            for (int k = 0; k < nozzles.size(); k++) {
+                if (nozzles.get(k).getNozzleTip() != next.nozzleTipsBefore[k]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The planning problem, in arrays that the search workers can share.
+     */
+    private class Problem {
+        final List<Nozzle> nozzles;
+        final List<NozzleTip> tips;
+        final List<JobPlacement> placements;
+        final Location [] pickLocations;
+        final Location [] placeLocations;
+        final int [] ranks;
+        final boolean [][] compatible; // [placement][tip]
+        final boolean [][] nozzleCompatible; // [nozzle][tip]
+        final boolean [] changeable; // [tip]
+        final int [] initialTips; // [nozzle]
+        final double [] tipOrderBias; // [tip]
+        final TravelCost travelCost;
+
+        Problem(Head head, List<JobPlacement> jobPlacements, List<NozzleTip> nozzleTips, 
+                boolean tipOrderHinted) throws Exception {
+            nozzles = head.getNozzles();
+            tips = new ArrayList<>(nozzleTips);
+            for (Nozzle nozzle : nozzles) {
+                if (nozzle.getNozzleTip() != null && !tips.contains(nozzle.getNozzleTip())) {
+                    tips.add(nozzle.getNozzleTip());
+                }
+            }
+            placements = new ArrayList<>(jobPlacements);
+            int n = placements.size();
+            pickLocations = new Location[n];
+            placeLocations = new Location[n];
+            ranks = new int[n];
+            compatible = new boolean[n][tips.size()];
+            for (int i = 0; i < n; i++) {
+                JobPlacement jobPlacement = placements.get(i);
+                pickLocations[i] = jobPlacement.getPlannedPickLocation();
+                if (pickLocations[i] == null) {
+                    throw new Exception("Placement "+jobPlacement+" has no planned pick location.");
+                }
+                placeLocations[i] = Utils2D.calculateBoardPlacementLocation(jobPlacement.getBoardLocation(),
+                        jobPlacement.getPlacement().getLocation());
+                ranks[i] = jobPlacement.getRank();
+                Part part = jobPlacement.getPlacement().getPart();
+                Set<NozzleTip> partTips = part.getPackage().getCompatibleNozzleTips();
+                for (int t = 0; t < tips.size(); t++) {
+                    compatible[i][t] = partTips.contains(tips.get(t));
+                }
+            }
+            nozzleCompatible = new boolean[nozzles.size()][tips.size()];
+            initialTips = new int[nozzles.size()];
+            for (int k = 0; k < nozzles.size(); k++) {
+                Set<NozzleTip> compatibleTips = nozzles.get(k).getCompatibleNozzleTips();
+                for (int t = 0; t < tips.size(); t++) {
+                    nozzleCompatible[k][t] = compatibleTips.contains(tips.get(t));
+                }
+                initialTips[k] = tips.indexOf(nozzles.get(k).getNozzleTip());
+            }
+            changeable = new boolean[tips.size()];
+            tipOrderBias = new double[tips.size()];
+            for (int t = 0; t < tips.size(); t++) {
+                changeable[t] = nozzleTips.contains(tips.get(t));
+                if (tipOrderHinted && changeable[t]) {
+                    // Earlier tips in the hinted order are preferred.
+                    tipOrderBias[t] = (double) (tips.size() - t)/tips.size();
+                }
+            }
+            TravelCost travelCost;
+            try {
+                travelCost = new TravelCost();
+            }
+            catch (Exception e) {
+                Logger.trace("TravelCost() failed, using distances: {}", e.getMessage());
+                travelCost = null;
+            }
+            this.travelCost = travelCost;
+        }
+
+        double getCost(Location a, Location b) {
+            if (travelCost != null) {
+                return travelCost.getCost(a, b);
+            }
+            // Assume 100mm/s.
+            return a.getLinearDistanceTo(b)*0.01;
+        }
+
+        /**
+         * Builds one schedule. With random == null the construction is purely greedy.
+         */
+        Schedule build(Random random) {
+            int n = placements.size();
+            int tipCount = tips.size();
+            int nozzleCount = nozzles.size();
+            boolean [] done = new boolean[n];
+            int [] loaded = initialTips.clone();
+            int [] remainingPerTip = new int[tipCount];
+            for (int i = 0; i < n; i++) {
+                for (int t = 0; t < tipCount; t++) {
+                    if (compatible[i][t]) {
+                        remainingPerTip[t]++;
+                    }
+                }
+            }
+            double [] tipWeights = new double[tipCount];
+            for (int t = 0; t < tipCount; t++) {
+                tipWeights[t] = 1.0 + tipOrderBias[t] + (random != null ? random.nextDouble() : 0);
+            }
+            Schedule schedule = new Schedule();
+            int remaining = n;
+            Location lastLocation = null;
+            while (remaining > 0) {
+                // Assign the nozzle tips for this cycle.
+                int [] cycleTips = loaded.clone();
+                boolean [] keep = new boolean[nozzleCount];
+                for (int k = 0; k < nozzleCount; k++) {
+                    keep[k] = (cycleTips[k] >= 0 && remainingPerTip[cycleTips[k]] > 0);
+                }
+                for (int k = 0; k < nozzleCount; k++) {
+                    if (keep[k]) {
+                        continue;
+                    }
+                    int bestTip = -1;
+                    double bestScore = 0;
+                    for (int t = 0; t < tipCount; t++) {
+                        if (!changeable[t] || !nozzleCompatible[k][t] || remainingPerTip[t] == 0
+                                || isTipUsed(cycleTips, k, t)) {
+                            continue;
+                        }
+                        double score = remainingPerTip[t]*tipWeights[t];
+                        if (score > bestScore) {
+                            bestScore = score;
+                            bestTip = t;
+                        }
+                    }
+                    if (bestTip >= 0) {
+                        cycleTips[k] = bestTip;
+                    }
+                    else {
+                        // Nothing left for this nozzle, it stays idle.
+                        cycleTips[k] = -1;
+                    }
+                }
+                // Choose the placements.
+                Cycle cycle = new Cycle(toNozzleTips(loaded));
+                Location anchorPick = null;
+                Location anchorPlace = null;
+                Location cycleLocation = lastLocation;
+                double cycleCost = 0;
+                List<Integer> chosen = new ArrayList<>();
+                for (int k = 0; k < nozzleCount; k++) {
+                    int t = cycleTips[k];
+                    if (t < 0) {
+                        continue;
+                    }
+                    int best = choosePlacement(done, t, anchorPick, anchorPlace, cycleLocation, random);
+                    if (best < 0) {
+                        continue;
+                    }
+                    done[best] = true;
+                    remaining--;
+                    for (int t2 = 0; t2 < tipCount; t2++) {
+                        if (compatible[best][t2]) {
+                            remainingPerTip[t2]--;
+                        }
+                    }
+                    if (anchorPick == null) {
+                        anchorPick = pickLocations[best];
+                        anchorPlace = placeLocations[best];
+                    }
+                    if (t != loaded[k]) {
+                        schedule.nozzleTipChanges++;
+                        schedule.cost += nozzleTipChangeCost;
+                        loaded[k] = t;
+                    }
+                    cycle.nozzles.add(nozzles.get(k));
+                    cycle.nozzleTips.add(tips.get(t));
+                    cycle.jobPlacements.add(placements.get(best));
+                    chosen.add(best);
+                }
+                if (chosen.isEmpty()) {
+                    // Nothing left that can be done with the nozzles and nozzle tips.
+                    break;
+                }
+                // Estimate the travel: all the picks, then all the places.
+                Location location = lastLocation;
+                for (int i : chosen) {
+                    if (location != null) {
+                        cycleCost += getCost(location, pickLocations[i]);
+                    }
+                    location = pickLocations[i];
+                }
+                for (int i : chosen) {
+                    cycleCost += getCost(location, placeLocations[i]);
+                    location = placeLocations[i];
+                }
+                lastLocation = location;
+                schedule.cost += cycleCost;
+                schedule.cycles.add(cycle);
+            }
+            for (int i = 0; i < n; i++) {
+                if (!done[i]) {
+                    schedule.unscheduled.add(placements.get(i));
+                }
+            }
+            return schedule;
+        }
+
+        private boolean isTipUsed(int [] cycleTips, int nozzleIndex, int tip) {
+            for (int k = 0; k < cycleTips.length; k++) {
+                if (k != nozzleIndex && cycleTips[k] == tip) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Chooses the placement for a nozzle with the given tip. The lowest rank comes first. The first
+         * placement of a cycle is the one closest to where the last cycle ended, the others are the
+         * ones closest to the first. With random != null, one of the best few is chosen for the first.
+         */
+        private int choosePlacement(boolean [] done, int tip, Location anchorPick, Location anchorPlace,
+                Location lastLocation, Random random) {
+            int minRank = Integer.MAX_VALUE;
+            for (int i = 0; i < done.length; i++) {
+                if (!done[i] && compatible[i][tip] && ranks[i] < minRank) {
+                    minRank = ranks[i];
+                }
+            }
+            if (minRank == Integer.MAX_VALUE) {
+                return -1;
+            }
+            final int candidates = (random != null && anchorPick == null) ? 3 : 1;
+            int [] best = new int[candidates];
+            double [] bestCost = new double[candidates];
+            int found = 0;
+            for (int i = 0; i < done.length; i++) {
+                if (done[i] || !compatible[i][tip] || ranks[i] != minRank) {
+                    continue;
+                }
+                double cost;
+                if (anchorPick != null) {
+                    cost = getCost(anchorPick, pickLocations[i]) + getCost(anchorPlace, placeLocations[i]);
+                }
+                else if (lastLocation != null) {
+                    cost = getCost(lastLocation, pickLocations[i]);
+                }
+                else {
+                    // Very first placement, keep the job order.
+                    cost = i;
+                }
+                // Insert into the sorted best list.
+                int pos = Math.min(found, candidates);
+                while (pos > 0 && bestCost[pos - 1] > cost) {
+                    if (pos < candidates) {
+                        best[pos] = best[pos - 1];
+                        bestCost[pos] = bestCost[pos - 1];
+                    }
+                    pos--;
+                }
+                if (pos < candidates) {
+                    best[pos] = i;
+                    bestCost[pos] = cost;
+                    found = Math.min(found + 1, candidates);
+                }
+            }
+            return best[random != null && found > 1 ? random.nextInt(found) : 0];
+        }
+
+        private NozzleTip [] toNozzleTips(int [] tipIndices) {
+            NozzleTip [] nozzleTips = new NozzleTip[tipIndices.length];
+            for (int k = 0; k < tipIndices.length; k++) {
+                nozzleTips[k] = (tipIndices[k] >= 0 ? tips.get(tipIndices[k]) : null);
+            }
+            return nozzleTips;
+        }
+    }
+
+    /**
+     * Creates the schedule for the given placements, searching in parallel until the search
+     * converges or the time budget is used up.
+     *
+     * @return The best schedule found, or null if the placements cannot be scheduled.
+     */
+    protected Schedule createSchedule(Head head, List<JobPlacement> jobPlacements,
+            List<NozzleTip> nozzleTips, boolean tipOrderHinted, long timeBudgetMs) {
+        if (jobPlacements.isEmpty()) {
+            return null;
+        }
+        long t0 = System.currentTimeMillis();
+        int n = jobPlacements.size();
+        long deadline = t0 + Math.min(timeBudgetMs, n*timeBudgetPerPlacementMs);
+        Problem problem;
+        try {
+            problem = new Problem(head, jobPlacements, nozzleTips, tipOrderHinted);
+        }
+        catch (Exception e) {
+            Logger.debug("Look-ahead planning not possible: {}", e.getMessage());
+            return null;
+        }
+        // The purely greedy schedule is always there.
+        Schedule best = problem.build(null);
+        double greedyCost = best.cost;
+        if (n > problem.nozzles.size()) {
+            // More than one cycle, so there is something to search. 
+            int staleLimit = minStaleCandidates + n;
+            List<Callable<Schedule>> workers = new ArrayList<>();
+            for (int w = 0; w < Math.max(1, Runtime.getRuntime().availableProcessors() - 1); w++) {
+                final int worker = w;
+                workers.add(() -> {
+                    Random random = new Random(worker*7919L + n);
+                    Schedule workerBest = null;
+                    int stale = 0;
+                    while (stale < staleLimit && System.currentTimeMillis() < deadline) {
+                        Schedule candidate = problem.build(random);
+                        if (workerBest == null || isBetter(candidate, workerBest)) {
+                            workerBest = candidate;
+                            stale = 0;
+                        }
+                        else {
+                            stale++;
+                        }
+                    }
+                    return workerBest;
+                });
+            }
+            try {
+                for (Future<Schedule> future : getPlanningExecutor().invokeAll(workers)) {
+                    Schedule workerBest = future.get();
+                    if (workerBest != null && isBetter(workerBest, best)) {
+                        best = workerBest;
+                    }
+                }
+            }
+            catch (Exception e) {
+                Logger.warn("Look-ahead planner search failed, using the greedy schedule: {}", e);
+            }
+        }
+        Logger.debug("Look-ahead planner scheduled {} placements in {} cycles with {} nozzle tip changes, "
+                + "estimated cost {}s (greedy {}s) in {}ms",
+                jobPlacements.size() - best.unscheduled.size(), best.cycles.size(),
+                best.nozzleTipChanges, best.cost, greedyCost, System.currentTimeMillis() - t0);
+        return best.cycles.isEmpty() ? null : best;
+    }
+
+    private static synchronized ExecutorService getPlanningExecutor() {
+        if (planningExecutor == null) {
+            planningExecutor = Executors.newFixedThreadPool(
+                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 
+                    (runnable) -> {
+                        Thread thread = new Thread(runnable, "LookAheadPnpJobPlanner search");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return planningExecutor;
+    }
+
+    private static boolean isBetter(Schedule a, Schedule b) {
+        // Scheduling more placements always wins.
+        if (a.unscheduled.size() != b.unscheduled.size()) {
+            return a.unscheduled.size() < b.unscheduled.size();
+        }
+        return a.cost < b.cost;
+    }
+
+    public long getPlanningTimeBudgetMs() {
+        return planningTimeBudgetMs;
+    }
+
+    public void setPlanningTimeBudgetMs(long planningTimeBudgetMs) {
+        this.planningTimeBudgetMs = planningTimeBudgetMs;
+    }
+
+    public long getReplanningTimeBudgetMs() {
+        return replanningTimeBudgetMs;
+    }
+
+    public void setReplanningTimeBudgetMs(long replanningTimeBudgetMs) {
+        this.replanningTimeBudgetMs = replanningTimeBudgetMs;
+    }
+
+    public double getNozzleTipChangeCost() {
+        return nozzleTipChangeCost;
+    }
+
+    public void setNozzleTipChangeCost(double nozzleTipChangeCost) {
+        this.nozzleTipChangeCost = nozzleTipChangeCost;
+    }
+}
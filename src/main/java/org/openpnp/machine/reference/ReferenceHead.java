@@ -20,6 +20,8 @@
 package org.openpnp.machine.reference;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.Action;
 
@@ -40,8 +42,10 @@ import org.openpnp.model.Solutions;
 import org.openpnp.spi.Axis;
 import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Locatable.LocationOption;
+import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.spi.base.AbstractHead;
+import org.openpnp.util.UiUtils;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 
@@ -56,10 +60,59 @@ public class ReferenceHead extends AbstractHead {
         visualHome(machine, true);
 
         super.home();
+        calibrateNozzleTipsOnHome();
         // Let everybody know.
         getMachine().fireMachineHeadActivity(this);
     }
 
+    /**
+     * Calibrates the loaded nozzle tips that need recalibration on homing, all nozzles in one pass 
+     * over the bottom camera.
+     * 
+     * @throws Exception
+     */
+    protected void calibrateNozzleTipsOnHome() throws Exception {
+        List<ReferenceNozzle> nozzles = new ArrayList<>();
+        for (Nozzle nozzle : getNozzles()) {
+            if (nozzle instanceof ReferenceNozzle) {
+                ReferenceNozzle referenceNozzle = (ReferenceNozzle) nozzle;
+                ReferenceNozzleTip calibrationNozzleTip = referenceNozzle.getCalibrationNozzleTip();
+                if (calibrationNozzleTip != null 
+                        && referenceNozzle.getCompatibleNozzleTips().contains(calibrationNozzleTip)
+                        && calibrationNozzleTip.getCalibration().isRecalibrateOnHomeNeeded(referenceNozzle)) {
+                    Logger.debug("{}.home() nozzle tip {} calibration needed", referenceNozzle.getName(), calibrationNozzleTip.getName());
+                    nozzles.add(referenceNozzle);
+                }
+            }
+        }
+        if (nozzles.isEmpty()) {
+            return;
+        }
+        Map<ReferenceNozzle, Exception> failures = ReferenceNozzleTipCalibration.calibrateAll(nozzles, true);
+        // Report all the failures, those that fail homing are combined into one.
+        List<String> homingFailures = new ArrayList<>();
+        Exception homingFailure = null;
+        for (Map.Entry<ReferenceNozzle, Exception> failure : failures.entrySet()) {
+            Exception e = failure.getValue();
+            if (failure.getKey().getCalibrationNozzleTip().getCalibration().isFailHoming()) {
+                homingFailures.add(failure.getKey().getName()+": "+e.getMessage());
+                homingFailure = e;
+            }
+            else {
+                UiUtils.messageBoxOnExceptionLater(() -> {
+                    throw e;
+                });
+            }
+        }
+        if (homingFailures.size() == 1) {
+            throw homingFailure;
+        }
+        else if (homingFailures.size() > 1) {
+            throw new Exception("Nozzle tip calibration failed on nozzles:\n"
+                    +String.join("\n", homingFailures));
+        }
+    }
+
     public void visualHome(ReferenceMachine machine, boolean apply) throws Exception {
         if (getVisualHomingMethod() != VisualHomingMethod.None) {
             /*
@@ -45,6 +45,7 @@ import org.openpnp.spi.NozzleTip;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.spi.base.AbstractActuator;
 import org.openpnp.spi.base.AbstractNozzle;
+import org.openpnp.util.JobTiming;
 import org.openpnp.util.MovableUtils;
 import org.openpnp.util.SimpleGraph;
 import org.openpnp.util.UiUtils;
@@ -378,7 +379,9 @@ public class ReferenceNozzle extends AbstractNozzle implements HeadMountable {
         }
 
         // wait for the Dwell Time and/or make sure the vacuum level builds up to the desired range (with timeout)
+        long t0 = JobTiming.begin();
         establishPickVacuumLevel(this.getPickDwellMilliseconds() + nozzleTip.getPickDwellMilliseconds());
+        JobTiming.end(JobTiming.PICK_DWELL, t0);
 
         getMachine().fireMachineHeadActivity(head);
 
@@ -574,6 +577,10 @@ public class ReferenceNozzle extends AbstractNozzle implements HeadMountable {
                 if (calibrationNozzleTip.getCalibration().isRecalibrateOnHomeNeeded(this)) {
                     if (calibrationNozzleTip == this.getCalibrationNozzleTip()) {
                         // The currently mounted nozzle tip.
+                        if (getHead() instanceof ReferenceHead) {
+                            // The head calibrates all its nozzles in one pass, see ReferenceHead.home().
+                            continue;
+                        }
                         try {
                             Logger.debug("{}.home() nozzle tip {} calibration neeeded", getName(), calibrationNozzleTip.getName());
                             calibrationNozzleTip.getCalibration().calibrate(this, true, false);
@@ -7,11 +7,20 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.opencv.core.KeyPoint;
@@ -500,6 +509,8 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
 
     private boolean calibrating;
 
+    private static ExecutorService calibrationExecutor;
+
     @Deprecated
     @Element(required = false)
     private RunoutCompensation runoutCompensation = null;
@@ -692,24 +703,158 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
     }
 
     private void calibrateInBatch(ReferenceNozzle nozzle, boolean homing, boolean calibrateCamera) throws Exception {
-        // Make sure to set start and end rotation to the limits.
-        double [] rotationModeLimits = nozzle.getRotationModeLimits();
-        angleStart = rotationModeLimits[0];
-        angleStop = rotationModeLimits[1];
-        // Make sure no rotation mode offset is currently applied.
-        nozzle.setRotationModeOffset(null);
-
-        Camera camera = VisionUtils.getBottomVisionCamera();
-        ReferenceCamera referenceCamera = null;
-        if (camera instanceof ReferenceCamera) {
-            referenceCamera = (ReferenceCamera)camera;
+        RunoutMeasurement measurement = new RunoutMeasurement(nozzle, calibrateCamera);
+        try {
+            measurement.capture();
+            measurement.apply();
+        }
+        finally {
+            measurement.finish(true);
         }
+    }
 
-        // Note: we do not apply the tool specific calibration offset here
-        // as this would defy the very purpose of finding a new one here. Pass null.  
-        Location measureBaseLocation = getCalibrationLocation(camera, null);
+    /**
+     * Calibrates the nozzle tips loaded on the given nozzles in one pass over the camera. The nozzles
+     * are rotated and captured one after the other, while the images of the previous ones are still
+     * being processed. Nozzles without an enabled nozzle tip calibration are skipped.
+     * 
+     * @param nozzles
+     * @param homing
+     * @return The nozzles whose calibration failed, with the errors.
+     * @throws Exception
+     */
+    public static Map<ReferenceNozzle, Exception> calibrateAll(List<ReferenceNozzle> nozzles, boolean homing) throws Exception {
+        if (!(homing || Configuration.get().getMachine().isHomed())) {
+            throw new Exception("Machine not yet homed, nozzle tip calibration request aborted");
+        }
+        Map<ReferenceNozzle, Exception> failures = new LinkedHashMap<>();
+        CameraBatchOperation cbo = Configuration.get().getMachine().getCameraBatchOperation();
+        if (cbo!=null) {
+            cbo.startBatchOperation("nozzle");
+        }
+        try {
+            List<ReferenceNozzle> pending = nozzles;
+            while (!pending.isEmpty()) {
+                // Nozzles sharing the same calibration, e.g. of the unloaded nozzle tip stand-in, 
+                // would also share its background calibration state, so they are calibrated in 
+                // successive passes. 
+                List<ReferenceNozzle> deferred = new ArrayList<>();
+                calibratePass(pending, deferred, failures);
+                pending = deferred;
+            }
+        }
+        finally {
+            if (cbo!=null) {
+                cbo.endBatchOperation("nozzle");
+            }
+        }
+        return failures;
+    }
 
+    /**
+     * One pass of {@link #calibrateAll(List, boolean)}, over nozzles with distinct calibrations.
+     * 
+     * @param nozzles
+     * @param deferred Receives the nozzles whose calibration is already taken in this pass.
+     * @param failures Receives the nozzles whose calibration failed, with the errors.
+     * @throws Exception
+     */
+    private static void calibratePass(List<ReferenceNozzle> nozzles, List<ReferenceNozzle> deferred, 
+            Map<ReferenceNozzle, Exception> failures) throws Exception {
+        List<RunoutMeasurement> measurements = new ArrayList<>();
+        Set<ReferenceNozzleTipCalibration> calibrations = Collections.newSetFromMap(new IdentityHashMap<>());
         try {
+            for (ReferenceNozzle nozzle : nozzles) {
+                ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
+                if (nozzleTip == null || !nozzleTip.getCalibration().isEnabled()) {
+                    continue;
+                }
+                if (nozzle.getPart()!= null) {
+                    failures.put(nozzle, new Exception("Cannot calibrate nozzle tip with part on nozzle "+nozzle.getName()+"."));
+                    continue;
+                }
+                if (!calibrations.add(nozzleTip.getCalibration())) {
+                    deferred.add(nozzle);
+                    continue;
+                }
+                RunoutMeasurement measurement = nozzleTip.getCalibration().new RunoutMeasurement(nozzle, false);
+                measurements.add(measurement);
+                try {
+                    measurement.capture();
+                }
+                catch (Exception e) {
+                    failures.put(nozzle, e);
+                }
+                // Make way for the next nozzle, its images are processed meanwhile.
+                nozzle.moveToSafeZ();
+            }
+            for (RunoutMeasurement measurement : measurements) {
+                if (!failures.containsKey(measurement.nozzle)) {
+                    try {
+                        measurement.apply();
+                    }
+                    catch (Exception e) {
+                        failures.put(measurement.nozzle, e);
+                    }
+                }
+            }
+        }
+        finally {
+            for (RunoutMeasurement measurement : measurements) {
+                try {
+                    measurement.finish(false);
+                }
+                catch (Exception e) {
+                    failures.putIfAbsent(measurement.nozzle, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The runout measurement of one nozzle, split into the capture phase, that rotates the nozzle 
+     * over the camera and captures the images, and the processing of the images. If the pipeline 
+     * allows it, the images are processed on the calibration executor, while the nozzle is already 
+     * rotated to the next angle. 
+     */
+    private class RunoutMeasurement {
+        final ReferenceNozzle nozzle;
+        final boolean calibrateCamera;
+        final Camera camera;
+        ReferenceCamera referenceCamera = null;
+        Location measureBaseLocation;
+        HashMap<String, Object> params;
+        int angleSubdivisions;
+        final List<Future<Detection>> detections = new ArrayList<>();
+        final List<Location> expectedLocations = new ArrayList<>();
+        final List<Double> measureAngles = new ArrayList<>();
+        int collected = 0;
+        int misdetects = 0;
+        // For these calcs the camera location is considered to be 0/0
+        final List<Location> nozzleTipMeasuredLocations = new ArrayList<>();
+        final List<Location> nozzleTipExpectedLocations = new ArrayList<>();
+
+        RunoutMeasurement(ReferenceNozzle nozzle, boolean calibrateCamera) throws Exception {
+            this.nozzle = nozzle;
+            this.calibrateCamera = calibrateCamera;
+            camera = VisionUtils.getBottomVisionCamera();
+            if (camera instanceof ReferenceCamera) {
+                referenceCamera = (ReferenceCamera)camera;
+            }
+        }
+
+        void capture() throws Exception {
+            // Make sure to set start and end rotation to the limits.
+            double [] rotationModeLimits = nozzle.getRotationModeLimits();
+            angleStart = rotationModeLimits[0];
+            angleStop = rotationModeLimits[1];
+            // Make sure no rotation mode offset is currently applied.
+            nozzle.setRotationModeOffset(null);
+
+            // Note: we do not apply the tool specific calibration offset here
+            // as this would defy the very purpose of finding a new one here. Pass null.  
+            measureBaseLocation = getCalibrationLocation(camera, null);
+
             calibrating = true;
             Location excenter = new Location(measureBaseLocation.getUnits());
             if (! calibrateCamera) {
@@ -727,7 +872,7 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                         camera.getHeight()/2);
             }
 
-            HashMap<String, Object> params = new HashMap<>();
+            params = new HashMap<>();
             params.put("nozzle", nozzle);
             params.put("camera", camera);
             Configuration.get().getScripting().on("NozzleCalibration.Starting", params);
@@ -736,10 +881,10 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             MovableUtils.moveToLocationAtSafeZ(nozzle, measureBaseLocation.derive(null, null, null, angleStart));
 
             // determine the resulting angleIncrements
-            double angleIncrement = ( angleStop - angleStart ) / this.angleSubdivisions;
+            double angleIncrement = ( angleStop - angleStart ) / ReferenceNozzleTipCalibration.this.angleSubdivisions;
 
             // determine the number of measurements to be made
-            int angleSubdivisions = this.angleSubdivisions;
+            angleSubdivisions = ReferenceNozzleTipCalibration.this.angleSubdivisions;
             if(Math.abs(angleStart + 360 - angleStop) < 0.1) {
                 // we're measuring a full circle, the last measurement can be omitted
                 angleSubdivisions--;
@@ -748,10 +893,6 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             Logger.debug("[nozzleTipCalibration]starting measurement; angleStart: {}, angleStop: {}, angleIncrement: {}, angleSubdivisions: {}", 
                     angleStart, angleStop, angleIncrement, angleSubdivisions);
 
-            // Capture nozzle tip positions and add them to a list. For these calcs the camera location is considered to be 0/0
-            List<Location> nozzleTipMeasuredLocations = new ArrayList<>();
-            List<Location> nozzleTipExpectedLocations = new ArrayList<>();
-            int misdetects = 0;
             for (int i = 0; i <= angleSubdivisions; i++) {
                 // calc the current measurement-angle
                 double measureAngle = angleStart + (i * angleIncrement); 
@@ -763,7 +904,7 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                         .derive(null, null, null, measureAngle)
                         .add(excenter.rotateXy(measureAngle));
                 nozzle.moveTo(measureLocation);
-                
+
                 Location expectedLocation;
                 if (!calibrateCamera) {
                     //For nozzle tip calibration, we artificially create an expected run-out of 1 mm and
@@ -775,10 +916,77 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                 }
 
                 // detect the nozzle tip
-                Location offset = findCircle(nozzle, measureLocation, calibrateCamera);
-                if (offset != null) {
+                detections.add(detect(measureLocation));
+                expectedLocations.add(expectedLocation);
+                measureAngles.add(measureAngle);
+                // Take the results that are already there, to fail early on misdetects. 
+                collect(false);
+            }
+        }
+
+        /**
+         * Captures the image at the measure location and detects the nozzle tip in it, in the 
+         * background if the pipeline allows it.
+         */
+        Future<Detection> detect(Location measureLocation) throws Exception {
+            if (!pipeline.isCaptureSeparable()) {
+                try (CvPipeline pipeline = getPreparedPipeline(camera, nozzle, measureLocation)) {
+                    pipeline.process();
+                    Location offset = detectCircle(pipeline, camera, measureLocation);
+                    return CompletableFuture.completedFuture(new Detection(offset, pipeline.getLastCapturedImage()));
+                }
+                finally {
+                    pipeline.setProperty("MaskCircle.center", null);
+                }
+            }
+            // Capture with a clone of the pipeline, that is then processed on the executor.
+            CvPipeline processingPipeline = pipeline.clone();
+            try {
+                preparePipeline(processingPipeline, camera, nozzle, measureLocation);
+                processingPipeline.setCapturedImages(processingPipeline.capture());
+            }
+            catch (Exception e) {
+                processingPipeline.close();
+                throw e;
+            }
+            return getCalibrationExecutor().submit(() -> {
+                try (CvPipeline pipeline = processingPipeline) {
+                    pipeline.process();
+                    Location offset = detectCircle(pipeline, camera, measureLocation);
+                    return new Detection(offset, pipeline.getLastCapturedImage());
+                }
+            });
+        }
+
+        /**
+         * Collects the detections in measurement order.
+         * 
+         * @param wait If true, waits for all the detections, otherwise only takes the ones that are done.
+         * @throws Exception
+         */
+        void collect(boolean wait) throws Exception {
+            while (collected < detections.size() 
+                    && (wait || detections.get(collected).isDone())) {
+                Future<Detection> future = detections.get(collected);
+                Location expectedLocation = expectedLocations.get(collected);
+                double measureAngle = measureAngles.get(collected);
+                collected++;
+                Detection detection;
+                try {
+                    detection = future.get();
+                }
+                catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+                if (detection.offset != null) {
+                    if (!calibrateCamera) {
+                        addBackgroundImage(camera, nozzle, detection.image, detection.offset);
+                    }
                     // for later usage in the algorithm, the measureAngle is stored to the offset location in millimeter unit 
-                    offset = offset.derive(null, null, null, measureAngle);		
+                    Location offset = detection.offset.derive(null, null, null, measureAngle);		
 
                     // add offset to array
                     nozzleTipMeasuredLocations.add(offset);
@@ -787,15 +995,19 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                     Logger.trace("[nozzleTipCalibration]measured offset: {}", offset);
                 } else {
                     misdetects++;
-                    if (misdetects > this.allowMisdetections) {
+                    if (misdetects > allowMisdetections) {
                         throw new Exception(
                                 "Nozzle tip " + nozzle.getNozzleTip().getName() + " on " + nozzle.getName() + " calibration: too many vision misdetects. Check the allowable distance threshold and/or computer vision. "
                                         + "Failure information can be found in the log.");
                     }
                 }
             }
+        }
+
+        void apply() throws Exception {
+            collect(true);
 
-            if (nozzleTipMeasuredLocations.size() < Math.max(3, angleSubdivisions + 1 - this.allowMisdetections)) {
+            if (nozzleTipMeasuredLocations.size() < Math.max(3, angleSubdivisions + 1 - allowMisdetections)) {
                 throw new Exception(
                         "Nozzle tip " + nozzle.getNozzleTip().getName() + " on " + nozzle.getName() + " calibration: too many vision misdetects. Check the allowable distance threshold and/or computer vision. "
                                 + "Failure information can be found in the log.");
@@ -804,26 +1016,26 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             Configuration.get().getScripting().on("NozzleCalibration.Finished", params);
 
             if (!calibrateCamera) {
-                if (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.Model) {
-                    this.setRunoutCompensation(nozzle, new ModelBasedRunoutCompensation(nozzleTipMeasuredLocations));
-                } else if (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelAffine) {
-                    this.setRunoutCompensation(nozzle, new ModelBasedRunoutCompensation(nozzleTipMeasuredLocations, nozzleTipExpectedLocations));
-                } else if (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelNoOffset) {
-                    this.setRunoutCompensation(nozzle, new ModelBasedRunoutNoOffsetCompensation(nozzleTipMeasuredLocations));
-                } else if (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelNoOffsetAffine) {
-                    this.setRunoutCompensation(nozzle, new ModelBasedRunoutNoOffsetCompensation(nozzleTipMeasuredLocations, nozzleTipExpectedLocations));
-                } else if (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelCameraOffset) {
-                    this.setRunoutCompensation(nozzle, new ModelBasedRunoutCameraOffsetCompensation(nozzleTipMeasuredLocations));
-                } else if (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelCameraOffsetAffine) {
-                    this.setRunoutCompensation(nozzle, new ModelBasedRunoutCameraOffsetCompensation(nozzleTipMeasuredLocations, nozzleTipExpectedLocations));
+                if (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.Model) {
+                    setRunoutCompensation(nozzle, new ModelBasedRunoutCompensation(nozzleTipMeasuredLocations));
+                } else if (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelAffine) {
+                    setRunoutCompensation(nozzle, new ModelBasedRunoutCompensation(nozzleTipMeasuredLocations, nozzleTipExpectedLocations));
+                } else if (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelNoOffset) {
+                    setRunoutCompensation(nozzle, new ModelBasedRunoutNoOffsetCompensation(nozzleTipMeasuredLocations));
+                } else if (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelNoOffsetAffine) {
+                    setRunoutCompensation(nozzle, new ModelBasedRunoutNoOffsetCompensation(nozzleTipMeasuredLocations, nozzleTipExpectedLocations));
+                } else if (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelCameraOffset) {
+                    setRunoutCompensation(nozzle, new ModelBasedRunoutCameraOffsetCompensation(nozzleTipMeasuredLocations));
+                } else if (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelCameraOffsetAffine) {
+                    setRunoutCompensation(nozzle, new ModelBasedRunoutCameraOffsetCompensation(nozzleTipMeasuredLocations, nozzleTipExpectedLocations));
                 } else {
-                    this.setRunoutCompensation(nozzle, new TableBasedRunoutCompensation(nozzleTipMeasuredLocations));
+                    setRunoutCompensation(nozzle, new TableBasedRunoutCompensation(nozzleTipMeasuredLocations));
                 }
             }
             else {
-                if ((this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelAffine) ||
-                    (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelNoOffsetAffine) ||
-                    (this.runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelCameraOffsetAffine)) {
+                if ((runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelAffine) ||
+                    (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelNoOffsetAffine) ||
+                    (runoutCompensationAlgorithm == RunoutCompensationAlgorithm.ModelCameraOffsetAffine)) {
                     //This camera alignment stuff should be moved out of nozzle tip calibration
                     //and placed with the rest of the camera setup stuff
                     AffineTransform at = Utils2D.deriveAffineTransform(nozzleTipMeasuredLocations, nozzleTipExpectedLocations);
@@ -861,23 +1073,68 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                 }
             }
         }
-        finally {
-            // go to camera position (now offset-corrected). prevents the user from being irritated if it's not exactly centered
-            nozzle.moveTo(camera.getLocation(nozzle).derive(null, null, measureBaseLocation.getZ(), angleStop));
 
-            if (!calibrateCamera) {
-                // Finish the background calibration, if images were successfully collected.  
-                finishBackgroundCalibration(referenceCamera, nozzle);
+        /**
+         * Waits for the remaining processing and cleans up after the measurement, whether it 
+         * succeeded or not.
+         * 
+         * @param center If true, moves the nozzle to the (now offset-corrected) camera center first.
+         * @throws Exception
+         */
+        void finish(boolean center) throws Exception {
+            try {
+                // Make sure no processing is left running on the captured images.
+                for (int i = collected; i < detections.size(); i++) {
+                    try {
+                        detections.get(i).get();
+                    }
+                    catch (ExecutionException e) {
+                        Logger.trace("[nozzleTipCalibration]discarded detection failed: {}", e.getCause());
+                    }
+                }
+                if (center && measureBaseLocation != null) {
+                    // go to camera position (now offset-corrected). prevents the user from being irritated if it's not exactly centered
+                    nozzle.moveTo(camera.getLocation(nozzle).derive(null, null, measureBaseLocation.getZ(), angleStop));
+                }
+
+                if (!calibrateCamera) {
+                    // Finish the background calibration, if images were successfully collected.  
+                    finishBackgroundCalibration(referenceCamera, nozzle);
+                }
+
+                // after processing the nozzle returns to safe-z
+                nozzle.moveToSafeZ();
             }
+            finally {
+                // setting to false in the very end to prevent endless calibration repetitions if calibration was not successful (pipeline not well or similar) and the nozzle is commanded afterwards somewhere else (where the calibration is asked for again ...)
+                calibrating = false;
+            }
+        }
+    }
 
-            // after processing the nozzle returns to safe-z
-            nozzle.moveToSafeZ();
+    private static class Detection {
+        final Location offset;
+        final BufferedImage image;
 
-            // setting to false in the very end to prevent endless calibration repetitions if calibration was not successful (pipeline not well or similar) and the nozzle is commanded afterwards somewhere else (where the calibration is asked for again ...)
-            calibrating = false;
+        Detection(Location offset, BufferedImage image) {
+            this.offset = offset;
+            this.image = image;
         }
     }
 
+    private static synchronized ExecutorService getCalibrationExecutor() {
+        if (calibrationExecutor == null) {
+            calibrationExecutor = Executors.newFixedThreadPool(
+                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 
+                    (runnable) -> {
+                        Thread thread = new Thread(runnable, "ReferenceNozzleTipCalibration processing");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return calibrationExecutor;
+    }
+
     public Location getCalibrationLocation(Camera camera, HeadMountable nozzle) {
         // This is our baseline location. 
         Location cameraLocation = camera.getLocation(nozzle);
@@ -934,84 +1191,79 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
         return new Location(LengthUnit.Millimeters, 0, 0, 0, 0);
     }
 
-    private Location findCircle(ReferenceNozzle nozzle, Location measureLocation, boolean calibrateCamera) throws Exception {
-        Camera camera = VisionUtils.getBottomVisionCamera();
-        try (CvPipeline pipeline = getPreparedPipeline(camera, nozzle, measureLocation)) {
-            
-            pipeline.process();
-            List<Location> locations = new ArrayList<>();
+    /**
+     * Detects the nozzle tip in the results of the processed pipeline.
+     * 
+     * @return The offset of the nozzle tip from the camera center, or null if it was not detected
+     * unambiguously.
+     * @throws Exception
+     */
+    private Location detectCircle(CvPipeline pipeline, Camera camera, Location measureLocation) throws Exception {
+        List<Location> locations = new ArrayList<>();
 
-            String stageName = VisionUtils.PIPELINE_RESULTS_NAME;
-            List results = pipeline.getExpectedResult(stageName).getExpectedModel(List.class);
+        String stageName = VisionUtils.PIPELINE_RESULTS_NAME;
+        List results = pipeline.getExpectedResult(stageName).getExpectedModel(List.class);
 
-            //show result from pipeline in camera view, but only if GUI is present (not so in UnitTests).
-            MainFrame mainFrame = MainFrame.get();
-            if (mainFrame != null) {
-                mainFrame.getCameraViews().getCameraView(camera).showFilteredImage(
-                        OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 1000);
-            }
+        //show result from pipeline in camera view, but only if GUI is present (not so in UnitTests).
+        MainFrame mainFrame = MainFrame.get();
+        if (mainFrame != null) {
+            mainFrame.getCameraViews().getCameraView(camera).showFilteredImage(
+                    OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 1000);
+        }
 
-            // add all results from pipeline to a Location-list post processing
-            // are there any results from the pipeline?
-            if (0==results.size()) {
-                // Don't throw new Exception("No results from vision. Check pipeline.");      
-                // Instead the number of obtained fixes is evaluated later.
-                return null;
+        // add all results from pipeline to a Location-list post processing
+        // are there any results from the pipeline?
+        if (0==results.size()) {
+            // Don't throw new Exception("No results from vision. Check pipeline.");      
+            // Instead the number of obtained fixes is evaluated later.
+            return null;
+        }
+        for (Object result : results) {
+            if ((result) instanceof Result.Circle) {
+                Result.Circle circle = ((Result.Circle) result);
+                locations.add(VisionUtils.getPixelCenterOffsets(camera, circle.x, circle.y));
             }
-            for (Object result : results) {
-                if ((result) instanceof Result.Circle) {
-                    Result.Circle circle = ((Result.Circle) result);
-                    locations.add(VisionUtils.getPixelCenterOffsets(camera, circle.x, circle.y));
-                }
-                else if ((result) instanceof KeyPoint) {
-                    KeyPoint keyPoint = ((KeyPoint) result);
-                    locations.add(VisionUtils.getPixelCenterOffsets(camera, keyPoint.pt.x, keyPoint.pt.y));
-                }
-                else if ((result) instanceof RotatedRect) {
-                    RotatedRect rect = ((RotatedRect) result);
-                    locations.add(VisionUtils.getPixelCenterOffsets(camera, rect.center.x, rect.center.y));
-                }
-                else {
-                    Logger.error("[nozzleTipCalibration] Unrecognized result " + result);
-                    throw new Exception("Unrecognized result " + result);
-                }
+            else if ((result) instanceof KeyPoint) {
+                KeyPoint keyPoint = ((KeyPoint) result);
+                locations.add(VisionUtils.getPixelCenterOffsets(camera, keyPoint.pt.x, keyPoint.pt.y));
             }
-
-            // remove all results that are above threshold
-            Iterator<Location> locationsIterator = locations.iterator();
-            while (locationsIterator.hasNext()) {
-                Location location = locationsIterator.next();
-                Location measureLocationRelative = measureLocation.convertToUnits(location.getUnits()).
-                        subtract(camera.getLocation());
-                double threshold = offsetThresholdLength.convertToUnits(location.getUnits()).getValue();
-                if (location.getLinearDistanceTo(measureLocationRelative) > threshold) {
-                    locationsIterator.remove();
-                    Logger.trace("[nozzleTipCalibration]Removed offset location {} from results; measured distance {} exceeds offsetThresholdLength {}", location, location.getLinearDistanceTo(0., 0.), threshold); 
-                }
+            else if ((result) instanceof RotatedRect) {
+                RotatedRect rect = ((RotatedRect) result);
+                locations.add(VisionUtils.getPixelCenterOffsets(camera, rect.center.x, rect.center.y));
             }
-
-            // check for a valid resultset
-            if (locations.size() == 0) {
-                // Don't throw new Exception("No valid results from pipeline within threshold");
-                // Instead the number of obtained fixes is evaluated later.
-                return null;
-            } else if (locations.size() > 1) {
-                // Don't throw an exception here either. Since we've gotten more results than expected we can't be
-                // sure which, if any, are the correct result so just discard them all and log an info message.
-                Logger.info("[nozzleTipCalibration]Got more than one result from pipeline. For best performance tweak pipeline to return exactly one result only. Discarding all locations (since it is unknown which may be correct) from the following set: " + locations);
-                return null;
+            else {
+                Logger.error("[nozzleTipCalibration] Unrecognized result " + result);
+                throw new Exception("Unrecognized result " + result);
             }
+        }
 
-            if (!calibrateCamera) {
-                addBackgroundImage(camera, nozzle, pipeline.getLastCapturedImage(), locations.get(0));
+        // remove all results that are above threshold
+        Iterator<Location> locationsIterator = locations.iterator();
+        while (locationsIterator.hasNext()) {
+            Location location = locationsIterator.next();
+            Location measureLocationRelative = measureLocation.convertToUnits(location.getUnits()).
+                    subtract(camera.getLocation());
+            double threshold = offsetThresholdLength.convertToUnits(location.getUnits()).getValue();
+            if (location.getLinearDistanceTo(measureLocationRelative) > threshold) {
+                locationsIterator.remove();
+                Logger.trace("[nozzleTipCalibration]Removed offset location {} from results; measured distance {} exceeds offsetThresholdLength {}", location, location.getLinearDistanceTo(0., 0.), threshold); 
             }
-
-            // finally return the location at index (0) which is either a) the only one or b) the one best matching the nozzle tip
-            return locations.get(0);
         }
-        finally {
-            pipeline.setProperty("MaskCircle.center", null);
+
+        // check for a valid resultset
+        if (locations.size() == 0) {
+            // Don't throw new Exception("No valid results from pipeline within threshold");
+            // Instead the number of obtained fixes is evaluated later.
+            return null;
+        } else if (locations.size() > 1) {
+            // Don't throw an exception here either. Since we've gotten more results than expected we can't be
+            // sure which, if any, are the correct result so just discard them all and log an info message.
+            Logger.info("[nozzleTipCalibration]Got more than one result from pipeline. For best performance tweak pipeline to return exactly one result only. Discarding all locations (since it is unknown which may be correct) from the following set: " + locations);
+            return null;
         }
+
+        // finally return the location at index (0) which is either a) the only one or b) the one best matching the nozzle tip
+        return locations.get(0);
     }
 
     private void addBackgroundImage(Camera camera, ReferenceNozzle nozzle, BufferedImage bufferedImage, Location location) {
@@ -1065,6 +1317,7 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             backgroundCalibrationImages = new ArrayList<BufferedImage>();
             ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
             if (nozzleTip != null 
+                    && backgroundImages != null
                     && backgroundImages.size() >= 3) {
                 double t0 = NanosecondTime.getRuntimeSeconds();
                 double maskDiameterPixels = nozzleTip.getMaxPartDiameter()
@@ -1697,6 +1950,11 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
     }
 
     public CvPipeline getPreparedPipeline(Camera camera, Nozzle nozzle, Location measureLocation) throws Exception {
+        preparePipeline(pipeline, camera, nozzle, measureLocation);
+        return pipeline;
+    }
+
+    protected void preparePipeline(CvPipeline pipeline, Camera camera, Nozzle nozzle, Location measureLocation) throws Exception {
         pipeline.setProperty("camera", camera);
         pipeline.setProperty("nozzleTip.diameter", getCalibrationTipDiameter());
         // Set the search tolerance to be somewhat larger than the threshold.
@@ -1704,7 +1962,6 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
         pipeline.setProperty("nozzleTip.center", measureLocation);
         Point maskCenter = VisionUtils.getLocationPixels(camera, measureLocation);
         pipeline.setProperty("MaskCircle.center", new org.opencv.core.Point(maskCenter.getX(), maskCenter.getY()));
-        return pipeline;
     }
 
     public CvPipeline getPipeline() {
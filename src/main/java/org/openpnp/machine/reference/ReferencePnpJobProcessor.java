@@ -19,14 +19,23 @@
 
 package org.openpnp.machine.reference;
 
+import java.beans.PropertyChangeListener;
+import java.io.File;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.Map;
 
@@ -39,6 +48,7 @@ import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.vision.AbstractPartAlignment;
 import org.openpnp.machine.reference.wizards.ReferencePnpJobProcessorConfigurationWizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
+import org.openpnp.model.AbstractModelObject;
 import org.openpnp.model.BoardLocation;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Job;
@@ -61,12 +71,15 @@ import org.openpnp.spi.Machine;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.NozzleTip;
 import org.openpnp.spi.PartAlignment;
+import org.openpnp.spi.PartAlignment.DeferredAlignment;
 import org.openpnp.spi.PnpJobPlanner;
 import org.openpnp.spi.PnpJobPlanner.PlannedPlacement;
 import org.openpnp.spi.PnpJobProcessor.JobPlacement.Status;
 import org.openpnp.spi.base.AbstractJobProcessor;
 import org.openpnp.spi.base.AbstractPnpJobProcessor;
 import org.openpnp.spi.MotionPlanner.CompletionType;
+import org.openpnp.util.JobTiming;
+import org.openpnp.util.JobTimingReport;
 import org.openpnp.util.MovableUtils;
 import org.openpnp.util.TravelCost;
 import org.openpnp.util.TravellingSalesman;
@@ -149,6 +162,26 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     @Attribute(required = false)
     boolean preRotateAllNozzles = true;
 
+    /**
+     * The solver used to optimize the routes for feeder preparation, pick location ordering and place location
+     * ordering. The ParallelMultiStart solver finds better routes on large jobs, using all cores, within the
+     * time budget.  
+     */
+    @Attribute(required = false)
+    TravellingSalesman.SolverMode routeSolverMode = TravellingSalesman.SolverMode.SimulatedAnnealing;
+
+    @Attribute(required = false)
+    long routeSolverTimeBudgetMs = TravellingSalesman.defaultSolverTimeBudgetMs;
+
+    /**
+     * This flag - if enabled - overlaps the bottom vision image processing with the machine motion. The 
+     * images are captured on the machine thread, but the pipelines are then processed on worker threads, 
+     * while the head already moves the next nozzle over the camera. The results are joined before placing.
+     * Part alignments that do not support this are still done serially.
+     */
+    @Attribute(required = false)
+    boolean pipelinedAlignment = false;
+
     @Element(required = false)
     public PnpJobPlanner planner = new SimplePnpJobPlanner();
 
@@ -164,6 +197,31 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     
     protected List<JobPlacement> jobPlacements = new ArrayList<>();
 
+    // Indexes the jobPlacements by status and rank, and caches the part pick locations, so that
+    // planning a cycle does not have to filter the whole job.
+    protected JobPlacementIndex jobPlacementIndex = new JobPlacementIndex();
+
+    private List<AbstractModelObject> observedFeeders = new ArrayList<>();
+
+    private final PropertyChangeListener feederListener = (e) -> {
+        switch (e.getPropertyName()) {
+            case "feeders":
+                // A feeder was added or removed.
+                jobPlacementIndex.invalidatePickLocations();
+                observeFeeders();
+                break;
+            case "enabled":
+            case "part":
+            case "priority":
+            case "location":
+                // The part to feeder resolution or the pick location may have changed.
+                jobPlacementIndex.invalidatePickLocations();
+                break;
+            default:
+                break;
+        }
+    };
+
     private Step currentStep = null;
 
     // This remembers the location of the first feeder in the first TSM plan of a cycle. It is used
@@ -173,8 +231,13 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
 
     private boolean cameraBatchOperationStarted;
 
+    private ExecutorService alignmentExecutor;
+
     long startTime;
     int totalPartsPlaced;
+
+    private JobTiming jobTiming;
+    private long cycleStartTime;
     
     public ReferencePnpJobProcessor() {
     }
@@ -191,14 +254,18 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     @Override
     public synchronized boolean next() throws JobProcessorException {
         this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.RUNNING);
+        Step step = currentStep;
+        long t0 = JobTiming.begin();
         try {
-            currentStep = currentStep.step();
+            currentStep = step.step();
         }
         catch (Exception e) {
+            JobTiming.end(step.getClass().getSimpleName(), t0);
             this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.ERROR);
             scriptJobError(e);
             throw e;
         }
+        JobTiming.end(step.getClass().getSimpleName(), t0);
         if (currentStep == null) {
             this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.FINISHED);
         }
@@ -239,6 +306,8 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             // we can do. We have to end the job.
             Logger.error(e);
         }
+        shutdownAlignmentExecutor();
+        saveJobTimingReport();
         this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.STOPPED);
         currentStep = null;
     }
@@ -261,11 +330,14 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         public Step step() throws JobProcessorException {
             startTime = System.currentTimeMillis();
             totalPartsPlaced = 0;
+            jobTiming = JobTiming.start();
             
             jobPlacements.clear();
+            jobPlacementIndex.clear();
 
             // Create some shortcuts for things that won't change during the run
             machine = Configuration.get().getMachine();
+            observeFeeders();
             try {
                 head = machine.getDefaultHead();
             }
@@ -288,8 +360,39 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             
             planner.restart();
 
+            preparePlanner();
+
             return new FiducialCheck();
         }
+
+        /**
+         * Lets the planner prepare the whole job, with the placements sorted like the first Plan 
+         * step will sort them.
+         */
+        private void preparePlanner() {
+            fireTextStatus("Planning the job.");
+            Location pickPlanStartLocation = previousPickPlanStartLocation;
+            Location placePlanStartLocation = previousPlacePlanStartLocation;
+            Plan.ReturnJobPlacementsAndNozzleTips jobPlacementsAndNozzleTips;
+            try {
+                jobPlacementsAndNozzleTips = new Plan().planJobPlacements(getOpenPendingWorkableJobPlacements());
+            }
+            catch (JobProcessorException e) {
+                // Nothing to prepare, the Plan step will report it.
+                return;
+            }
+            finally {
+                // The Plan step starts over.
+                previousPickPlanStartLocation = pickPlanStartLocation;
+                previousPlacePlanStartLocation = placePlanStartLocation;
+            }
+            List<JobPlacement> plannedJobPlacements = jobPlacementsAndNozzleTips.getJobPlacements();
+            if (plannedJobPlacements == null || plannedJobPlacements.isEmpty()) {
+                return;
+            }
+            plannedJobPlacements.sort(Comparator.comparing(JobPlacement::getRank));
+            planner.prepare(head, plannedJobPlacements, jobPlacementsAndNozzleTips.getNozzleTips());
+        }
         
         private void checkSetupErrors() throws JobProcessorException {
             fireTextStatus("Checking job for setup errors.");
@@ -327,6 +430,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                     checkJobPlacement(jobPlacement);
 
                     jobPlacements.add(jobPlacement);
+                    jobPlacementIndex.add(jobPlacement);
                 }
             }
         }
@@ -419,9 +523,10 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             List<Feeder> feederVisitList = new ArrayList<>();
             List<Feeder> feederNoVisitList = new ArrayList<>();
             // Get all the feeders that are used in the pending placements.
+            List<JobPlacement> pendingJobPlacements = getPendingJobPlacements();
             for (Feeder feeder : machine.getFeeders()) {
                 if (feeder.isEnabled() && feeder.getPart() != null) {
-                    for (JobPlacement placement : getPendingJobPlacements()) {
+                    for (JobPlacement placement : pendingJobPlacements) {
                         if (placement.getPartId().equals(feeder.getPart().getId())) {
                             if (feeder.getJobPreparationLocation() != null) {
                                 // only feeders with location added to the visit list
@@ -458,6 +563,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                     startLocation, 
                     // no particular end location
                     null);
+            configureRouteSolver(tsm);
 
             // Solve it using the default heuristics.
             tsm.solve();
@@ -617,6 +723,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     protected class Plan implements Step {
         public Step step() throws JobProcessorException {
             fireTextStatus("Planning placements.");
+            cycleStartTime = JobTiming.begin();
 
             ReturnJobPlacementsAndNozzleTips jobPlacementsAndNozzleTips;
 
@@ -869,6 +976,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                     }, 
                     startLocation,
                     null);
+            configureRouteSolver(tsm);
             
             // Solve it using the default heuristics.
             tsm.solve();
@@ -965,6 +1073,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                         }, 
                         startLocation,
                         null);
+                configureRouteSolver(tsm);
                 
                 // Solve it using the default heuristics.
                 tsm.solve();
@@ -1300,6 +1409,11 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     protected class Pick extends PlannedPlacementStep {
         HashMap<PlannedPlacement, Integer> retries = new HashMap<>();
         
+        /**
+         * The feeders picked from in this cycle, in pick order.
+         */
+        protected final Set<Feeder> pickedFeeders = new LinkedHashSet<>();
+        
         public Pick(List<PlannedPlacement> plannedPlacements) {
             super(plannedPlacements);
         }
@@ -1307,6 +1421,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         @Override
         public Step stepImpl(PlannedPlacement plannedPlacement) throws JobProcessorException {
             if (plannedPlacement == null) {
+                prepareFeeds();
                 return new OptimizeNozzlesForAlign(plannedPlacements);
             }
             
@@ -1403,6 +1518,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                     discard(nozzle);
                     continue;
                 }
+                pickedFeeders.add(feeder);
                 
                 /**
                  * If we get here with no problems then we are done.
@@ -1417,6 +1533,41 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             throw lastException;
         }
         
+        /**
+         * Lets the feeders picked from in this cycle start feeding their next part, if the job
+         * still needs it, so the feed overlaps with the alignment and placement travel. Errors are
+         * only logged, the regular feed will handle them.
+         */
+        private void prepareFeeds() {
+            if (pickedFeeders.isEmpty()) {
+                return;
+            }
+            Map<Part, Integer> demand = new HashMap<>();
+            for (JobPlacement jobPlacement : jobPlacementIndex.getPendingJobPlacements()) {
+                demand.merge(jobPlacement.getPlacement().getPart(), 1, Integer::sum);
+            }
+            for (Feeder feeder : pickedFeeders) {
+                Part part = feeder.getPart();
+                if (!feeder.isEnabled() || demand.getOrDefault(part, 0) == 0) {
+                    continue;
+                }
+                long t0 = JobTiming.begin();
+                try {
+                    if (feeder.prepareFeed()) {
+                        Logger.debug("Prepared feed of {} on {}.", part.getId(), feeder.getName());
+                        demand.merge(part, -1, Integer::sum);
+                    }
+                }
+                catch (Exception e) {
+                    Logger.warn("Preparing the feed of {} failed: {}", feeder.getName(), e.getMessage());
+                }
+                finally {
+                    JobTiming.end(JobTiming.FEED, t0);
+                }
+            }
+            pickedFeeders.clear();
+        }
+        
         private void feed(Feeder feeder, Nozzle nozzle) throws JobProcessorException, Feeder.FeederEmptyException {
             Exception lastException = null;
 
@@ -1430,7 +1581,13 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                     fireTextStatus("Feed %s on %s.", feeder.getName(), feeder.getPart().getId());
                     
                     Configuration.get().getScripting().on("Feeder.BeforeFeed", globals);
-                    feeder.feed(nozzle);
+                    long t0 = JobTiming.begin();
+                    try {
+                        feeder.feed(nozzle);
+                    }
+                    finally {
+                        JobTiming.end(JobTiming.FEED, t0);
+                    }
                     Configuration.get().getScripting().on("Feeder.AfterFeed", globals);
                     return;
                 }
@@ -1601,6 +1758,8 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
      * Alignment step - align all parts on all nozzles
      */
     protected class Align extends PlannedPlacementStep {
+        protected final Map<PlannedPlacement, Future<DeferredAlignment>> deferredAlignments = new HashMap<>();
+
         public Align(List<PlannedPlacement> plannedPlacements) {
             super(plannedPlacements);
         }
@@ -1608,6 +1767,9 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         @Override
         public Step stepImpl(PlannedPlacement plannedPlacement) throws JobProcessorException {
             if (plannedPlacement == null) {
+                if (!deferredAlignments.isEmpty()) {
+                    return new CompleteAlignment(plannedPlacements, deferredAlignments);
+                }
                 return new EndCameraBatchOperation(plannedPlacements);
             }
 
@@ -1624,37 +1786,42 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                 return this;
             }
 
-            align(plannedPlacement, partAlignment);
+            DeferredAlignment deferredAlignment = null;
+            if (isPipelinedAlignment()) {
+                deferredAlignment = capture(plannedPlacement, partAlignment);
+            }
+            if (deferredAlignment != null) {
+                final DeferredAlignment alignment = deferredAlignment;
+                deferredAlignments.put(plannedPlacement, getAlignmentExecutor().submit(() -> {
+                    alignment.process();
+                    return alignment;
+                }));
+            }
+            else {
+                align(plannedPlacement, partAlignment);
+            }
             
             checkPartOn(nozzle);
 
             return this;
         }
         
-        private void align(PlannedPlacement plannedPlacement, PartAlignment partAlignment) throws JobProcessorException {
+        private DeferredAlignment capture(PlannedPlacement plannedPlacement, PartAlignment partAlignment) {
             final Nozzle nozzle = plannedPlacement.nozzle;
             final JobPlacement jobPlacement = plannedPlacement.jobPlacement;
             final Placement placement = jobPlacement.getPlacement();
             final BoardLocation boardLocation = jobPlacement.getBoardLocation();
             final Part part = placement.getPart();
 
-            Exception lastException = null;
-            for (int i = 0; i < Math.max(1,ReferencePnpJobProcessor.this.getMaxVisionRetries()); i++) {
-                fireTextStatus("Aligning %s for %s using nozzle %s.", part.getId(), placement.getId(), nozzle.getName());
-                try {
-                    plannedPlacement.alignmentOffsets = VisionUtils.findPartAlignmentOffsets(
-                            partAlignment,
-                            part,
-                            boardLocation,
-                            placement, nozzle);
-                    Logger.debug("Align {} with {}, offsets {}", part, nozzle, plannedPlacement.alignmentOffsets);
-                    return;
-                }
-                catch (Exception e) {
-                    lastException = e;
-                }
+            fireTextStatus("Aligning %s for %s using nozzle %s.", part.getId(), placement.getId(), nozzle.getName());
+            try {
+                return VisionUtils.capturePartAlignmentOffsets(partAlignment, part, boardLocation, placement, nozzle);
+            }
+            catch (Exception e) {
+                // Retry serially.
+                Logger.debug("Capturing {} with {} failed: {}", part, nozzle, e);
+                return null;
             }
-            throw new JobProcessorException(part, nozzle, lastException);
         }
         
         private void checkPartOn(Nozzle nozzle) throws JobProcessorException {
@@ -1675,6 +1842,100 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         }
     }
 
+    /**
+     * Complete the pipelined alignments - join the image processing and get the offsets.
+     */
+    protected class CompleteAlignment extends PlannedPlacementStep {
+        protected final Map<PlannedPlacement, Future<DeferredAlignment>> deferredAlignments;
+
+        public CompleteAlignment(List<PlannedPlacement> plannedPlacements, 
+                Map<PlannedPlacement, Future<DeferredAlignment>> deferredAlignments) {
+            super(plannedPlacements);
+            this.deferredAlignments = deferredAlignments;
+        }
+
+        @Override
+        public Step stepImpl(PlannedPlacement plannedPlacement) throws JobProcessorException {
+            if (plannedPlacement == null) {
+                return new EndCameraBatchOperation(plannedPlacements);
+            }
+
+            Future<DeferredAlignment> deferredAlignment = deferredAlignments.get(plannedPlacement);
+            if (deferredAlignment == null) {
+                // Aligned serially.
+                return this;
+            }
+
+            final Nozzle nozzle = plannedPlacement.nozzle;
+            final Part part = plannedPlacement.jobPlacement.getPlacement().getPart();
+            try {
+                plannedPlacement.alignmentOffsets = deferredAlignment.get().complete();
+                Logger.debug("Align {} with {}, offsets {}", part, nozzle, plannedPlacement.alignmentOffsets);
+                return this;
+            }
+            catch (Exception e) {
+                // Retry serially.
+                Logger.debug("Pipelined alignment of {} with {} failed: {}", part, nozzle, 
+                        (e instanceof ExecutionException ? e.getCause() : e));
+            }
+            align(plannedPlacement, AbstractPartAlignment.getPartAlignment(part));
+            return this;
+        }
+    }
+
+    protected void align(PlannedPlacement plannedPlacement, PartAlignment partAlignment) throws JobProcessorException {
+        final Nozzle nozzle = plannedPlacement.nozzle;
+        final JobPlacement jobPlacement = plannedPlacement.jobPlacement;
+        final Placement placement = jobPlacement.getPlacement();
+        final BoardLocation boardLocation = jobPlacement.getBoardLocation();
+        final Part part = placement.getPart();
+
+        Exception lastException = null;
+        for (int i = 0; i < Math.max(1,ReferencePnpJobProcessor.this.getMaxVisionRetries()); i++) {
+            fireTextStatus("Aligning %s for %s using nozzle %s.", part.getId(), placement.getId(), nozzle.getName());
+            try {
+                plannedPlacement.alignmentOffsets = VisionUtils.findPartAlignmentOffsets(
+                        partAlignment,
+                        part,
+                        boardLocation,
+                        placement, nozzle);
+                Logger.debug("Align {} with {}, offsets {}", part, nozzle, plannedPlacement.alignmentOffsets);
+                return;
+            }
+            catch (Exception e) {
+                lastException = e;
+            }
+        }
+        throw new JobProcessorException(part, nozzle, lastException);
+    }
+
+    private synchronized ExecutorService getAlignmentExecutor() {
+        if (alignmentExecutor == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    (runnable) -> {
+                        Thread thread = new Thread(runnable, "ReferencePnpJobProcessor alignment");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // Idle threads end, so a job processor that is replaced leaves none behind.
+            executor.allowCoreThreadTimeOut(true);
+            alignmentExecutor = executor;
+        }
+        return alignmentExecutor;
+    }
+
+    /**
+     * Shuts the alignment threads down, once the alignments still running are done. 
+     */
+    private synchronized void shutdownAlignmentExecutor() {
+        if (alignmentExecutor != null) {
+            alignmentExecutor.shutdown();
+            alignmentExecutor = null;
+        }
+    }
+
     /**
      * End a camera batch operation.
      * Turn of fall the light used during alignment.
@@ -1781,6 +2042,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             job.storePlacedStatus(boardLocation, jobPlacement.getPlacement().getId(), true);
             
             totalPartsPlaced++;
+            JobTiming.placed();
             
             scriptComplete(plannedPlacement, placementLocation);
 
@@ -1920,6 +2182,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     protected class FinishCycle implements Step {
         public Step step() throws JobProcessorException {
             discardAll(head);
+            JobTiming.end(JobTiming.CYCLE, cycleStartTime);
             return new Plan();
         }
     }
@@ -1964,6 +2227,8 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     
     protected class Finish implements Step {
         public Step step() throws JobProcessorException {
+            unobserveFeeders();
+            shutdownAlignmentExecutor();
             new Cleanup().step();
           
             double dtSec = (System.currentTimeMillis() - startTime) / 1000.0;
@@ -1979,6 +2244,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
 
             Logger.info("Job finished {} parts in {} sec. This is {} CPH", totalPartsPlaced,
                     df.format(dtSec), df.format(totalPartsPlaced / (dtSec / 3600.0)));
+            saveJobTimingReport();
 
             try {
                 HashMap<String, Object> params = new HashMap<>();
@@ -2018,6 +2284,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     protected class Abort implements Step {
         public Step step() throws JobProcessorException {
             new Cleanup().step();
+            saveJobTimingReport();
             
             fireTextStatus("Aborted.");
             
@@ -2025,6 +2292,26 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         }
     }
      
+    /**
+     * Stops the job timing and saves its report to the jobtiming subdirectory of the configuration
+     * directory.
+     */
+    protected void saveJobTimingReport() {
+        if (jobTiming == null) {
+            return;
+        }
+        jobTiming.stop();
+        try {
+            JobTimingReport report = new JobTimingReport(jobTiming);
+            File file = report.save(new File(Configuration.get().getConfigurationDirectory(), "jobtiming"));
+            Logger.info("Job timing report saved to {}", file);
+        }
+        catch (Exception e) {
+            Logger.warn(e, "Saving the job timing report failed");
+        }
+        jobTiming = null;
+    }
+
     private Location getPlacementLocation(PlannedPlacement plannedPlacement) {
         final JobPlacement jobPlacement = plannedPlacement.jobPlacement;
         final Placement placement = jobPlacement.getPlacement();
@@ -2085,32 +2372,33 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     protected List<JobPlacement> getOpenPendingWorkableJobPlacements() throws JobProcessorException {
         Exception firstException = null;
         Part firstExceptionPart = null;
-        // A cache as an optimisation; only check the feeder location once per part
-        HashMap<Part,Location> partPickLocations = new HashMap<Part,Location>();
         List<JobPlacement> workablePlacements = new ArrayList<JobPlacement>();
+        // Failures are only remembered for this call, so a feeder the operator has fixed
+        // in the meantime is found again.
+        Map<Part, Exception> pickLocationErrors = new HashMap<>();
         for(JobPlacement jobPlacement: getOpenPendingJobPlacements()) {
             final Placement placement = jobPlacement.getPlacement();
             final Part part = placement.getPart();
-            Location location;
-            if(partPickLocations.containsKey(part)) {
-                location = partPickLocations.get(part);
-            } else {
+            // Only check the feeder location once per part, the index invalidates it when the part 
+            // was fed or a feeder changed.
+            Location location = jobPlacementIndex.getPickLocation(part);
+            if (location == null && !pickLocationErrors.containsKey(part)) {
                 try {
                     final Feeder feeder = findFeeder(machine,part,null,null);
                     location = feeder.getPickLocation();
                     if(location == null) {
                         throw new Exception("Feeder pick location must not be null");
                     }
-                    partPickLocations.put(part,location);
+                    jobPlacementIndex.putPickLocation(part, location);
                 } catch (Exception e) {
-                    if (firstException==null) {
-                        firstException = e;
-                        firstExceptionPart = part;
-                    }
-                    partPickLocations.put(part,null);
                     location = null;
+                    pickLocationErrors.put(part, e);
                 }
             }
+            if (location == null && firstException==null) {
+                firstException = pickLocationErrors.get(part);
+                firstExceptionPart = part;
+            }
             if(location!=null) {
                 jobPlacement.setPlannedPickLocation(location);
                 workablePlacements.add(jobPlacement);
@@ -2130,9 +2418,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         int currentRank = getCurrentRank();
         int blockedRank = currentRank+10;
         Logger.debug("Current rank is {}. Blocked up to rank {}",currentRank,blockedRank);
-        return this.jobPlacements.stream().filter((jobPlacement) -> {
-            return jobPlacement.getStatus() == Status.Pending && jobPlacement.getRank()<blockedRank;
-        }).collect(Collectors.toList());
+        return jobPlacementIndex.getOpenPendingJobPlacements(blockedRank);
     }
 
     protected int getCurrentRank() {
@@ -2143,21 +2429,38 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         // If "placements which are not complete" is an empty set then return a fallback
         // whose value does not really matter.
         //
-        return this.jobPlacements.stream().filter((jobPlacement) -> {
-            return jobPlacement.getStatus() != Status.Complete;
-        }).mapToInt((jobPlacement) -> {
-            return jobPlacement.getRank();
-        }).min().orElse(Placement.defaultRank);
+        return jobPlacementIndex.getCurrentRank(Placement.defaultRank);
     }
 
     protected List<JobPlacement> getPendingJobPlacements() {
-        return this.jobPlacements.stream().filter((jobPlacement) -> {
-            return jobPlacement.getStatus() == Status.Pending;
-        }).collect(Collectors.toList());
+        return jobPlacementIndex.getPendingJobPlacements();
     }
 
     protected boolean isJobComplete() {
-        return getOpenPendingJobPlacements().isEmpty();
+        return !jobPlacementIndex.hasOpenPendingJobPlacements(getCurrentRank()+10);
+    }
+
+    private void observeFeeders() {
+        unobserveFeeders();
+        if (machine instanceof AbstractModelObject) {
+            AbstractModelObject modelObject = (AbstractModelObject) machine;
+            modelObject.addPropertyChangeListener(feederListener);
+            observedFeeders.add(modelObject);
+        }
+        for (Feeder feeder : machine.getFeeders()) {
+            if (feeder instanceof AbstractModelObject) {
+                AbstractModelObject modelObject = (AbstractModelObject) feeder;
+                modelObject.addPropertyChangeListener(feederListener);
+                observedFeeders.add(modelObject);
+            }
+        }
+    }
+
+    private void unobserveFeeders() {
+        for (AbstractModelObject modelObject : observedFeeders) {
+            modelObject.removePropertyChangeListener(feederListener);
+        }
+        observedFeeders.clear();
     }
     
     @Override
@@ -2230,6 +2533,40 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         this.preRotateAllNozzles = preRotateAllNozzles;
     }
 
+    public TravellingSalesman.SolverMode getRouteSolverMode() {
+        return routeSolverMode;
+    }
+
+    public void setRouteSolverMode(TravellingSalesman.SolverMode routeSolverMode) {
+        this.routeSolverMode = routeSolverMode;
+    }
+
+    public long getRouteSolverTimeBudgetMs() {
+        return routeSolverTimeBudgetMs;
+    }
+
+    public void setRouteSolverTimeBudgetMs(long routeSolverTimeBudgetMs) {
+        this.routeSolverTimeBudgetMs = routeSolverTimeBudgetMs;
+    }
+
+    public boolean isPipelinedAlignment() {
+        return pipelinedAlignment;
+    }
+
+    public void setPipelinedAlignment(boolean pipelinedAlignment) {
+        this.pipelinedAlignment = pipelinedAlignment;
+    }
+
+    /**
+     * Applies the configured route solver settings to the given solver.
+     * 
+     * @param tsm
+     */
+    public void configureRouteSolver(TravellingSalesman<?> tsm) {
+        tsm.setSolverMode(routeSolverMode);
+        tsm.setSolverTimeBudgetMs(routeSolverTimeBudgetMs);
+    }
+
     /**
      * This class groups a step for step for multi-nozzle optimization
      */
@@ -23,11 +23,18 @@ package org.openpnp.machine.reference;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.function.BiFunction;
 
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
 import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.machine.reference.camera.ImageCamera;
@@ -407,7 +414,7 @@ public class SimulationModeMachine extends ReferenceMachine {
             if (realtime) {
                 try {
                     Logger.trace("{} simulate actuation, sleep 5ms", actuator.getName());
-                    Thread.sleep(5);
+                    NanosecondTime.sleep(5);
                 }
                 catch (InterruptedException e) {
                 }
@@ -641,14 +648,10 @@ public class SimulationModeMachine extends ReferenceMachine {
         SimulationModeMachine machine = getSimulationModeMachine();
         if (machine != null 
                 && machine.getSimulationMode().isDynamicallyImperfectMachine()) {
-            Actuator lightActuator = camera.getLightActuator();
-            if (lightActuator != null) {
-                ActuatorHistory actuatorHistory = machine.getActuatorHistory(lightActuator);
-                if (!actuatorHistory.getActuationAt(NanosecondTime.getRuntimeSeconds() - machine.getSimulatedCameraLag())) {
-                    // Shade the view. 
-                    gFrame.setColor(new Color(0, 0, 0, 200));
-                    gFrame.fillRect(0, 0, width, height);
-                }
+            if (machine.isCameraLightOff(camera)) {
+                // Shade the view. 
+                gFrame.setColor(new Color(0, 0, 0, 200));
+                gFrame.fillRect(0, 0, width, height);
             }
             if (machine.getSimulatedCameraNoise() > 0) { 
                 for (int noise = (int) (Math.random()*machine.getSimulatedCameraNoise()); noise > 0; noise--) {
@@ -660,4 +663,56 @@ public class SimulationModeMachine extends ReferenceMachine {
             }
         }
     }
+
+    /**
+     * Same as {@link #simulateCameraExposure(Camera, Graphics2D, int, int)} but applied to an 8 bit 
+     * frame Mat with any number of channels, in place. The shading and the noise specks are applied as whole frame OpenCV 
+     * operations, rather than per pixel. 
+     */
+    public static void simulateCameraExposure(Camera camera, Mat frame) {
+        SimulationModeMachine machine = getSimulationModeMachine();
+        if (machine != null 
+                && machine.getSimulationMode().isDynamicallyImperfectMachine()) {
+            if (machine.isCameraLightOff(camera)) {
+                // Shade the view, same as a black overlay with alpha 200. 
+                frame.convertTo(frame, -1, 55.0/255.0);
+            }
+            if (machine.getSimulatedCameraNoise() > 0) { 
+                int width = frame.cols();
+                int height = frame.rows();
+                Mat specks = null;
+                for (int noise = (int) (Math.random()*machine.getSimulatedCameraNoise()); noise > 0; noise--) {
+                    if (specks == null) {
+                        specks = Mat.zeros(height, width, CvType.CV_8UC1);
+                    }
+                    int x = (int) (Math.random()*width) - 1;
+                    int y = (int) (Math.random()*height) - 1;
+                    Imgproc.line(specks, new Point(x, y), 
+                            new Point(x+(int)(Math.random()*3-1.0), y+(int)(Math.random()*3-1.0)), 
+                            new Scalar((int)(Math.random()*16)));
+                }
+                if (specks != null) {
+                    // Blend white specks in with their alpha: p += (255 - p)*alpha/255
+                    Mat alpha = new Mat();
+                    Core.merge(Collections.nCopies(frame.channels(), specks), alpha);
+                    Mat blend = new Mat();
+                    Core.bitwise_not(frame, blend);
+                    Core.multiply(blend, alpha, blend, 1.0/255.0);
+                    Core.add(frame, blend, frame);
+                    blend.release();
+                    alpha.release();
+                    specks.release();
+                }
+            }
+        }
+    }
+
+    protected boolean isCameraLightOff(Camera camera) {
+        Actuator lightActuator = camera.getLightActuator();
+        if (lightActuator != null) {
+            ActuatorHistory actuatorHistory = getActuatorHistory(lightActuator);
+            return !actuatorHistory.getActuationAt(NanosecondTime.getRuntimeSeconds() - getSimulatedCameraLag());
+        }
+        return false;
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference;
+
+import java.io.File;
+import java.util.Locale;
+
+import org.openpnp.machine.reference.SimulationModeMachine.SimulationMode;
+import org.openpnp.machine.reference.driver.AbstractMotionPlanner;
+import org.openpnp.machine.reference.driver.NullDriver;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Job;
+import org.openpnp.spi.Driver;
+import org.openpnp.spi.Machine;
+import org.openpnp.spi.MotionPlanner;
+import org.openpnp.spi.PnpJobProcessor;
+import org.openpnp.util.JobTiming;
+import org.openpnp.util.JobTimingReport;
+import org.openpnp.util.NanosecondTime;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Runs a job headless on a simulated machine, as fast as the CPU allows. The simulation waits, such
+ * as dwells, actuation and camera settling, are compressed using the {@link NanosecondTime} virtual
+ * clock, when they happen on the machine thread, or in a simulated GcodeServer on its behalf. Other
+ * waits on other threads take real time. The result reports the predicted machine time, i.e. the
+ * virtual clock time the job took, separately from the wall time it took to simulate it, so it can
+ * be used for throughput regression testing of configuration and planner changes.
+ *
+ * Usage: SimulationRunner configurationDirectory jobFile
+ */
+public class SimulationRunner {
+    private final File configurationDirectory;
+    private final File jobFile;
+
+    public static class Result {
+        private final int placements;
+        private final double wallSeconds;
+        private final double machineSeconds;
+        private final double motionSeconds;
+        private final JobTimingReport report;
+
+        Result(int placements, double wallSeconds, double machineSeconds, double motionSeconds,
+                JobTimingReport report) {
+            this.placements = placements;
+            this.wallSeconds = wallSeconds;
+            this.machineSeconds = machineSeconds;
+            this.motionSeconds = motionSeconds;
+            this.report = report;
+        }
+
+        public int getPlacements() {
+            return placements;
+        }
+
+        /**
+         * @return The real time it took to simulate the job.
+         */
+        public double getWallSeconds() {
+            return wallSeconds;
+        }
+
+        /**
+         * @return The predicted machine time of the job, including the compressed waits.
+         */
+        public double getMachineSeconds() {
+            return machineSeconds;
+        }
+
+        /**
+         * @return The total duration of the planned motion of the job.
+         */
+        public double getMotionSeconds() {
+            return motionSeconds;
+        }
+
+        public double getPlacementsPerHour() {
+            return machineSeconds > 0 ? placements*3600/machineSeconds : 0;
+        }
+
+        /**
+         * @return The job timing report, with times in predicted machine time, or null if not
+         * available.
+         */
+        public JobTimingReport getReport() {
+            return report;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "placements %d, machine time %.3fs, motion time %.3fs, CPH %.0f, wall time %.3fs",
+                    placements, machineSeconds, motionSeconds, getPlacementsPerHour(), wallSeconds);
+        }
+    }
+
+    public SimulationRunner(File configurationDirectory, File jobFile) {
+        this.configurationDirectory = configurationDirectory;
+        this.jobFile = jobFile;
+    }
+
+    public Result run() throws Exception {
+        Configuration.initialize(configurationDirectory);
+        Configuration.get().load();
+        Machine machine = Configuration.get().getMachine();
+        checkSimulated(machine);
+        PnpJobProcessor jobProcessor = machine.getPnpJobProcessor();
+        Job job = Configuration.get().loadJob(jobFile);
+
+        machine.setEnabled(true);
+        long wallTime0 = System.nanoTime();
+        long machineTime0 = NanosecondTime.getRuntime();
+        double motionTime0 = getPlannedMotionTime(machine);
+        machine.execute(() -> {
+            // Only the machine thread advances the virtual clock.
+            NanosecondTime.setVirtualClock(true);
+            try {
+                machine.home();
+                jobProcessor.initialize(job);
+                while (jobProcessor.next()) {
+                    // spin
+                }
+            }
+            finally {
+                NanosecondTime.setVirtualClock(false);
+            }
+            return null;
+        }, false, Machine.DEFAULT_TASK_BUSY_TIMEOUT_MS);
+        long machineTime1 = NanosecondTime.getRuntime();
+        long wallTime1 = System.nanoTime();
+        double motionTime1 = getPlannedMotionTime(machine);
+        machine.setEnabled(false);
+
+        JobTiming timing = JobTiming.getLast();
+        JobTimingReport report = (timing != null ? new JobTimingReport(timing) : null);
+        return new Result(report != null ? report.getPlacements() : 0,
+                (wallTime1 - wallTime0)*1e-9,
+                (machineTime1 - machineTime0)*1e-9,
+                motionTime1 - motionTime0,
+                report);
+    }
+
+    /**
+     * Makes sure no real hardware is driven, as the virtual clock would not wait for it.
+     */
+    protected void checkSimulated(Machine machine) throws Exception {
+        boolean simulatedDrivers = machine instanceof SimulationModeMachine
+                && ((SimulationModeMachine) machine).getSimulationMode() != SimulationMode.Off
+                && ((SimulationModeMachine) machine).isReplacingDrivers();
+        for (Driver driver : machine.getDrivers()) {
+            if (!(simulatedDrivers || driver instanceof NullDriver)) {
+                throw new Exception("Driver "+driver.getName()+" is not simulated, cannot run on a virtual clock.");
+            }
+        }
+    }
+
+    protected double getPlannedMotionTime(Machine machine) {
+        MotionPlanner motionPlanner = machine.getMotionPlanner();
+        if (motionPlanner instanceof AbstractMotionPlanner) {
+            return ((AbstractMotionPlanner) motionPlanner).getPlannedMotionTime();
+        }
+        return 0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: SimulationRunner configurationDirectory jobFile");
+            System.exit(1);
+        }
+        Result result = new SimulationRunner(new File(args[0]), new File(args[1])).run();
+        Logger.info("Simulation result: {}", result);
+        System.out.println(result);
+        System.exit(0);
+    }
+}
@@ -28,13 +28,16 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.openpnp.CameraListener;
 import org.openpnp.ConfigurationListener;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
+import org.openpnp.scripting.Scripting;
 import org.openpnp.spi.Actuator;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.Head;
@@ -43,6 +46,7 @@ import org.openpnp.spi.Machine;
 import org.openpnp.spi.MachineListener;
 import org.openpnp.spi.base.AbstractActuator;
 import org.openpnp.util.MovableUtils;
+import org.openpnp.util.NanosecondTime;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 
@@ -61,14 +65,79 @@ public abstract class AbstractBroadcastingCamera extends AbstractSettlingCamera
     @Attribute(required = false)
     protected boolean suspendPreviewInTasks = false;
 
+    /**
+     * Number of recent frames kept in the frame ring, rounded up to a power of two. Note, each 
+     * frame is a full image, so this should be kept small for high resolution cameras.
+     */
+    @Attribute(required = false)
+    protected int frameRingSize = 4;
+
     private volatile Thread thread;
 
     private static BufferedImage CAPTURE_ERROR_IMAGE = null;
 
     /**
-     * The lastTransformedImage is produced by transformImage() and consumed by the Camera thread.
+     * A timestamped frame, as kept in the frame ring. 
      */
-    private AtomicReference<BufferedImage> lastTransformedImage = new AtomicReference<>();
+    public static class Frame {
+        private final long sequence;
+        private final long captureTime;
+        private final BufferedImage image;
+        private final boolean captured;
+
+        public Frame(long sequence, long captureTime, BufferedImage image) {
+            this(sequence, captureTime, image, false);
+        }
+
+        public Frame(long sequence, long captureTime, BufferedImage image, boolean captured) {
+            this.sequence = sequence;
+            this.captureTime = captureTime;
+            this.image = image;
+            this.captured = captured;
+        }
+
+        /**
+         * @return The sequence number, monotonically increasing per camera.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return The {@link NanosecondTime#getRuntime()} when the capture of this frame was started. 
+         * As the capture only returns frames exposed after it was started, this is the earliest 
+         * possible exposure time.  
+         */
+        public long getCaptureTime() {
+            return captureTime;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * @return True if the frame was captured through {@link Camera#capture()}, i.e. with the 
+         * capture scripts, false if e.g. by the preview.
+         */
+        public boolean isCaptured() {
+            return captured;
+        }
+    }
+
+    /**
+     * The frame ring is produced by captureTransformed() and consumed by the Camera thread and 
+     * by {@link #captureFrameAfter(long, long)}. Writers are serialized on the frameLock, which 
+     * is also notified for each new frame. Readers are lock-free, a slot is replaced atomically as 
+     * a whole {@link Frame}. 
+     */
+    private volatile AtomicReferenceArray<Frame> frameRing;
+    private final Object frameLock = new Object();
+    private final AtomicLong frameSequence = new AtomicLong();
+    /**
+     * The sequence number of the last frame broadcast by the Camera thread.
+     */
+    private long broadcastSequence;
 
     volatile private boolean cameraViewDirty;
 
@@ -161,13 +230,222 @@ public abstract class AbstractBroadcastingCamera extends AbstractSettlingCamera
         return thread;
     }
 
+    public int getFrameRingSize() {
+        return frameRingSize;
+    }
+
+    public void setFrameRingSize(int frameRingSize) {
+        Object oldValue = this.frameRingSize;
+        synchronized (frameLock) {
+            this.frameRingSize = frameRingSize;
+            AtomicReferenceArray<Frame> oldRing = frameRing;
+            frameRing = null;
+            if (oldRing != null) {
+                // Carry the buffered frames over, oldest first, so the most recent ones remain when
+                // the ring gets smaller.
+                List<Frame> frames = new ArrayList<>();
+                for (int i = 0; i < oldRing.length(); i++) {
+                    Frame frame = oldRing.get(i);
+                    if (frame != null) {
+                        frames.add(frame);
+                    }
+                }
+                frames.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+                AtomicReferenceArray<Frame> ring = getFrameRing();
+                for (Frame frame : frames) {
+                    ring.set((int) (frame.sequence & (ring.length() - 1)), frame);
+                }
+            }
+        }
+        firePropertyChange("frameRingSize", oldValue, frameRingSize);
+    }
+
+    private AtomicReferenceArray<Frame> getFrameRing() {
+        AtomicReferenceArray<Frame> ring = frameRing;
+        if (ring == null) {
+            synchronized (frameLock) {
+                ring = frameRing;
+                if (ring == null) {
+                    int size = Integer.highestOneBit(Math.max(frameRingSize, 2) - 1) << 1;
+                    ring = new AtomicReferenceArray<>(size);
+                    frameRing = ring;
+                }
+            }
+        }
+        return ring;
+    }
+
+    /**
+     * Adds a new frame to the frame ring, replacing the oldest, and wakes the Camera thread to
+     * broadcast it.
+     * 
+     * @param image
+     * @param captureTime The {@link NanosecondTime#getRuntime()} when the capture was started.
+     */
+    protected void addFrame(BufferedImage image, long captureTime) {
+        addFrame(image, captureTime, false);
+    }
+
+    /**
+     * Same as {@link #addFrame(BufferedImage, long)}.
+     * 
+     * @param image
+     * @param captureTime
+     * @param captured True if captured through {@link Camera#capture()}, see {@link Frame#isCaptured()}.
+     */
+    protected void addFrame(BufferedImage image, long captureTime, boolean captured) {
+        synchronized (frameLock) {
+            AtomicReferenceArray<Frame> ring = getFrameRing();
+            long sequence = frameSequence.incrementAndGet();
+            ring.set((int) (sequence & (ring.length() - 1)), new Frame(sequence, captureTime, image, captured));
+            frameLock.notifyAll();
+        }
+        notifyCapture();
+    }
+
+    /**
+     * @return The most recent frame in the frame ring, or null if none was captured yet.
+     */
+    public Frame getLatestFrame() {
+        AtomicReferenceArray<Frame> ring = getFrameRing();
+        Frame latest = null;
+        for (int i = 0; i < ring.length(); i++) {
+            Frame frame = ring.get(i);
+            if (frame != null && (latest == null || frame.sequence > latest.sequence)) {
+                latest = frame;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @param time The {@link NanosecondTime#getRuntime()} time.
+     * @return The first frame in the frame ring, whose capture was started at or after the given 
+     * time, or null if there is none (yet).
+     */
+    public Frame getFirstFrameAfter(long time) {
+        return getFirstFrameAfter(time, false);
+    }
+
+    /**
+     * Same as {@link #getFirstFrameAfter(long)}.
+     * 
+     * @param time
+     * @param capturedOnly Only consider frames captured through {@link Camera#capture()}, see 
+     * {@link Frame#isCaptured()}.
+     * @return
+     */
+    public Frame getFirstFrameAfter(long time, boolean capturedOnly) {
+        AtomicReferenceArray<Frame> ring = getFrameRing();
+        Frame first = null;
+        for (int i = 0; i < ring.length(); i++) {
+            Frame frame = ring.get(i);
+            if (frame != null && frame.captureTime - time >= 0 && (frame.captured || !capturedOnly)
+                    && (first == null || frame.sequence < first.sequence)) {
+                first = frame;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns the first frame exposed after the given time, e.g. the time when the camera has
+     * settled. If the frame ring already has such a frame, it is returned right away. Otherwise, 
+     * waits until the time has arrived. If the preview is running, waits on it for the next frame
+     * to be broadcast, for at most one frame interval, see {@link #getPreviewFrameWaitMs()}. 
+     * Otherwise captures a new frame using {@link #capture()}.
+     * 
+     * Frames that were not captured through {@link #capture()}, e.g. by the preview, are only 
+     * taken, if they are equivalent, see {@link #isPreviewFrameEquivalent()}. 
+     * 
+     * @param time The {@link NanosecondTime#getRuntime()} time.
+     * @param timeoutMs Maximum time to wait for the given time to arrive. If it times out, a new 
+     * frame is captured right away.   
+     * @return
+     * @throws Exception
+     */
+    public Frame captureFrameAfter(long time, long timeoutMs) throws Exception {
+        boolean capturedOnly = !isPreviewFrameEquivalent();
+        long now = NanosecondTime.getRuntime();
+        long waitUntil;
+        if (time - now > timeoutMs*1000000L) {
+            // Timed out, capture right away.
+            waitUntil = now;
+        }
+        else if (capturedOnly) {
+            waitUntil = time;
+        }
+        else {
+            waitUntil = time + getPreviewFrameWaitMs()*1000000L;
+        }
+        while (true) {
+            Frame frame = getFirstFrameAfter(time, capturedOnly);
+            if (frame != null) {
+                return frame;
+            }
+            long waitNs = waitUntil - NanosecondTime.getRuntime();
+            if (waitNs <= 0) {
+                break;
+            }
+            if (NanosecondTime.isVirtualClock()) {
+                // Simulated time does not pass while waiting for the preview. 
+                NanosecondTime.sleep(waitNs/1000000, (int) (waitNs%1000000));
+            }
+            else {
+                synchronized (frameLock) {
+                    if (getFirstFrameAfter(time, capturedOnly) == null) {
+                        frameLock.wait(waitNs/1000000, (int) (waitNs%1000000));
+                    }
+                }
+            }
+        }
+        long captureTime = NanosecondTime.getRuntime();
+        capture();
+        Frame frame = getFirstFrameAfter(captureTime, capturedOnly);
+        if (frame == null) {
+            throw new Exception("Camera "+getName()+" has no frame captured after the given time.");
+        }
+        return frame;
+    }
+
+    /**
+     * @return True if a frame captured without {@link #capture()}, e.g. by the preview, is 
+     * equivalent to a captured one, i.e. there is no light actuator and there are no capture 
+     * scripts that could change the scene, such as switching lights. 
+     */
+    protected boolean isPreviewFrameEquivalent() {
+        if (getLightActuator() != null) {
+            return false;
+        }
+        Scripting scripting = Configuration.get().getScripting();
+        return scripting.hasNoScript("Camera.BeforeCapture") 
+                && scripting.hasNoScript("Camera.AfterCapture");
+    }
+
+    /**
+     * @return The time to wait for the preview to broadcast its next frame, rather than capturing
+     * a new one, i.e. one frame interval if the preview is running, otherwise 0.
+     */
+    protected long getPreviewFrameWaitMs() {
+        if (thread == null || fps <= 0 || NanosecondTime.isVirtualClock() || isPreviewSuspended()) {
+            return 0;
+        }
+        return (long) Math.ceil(1000. / fps);
+    }
+
+    @Override
+    protected BufferedImage captureAfter(long time) throws Exception {
+        // The time is already the settled time, so just wait for it to arrive.
+        return captureFrameAfter(time, Long.MAX_VALUE/1000000L).getImage();
+    }
+
     protected BufferedImage getLastTransformedImage() {
-        return lastTransformedImage.get();
+        Frame frame = getLatestFrame();
+        return (frame != null ? frame.image : null);
     }
 
     protected void setLastTransformedImage(BufferedImage lastTransformedImage) {
-        this.lastTransformedImage.set(lastTransformedImage);
-        notifyCapture();
+        addFrame(lastTransformedImage, NanosecondTime.getRuntime());
     }
 
     protected void notifyCapture() {
@@ -328,19 +606,20 @@ public abstract class AbstractBroadcastingCamera extends AbstractSettlingCamera
             try {
                 // The camera should reuse images recently captures by on-going computer vision as 
                 // every call to captureTransformed() may consume the frame and make it unavailable 
-                // to computer vision.  
-                // Note, by using the atomic getAndSet() we make sure not to miss the last image.
-                BufferedImage img = lastTransformedImage.getAndSet(null);
-                if (img == null && !isPreviewSuspended()) {
+                // to computer vision. The frames are taken from the frame ring, without copying.  
+                // Note, by comparing the sequence we make sure not to miss the last image.
+                Frame frame = getLatestFrame();
+                if ((frame == null || frame.sequence <= broadcastSequence) && !isPreviewSuspended()) {
                     if (hasNewFrame()){
                         // None available, try capture a new frame.
                         captureTransformed();
-                        // Void the last image, so a new one will be triggered next time.
-                        img = lastTransformedImage.getAndSet(null);
+                        frame = getLatestFrame();
                     }
                 }
-                if (img != null) {
-                    broadcastCapture(img);
+                if (frame != null && frame.sequence > broadcastSequence) {
+                    // Remember the broadcast frame, so a new one will be triggered next time.
+                    broadcastSequence = frame.sequence;
+                    broadcastCapture(frame.image);
                 }
             }
             catch (Exception e) {
@@ -40,14 +40,21 @@ import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 import org.openpnp.gui.MainFrame;
+import org.openpnp.model.AxesLocation;
 import org.openpnp.model.Configuration;
+import org.openpnp.model.Motion;
+import org.openpnp.spi.Axis;
+import org.openpnp.spi.Machine;
+import org.openpnp.spi.MotionPlanner;
 import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.spi.base.AbstractCamera;
+import org.openpnp.util.JobTiming;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.SimpleGraph;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.Element;
 import org.simpleframework.xml.core.Commit;
 
 public abstract class AbstractSettlingCamera extends AbstractCamera {
@@ -203,6 +210,30 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
     @Attribute(required = false)
     protected boolean settleDiagnostics = false;
 
+    /**
+     * If enabled, the settle time is predicted from the last move, as learned from past auto 
+     * settling. Once predicted, the frame is captured right away at the predicted time, without 
+     * image comparison.  
+     */
+    @Attribute(required = false)
+    protected boolean settlePredictive = false;
+
+    /**
+     * Minimum number of learned auto settling samples, before the prediction is used. 
+     */
+    @Attribute(required = false)
+    protected int settlePredictiveMinSamples = 5;
+
+    /**
+     * Every Nth predicted settle is instead verified with auto settling, which is learned like any 
+     * other, so the prediction keeps following the machine. Zero to never verify. 
+     */
+    @Attribute(required = false)
+    protected int settlePredictiveVerifyInterval = 10;
+
+    @Element(required = false)
+    protected SettlePrediction settlePrediction = new SettlePrediction();
+
     @Commit
     protected void commit() throws Exception {
         if (settleMethod == null) {
@@ -231,6 +262,7 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
     private int recordedMaskDiameter;
     private double recordedComputeMilliseconds;
     private long recordedSettleMilliseconds;
+    private long predictedSettleCount;
 
     private SimpleGraph startDiagnostics() {
         if (settleDiagnostics) {
@@ -263,7 +295,130 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         }
     }
 
-    private BufferedImage autoSettleAndCapture(double settleMaskCircle) throws Exception {
+    /**
+     * The dominant axis move of a motion, used to learn and predict the settle time. 
+     */
+    protected static class SettleMove {
+        private final String axis;
+        private final double distance;
+        private final long endTime;
+
+        protected SettleMove(String axis, double distance, long endTime) {
+            this.axis = axis;
+            this.distance = distance;
+            this.endTime = endTime;
+        }
+
+        /**
+         * @param motion
+         * @return The move of the linear axis with the largest displacement, or of the rotation 
+         * axis if no linear axis moved, or null if nothing moved.  
+         */
+        protected static SettleMove of(Motion motion) {
+            if (motion == null) {
+                return null;
+            }
+            AxesLocation location0 = motion.getLocation0();
+            AxesLocation location1 = motion.getLocation1();
+            Axis dominantAxis = null;
+            double dominantDistance = 0;
+            boolean dominantLinear = false;
+            for (Axis axis : location1.getAxes()) {
+                if (!location0.contains(axis)) {
+                    continue;
+                }
+                double distance = Math.abs(location1.getCoordinate(axis) - location0.getCoordinate(axis));
+                boolean linear = (axis.getType() != Axis.Type.Rotation);
+                if (distance > 0 
+                        && ((linear && !dominantLinear) 
+                                || (linear == dominantLinear && distance > dominantDistance))) {
+                    dominantAxis = axis;
+                    dominantDistance = distance;
+                    dominantLinear = linear;
+                }
+            }
+            if (dominantAxis == null) {
+                return null;
+            }
+            return new SettleMove(dominantAxis.getName(), dominantDistance, 
+                    (long) (motion.getPlannedTime1()*1e9));
+        }
+
+        public String getAxis() {
+            return axis;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+
+        /**
+         * @return The planned end time of the move in {@link NanosecondTime#getRuntime()} nanoseconds.
+         */
+        public long getEndTime() {
+            return endTime;
+        }
+    }
+
+    /**
+     * @return The last move of the machine, or null if there is none.
+     */
+    protected SettleMove getLastSettleMove() {
+        Machine machine = Configuration.get().getMachine();
+        if (machine == null) {
+            return null;
+        }
+        MotionPlanner motionPlanner = machine.getMotionPlanner();
+        if (motionPlanner == null) {
+            return null;
+        }
+        return SettleMove.of(motionPlanner.getLastMotion());
+    }
+
+    /**
+     * Waits for the predicted settle time after the move and captures right away.  
+     * 
+     * @param move
+     * @return The captured image or null if the settle time cannot be predicted (yet), or if this
+     * prediction is to be verified, see {@link #getSettlePredictiveVerifyInterval()}.
+     * @throws Exception
+     */
+    private BufferedImage predictiveSettleAndCapture(SettleMove move) throws Exception {
+        Double predictedMs = settlePrediction.predict(move.axis, move.distance, settlePredictiveMinSamples);
+        if (predictedMs == null) {
+            return null;
+        }
+        if (settlePredictiveVerifyInterval > 0 
+                && ++predictedSettleCount % settlePredictiveVerifyInterval == 0) {
+            Logger.debug("{} verifying predicted settle of {} ms after {} move of {}", getName(), 
+                    String.format("%.1f", predictedMs), move.axis, String.format("%.3f", move.distance));
+            return null;
+        }
+        long t0 = NanosecondTime.getRuntime();
+        long settleTime = move.endTime + (long) (Math.min(predictedMs, settleTimeoutMs)*1e6);
+        recordedSettleMilliseconds = Math.max(0, settleTime - t0)/1000000;
+        Logger.debug("{} predictive settle after {} move of {} in {} ms", getName(), move.axis, 
+                String.format("%.3f", move.distance), recordedSettleMilliseconds);
+        return captureAfter(settleTime);
+    }
+
+    /**
+     * Captures an image exposed at or after the given time. Waits until the time has arrived, then
+     * captures. Cameras that keep recent frames may return one of them instead.
+     * 
+     * @param time The {@link NanosecondTime#getRuntime()} time.
+     * @return
+     * @throws Exception
+     */
+    protected BufferedImage captureAfter(long time) throws Exception {
+        long waitNs = time - NanosecondTime.getRuntime();
+        if (waitNs > 0) {
+            NanosecondTime.sleep(waitNs/1000000, (int) (waitNs%1000000));
+        }
+        return capture();
+    }
+
+    private BufferedImage autoSettleAndCapture(double settleMaskCircle, SettleMove move) throws Exception {
         Mat mask = null;
         Mat maskFullsize = null;
         Mat lastSettleMat = null;
@@ -286,6 +441,7 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                 }
 
                 // The actual capture.
+                long captureStartTime = NanosecondTime.getRuntime();
                 BufferedImage image = capture();
 
                 long t1 = NanosecondTime.getRuntimeMilliseconds();
@@ -436,6 +592,13 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                     }
                     recordedSettleMilliseconds = NanosecondTime.getRuntimeMilliseconds() - t0;
                     Logger.debug("autoSettleAndCapture in {} ms", recordedSettleMilliseconds);
+                    if (move != null && debounceCount > settleDebounce
+                            && t0 - move.endTime/1000000 < settleTimeoutMs) {
+                        // Settled in time and the settling started soon after the move, so the 
+                        // settle time from the end of the move is meaningful. Learn it. 
+                        settlePrediction.learn(move.axis, move.distance, 
+                                (captureStartTime - move.endTime)*1e-6);
+                    }
                     return image;
                 }
             }
@@ -652,6 +815,7 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         globals.put("camera", this);
         Configuration.get().getScripting().on("Camera.BeforeSettle", globals);
 
+        long t0 = JobTiming.begin();
         try {
             // Make sure the camera (or its subject) stands still.
             waitForCompletion(CompletionType.WaitForStillstand);
@@ -661,21 +825,22 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                 settleMethod = SettleMethod.FixedTime;
             }
             if (settleMethod == SettleMethod.FixedTime) {
-                try {
-                    Logger.trace(getName()+" settling fixed time "+getSettleTimeMs()+"ms");
-                    Thread.sleep(getSettleTimeMs());
-                }
-                catch (Exception e) {
-
-                }
-                return capture();
+                Logger.trace(getName()+" settling fixed time "+getSettleTimeMs()+"ms");
+                return captureAfter(NanosecondTime.getRuntime() + getSettleTimeMs()*1000000L);
             }
             else {
-                return autoSettleAndCapture(settleOption == SettleOption.SettleFullArea ? 0 : settleMaskCircle);
+                SettleMove move = (settlePredictive ? getLastSettleMove() : null);
+                if (move != null && !settleDiagnostics) {
+                    BufferedImage image = predictiveSettleAndCapture(move);
+                    if (image != null) {
+                        return image;
+                    }
+                }
+                return autoSettleAndCapture(settleOption == SettleOption.SettleFullArea ? 0 : settleMaskCircle, move);
             }
         }
         finally {
-
+            JobTiming.end(JobTiming.SETTLE, t0);
             Configuration.get().getScripting().on("Camera.AfterSettle", globals);
         }
     }
@@ -775,6 +940,40 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         }
     }
 
+    public boolean isSettlePredictive() {
+        return settlePredictive;
+    }
+
+    public void setSettlePredictive(boolean settlePredictive) {
+        Object oldValue = this.settlePredictive;
+        this.settlePredictive = settlePredictive;
+        firePropertyChange("settlePredictive", oldValue, settlePredictive);
+    }
+
+    public int getSettlePredictiveMinSamples() {
+        return settlePredictiveMinSamples;
+    }
+
+    public void setSettlePredictiveMinSamples(int settlePredictiveMinSamples) {
+        Object oldValue = this.settlePredictiveMinSamples;
+        this.settlePredictiveMinSamples = settlePredictiveMinSamples;
+        firePropertyChange("settlePredictiveMinSamples", oldValue, settlePredictiveMinSamples);
+    }
+
+    public int getSettlePredictiveVerifyInterval() {
+        return settlePredictiveVerifyInterval;
+    }
+
+    public void setSettlePredictiveVerifyInterval(int settlePredictiveVerifyInterval) {
+        Object oldValue = this.settlePredictiveVerifyInterval;
+        this.settlePredictiveVerifyInterval = settlePredictiveVerifyInterval;
+        firePropertyChange("settlePredictiveVerifyInterval", oldValue, settlePredictiveVerifyInterval);
+    }
+
+    public SettlePrediction getSettlePrediction() {
+        return settlePrediction;
+    }
+
     public double getRecordedComputeMilliseconds() {
         return recordedComputeMilliseconds;
     }
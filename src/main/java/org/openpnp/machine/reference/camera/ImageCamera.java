@@ -27,6 +27,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ConvolveOp;
+import java.awt.image.DataBufferByte;
 import java.awt.image.Kernel;
 import java.net.URL;
 import java.util.stream.IntStream;
@@ -34,6 +35,7 @@ import java.util.stream.IntStream;
 import javax.imageio.ImageIO;
 
 import org.opencv.core.Core;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.Scalar;
 import org.opencv.core.Size;
@@ -129,7 +131,15 @@ public class ImageCamera extends ReferenceCamera {
     @Attribute(required = false)
     private boolean subPixelRendering = true;
 
-    private double projectionFactor;
+    @Attribute(required = false)
+    private boolean openCvRendering = true;
+
+    private Mat sourceMat;
+    private Mat frameBuffer;
+    private Mat distortedBuffer;
+    private Mat distortionMap1;
+    private Mat distortionMap2;
+    private String distortionMapKey;
 
     public ImageCamera() {
         setUnitsPerPixel(new Location(LengthUnit.Millimeters, 0.04233, 0.04233, 0, 0));
@@ -191,6 +201,14 @@ public class ImageCamera extends ReferenceCamera {
         this.simulatedFlipped = simulatedFlipped;
     }
 
+    public boolean isOpenCvRendering() {
+        return openCvRendering;
+    }
+
+    public void setOpenCvRendering(boolean openCvRendering) {
+        this.openCvRendering = openCvRendering;
+    }
+
     public Location getImageUnitsPerPixel() {
         if (imageUnitsPerPixel == null) {
             imageUnitsPerPixel = getUnitsPerPixel();
@@ -261,6 +279,10 @@ public class ImageCamera extends ReferenceCamera {
         else {
             source = ImageIO.read(new URL(sourceUri));
         }
+        if (sourceMat != null) {
+            sourceMat.release();
+            sourceMat = null;
+        }
         super.open();
     }
 
@@ -275,7 +297,26 @@ public class ImageCamera extends ReferenceCamera {
         return frame;
     }
 
+    @Override
+    protected boolean isNativeMatCapture() {
+        return isOpenCvRendering();
+    }
+
+    @Override
+    protected synchronized Mat internalCaptureMat() {
+        if (! ensureOpen()) {
+            return null;
+        }
+        Location location = SimulationModeMachine.getSimulatedPhysicalLocation(this, getLooking(), false);
+        Mat mat = takeCaptureBuffer();
+        renderOpenCv(location, width, height, true).copyTo(mat);
+        return mat;
+    }
+
     protected BufferedImage locationCapture(Location location, int width, int height, boolean simulation) {
+        if (isOpenCvRendering()) {
+            return locationCaptureOpenCv(location, width, height, simulation);
+        }
         /*
          * Create a buffer that we will render the image view.
          */
@@ -284,41 +325,218 @@ public class ImageCamera extends ReferenceCamera {
         Graphics2D gFrame = frame.createGraphics();
         AffineTransform tx = gFrame.getTransform();
 
-        // apply configured offset
-        Location imageLocation = location.add(imageOffset);
-        
-        double locationX = imageLocation.getX();
-        double locationY = imageLocation.getY();
-
         Location upp = getImageUnitsPerPixel().convertToUnits(AxesLocation.getUnits());
-        double pixelX = locationX / upp.getX();
-        double pixelY = locationY / upp.getY();
 
         // Draw the image with sub-pixel rendering.
-        double dx = (pixelX - (width / 2.0));
-        double dy = (source.getHeight() - (pixelY + (height / 2.0)));
         gFrame.clearRect(0, 0, width, height);
         gFrame.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);//VALUE_INTERPOLATION_BILINEAR);
         gFrame.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         gFrame.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        double zRotRad = Math.toRadians(getSimulatedRotation());
         if (simulation) {
-            AffineTransform tg = new AffineTransform();
-            tg.translate(width/2, height/2);
-            tg.scale(isSimulatedFlipped() ? -getSimulatedScale() : getSimulatedScale(), getSimulatedScale());
-            tg.rotate(-zRotRad);
-            tg.translate(- width/2, - height/2);
+            gFrame.setTransform(getSimulationTransform(width, height));
+        }
+        gFrame.drawImage(source, getSourceTransform(location, upp, width, height), null);
+
+        double cameraDistance = getCameraDistance(upp, width, height);
+        // Draw the calibration fiducials. 
+        drawFiducials(gFrame, location, width, height, upp, cameraDistance);
+
+        if (getSimulatedDistortion() != 0.0 || getSimulatedYRotation() != 0.0) {
+            // Simulate camera lens distortion and mounting y rotation.
+            BufferedImage undistorted  = ImageUtils.clone(frame);
+            LensProjection projection = new LensProjection(width, height, upp, cameraDistance);
+            final int kernel_r = LensProjection.kernel_r;
+            int grayRGB = new Color(128, 128, 128).getRGB();
+            int baseRGB = new Color(0, 0, 0).getRGB();
+            IntStream.range(0, width-1).parallel().forEach(x -> {
+                double[] xy = new double[4];
+                for (int y = 0; y <= height-1; y++) {
+                    projection.project(x, y, xy);
+                    double xP = xy[0];
+                    double yP = xy[1];
+                    // Set the pixel.
+                    int x0 = (int)(xP);
+                    int y0 = (int)(yP);
+                    if (x0 >= 0 && x0+kernel_r < width && y0 >= 0 && y0+kernel_r < height) {
+                        double red = 0;
+                        double green = 0;
+                        double blue = 0;
+                        double norm = 0;
+                        for (int ix = x0; ix <= x0+kernel_r; ix++) {
+                            for (int iy = y0; iy <= y0+kernel_r; iy++) {
+                                int rgb = undistorted.getRGB(ix, iy);
+                                int r = (rgb >> 16) & 0xff;
+                                int g = (rgb >> 8) & 0xff;
+                                int b = (rgb >> 0) & 0xff;
+                                double dix = ix - xP;
+                                double diy = iy - yP;
+                                double di = (dix*dix + diy*diy);
+                                double weight = Math.max(0, 1.0 - di);
+                                norm += weight;
+                                red += weight*r;
+                                green += weight*g;
+                                blue += weight*b;
+                            }
+                        }
+                        int r = Math.max(0, Math.min(255, (int)(red/norm)));
+                        int g = Math.max(0, Math.min(255, (int)(green/norm)));
+                        int b = Math.max(0, Math.min(255, (int)(blue/norm)));
+                        int newRGB = baseRGB|(r<<16)|(g<<8)|(b<<0);
+                        frame.setRGB(x, y, newRGB);
+                    }
+                    else {
+                        frame.setRGB(x, y, grayRGB);
+                    }
+                }
+            });
+        }
+
+        if (simulation) {
+            gFrame.setTransform(tx);
+            SimulationModeMachine.simulateCameraExposure(this, gFrame, width, height);
+        }
+
+        gFrame.dispose();
+        return frame;
+    }
+
+    /**
+     * Renders the same view as {@link #locationCapture(Location, int, int, boolean)}, but with 
+     * OpenCV operations on pooled frame buffers: The source image is converted to a Mat once, 
+     * positioned, scaled and rotated using a single warpAffine(), and the lens distortion is applied 
+     * using remap() with maps that are only recomputed when the distortion parameters change.   
+     */
+    protected synchronized BufferedImage locationCaptureOpenCv(Location location, int width, int height, boolean simulation) {
+        return OpenCvUtils.toBufferedImage(renderOpenCv(location, width, height, simulation));
+    }
+
+    /**
+     * Renders the view with OpenCV, see {@link #locationCaptureOpenCv(Location, int, int, boolean)}.
+     * 
+     * @return One of the pooled frame buffers. It is only valid until the next rendering. 
+     */
+    private synchronized Mat renderOpenCv(Location location, int width, int height, boolean simulation) {
+        if (sourceMat == null) {
+            // Always render in color, like the Java2D renderer, and convert gray sources with the same
+            // Java2D color conversion, so both renderers produce the same frames.
+            sourceMat = OpenCvUtils.toMat(ImageUtils.convertBufferedImage(source, BufferedImage.TYPE_3BYTE_BGR));
+        }
+        Location upp = getImageUnitsPerPixel().convertToUnits(AxesLocation.getUnits());
+        AffineTransform tg = simulation ? getSimulationTransform(width, height) : new AffineTransform();
+        AffineTransform m = new AffineTransform(tg);
+        m.concatenate(getSourceTransform(location, upp, width, height));
+        // Java2D addresses the pixel centers at +0.5, OpenCV at the integer coordinates.
+        AffineTransform warp = AffineTransform.getTranslateInstance(-0.5, -0.5);
+        warp.concatenate(m);
+        warp.translate(0.5, 0.5);
+        double[] matrix = new double[6];
+        warp.getMatrix(matrix);
+        Mat warpMat = new Mat(2, 3, CvType.CV_64FC1);
+        warpMat.put(0, 0, matrix[0], matrix[2], matrix[4], matrix[1], matrix[3], matrix[5]);
+        if (frameBuffer == null) {
+            frameBuffer = new Mat();
+        }
+        Imgproc.warpAffine(sourceMat, frameBuffer, warpMat, new Size(width, height), 
+                Imgproc.INTER_CUBIC, Core.BORDER_CONSTANT, new Scalar(0, 0, 0));
+        warpMat.release();
+
+        double cameraDistance = getCameraDistance(upp, width, height);
+        if (getPrimaryFiducial().isInitialized() || getSecondaryFiducial().isInitialized()) {
+            // The fiducials are few, small shapes, draw them with Java2D right into the frame buffer.
+            BufferedImage image = OpenCvUtils.toBufferedImage(frameBuffer);
+            Graphics2D gFrame = image.createGraphics();
+            gFrame.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             gFrame.setTransform(tg);
+            drawFiducials(gFrame, location, width, height, upp, cameraDistance);
+            gFrame.dispose();
+            frameBuffer.put(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+        }
+
+        Mat frame = frameBuffer;
+        if (getSimulatedDistortion() != 0.0 || getSimulatedYRotation() != 0.0) {
+            // Simulate camera lens distortion and mounting y rotation.
+            String key = width+"x"+height+" "+upp.getX()+" "+cameraDistance+" "+getSimulatedDistortion()
+                +" "+getSimulatedYRotation()+" "+getSimulatedRotation();
+            if (!key.equals(distortionMapKey)) {
+                createDistortionMaps(width, height, upp, cameraDistance);
+                distortionMapKey = key;
+            }
+            if (distortedBuffer == null) {
+                distortedBuffer = new Mat();
+            }
+            Imgproc.remap(frameBuffer, distortedBuffer, distortionMap1, distortionMap2, Imgproc.INTER_LINEAR, 
+                    Core.BORDER_CONSTANT, new Scalar(128, 128, 128));
+            frame = distortedBuffer;
+        }
+
+        if (simulation) {
+            SimulationModeMachine.simulateCameraExposure(this, frame);
+        }
+        return frame;
+    }
+
+    private void createDistortionMaps(int width, int height, Location upp, double cameraDistance) {
+        LensProjection projection = new LensProjection(width, height, upp, cameraDistance);
+        float[] mapX = new float[width*height];
+        float[] mapY = new float[width*height];
+        IntStream.range(0, height).parallel().forEach(y -> {
+            double[] xy = new double[4];
+            for (int x = 0; x < width; x++) {
+                projection.project(x, y, xy);
+                mapX[y*width + x] = (float) xy[0];
+                mapY[y*width + x] = (float) xy[1];
+            }
+        });
+        Mat map1 = new Mat(height, width, CvType.CV_32FC1);
+        Mat map2 = new Mat(height, width, CvType.CV_32FC1);
+        map1.put(0, 0, mapX);
+        map2.put(0, 0, mapY);
+        if (distortionMap1 == null) {
+            distortionMap1 = new Mat();
+            distortionMap2 = new Mat();
         }
+        // Convert to the fixed-point representation once, see ReferenceCamera. 
+        Imgproc.convertMaps(map1, map2, distortionMap1, distortionMap2, CvType.CV_16SC2);
+        map1.release();
+        map2.release();
+    }
+
+    private AffineTransform getSimulationTransform(int width, int height) {
+        double zRotRad = Math.toRadians(getSimulatedRotation());
+        AffineTransform tg = new AffineTransform();
+        tg.translate(width/2, height/2);
+        tg.scale(isSimulatedFlipped() ? -getSimulatedScale() : getSimulatedScale(), getSimulatedScale());
+        tg.rotate(-zRotRad);
+        tg.translate(- width/2, - height/2);
+        return tg;
+    }
+
+    private AffineTransform getSourceTransform(Location location, Location upp, int width, int height) {
+        // apply configured offset
+        Location imageLocation = location.add(imageOffset);
+
+        double locationX = imageLocation.getX();
+        double locationY = imageLocation.getY();
+
+        double pixelX = locationX / upp.getX();
+        double pixelY = locationY / upp.getY();
+
+        double dx = (pixelX - (width / 2.0));
+        double dy = (source.getHeight() - (pixelY + (height / 2.0)));
         AffineTransform t = new AffineTransform();
         t.translate(-dx, -dy); // x/y set here
-        gFrame.drawImage(source, t, null);
+        return t;
+    }
 
+    private double getCameraDistance(Location upp, int width, int height) {
         double cameraViewDiagonal = Math.sqrt(Math.pow(upp.getX()*width, 2) + Math.pow(upp.getY()*height, 2));
         double sensorDiagonal = getSensorDiagonal().convertToUnits(AxesLocation.getUnits()).getValue();
         double focalLength = getFocalLength().convertToUnits(AxesLocation.getUnits()).getValue();
-        double cameraDistance = focalLength*cameraViewDiagonal/sensorDiagonal;
-        // Draw the calibration fiducials. 
+        return focalLength*cameraViewDiagonal/sensorDiagonal;
+    }
+
+    private void drawFiducials(Graphics2D gFrame, Location location, int width, int height, Location upp, 
+            double cameraDistance) {
         Location fiducial1 = getPrimaryFiducial();
         if (fiducial1.isInitialized()) {
             fiducial1 = fiducial1.convertToUnits(AxesLocation.getUnits()).subtract(location);
@@ -333,125 +551,99 @@ public class ImageCamera extends ReferenceCamera {
             Location upp2 = upp.multiply(secondaryDistance/cameraDistance);
             drawFiducial(gFrame, width, height, upp, upp2, fiducial2);
         }
+    }
 
-        if (getSimulatedDistortion() != 0.0 || getSimulatedYRotation() != 0.0) {
-            // Simulate camera lens distortion and mounting y rotation.
-            BufferedImage undistorted  = ImageUtils.clone(frame);
-            double xo = 0.5 - width/2;
-            double yo = 0.5 - height/2;
+    /**
+     * The simulated camera lens distortion and mounting y rotation, as a projection of the pixels 
+     * of the distorted view to the pixels of the undistorted view.
+     */
+    private class LensProjection {
+        static final int kernel_r = 1;
+
+        final double xo;
+        final double yo;
+        final double factor;
+        final double dist;
+        final double yRotRad;
+        final double tanYaw;
+        final double zFactorYaw;
+        final double distort;
+        final double zRotSin;
+        final double zRotCos;
+        double projectionFactor;
+
+        LensProjection(int width, int height, Location upp, double cameraDistance) {
+            xo = 0.5 - width/2;
+            yo = 0.5 - height/2;
             double radius = Math.hypot(width, height)/2;
-            double dist = cameraDistance/(upp.getX()*radius);
-            double factor = 1.0/radius;
+            dist = cameraDistance/(upp.getX()*radius);
+            factor = 1.0/radius;
             double zFactor = 1.0/dist;
-            double yRotRad = Math.toRadians(getSimulatedYRotation());
+            yRotRad = Math.toRadians(getSimulatedYRotation());
             double sinYaw = Math.sin(yRotRad);
             double cosYaw = Math.cos(yRotRad);
-            double tanYaw = sinYaw/cosYaw;
-            double zFactorYaw = zFactor*sinYaw;
-            double distort = 0.01*getSimulatedDistortion();
+            tanYaw = sinYaw/cosYaw;
+            zFactorYaw = zFactor*sinYaw;
+            distort = 0.01*getSimulatedDistortion();
+            double zRotRad = Math.toRadians(getSimulatedRotation());
+            zRotSin = Math.sin(zRotRad);
+            zRotCos = Math.cos(zRotRad);
             projectionFactor = radius;
-            double zRotSin = Math.sin(zRotRad);
-            double zRotCos = Math.cos(zRotRad);
-            final int kernel_r = 1;
-            int grayRGB = new Color(128, 128, 128).getRGB();
-            int baseRGB = new Color(0, 0, 0).getRGB();
-            // First pass  : stake out the projection by 9 points and calculate the projectionFactor.
-            // Second pass : actually apply the projection to the pixels.
-            for (int pass = 0; pass < 2; pass++) {
-                final int xStep = pass == 0 ? width/2 : 1;
-                final int yStep = pass == 0 ? height/2 : 1;
-                final int x1 = pass == 0 ? 3 : width-1; //width : width-1;
-                final int y1 = pass == 0 ? height : height-1;
-                final int passf = pass;
-                IntStream.range(0, x1).parallel().forEach(xi -> {
-                    int x = xi*xStep;
-                //for (int x = 0; x <= x1; x += xStep) {
-                    for (int y = 0; y <= y1; y += yStep) {
-                        // Normed to ±1.0
-                        double xN = (x + xo)*factor; 
-                        double yN = (y + yo)*factor;
-                        double radial = Math.hypot(xN, yN);
-                        // Distortion
-                        double distortion = (1-distort)*radial + distort*(-0.2*Math.pow(radial, 2) + 0.8*Math.pow(radial, 4) + 0.4*Math.pow(radial, 6));
-                        double xD = xN/radial*distortion;
-                        double yD = yN/radial*distortion;
-                        // Rotate back in Z 
-                        double xR = xD*zRotCos + yD*zRotSin;
-                        double yR = - xD*zRotSin + yD*zRotCos;
-                        // Reverse perspective transform
-                        double alpha = Math.atan2(xR, dist)-yRotRad;
-                        double xY = (Math.tan(alpha)+tanYaw)*dist;
-                        double zT = 1.0 - xY*zFactorYaw;
-                        double yY = yR*zT;
-                        // Rotate back in Z 
-                        double xT = xY*zRotCos - yY*zRotSin;
-                        double yT = xY*zRotSin + yY*zRotCos;
-                        // Pixel coordinates
-                        double xP = (xT*projectionFactor - xo);
-                        double yP = (yT*projectionFactor - yo);
-
-                        if (passf == 0) {
-                            // Minimize the projectionFactor.
-                            if (xP < kernel_r) {
-                                projectionFactor = (kernel_r + xo)/xT;
-                            }
-                            else if (xP > width-kernel_r) {
-                                projectionFactor = (-kernel_r + width + xo)/xT;
-                            }
-                            else if (yP < kernel_r) {
-                                projectionFactor = (kernel_r + yo)/yT;
-                            }
-                            else if (yP > height-kernel_r) {
-                                projectionFactor = (-kernel_r + height + yo)/yT;
-                            }
-                        }
-                        else {  
-                            // Set the pixel.
-                            int x0 = (int)(xP);
-                            int y0 = (int)(yP);
-                            if (x0 >= 0 && x0+kernel_r < width && y0 >= 0 && y0+kernel_r < height) {
-                                double red = 0;
-                                double green = 0;
-                                double blue = 0;
-                                double norm = 0;
-                                for (int ix = x0; ix <= x0+kernel_r; ix++) {
-                                    for (int iy = y0; iy <= y0+kernel_r; iy++) {
-                                        int rgb = undistorted.getRGB(ix, iy);
-                                        int r = (rgb >> 16) & 0xff;
-                                        int g = (rgb >> 8) & 0xff;
-                                        int b = (rgb >> 0) & 0xff;
-                                        double dix = ix - xP;
-                                        double diy = iy - yP;
-                                        double di = (dix*dix + diy*diy);
-                                        double weight = Math.max(0, 1.0 - di);
-                                        norm += weight;
-                                        red += weight*r;
-                                        green += weight*g;
-                                        blue += weight*b;
-                                    }
-                                }
-                                int r = Math.max(0, Math.min(255, (int)(red/norm)));
-                                int g = Math.max(0, Math.min(255, (int)(green/norm)));
-                                int b = Math.max(0, Math.min(255, (int)(blue/norm)));
-                                int newRGB = baseRGB|(r<<16)|(g<<8)|(b<<0);
-                                frame.setRGB(x, y, newRGB);
-                            }
-                            else {
-                                frame.setRGB(x, y, grayRGB);
-                            }
-                        }
+            // Stake out the projection by 9 points and minimize the projectionFactor.
+            double[] xy = new double[4];
+            for (int xi = 0; xi <= 2; xi++) {
+                for (int yi = 0; yi <= 2; yi++) {
+                    project(xi*(width/2), yi*(height/2), xy);
+                    double xP = xy[0];
+                    double yP = xy[1];
+                    double xT = xy[2];
+                    double yT = xy[3];
+                    if (xP < kernel_r) {
+                        projectionFactor = (kernel_r + xo)/xT;
                     }
-                });
+                    else if (xP > width-kernel_r) {
+                        projectionFactor = (-kernel_r + width + xo)/xT;
+                    }
+                    else if (yP < kernel_r) {
+                        projectionFactor = (kernel_r + yo)/yT;
+                    }
+                    else if (yP > height-kernel_r) {
+                        projectionFactor = (-kernel_r + height + yo)/yT;
+                    }
+                }
             }
         }
 
-        if (simulation) {
-            gFrame.setTransform(tx);
-            SimulationModeMachine.simulateCameraExposure(this, gFrame, width, height);
+        /**
+         * Projects the pixel x, y. Sets xy to the pixel coordinates in the undistorted view, followed 
+         * by the normed coordinates. 
+         */
+        void project(double x, double y, double[] xy) {
+            // Normed to ±1.0
+            double xN = (x + xo)*factor; 
+            double yN = (y + yo)*factor;
+            double radial = Math.hypot(xN, yN);
+            // Distortion
+            double distortion = (1-distort)*radial + distort*(-0.2*Math.pow(radial, 2) + 0.8*Math.pow(radial, 4) + 0.4*Math.pow(radial, 6));
+            double xD = xN/radial*distortion;
+            double yD = yN/radial*distortion;
+            // Rotate back in Z 
+            double xR = xD*zRotCos + yD*zRotSin;
+            double yR = - xD*zRotSin + yD*zRotCos;
+            // Reverse perspective transform
+            double alpha = Math.atan2(xR, dist)-yRotRad;
+            double xY = (Math.tan(alpha)+tanYaw)*dist;
+            double zT = 1.0 - xY*zFactorYaw;
+            double yY = yR*zT;
+            // Rotate back in Z 
+            double xT = xY*zRotCos - yY*zRotSin;
+            double yT = xY*zRotSin + yY*zRotCos;
+            // Pixel coordinates
+            xy[0] = (xT*projectionFactor - xo);
+            xy[1] = (yT*projectionFactor - yo);
+            xy[2] = xT;
+            xy[3] = yT;
         }
-
-        gFrame.dispose();
-        return frame;
     }
 
     protected void blurObjectIntoView(Graphics2D gView, BufferedImage frame) {
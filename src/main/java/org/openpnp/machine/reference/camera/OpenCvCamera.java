@@ -79,6 +79,29 @@ public class OpenCvCamera extends ReferenceCamera implements Runnable {
         }
     }
 
+    @Override
+    protected boolean isNativeMatCapture() {
+        return true;
+    }
+
+    @Override
+    protected synchronized Mat internalCaptureMat() {
+        if (! ensureOpen()) {
+            return null;
+        }
+        // Read right into a pooled buffer, VideoCapture reuses its native memory.  
+        Mat mat = takeCaptureBuffer();
+        try {
+            if (fg.read(mat)) {
+                return mat;
+            }
+        }
+        catch (Exception e) {
+        }
+        recycleCaptureBuffer(mat);
+        return null;
+    }
+
     @Override
     public void open() throws Exception {
         stop();
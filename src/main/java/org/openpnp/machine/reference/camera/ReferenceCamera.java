@@ -23,7 +23,9 @@ import java.awt.Color;
 import java.awt.event.ActionEvent;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -68,6 +70,7 @@ import org.openpnp.spi.Head;
 import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Machine;
 import org.openpnp.util.Collect;
+import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.SimpleGraph;
 import org.openpnp.util.VisionUtils;
@@ -185,6 +188,17 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
     private Mat undistortionMap1;
     private Mat undistortionMap2;
     private Mat lut;
+    /**
+     * Destination buffers recycled by advancedUndistort(). More than one is needed when frames 
+     * are transformed concurrently, e.g. by the camera stream and a vision operation.  
+     */
+    private final Deque<Mat> undistortionBuffers = new ArrayDeque<>();
+    private static final int maxUndistortionBuffers = 3;
+    /**
+     * Capture buffers recycled by the image transforms, see takeCaptureBuffer(). 
+     */
+    private final Deque<Mat> captureBuffers = new ArrayDeque<>();
+    private static final int maxCaptureBuffers = 3;
 
     private LensCalibration lensCalibration;
 
@@ -225,7 +239,7 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         globals.put("camera", this);
         Configuration.get().getScripting().on("Camera.BeforeCapture", globals);
 
-        BufferedImage image = captureTransformed();
+        BufferedImage image = captureTransformed(true);
 
         Configuration.get().getScripting().on("Camera.AfterCapture", globals);
         return image;
@@ -233,10 +247,24 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
     
     /**
      * Captures an image using captureRaw(), applies local transformations and returns the image.
+     * Cameras with a native Mat capture skip the BufferedImage of the raw image, see 
+     * {@link #isNativeMatCapture()}. 
+     * The image is added to the frame ring, tagged with the time the capture was started.
      */
     @Override
     public BufferedImage captureTransformed() {
-        return transformImage(captureRaw());
+        return captureTransformed(false);
+    }
+
+    private BufferedImage captureTransformed(boolean captured) {
+        long captureTime = NanosecondTime.getRuntime();
+        BufferedImage image = isNativeMatCapture() ? 
+                captureTransformedMat() 
+                : transformImage(captureRaw());
+        if (image != null) {
+            addFrame(image, captureTime, captured);
+        }
+        return image;
     }
     
     /**
@@ -571,68 +599,212 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             if (image == null) {
                 return null;
             }
+            // We do skip the convert to and from Mat if no transforms are needed.
+            if (isTransformingImage()) {
+                image = transformMat(OpenCvUtils.toMat(image, takeCaptureBuffer()));
+            }
+            else {
+                // save the new image dimensions
+                width = image.getWidth();
+                height = image.getHeight();
+            }
+        }
+        catch (Exception e) {
+            Logger.error(e);
+        }
+        return image;
+    }
 
+    /**
+     * @return True if the captured image needs to be transformed, i.e. converted to a Mat.
+     */
+    protected boolean isTransformingImage() {
+        if (advancedCalibration.isOverridingOldTransformsAndDistortionCorrectionSettings()) {
+            //Skip all the old style image transforms and distortion corrections except for 
+            //deinterlacing, cropping, and white balancing
+            return advancedCalibration.isEnabled()
+                || isDeinterlaced() 
+                || isCropped() 
+                || isWhiteBalanced();
+        }
+        // Old style of image transforms and distortion correction
+        // We must enter while performing original calibration.
+        return isDeinterlaced()
+            || isCropped() 
+            || isCalibrating()
+            || isUndistorted()
+            || isScaled()
+            || isRotated()
+            || isOffset()
+            || isFlipped()
+            || isWhiteBalanced();
+    }
+
+    /**
+     * Applies the image transforms to the captured Mat and converts the result to a BufferedImage. 
+     * The given Mat is consumed, i.e. it is handed back to the capture buffer pool. The transforms
+     * write into their own destination Mats, these intermediate results are released.
+     * 
+     * @param captured
+     * @return
+     * @throws Exception
+     */
+    protected BufferedImage transformMat(Mat captured) throws Exception {
+        BufferedImage image;
+        Mat mat = captured;
+        try {
             if (advancedCalibration.isOverridingOldTransformsAndDistortionCorrectionSettings()) {
                 //Skip all the old style image transforms and distortion corrections except for 
                 //deinterlacing, cropping, and white balancing
-                if (isDeinterlaced() || isCropped() || isWhiteBalanced() || advancedCalibration.isEnabled()) {
-                    Mat mat = OpenCvUtils.toMat(image);
-                    mat = deinterlace(mat);
-                    mat = crop(mat);
-                    mat = whiteBalance(mat);
-                    mat = advancedUndistort(mat);
+                if (advancedCalibration.isEnabled()) {
+                    mat = transformed(captured, mat, deinterlace(mat));
+                    // Crop as a region of interest view, without copying. The remap only 
+                    // reads the pixels it needs from the region.
+                    Mat roi = isCropped() ? mat.submat(getCropRect(mat)) : mat;
+                    Mat balanced = whiteBalance(roi);
+                    Mat undistorted = advancedUndistort(balanced);
+                    image = OpenCvUtils.toBufferedImage(undistorted);
+                    if (undistorted != balanced) {
+                        recycleUndistortionBuffer(undistorted);
+                    }
+                    if (balanced != roi) {
+                        balanced.release();
+                    }
+                    if (roi != mat) {
+                        roi.release();
+                    }
+                }
+                else {
+                    mat = transformed(captured, mat, deinterlace(mat));
+                    mat = transformed(captured, mat, crop(mat));
+                    mat = transformed(captured, mat, whiteBalance(mat));
                     image = OpenCvUtils.toBufferedImage(mat);
-                    mat.release();
                 }
             }
-            // Old style of image transforms and distortion correction
-            // We do skip the convert to and from Mat if no transforms are needed.
-            // But we must enter while performing original calibration.
-            else if (isDeinterlaced()
-                || isCropped() 
-                || isCalibrating()
-                || isUndistorted()
-                || isScaled()
-                || isRotated()
-                || isOffset()
-                || isFlipped()
-                || isWhiteBalanced()) {
-
-                Mat mat = OpenCvUtils.toMat(image);
-
-                mat = deinterlace(mat);
+            else {
+                // Old style of image transforms and distortion correction
+                mat = transformed(captured, mat, deinterlace(mat));
 
-                mat = crop(mat);
+                mat = transformed(captured, mat, crop(mat));
 
-                mat = whiteBalance(mat);
+                mat = transformed(captured, mat, whiteBalance(mat));
 
-                mat = calibrate(mat);
+                mat = transformed(captured, mat, calibrate(mat));
 
-                mat = undistort(mat);
+                mat = transformed(captured, mat, undistort(mat));
 
                 // apply affine transformations
-                mat = scale(mat);
+                mat = transformed(captured, mat, scale(mat));
 
-                mat = rotate(mat);
+                mat = transformed(captured, mat, rotate(mat));
 
-                mat = offset(mat);
+                mat = transformed(captured, mat, offset(mat));
 
-                mat = flip(mat);
+                mat = transformed(captured, mat, flip(mat));
 
                 image = OpenCvUtils.toBufferedImage(mat);
-                mat.release();
             }
-            if (image != null) {
-                // save the new image dimensions
-                width = image.getWidth();
-                height = image.getHeight();
-                setLastTransformedImage(image);
+        }
+        finally {
+            if (mat != captured) {
+                mat.release();
             }
+            recycleCaptureBuffer(captured);
+        }
+        // save the new image dimensions
+        width = image.getWidth();
+        height = image.getHeight();
+        return image;
+    }
+
+    /**
+     * Chains the transform steps. The source of a step is released, if the step wrote the result
+     * into a new Mat, unless it is the captured Mat, which is recycled by transformMat().
+     * 
+     * @param captured
+     * @param source
+     * @param result
+     * @return result
+     */
+    private static Mat transformed(Mat captured, Mat source, Mat result) {
+        if (result != source && source != captured) {
+            source.release();
+        }
+        return result;
+    }
+
+    /**
+     * Cameras that capture native Mat frames can override this and return true, to have 
+     * {@link #internalCaptureMat()} used instead of {@link #internalCapture()}. This avoids the 
+     * round trip through a BufferedImage before the image transforms. 
+     * 
+     * @return
+     */
+    protected boolean isNativeMatCapture() {
+        return false;
+    }
+
+    /**
+     * Captures a native Mat frame, see {@link #isNativeMatCapture()}. Implementations should 
+     * capture into a buffer obtained by {@link #takeCaptureBuffer()}.
+     * 
+     * @return The captured frame, or null if it failed.
+     */
+    protected Mat internalCaptureMat() {
+        return null;
+    }
+
+    /**
+     * Captures a native Mat frame and transforms it. If the capture fails, falls back to the 
+     * regular capture, with its retries and error image.
+     * 
+     * @return
+     */
+    protected BufferedImage captureTransformedMat() {
+        Mat mat;
+        synchronized (this) {
+            mat = ensureOpen() ? internalCaptureMat() : null;
+        }
+        if (mat == null) {
+            return transformImage(captureRaw());
+        }
+        try {
+            return transformMat(mat);
         }
         catch (Exception e) {
             Logger.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * @return A Mat from the capture buffer pool. Converting or capturing into it reuses its 
+     * native buffer, if it has the right size and type. 
+     */
+    protected synchronized Mat takeCaptureBuffer() {
+        Mat mat = captureBuffers.poll();
+        if (mat == null) {
+            mat = new Mat();
+        }
+        return mat;
+    }
+
+    /**
+     * Hands a Mat obtained from takeCaptureBuffer() back to the capture buffer pool. A Mat that was
+     * released in the meantime is not taken back, it has no buffer left to reuse.
+     *  
+     * @param mat
+     */
+    protected synchronized void recycleCaptureBuffer(Mat mat) {
+        if (mat.empty()) {
+            return;
+        }
+        if (captureBuffers.size() < maxCaptureBuffers && !captureBuffers.contains(mat)) {
+            captureBuffers.push(mat);
+        }
+        else {
+            mat.release();
         }
-        return image;
     }
 
     @Override
@@ -649,32 +821,61 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         return super.getUnitsPerPixel(viewingPlaneZ);
     }
 
+    /**
+     * Undistorts the image using the advanced calibration. The returned Mat is taken from the 
+     * undistortion buffer pool and should be handed back using recycleUndistortionBuffer(), once
+     * it is no longer needed. The given Mat is left to the caller.  
+     * 
+     * @param mat
+     * @return
+     */
     private synchronized Mat advancedUndistort(Mat mat) {
         if (!advancedCalibration.isEnabled()) {
             return mat;
         }
-        Mat dst = mat.clone();
         if (undistortionMap1 == null || undistortionMap2 == null) {
-            if (undistortionMap1 == null) {
-                undistortionMap1 = new Mat();
-            }
-            if (undistortionMap2 == null) {
-                undistortionMap2 = new Mat();
-            }
-            advancedCalibration.initUndistortRectifyMap(undistortionMap1, undistortionMap2);
+            Mat map1 = new Mat();
+            Mat map2 = new Mat();
+            advancedCalibration.initUndistortRectifyMap(map1, map2);
+            // Convert the floating point maps to the fixed-point representation once. Imgproc.remap()
+            // would otherwise do this conversion internally, on every frame.
+            undistortionMap1 = new Mat();
+            undistortionMap2 = new Mat();
+            Imgproc.convertMaps(map1, map2, undistortionMap1, undistortionMap2, CvType.CV_16SC2);
+            map1.release();
+            map2.release();
+        }
+        // The map has the size of the virtual camera, so only the pixels that are kept are computed.
+        // If the pooled buffer already has that size and type, it is reused as is. 
+        Mat dst = undistortionBuffers.poll();
+        if (dst == null) {
+            dst = new Mat();
         }
         Imgproc.remap(mat, dst, undistortionMap1, undistortionMap2, Imgproc.INTER_LINEAR);
-        mat.release();
 
         return dst;
     }
 
+    /**
+     * Hands a Mat obtained from advancedUndistort() back to the undistortion buffer pool.
+     *  
+     * @param mat
+     */
+    private synchronized void recycleUndistortionBuffer(Mat mat) {
+        if (undistortionMap1 != null 
+                && undistortionBuffers.size() < maxUndistortionBuffers) {
+            undistortionBuffers.push(mat);
+        }
+        else {
+            mat.release();
+        }
+    }
+
     private Mat whiteBalance(Mat mat) {
         if (isWhiteBalanced() && mat.channels() == 3) {
             initWhiteBalanceLut();
             Mat whiteBalanced = new Mat();
             Core.LUT(mat, lut, whiteBalanced);
-            mat.release();
             mat = whiteBalanced;
         }
         return mat;
@@ -963,18 +1164,23 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         }
     }
 
+    private Rect getCropRect(Mat mat) {
+        int cw = (cropWidth != 0 && cropWidth < (int) mat.size().width) ? cropWidth : (int) mat.size().width;
+        int ch = (cropHeight != 0 && cropHeight < (int) mat.size().height) ? cropHeight : (int) mat.size().height;
+        return new Rect(
+                (int) ((mat.size().width / 2) - (cw / 2)),
+                (int) ((mat.size().height / 2) - (ch / 2)),
+                cw,
+                ch);
+    }
+
     private Mat crop(Mat mat) {
         if (isCropped()) {
-            int cw = (cropWidth != 0 && cropWidth < (int) mat.size().width) ? cropWidth : (int) mat.size().width;
-            int ch = (cropHeight != 0 && cropHeight < (int) mat.size().height) ? cropHeight : (int) mat.size().height;
-            Rect roi = new Rect(
-                    (int) ((mat.size().width / 2) - (cw / 2)),
-                    (int) ((mat.size().height / 2) - (ch / 2)),
-                    cw,
-                    ch);
-            Mat tmp = new Mat(mat, roi);
-            tmp.copyTo(mat);
-            tmp.release();
+            Mat roi = new Mat(mat, getCropRect(mat));
+            Mat dst = new Mat();
+            roi.copyTo(dst);
+            roi.release();
+            return dst;
         }
         return mat;
     }
@@ -992,7 +1198,6 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             mat.row(i).copyTo(dst.row(i * 2));
             mat.row(i + mat.rows() / 2).copyTo(dst.row(i * 2 + 1));
         }
-        mat.release();
         return dst;
     }
 
@@ -1022,7 +1227,6 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
 
         Mat dst = new Mat(bbox.width, bbox.height, mat.type());
         Imgproc.warpAffine(mat, dst, mapMatrix, bbox.size(), Imgproc.INTER_LINEAR);
-        mat.release();
 
         mapMatrix.release();
 
@@ -1045,9 +1249,8 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             }
         };
 
-        Mat dst = mat.clone();
+        Mat dst = new Mat();
         Imgproc.warpAffine(mat, dst, mapMatrix, mat.size(), Imgproc.INTER_LINEAR);
-        mat.release();
 
         mapMatrix.release();
 
@@ -1064,7 +1267,6 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         }
         Mat dst = new Mat();
         Imgproc.resize(mat, dst, new Size(scaleWidth, scaleHeight));
-        mat.release();
         return dst;
     }
 
@@ -1088,9 +1290,8 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             rectification.release();
         }
 
-        Mat dst = mat.clone();
+        Mat dst = new Mat();
         Imgproc.remap(mat, dst, undistortionMap1, undistortionMap2, Imgproc.INTER_LINEAR);
-        mat.release();
 
         return dst;
     }
@@ -1186,6 +1387,15 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             undistortionMap2.release();
             undistortionMap2 = null;
         }
+        // The undistorted image size may change with the calibration.
+        for (Mat mat : undistortionBuffers) {
+            mat.release();
+        }
+        undistortionBuffers.clear();
+        for (Mat mat : captureBuffers) {
+            mat.release();
+        }
+        captureBuffers.clear();
     }
 
     public void startCalibration(CalibrationCallback callback) {
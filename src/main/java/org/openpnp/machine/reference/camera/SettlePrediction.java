@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.camera;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.ElementList;
+
+/**
+ * Learns the camera settle time after a move, as a function of the dominant moved axis and the
+ * move distance. The distances are grouped into buckets of doubling size, i.e. 0-1mm, 1-2mm,
+ * 2-4mm, 4-8mm and so on. Per bucket, the settle time is tracked as an exponentially weighted mean
+ * and variance, so the prediction follows slow changes of the machine, such as a loosening belt.
+ */
+public class SettlePrediction {
+    /**
+     * Weight of a new sample, once the bucket has enough samples.
+     */
+    private static final double ALPHA = 0.2;
+
+    /**
+     * Number of standard deviations added to the mean, for the prediction to cover most moves.
+     */
+    private static final double SIGMAS = 2.0;
+
+    @ElementList(required = false)
+    private List<Bucket> buckets = new ArrayList<>();
+
+    public static class Bucket {
+        @Attribute
+        private String axis;
+
+        @Attribute
+        private int index;
+
+        @Attribute
+        private int count;
+
+        @Attribute
+        private double mean;
+
+        @Attribute
+        private double variance;
+
+        public Bucket() {
+        }
+
+        Bucket(String axis, int index) {
+            this.axis = axis;
+            this.index = index;
+        }
+
+        void learn(double settleMs) {
+            count++;
+            double alpha = Math.max(ALPHA, 1.0/count);
+            double delta = settleMs - mean;
+            mean += alpha*delta;
+            variance = (1 - alpha)*(variance + alpha*delta*delta);
+        }
+
+        double predict() {
+            return mean + SIGMAS*Math.sqrt(variance);
+        }
+
+        public String getAxis() {
+            return axis;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return variance;
+        }
+    }
+
+    /**
+     * @param distance The move distance in millimeters (or degrees for rotation).
+     * @return The index of the distance bucket.
+     */
+    public static int getBucketIndex(double distance) {
+        if (!(distance >= 1.0)) {
+            return 0;
+        }
+        return 1 + Math.getExponent(distance);
+    }
+
+    private Bucket getBucket(String axis, int index, boolean create) {
+        for (Bucket bucket : buckets) {
+            if (bucket.index == index && bucket.axis.equals(axis)) {
+                return bucket;
+            }
+        }
+        if (create) {
+            Bucket bucket = new Bucket(axis, index);
+            buckets.add(bucket);
+            return bucket;
+        }
+        return null;
+    }
+
+    /**
+     * Learns an observed settle time.
+     *
+     * @param axis The name of the dominant moved axis.
+     * @param distance The move distance of that axis.
+     * @param settleMs The time from the planned end of the move until the camera was settled.
+     */
+    public synchronized void learn(String axis, double distance, double settleMs) {
+        getBucket(axis, getBucketIndex(distance), true).learn(Math.max(0, settleMs));
+    }
+
+    /**
+     * Predicts the settle time. If the distance bucket has not enough samples yet, the next larger
+     * one with enough samples is taken, as longer moves are expected to take longer to settle.
+     *
+     * @param axis The name of the dominant moved axis.
+     * @param distance The move distance of that axis.
+     * @param minSamples The minimum number of samples for the prediction to be trusted.
+     * @return The predicted settle time from the planned end of the move, or null if it cannot be
+     * predicted (yet).
+     */
+    public synchronized Double predict(String axis, double distance, int minSamples) {
+        int index = getBucketIndex(distance);
+        Bucket best = null;
+        for (Bucket bucket : buckets) {
+            if (bucket.axis.equals(axis) && bucket.index >= index && bucket.count >= minSamples
+                    && (best == null || bucket.index < best.index)) {
+                best = bucket;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        return best.predict();
+    }
+
+    public synchronized void reset() {
+        buckets.clear();
+    }
+
+    public synchronized List<Bucket> getBuckets() {
+        return new ArrayList<>(buckets);
+    }
+}
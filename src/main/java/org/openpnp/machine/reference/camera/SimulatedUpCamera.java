@@ -3,6 +3,7 @@ package org.openpnp.machine.reference.camera;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
@@ -67,6 +68,16 @@ public class SimulatedUpCamera extends ReferenceCamera {
     @Element(required = false)
     private Length sensorDiagonal = new Length(4.4, LengthUnit.Millimeters);
 
+    /**
+     * Transparent layer to draw objects for focal blur, reused across frames.  
+     */
+    private BufferedImage blurLayer;
+
+    /**
+     * Device space bounds of the shapes drawn since the last blur.
+     */
+    private Rectangle blurBounds;
+
     public enum BackgroundScenario {
         Black(0x000000, 0x00FF00),
         Dark(0x222222, 0x00DD00),
@@ -99,11 +110,12 @@ public class SimulatedUpCamera extends ReferenceCamera {
     }
 
     @Override
-    public BufferedImage internalCapture() {
+    public synchronized BufferedImage internalCapture() {
         if (!ensureOpen()) {
             return null;
         }
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        // The view is opaque, render it as BGR directly, so it needs no conversion to become a Mat.
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
         Graphics2D g = (Graphics2D) image.getGraphics();
         g.setColor(getBackgroundScenario().getShadeColor());
         g.fillRect(0, 0, width, height);
@@ -160,15 +172,12 @@ public class SimulatedUpCamera extends ReferenceCamera {
     private void drawNozzle(Graphics2D gView, Nozzle nozzle, Location l) {
         BufferedImage frame;
         Graphics2D g;
-        Color bg = getBackgroundScenario().getShadeColor();
-        bg = new Color(bg.getRed(), bg.getGreen(), bg.getBlue(), 0);
+        blurBounds = null;
         if (isSimulateFocalBlur()) {
-            frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            // The layer is kept transparent, blurObjectIntoView() clears what was drawn.
+            frame = getBlurLayer();
             g = frame.createGraphics();
             g.setTransform(gView.getTransform());
-            // Clear with transparent background
-            g.setBackground(bg);
-            g.clearRect(-width/2, -height/2, width, height);
         }
         else {
            frame = null;
@@ -190,10 +199,6 @@ public class SimulatedUpCamera extends ReferenceCamera {
             fillShape(g, new Ellipse2D.Double(-0.1, -0.1, 0.2, 0.2), new Color(32, 32, 32), unitsPerPixel, offsets, false);
             if (frame != null) {
                 blurObjectIntoView(gView, frame, nozzle, l);
-
-                // Clear with transparent background
-                g.setBackground(bg);
-                g.clearRect(-width/2, -height/2, width, height);
             }
 
             // Draw the part
@@ -284,10 +289,35 @@ public class SimulatedUpCamera extends ReferenceCamera {
                 op = new ConvolveOp(kernel, ConvolveOp.EDGE_NO_OP, null);
             }
         }
-        gView.drawImage(frame, op, 0, 0);
+        if (blurBounds != null) {
+            // Only blur the region that was drawn, plus the kernel margin. 
+            int margin = (int)Math.ceil(radius) + 2;
+            Rectangle region = blurBounds;
+            region.grow(margin, margin);
+            region = region.intersection(new Rectangle(0, 0, frame.getWidth(), frame.getHeight()));
+            blurBounds = null;
+            if (!region.isEmpty()) {
+                BufferedImage regionImage = frame.getSubimage(region.x, region.y, region.width, region.height);
+                gView.drawImage(regionImage, op, region.x, region.y);
+                // Clear with transparent background
+                Graphics2D g = frame.createGraphics();
+                g.setBackground(new Color(0, 0, 0, 0));
+                g.clearRect(region.x, region.y, region.width, region.height);
+                g.dispose();
+            }
+        }
         gView.setTransform(tx);
     }
 
+    private BufferedImage getBlurLayer() {
+        if (blurLayer == null 
+                || blurLayer.getWidth() != width 
+                || blurLayer.getHeight() != height) {
+            blurLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return blurLayer;
+    }
+
     private boolean fillShape(Graphics2D g, Shape shape, Color color, Location unitsPerPixel, Location offsets, boolean addError) {
         AffineTransform tx = new AffineTransform();
         double cameraViewDiagonal = Math.sqrt(Math.pow(unitsPerPixel.getX()*width, 2) + Math.pow(unitsPerPixel.getY()*height, 2));
@@ -319,6 +349,13 @@ public class SimulatedUpCamera extends ReferenceCamera {
                     (int)Math.min(255, color.getBlue()/shade));
             g.setColor(colorShade);
             g.fill(shape);
+            Rectangle bounds = g.getTransform().createTransformedShape(shape).getBounds();
+            if (blurBounds == null) {
+                blurBounds = bounds;
+            }
+            else {
+                blurBounds.add(bounds);
+            }
             return true;
         }
         return false;
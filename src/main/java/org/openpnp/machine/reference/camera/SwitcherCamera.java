@@ -91,7 +91,7 @@ public class SwitcherCamera extends ReferenceCamera {
             }
         }
         // When we do not get the switching lock immediately and non-reentrantly, swallow the notifyCapture(), 
-        // it would potentially create endless recursion. The notifyCapture() will later be done by setLastTransformedImage() 
+        // it would potentially create endless recursion. The notifyCapture() will later be done by addFrame() 
         // when the current holder of the lock is done. 
         // Note that notifications from functional (machine task) captures will always already own the (reentrant) 
         // switchingLock from internalCapture() and therefore never be in this situation. Conversely, for mere "refresh" 
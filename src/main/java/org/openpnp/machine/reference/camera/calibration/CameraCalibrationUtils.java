@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.IntStream;
 
 import org.apache.commons.math3.exception.TooManyEvaluationsException;
 import org.apache.commons.math3.fitting.leastsquares.LeastSquaresFactory;
@@ -32,8 +33,8 @@ import org.apache.commons.math3.fitting.leastsquares.LeastSquaresOptimizer.Optim
 import org.apache.commons.math3.fitting.leastsquares.LeastSquaresProblem;
 import org.apache.commons.math3.fitting.leastsquares.LevenbergMarquardtOptimizer;
 import org.apache.commons.math3.fitting.leastsquares.MultivariateJacobianFunction;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 import org.apache.commons.math3.optim.ConvergenceChecker;
@@ -82,6 +83,23 @@ public class CameraCalibrationUtils {
     private static int numberOfParameters;
     private static double aspectRatio;
 
+    private static volatile boolean parallelEvaluation = true;
+
+    /**
+     * @return true if the camera model is evaluated in parallel, one test pattern per task
+     */
+    public static boolean isParallelEvaluation() {
+        return parallelEvaluation;
+    }
+
+    /**
+     * @param parallelEvaluation - true to evaluate the camera model in parallel, one test pattern
+     *        per task, false to evaluate it sequentially
+     */
+    public static void setParallelEvaluation(boolean parallelEvaluation) {
+        CameraCalibrationUtils.parallelEvaluation = parallelEvaluation;
+    }
+
     /**
      * Computes the best, in a least squared error sense, set of camera parameters that transform 
      * the given test pattern 3D coordinates to the corresponding 2D image points. This is very 
@@ -234,17 +252,19 @@ public class CameraCalibrationUtils {
 
             // A vector of the observed 2D image points (in x0, y0, x1, y1, ... order) is created
             // omitting any in outlierPoints
-            RealVector observed = new ArrayRealVector();
+            double[] observedPoints = new double[2 * model.totalNumberOfPoints];
             int iPoint = 0;
+            int iObserved = 0;
             for (int i = 0; i < numberOfTestPatterns; i++) {
                 for (int j = 0; j < testPatternImagePoints[i].length; j++) {
                     if (!outlierPoints.contains(iPoint)) {
-                        observed =
-                                observed.append(new ArrayRealVector(testPatternImagePoints[i][j]));
+                        observedPoints[iObserved++] = testPatternImagePoints[i][j][0];
+                        observedPoints[iObserved++] = testPatternImagePoints[i][j][1];
                     }
                     iPoint++;
                 }
             }
+            RealVector observed = new ArrayRealVector(observedPoints, false);
 
             RealVector start = new ArrayRealVector(parameters);
 
@@ -326,6 +346,27 @@ public class CameraCalibrationUtils {
         return Math.sqrt(2) * optimum.getRMS();
     }
 
+    /**
+     * Evaluates the camera model and its Jacobian once, the same way the solver of 
+     * {@link #computeBestCameraParameters(double[][][], double[][][], double[][][], List, double[], int)} 
+     * does. Used by the tests.
+     * 
+     * @param testPattern3dPoints - the 3D machine coordinates of the test pattern points
+     * @param outlierPoints - indices of the points to be excluded from the model
+     * @param parameters - the camera parameters
+     * @param flags - see {@link #computeBestCameraParameters(double[][][], double[][][], double[][][], List, double[], int)}
+     * @return the modeled 2D image points and their Jacobian
+     */
+    static synchronized Pair<RealVector, RealMatrix> evaluateCameraModel(double[][][] testPattern3dPoints,
+            Set<Integer> outlierPoints, double[] parameters, int flags) {
+        numberOfTestPatterns = testPattern3dPoints.length;
+        numberOfParameters = 4 + 5 + 3 + 1 + 2 * numberOfTestPatterns;
+        aspectRatio = parameters[1] / parameters[0];
+        CalibrationModel model = new CalibrationModel(testPattern3dPoints, 
+                new TreeSet<Integer>(outlierPoints), flags);
+        return model.value(new ArrayRealVector(parameters));
+    }
+
     /**
      * This class implements the MultivariateJacobianFunction interface to return the modeled 2D 
      * image points as well as the Jacobian wrt the model parameters.
@@ -339,7 +380,11 @@ public class CameraCalibrationUtils {
         double allowTangentialDistortionToChange;
         double allowTiltToChange;
         TreeSet<Integer> outlierPoints;
+        boolean[] isOutlier;
+        int[] firstPoint;
+        int[] firstRow;
         int flags;
+        boolean parallel;
 
         /**
          * Constructor for the calibration model
@@ -363,12 +408,33 @@ public class CameraCalibrationUtils {
                 this.outlierPoints = new TreeSet<Integer>();
             }
             this.flags = flags;
+            this.parallel = parallelEvaluation;
             this.testPattern3dPoints = testPattern3dPoints;
+
+            // Each test pattern owns a contiguous block of points and of rows (two per point that
+            // is not an outlier), so the blocks can be evaluated independently of each other
+            firstPoint = new int[numberOfTestPatterns];
+            firstRow = new int[numberOfTestPatterns];
+            int numberOfPoints = 0;
+            for (int iTP = 0; iTP < numberOfTestPatterns; iTP++) {
+                firstPoint[iTP] = numberOfPoints;
+                numberOfPoints += testPattern3dPoints[iTP].length;
+            }
+            isOutlier = new boolean[numberOfPoints];
+            for (int iPoint : this.outlierPoints) {
+                if (iPoint < numberOfPoints) {
+                    isOutlier[iPoint] = true;
+                }
+            }
             totalNumberOfPoints = 0;
             for (int iTP = 0; iTP < numberOfTestPatterns; iTP++) {
-                totalNumberOfPoints += testPattern3dPoints[iTP].length;
+                firstRow[iTP] = 2 * totalNumberOfPoints;
+                for (int iPt = 0; iPt < testPattern3dPoints[iTP].length; iPt++) {
+                    if (!isOutlier[firstPoint[iTP] + iPt]) {
+                        totalNumberOfPoints++;
+                    }
+                }
             }
-            totalNumberOfPoints -= this.outlierPoints.size();
 
             if ((flags & FIX_PRINCIPAL_POINT) == 0) {
                 allowCenterToChange = 1;
@@ -412,10 +478,8 @@ public class CameraCalibrationUtils {
         public Pair<RealVector, RealMatrix> value(RealVector cameraParameters) {
             // parameter order is fx, fy, cx, cy, k1, k2, p1, p2, k3, Rx, Ry, Rz, cam_z,
             // cam_x[0], cam_y[0], ... cam_x[numberOfTestPatterns-1], cam_y[numberOfTestPatterns-1]
-            RealVector funcValue =
-                    MatrixUtils.createRealVector(new double[2 * totalNumberOfPoints]);
-            RealMatrix funcJacobian =
-                    MatrixUtils.createRealMatrix(2 * totalNumberOfPoints, numberOfParameters);
+            double[] funcValue = new double[2 * totalNumberOfPoints];
+            double[][] funcJacobian = new double[2 * totalNumberOfPoints][numberOfParameters];
             double fx = cameraParameters.getEntry(0);
             double fy;
             if ((flags & FIX_ASPECT_RATIO) == 0) {
@@ -433,10 +497,8 @@ public class CameraCalibrationUtils {
             double k3 = cameraParameters.getEntry(8);
             double rx = cameraParameters.getEntry(9);
             double ry = cameraParameters.getEntry(10);
-            double rz = cameraParameters.getEntry(11);
-            if (rx == 0 && ry == 0 && rz == 0) {
-                rz = 1e-6;
-            }
+            double rz = (rx == 0 && ry == 0 && cameraParameters.getEntry(11) == 0) ? 1e-6
+                    : cameraParameters.getEntry(11);
             double camZ = cameraParameters.getEntry(12);
 
             // Note: all variables of the form tempnnn are the result of common subexpression
@@ -501,11 +563,18 @@ public class CameraCalibrationUtils {
             double temp096 = rx * temp006 * temp011;
             double temp107 = temp006 * temp010 * temp012;
 
-            int rowIdx = 0;
-            int iPoint = 0;
-            for (int iTP = 0; iTP < numberOfTestPatterns; iTP++) {
+            // The terms above only depend on the parameters common to all the test patterns. Each
+            // test pattern then fills its own rows of the value vector and of the Jacobian, so the
+            // test patterns can be evaluated in parallel without any synchronization
+            IntStream testPatterns = IntStream.range(0, numberOfTestPatterns);
+            if (parallel) {
+                testPatterns = testPatterns.parallel();
+            }
+            testPatterns.forEach(iTP -> {
+                int rowIdx = firstRow[iTP];
+                int iPoint = firstPoint[iTP];
                 for (int iPt = 0; iPt < testPattern3dPoints[iTP].length; iPt++) {
-                    if (!outlierPoints.contains(iPoint)) {
+                    if (!isOutlier[iPoint]) {
                         double temp023 = camZ - testPattern3dPoints[iTP][iPt][2];
                         double temp022 = cameraParameters.getEntry(14 + 2 * iTP)
                                 - testPattern3dPoints[iTP][iPt][1];
@@ -606,23 +675,23 @@ public class CameraCalibrationUtils {
                                 + temp004 * temp038 * temp043 + p2 * temp002;
 
                         // the x component of the modeled image 2D point
-                        funcValue.setEntry(rowIdx, fx * temp001 + cx);
+                        funcValue[rowIdx] = fx * temp001 + cx;
 
                         // the partial derivatives of x wrt to each of the camera parameters
-                        funcJacobian.setEntry(rowIdx, 0, temp001);
-                        funcJacobian.setEntry(rowIdx, 1, 0);
-                        funcJacobian.setEntry(rowIdx, 2, 1 * allowCenterToChange);
-                        funcJacobian.setEntry(rowIdx, 3, 0 * allowCenterToChange);
-                        funcJacobian.setEntry(rowIdx, 4,
-                                fx * temp004 * temp040 * temp043 * allowRadialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 5,
-                                fx * temp004 * temp042 * temp043 * allowRadialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 6,
-                                2 * fx * temp004 * temp025 * temp033 * allowTangentialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 7, fx * temp002 * allowTangentialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 8,
-                                fx * temp004 * temp039 * temp043 * allowRadialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 9,
+                        funcJacobian[rowIdx][0] = temp001;
+                        funcJacobian[rowIdx][1] = 0;
+                        funcJacobian[rowIdx][2] = 1 * allowCenterToChange;
+                        funcJacobian[rowIdx][3] = 0 * allowCenterToChange;
+                        funcJacobian[rowIdx][4] =
+                                fx * temp004 * temp040 * temp043 * allowRadialDistortionToChange;
+                        funcJacobian[rowIdx][5] =
+                                fx * temp004 * temp042 * temp043 * allowRadialDistortionToChange;
+                        funcJacobian[rowIdx][6] =
+                                2 * fx * temp004 * temp025 * temp033 * allowTangentialDistortionToChange;
+                        funcJacobian[rowIdx][7] = fx * temp002 * allowTangentialDistortionToChange;
+                        funcJacobian[rowIdx][8] =
+                                fx * temp004 * temp039 * temp043 * allowRadialDistortionToChange;
+                        funcJacobian[rowIdx][9] =
                                 (4 * p1 * temp004 * temp033 * temp068 * temp076
                                         - 2 * p1 * temp004 * temp025 * temp046
                                         - 2 * p1 * temp025 * temp033 * temp061
@@ -632,8 +701,8 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp004 * temp025 * temp061
                                                 - 3 * temp003 * temp068 * temp076 + temp073
                                                 + temp077) * p2)
-                                        * fx * allowTiltToChange);
-                        funcJacobian.setEntry(rowIdx, 10,
+                                        * fx * allowTiltToChange;
+                        funcJacobian[rowIdx][10] =
                                 -(4 * p1 * temp004 * temp033 * temp076 * temp078
                                         + temp004 * temp025 * temp038 * temp078
                                         + 2 * p1 * temp004 * temp025 * temp086
@@ -643,8 +712,8 @@ public class CameraCalibrationUtils {
                                         + 2 * (3 * temp003 * temp076 * temp078
                                                 - 3 * temp004 * temp025 * temp097 + temp101
                                                 + temp102) * p2)
-                                        * fx * allowTiltToChange);
-                        funcJacobian.setEntry(rowIdx, 11,
+                                        * fx * allowTiltToChange;
+                        funcJacobian[rowIdx][11] =
                                 (4 * p1 * temp004 * temp033 * temp076 * temp104
                                         + temp004 * temp025 * temp038 * temp104
                                         - 2 * p1 * temp004 * temp025 * temp106
@@ -653,8 +722,8 @@ public class CameraCalibrationUtils {
                                         + 2 * temp004 * temp043 * temp110
                                         + 2 * (3 * temp003 * temp076 * temp104
                                                 + 3 * temp004 * temp025 * temp109 + temp113
-                                                + temp114) * p2) * fx);
-                        funcJacobian.setEntry(rowIdx, 12,
+                                                + temp114) * p2) * fx;
+                        funcJacobian[rowIdx][12] =
                                 -(4 * p1 * temp004 * temp031 * temp033 * temp076
                                         - 2 * p1 * temp019 * temp025 * temp033
                                         - 2 * p1 * temp004 * temp025 * temp036
@@ -664,8 +733,8 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp004 * temp019 * temp025
                                                 - 3 * temp003 * temp031 * temp076 + temp119
                                                 + temp121) * p2)
-                                        * fx);
-                        funcJacobian.setEntry(rowIdx, 13 + 2 * iTP,
+                                        * fx;
+                        funcJacobian[rowIdx][13 + 2 * iTP] =
                                 -(4 * p1 * temp004 * temp027 * temp033 * temp076
                                         - 2 * p1 * temp005 * temp025 * temp033
                                         - 2 * p1 * temp004 * temp025 * temp034
@@ -675,8 +744,8 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp004 * temp005 * temp025
                                                 - 3 * temp003 * temp027 * temp076 + temp125
                                                 + temp127) * p2)
-                                        * fx);
-                        funcJacobian.setEntry(rowIdx, 14 + 2 * iTP,
+                                        * fx;
+                        funcJacobian[rowIdx][14 + 2 * iTP] =
                                 -(4 * p1 * temp004 * temp029 * temp033 * temp076
                                         - 2 * p1 * temp014 * temp025 * temp033
                                         - 2 * p1 * temp004 * temp025 * temp035
@@ -686,34 +755,34 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp004 * temp014 * temp025
                                                 - 3 * temp003 * temp029 * temp076 + temp131
                                                 + temp133) * p2)
-                                        * fx);
+                                        * fx;
                         rowIdx++;
 
                         // the y component of the modeled image 2D point
-                        funcValue.setEntry(rowIdx, fy * temp044 + cy);
+                        funcValue[rowIdx] = fy * temp044 + cy;
 
                         // the partial derivatives of y wrt to each of the camera parameters
-                        funcJacobian.setEntry(rowIdx, 0, 0);
+                        funcJacobian[rowIdx][0] = 0;
                         if ((flags & FIX_ASPECT_RATIO) == 0) {
-                            funcJacobian.setEntry(rowIdx, 0, 0);
-                            funcJacobian.setEntry(rowIdx, 1, temp044);
+                            funcJacobian[rowIdx][0] = 0;
+                            funcJacobian[rowIdx][1] = temp044;
                         }
                         else {
-                            funcJacobian.setEntry(rowIdx, 0, aspectRatio * temp044);
-                            funcJacobian.setEntry(rowIdx, 1, 0);
+                            funcJacobian[rowIdx][0] = aspectRatio * temp044;
+                            funcJacobian[rowIdx][1] = 0;
                         }
-                        funcJacobian.setEntry(rowIdx, 2, 0 * allowCenterToChange);
-                        funcJacobian.setEntry(rowIdx, 3, 1 * allowCenterToChange);
-                        funcJacobian.setEntry(rowIdx, 4,
-                                fy * temp033 * temp040 * temp043 * allowRadialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 5,
-                                fy * temp033 * temp042 * temp043 * allowRadialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 6, fy * temp045 * allowTangentialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 7,
-                                2 * fy * temp004 * temp025 * temp033 * allowTangentialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 8,
-                                fy * temp033 * temp039 * temp043 * allowRadialDistortionToChange);
-                        funcJacobian.setEntry(rowIdx, 9,
+                        funcJacobian[rowIdx][2] = 0 * allowCenterToChange;
+                        funcJacobian[rowIdx][3] = 1 * allowCenterToChange;
+                        funcJacobian[rowIdx][4] =
+                                fy * temp033 * temp040 * temp043 * allowRadialDistortionToChange;
+                        funcJacobian[rowIdx][5] =
+                                fy * temp033 * temp042 * temp043 * allowRadialDistortionToChange;
+                        funcJacobian[rowIdx][6] = fy * temp045 * allowTangentialDistortionToChange;
+                        funcJacobian[rowIdx][7] =
+                                2 * fy * temp004 * temp025 * temp033 * allowTangentialDistortionToChange;
+                        funcJacobian[rowIdx][8] =
+                                fy * temp033 * temp039 * temp043 * allowRadialDistortionToChange;
+                        funcJacobian[rowIdx][9] =
                                 (4 * p2 * temp004 * temp033 * temp068 * temp076
                                         - 2 * p2 * temp004 * temp025 * temp046
                                         - 2 * p2 * temp025 * temp033 * temp061
@@ -723,8 +792,8 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp025 * temp033 * temp046
                                                 - 3 * temp032 * temp068 * temp076 + temp074
                                                 + temp075) * p1)
-                                        * fy * allowTiltToChange);
-                        funcJacobian.setEntry(rowIdx, 10,
+                                        * fy * allowTiltToChange;
+                        funcJacobian[rowIdx][10] =
                                 -(4 * p2 * temp004 * temp033 * temp076 * temp078
                                         + temp025 * temp033 * temp038 * temp078
                                         + 2 * p2 * temp004 * temp025 * temp086
@@ -734,8 +803,8 @@ public class CameraCalibrationUtils {
                                         + 2 * (3 * temp032 * temp076 * temp078
                                                 + 3 * temp025 * temp033 * temp086 + temp100
                                                 + temp103) * p1)
-                                        * fy * allowTiltToChange);
-                        funcJacobian.setEntry(rowIdx, 11,
+                                        * fy * allowTiltToChange;
+                        funcJacobian[rowIdx][11] =
                                 (4 * p2 * temp004 * temp033 * temp076 * temp104
                                         + temp025 * temp033 * temp038 * temp104
                                         - 2 * p2 * temp004 * temp025 * temp106
@@ -744,8 +813,8 @@ public class CameraCalibrationUtils {
                                         + 2 * temp033 * temp043 * temp110
                                         + 2 * (3 * temp032 * temp076 * temp104
                                                 - 3 * temp025 * temp033 * temp106 + temp112
-                                                + temp115) * p1) * fy);
-                        funcJacobian.setEntry(rowIdx, 12,
+                                                + temp115) * p1) * fy;
+                        funcJacobian[rowIdx][12] =
                                 -(4 * p2 * temp004 * temp031 * temp033 * temp076
                                         - 2 * p2 * temp019 * temp025 * temp033
                                         - 2 * p2 * temp004 * temp025 * temp036
@@ -755,8 +824,8 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp025 * temp033 * temp036
                                                 - 3 * temp031 * temp032 * temp076 + temp118
                                                 + temp120) * p1)
-                                        * fy);
-                        funcJacobian.setEntry(rowIdx, 13 + 2 * iTP,
+                                        * fy;
+                        funcJacobian[rowIdx][13 + 2 * iTP] =
                                 -(4 * p2 * temp004 * temp027 * temp033 * temp076
                                         - 2 * p2 * temp005 * temp025 * temp033
                                         - 2 * p2 * temp004 * temp025 * temp034
@@ -766,8 +835,8 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp025 * temp033 * temp034
                                                 - 3 * temp027 * temp032 * temp076 + temp124
                                                 + temp126) * p1)
-                                        * fy);
-                        funcJacobian.setEntry(rowIdx, 14 + 2 * iTP,
+                                        * fy;
+                        funcJacobian[rowIdx][14 + 2 * iTP] =
                                 -(4 * p2 * temp004 * temp029 * temp033 * temp076
                                         - 2 * p2 * temp014 * temp025 * temp033
                                         - 2 * p2 * temp004 * temp025 * temp035
@@ -777,13 +846,14 @@ public class CameraCalibrationUtils {
                                         - 2 * (3 * temp025 * temp033 * temp035
                                                 - 3 * temp029 * temp032 * temp076 + temp130
                                                 + temp132) * p1)
-                                        * fy);
+                                        * fy;
                         rowIdx++;
                     }
                     iPoint++;
                 }
-            }
-            return new Pair<RealVector, RealMatrix>(funcValue, funcJacobian);
+            });
+            return new Pair<RealVector, RealMatrix>(new ArrayRealVector(funcValue, false),
+                    new Array2DRowRealMatrix(funcJacobian, false));
         }
 
     }
@@ -212,6 +212,15 @@ public class ImageCameraConfigurationWizard extends AbstractConfigurationWizard
 
         btnBrowse = new JButton(browseAction);
         panelGeneral.add(btnBrowse, "12, 20");
+
+        lblOpenCvRendering = new JLabel(Translations.getString(
+                "ImageCameraConfigurationWizard.GeneralPanel.OpenCvRenderingLabel.text")); //$NON-NLS-1$
+        lblOpenCvRendering.setToolTipText(Translations.getString(
+                "ImageCameraConfigurationWizard.GeneralPanel.OpenCvRenderingLabel.toolTipText")); //$NON-NLS-1$
+        panelGeneral.add(lblOpenCvRendering, "2, 22, right, default");
+
+        openCvRendering = new JCheckBox("");
+        panelGeneral.add(openCvRendering, "4, 22");
         
         panelExtra = new JPanel();
         contentPanel.add(panelExtra);
@@ -320,6 +329,7 @@ public class ImageCameraConfigurationWizard extends AbstractConfigurationWizard
         addWrappedBinding(camera, "simulatedDistortion", simulatedDistortion, "text", doubleConverter);
         addWrappedBinding(camera, "simulatedYRotation", simulatedYRotation, "text", doubleConverter);
         addWrappedBinding(camera, "simulatedFlipped", simulatedFlipped, "selected");
+        addWrappedBinding(camera, "openCvRendering", openCvRendering, "selected");
 
         addWrappedBinding(camera, "sourceUri", textFieldSourceUrl, "text");
 
@@ -441,6 +451,8 @@ public class ImageCameraConfigurationWizard extends AbstractConfigurationWizard
     private JTextField simulatedDistortion;
     private JLabel lblYaw;
     private JTextField simulatedYRotation;
+    private JLabel lblOpenCvRendering;
+    private JCheckBox openCvRendering;
 
     @Override
     protected void saveToModel() {
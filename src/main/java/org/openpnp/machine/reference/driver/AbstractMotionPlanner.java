@@ -28,7 +28,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.swing.Action;
 import javax.swing.Icon;
@@ -60,6 +60,7 @@ import org.openpnp.spi.Locatable.LocationOption;
 import org.openpnp.spi.MotionPlanner;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.spi.base.AbstractActuator;
+import org.openpnp.util.JobTiming;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.Utils2D;
 import org.pmw.tinylog.Logger;
@@ -88,13 +89,22 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
     private ReferenceMachine machine;
 
     protected LinkedList<Motion> motionCommands = new LinkedList<>();
-    protected TreeMap<Double, Motion> motionPlan = new TreeMap<Double, Motion>();
+    /**
+     * The timed plan of executed motion. It is only written by the machine thread, inside the 
+     * synchronized planner methods. Readers such as the DRO, the camera views and the simulation do 
+     * not take the planner monitor, so they never block behind motion planning and execution. 
+     * The map is lock-free for readers and its entries are not modified once put, so a reader always 
+     * sees a consistent, if momentary, view of the plan.
+     */
+    protected final ConcurrentSkipListMap<Double, Motion> motionPlan = new ConcurrentSkipListMap<>();
 
     private AxesLocation lastDirectionalBacklashOffset = new AxesLocation();
     private List<Driver> lastPlannedDrivers = new ArrayList<Driver>();
 
     private boolean homed = false; 
 
+    private volatile double plannedMotionTime = 0;
+
     private SubordinateMotion subordinateMotion = new SubordinateMotion();
     
     /**
@@ -309,7 +319,7 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
         if(!delayExecutedInAllDrivers) {
             // time delay using OS
             Logger.trace("delay Thread.sleep");
-            Thread.sleep(milliseconds);
+            NanosecondTime.sleep(milliseconds);
         }
     }
 
@@ -654,9 +664,10 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
         // Now execute the plan against the drivers.
         // We also record it into the real-time motionPlan to enable motion prediction and simulation. 
         double t = NanosecondTime.getRuntimeSeconds();
-        if (motionPlan.isEmpty() == false && motionPlan.lastKey() > t) {
+        Map.Entry<Double, Motion> lastEntry = motionPlan.lastEntry();
+        if (lastEntry != null && lastEntry.getKey() > t) {
             // Append to a plan that is still running. 
-            t = motionPlan.lastKey();
+            t = lastEntry.getKey();
         }
         ReferenceMachine machine = (ReferenceMachine) Configuration.get().getMachine();
         List<Head> movedHeads = new ArrayList<>();
@@ -668,6 +679,7 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
                 // Note, all-virtual moves can have dt == 0.0, so we take a nano-second, to make sure a new Map entry is created 
                 // in the motionPlan.
                 t += Math.max(dt, 1e-9);  
+                plannedMotionTime += dt;
                 plannedMotion.setPlannedTime1(t);
                 motionPlan.put(t, plannedMotion);
                 // Execute across drivers.
@@ -936,7 +948,7 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
     }
 
     @Override
-    public synchronized Motion getMomentaryMotion(double time) {
+    public Motion getMomentaryMotion(double time) {
         Map.Entry<Double, Motion> entry1 = motionPlan.higherEntry(time);
         if (entry1 != null) {
             // Return the motion.
@@ -959,8 +971,16 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
         }
     }
 
+    /**
+     * @return The total duration of all the motion planned so far, in seconds. Note, this may be 
+     * shorter than the elapsed machine time, as motion is not always planned back-to-back.
+     */
+    public double getPlannedMotionTime() {
+        return plannedMotionTime;
+    }
+
     @Override
-    public synchronized Motion getLastMotion() {
+    public Motion getLastMotion() {
         for (Map.Entry<Double, Motion> entry : motionPlan.descendingMap().entrySet()) {
             Motion motion = entry.getValue();
             if (!motion.getLocation0().matches(motion.getLocation1())) {
@@ -982,7 +1002,9 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
         
         if (completionType.isEnforcingStillstand()) {
             // Wait for the drivers.
+            long t0 = JobTiming.begin();
             waitForDriverCompletion(hm, completionType);
+            JobTiming.end(JobTiming.MOTION_WAIT, t0);
             // The drivers might have reported new coordinates back. Propagate to planned axis coordinates, 
             // applying the backlash offset in reverse.
             AxesLocation reportedLocation = new AxesLocation(getMachine().getAxes(), 
@@ -1084,10 +1106,9 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
     }
 
     @Override
-    public synchronized void clearMotionPlanOlderThan(double time) {
-        while (motionPlan.isEmpty() == false && motionPlan.firstKey() < time) {
-            motionPlan.remove(motionPlan.firstKey());
-        }
+    public void clearMotionPlanOlderThan(double time) {
+        // Removes the entries one by one, concurrent readers see a shrinking but valid plan.
+        motionPlan.headMap(time).clear();
     }
 
     public boolean isInterpolationRetiming() {
@@ -171,6 +171,11 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         @ElementList(required = false, inline = true, entry = "text", data = true)
         public ArrayList<String> commands = new ArrayList<>();
 
+        /**
+         * The compiled regex, cached until the command is edited.
+         */
+        private volatile ResponseRegex responseRegex;
+
         public Command(String headMountableId, CommandType type, String text) {
             this.headMountableId = headMountableId;
             this.type = type;
@@ -185,17 +190,109 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 String[] commands = text.split("\n");
                 this.commands.addAll(Arrays.asList(commands));
             }
+            responseRegex = null;
         }
 
         public String getCommand() {
             return Joiner.on('\n').join(commands);
         }
 
+        /**
+         * @return The command compiled as a response regex. Compiled once and then cached, until the command
+         * is edited.
+         */
+        public ResponseRegex getResponseRegex() {
+            ResponseRegex responseRegex = this.responseRegex;
+            if (responseRegex == null) {
+                responseRegex = new ResponseRegex(getCommand());
+                this.responseRegex = responseRegex;
+            }
+            return responseRegex;
+        }
+
         private Command() {
 
         }
     }
 
+    /**
+     * A compiled response regex, as used on the reader thread for every received line. Regexes in the form
+     * <code>^literal.*</code>, like the default <code>^ok.*</code> COMMAND_CONFIRM_REGEX, are matched as a
+     * simple prefix, without running the regex engine.
+     */
+    public static class ResponseRegex {
+        private final Pattern pattern;
+        private final String prefix;
+
+        public ResponseRegex(String regex) {
+            this.pattern = Pattern.compile(regex);
+            this.prefix = literalPrefix(regex);
+        }
+
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        public boolean matches(CharSequence line) {
+            if (prefix != null) {
+                int length = line.length();
+                if (length < prefix.length()) {
+                    return false;
+                }
+                for (int i = 0; i < prefix.length(); i++) {
+                    if (line.charAt(i) != prefix.charAt(i)) {
+                        return false;
+                    }
+                }
+                // The trailing .* does not match line terminators.
+                for (int i = prefix.length(); i < length; i++) {
+                    char ch = line.charAt(i);
+                    if (ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return pattern.matcher(line).matches();
+        }
+
+        public Matcher matcher(CharSequence line) {
+            return pattern.matcher(line);
+        }
+
+        /**
+         * @param regex
+         * @return The literal prefix, if the regex is in the form <code>^literal.*</code> or 
+         * <code>literal.*$</code> etc., null otherwise.
+         */
+        static String literalPrefix(String regex) {
+            int begin = regex.startsWith("^") ? 1 : 0;
+            int end = regex.length();
+            if (regex.endsWith(".*$")) {
+                end -= 3;
+            }
+            else if (regex.endsWith(".*")) {
+                end -= 2;
+            }
+            else {
+                return null;
+            }
+            if (end < begin) {
+                return null;
+            }
+            for (int i = begin; i < end; i++) {
+                char ch = regex.charAt(i);
+                if (!(Character.isLetterOrDigit(ch) || ch == ' ' || ch == '_' || ch == ':' || ch == ',' 
+                        || ch == '=' || ch == '-' || ch == '!' || ch == '@' || ch == '#' || ch == '%' 
+                        || ch == '/' || ch == '<' || ch == '>' || ch == '\'' || ch == '"')) {
+                    // Any other character might be a meta character. 
+                    return null;
+                }
+            }
+            return regex.substring(begin, end);
+        }
+    }
+
     @Attribute(required = false)
     protected LengthUnit units = LengthUnit.Millimeters;
 
@@ -1070,9 +1167,9 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
     }
 
-    private boolean containsMatch(List<Line> responses, String regex) {
+    private boolean containsMatch(List<Line> responses, Pattern pattern) {
         for (Line response : responses) {
-            if (response.line.matches(regex)) {
+            if (pattern.matcher(response.line).matches()) {
                 return true;
             }
         }
@@ -1278,7 +1375,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
 
     protected Line waitForConfirmation(String command, long timeout)
             throws Exception {
-        if (getCommand(null, CommandType.COMMAND_CONFIRM_REGEX) == null) {
+        if (getCommand(null, CommandType.COMMAND_CONFIRM_REGEX, true) == null) {
            Logger.warn(getName()+" configuration error: COMMAND_CONFIRM_REGEX missing. Not waiting for confirmation.");
            return null;
         }
@@ -1328,9 +1425,10 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         long t0 = System.currentTimeMillis(); 
         long t1 = t0 + timeout;
         List<Line> responses = new ArrayList<>();
+        Pattern pattern = Pattern.compile(regex);
         do{ 
             responses.addAll(receiveResponses());
-            if (containsMatch(responses, regex)) {
+            if (containsMatch(responses, pattern)) {
                 long dt = System.currentTimeMillis() - t0;
                 if (dt > 1) {
                     Logger.trace("{} got response matching \"{}\" after {}ms", getName(), regex, dt);
@@ -1550,38 +1648,40 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
      * @param line
      */
     protected void processResponse(Line line) {
-        String regex = getCommand(null, CommandType.COMMAND_CONFIRM_REGEX);
-        if (regex != null && line.getLine().matches(regex)) {
+        Command command = getCommand(null, CommandType.COMMAND_CONFIRM_REGEX, true);
+        if (command != null && command.getResponseRegex().matches(line.getLine())) {
             receivedConfirmationsQueue.add(line);
         }
-        regex = getCommand(null, CommandType.COMMAND_ERROR_REGEX);
-        if (regex != null && line.getLine().matches(regex)) {
+        command = getCommand(null, CommandType.COMMAND_ERROR_REGEX, true);
+        if (command != null && command.getResponseRegex().matches(line.getLine())) {
             errorResponse = line;
         }
         processPositionReport(line);
     }
 
     protected boolean processPositionReport(Line line) {
-        String regex = getCommand(null, CommandType.POSITION_REPORT_REGEX); 
-        if (regex == null) {
+        Command command = getCommand(null, CommandType.POSITION_REPORT_REGEX, true); 
+        if (command == null) {
             return false;
         }
 
-        if (!line.getLine().matches(regex)) {
+        String text = line.getLine();
+        Matcher matcher = command.getResponseRegex().matcher(text);
+        if (!matcher.matches()) {
             return false;
         }
 
         Logger.trace("Position report: {}", line);
         ReferenceMachine machine = ((ReferenceMachine) Configuration.get().getMachine());
-        Matcher matcher =
-                Pattern.compile(regex).matcher(line.getLine());
-        matcher.matches();
         AxesLocation position = AxesLocation.zero;
         for (ControllerAxis axis : new AxesLocation(machine).getAxes(this)) {
             try {
                 String variable = axis.getLetter(); 
-                String s = matcher.group(variable);
-                Double d = Double.valueOf(s);
+                int start = matcher.start(variable);
+                if (start < 0) {
+                    throw new NumberFormatException("group "+variable+" not matched");
+                }
+                double d = parseDouble(text, start, matcher.end(variable));
                 if (axis.getType() == Type.Rotation) {
                     // Rotation axis is not converted from driver units.
                     position = position.put(new AxesLocation(axis, new Length(d, AxesLocation.getUnits())));
@@ -1590,6 +1690,9 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                     position = position.put(new AxesLocation(axis, new Length(d, getUnits())));
                 }
             }
+            catch (NumberFormatException e) {
+                Logger.warn("{}: Error processing position report for axis {}: {}", getName(), axis.getName(), e);
+            }
             catch (IllegalArgumentException e) {
                 // Axis is not present in pattern. That's a warning, but might not be supported by controller, so we let it go. 
                 Logger.warn("{}: Axis {} letter {} missing in POSITION_REPORT_REGEX groups.", getName(), axis.getName(), axis.getLetter());
@@ -1625,6 +1728,65 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         return true;
     }
 
+    private static final double[] powersOfTen = { 
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Parse a decimal number straight from the characters of a received line, without creating a substring. 
+     * Plain decimals like -12.345 as sent by controllers are parsed directly. As both the digits and the power 
+     * of ten are exact doubles, the division yields the correctly rounded result, i.e. the same as 
+     * Double.parseDouble(). Anything else falls back to Double.parseDouble().
+     * 
+     * @param text
+     * @param start
+     * @param end
+     * @return The parsed number.
+     * @throws NumberFormatException
+     */
+    static protected double parseDouble(CharSequence text, int start, int end) throws NumberFormatException {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = (text.charAt(i) == '-');
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int decimals = 0;
+        boolean decimal = false;
+        for (; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                if (significantDigits >= 15) {
+                    // Too many digits for the exact fast path.
+                    break;
+                }
+                mantissa = mantissa*10 + (ch - '0');
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+                if (decimal) {
+                    decimals++;
+                }
+                digits++;
+            }
+            else if (ch == '.' && !decimal) {
+                decimal = true;
+            }
+            else {
+                break;
+            }
+        }
+        if (i < end || digits == 0 || decimals >= powersOfTen.length) {
+            // Exponents, excess digits, malformed etc.
+            return Double.parseDouble(text.subSequence(start, end).toString());
+        }
+        double value = mantissa/powersOfTen[decimals];
+        return negative ? -value : value;
+    }
+
     static protected String substituteVariable(String command, String name, Object value) {
         return TextUtils.substituteVar(command, name, value);
     }
@@ -28,6 +28,7 @@ import org.openpnp.machine.reference.feeder.wizards.ReferenceAutoFeederConfigura
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Location;
 import org.openpnp.spi.Actuator;
+import org.openpnp.spi.Head;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.spi.base.AbstractActuator;
@@ -62,6 +63,15 @@ public class ReferenceAutoFeeder extends ReferenceFeeder {
     @Attribute(required = false)
     protected boolean recycleSupport = false;
 
+    @Attribute(required = false)
+    protected boolean feedAhead = false;
+
+    /**
+     * True if the feed actuator was already actuated by prepareFeed(), i.e. the next part is
+     * presented.
+     */
+    protected boolean feedPrepared;
+
     @Override
     public Location getPickLocation() throws Exception {
         return location;
@@ -94,6 +104,11 @@ public class ReferenceAutoFeeder extends ReferenceFeeder {
             }
             return;
         }
+        if (feedPrepared) {
+            // The part was already fed ahead.
+            feedPrepared = false;
+            return;
+        }
         if (actuatorName == null || actuatorName.equals("")) {
             Logger.warn("No actuatorName specified for feeder {}.", getName());
             return;
@@ -112,6 +127,28 @@ public class ReferenceAutoFeeder extends ReferenceFeeder {
         actuator.actuate((Object)actuatorValue);
     }
     
+    @Override
+    public boolean prepareFeed() throws Exception {
+        if (!feedAhead || isMoveBeforeFeed() || getFeedOptions() != FeedOptions.Normal || feedPrepared) {
+            return false;
+        }
+        if (actuatorName == null || actuatorName.equals("")) {
+            return false;
+        }
+        Actuator actuator = Configuration.get().getMachine().getActuatorByName(actuatorName);
+        if (actuator == null) {
+            Head head = Configuration.get().getMachine().getDefaultHead();
+            actuator = (head != null ? head.getActuatorByName(actuatorName) : null);
+        }
+        if (actuator == null) {
+            // Let feed() report it.
+            return false;
+        }
+        actuator.actuate((Object)actuatorValue);
+        feedPrepared = true;
+        return true;
+    }
+
     @Override
     public void postPick(Nozzle nozzle) throws Exception {
         if (postPickActuatorName == null || postPickActuatorName.equals("")) {
@@ -133,7 +170,7 @@ public class ReferenceAutoFeeder extends ReferenceFeeder {
         /* in case SkipNext is supposed part already ready at location so we cannot recycle part over it.
            If feed is disabled then recycle is fully on user decision
         */
-        return (recycleSupport && getFeedOptions() != FeedOptions.SkipNext);
+        return (recycleSupport && getFeedOptions() != FeedOptions.SkipNext && !feedPrepared);
     }
 
     @Override
@@ -191,6 +228,14 @@ public class ReferenceAutoFeeder extends ReferenceFeeder {
         this.recycleSupport = recycleSupport;
     }
 
+    public boolean isFeedAhead() {
+        return feedAhead;
+    }
+
+    public void setFeedAhead(boolean feedAhead) {
+        this.feedAhead = feedAhead;
+    }
+
 	@Override
     public Wizard getConfigurationWizard() {
         return new ReferenceAutoFeederConfigurationWizard(this);
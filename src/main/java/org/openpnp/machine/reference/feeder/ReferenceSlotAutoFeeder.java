@@ -79,6 +79,14 @@ public class ReferenceSlotAutoFeeder extends ReferenceAutoFeeder {
         super.feed(nozzle);
     }
 
+    @Override
+    public boolean prepareFeed() throws Exception {
+        if (getFeeder() == null) {
+            return false;
+        }
+        return super.prepareFeed();
+    }
+
     @Override
     public void postPick(Nozzle nozzle) throws Exception {
         if (getFeeder() == null) {
@@ -134,6 +142,8 @@ public class ReferenceSlotAutoFeeder extends ReferenceAutoFeeder {
           }
         }
         getBank().setFeeder(this, feeder);
+        // A part fed ahead belonged to the previous feeder.
+        feedPrepared = false;
     }
     
     public static synchronized IdentifiableList<Bank> getBanks() {
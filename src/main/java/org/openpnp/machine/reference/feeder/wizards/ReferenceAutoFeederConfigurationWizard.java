@@ -58,6 +58,7 @@ public class ReferenceAutoFeederConfigurationWizard extends AbstractReferenceFee
     private JButton btnTestPostPickActuator;
     private JCheckBox ckBoxMoveBeforeFeed;
     private JCheckBox ckBoxRecycleSupport;
+    private JCheckBox ckBoxFeedAhead;
 
 
     public ReferenceAutoFeederConfigurationWizard(ReferenceAutoFeeder feeder) {
@@ -89,6 +90,8 @@ public class ReferenceAutoFeederConfigurationWizard extends AbstractReferenceFee
                         FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,}));
 
         JLabel lblActuator = new JLabel(Translations.getString("ReferenceAutoFeederConfigurationWizard.ActuatorsPanel.ActuatorLabel.text")); //$NON-NLS-1$
@@ -140,6 +143,13 @@ public class ReferenceAutoFeederConfigurationWizard extends AbstractReferenceFee
 
         ckBoxRecycleSupport = new JCheckBox();
         panelActuator.add(ckBoxRecycleSupport, "4, 10, left, default");
+
+        JLabel lblFeedAhead = new JLabel(Translations.getString("ReferenceAutoFeederConfigurationWizard.ActuatorsPanel.FeedAheadChkbox.text")); //$NON-NLS-1$
+        panelActuator.add(lblFeedAhead, "2, 12, right, default");
+        lblFeedAhead.setToolTipText(Translations.getString("ReferenceAutoFeederConfigurationWizard.ActuatorsPanel.FeedAheadChkbox.toolTipText")); //$NON-NLS-1$
+
+        ckBoxFeedAhead = new JCheckBox();
+        panelActuator.add(ckBoxFeedAhead, "4, 12, left, default");
     }
 
     @Override
@@ -157,6 +167,7 @@ public class ReferenceAutoFeederConfigurationWizard extends AbstractReferenceFee
 
         addWrappedBinding(feeder, "moveBeforeFeed", ckBoxMoveBeforeFeed, "selected");
         addWrappedBinding(feeder, "recycleSupport", ckBoxRecycleSupport, "selected");
+        addWrappedBinding(feeder, "feedAhead", ckBoxFeedAhead, "selected");
 
         ComponentDecorators.decorateWithAutoSelect(actuatorValue);
         ComponentDecorators.decorateWithAutoSelect(postPickActuatorValue);
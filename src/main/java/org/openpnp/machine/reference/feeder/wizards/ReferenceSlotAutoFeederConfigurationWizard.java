@@ -70,6 +70,7 @@ public class ReferenceSlotAutoFeederConfigurationWizard
     private JTextField feederNameTf;
     private JTextField bankNameTf;
     private JCheckBox ckBoxMoveBeforeFeed;
+    private JCheckBox ckBoxFeedAhead;
 
     private JComboBox feederCb;
     private JComboBox bankCb;    
@@ -261,6 +262,8 @@ public class ReferenceSlotAutoFeederConfigurationWizard
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
 
         JLabel lblActuator = new JLabel("Actuator");
@@ -309,6 +312,13 @@ public class ReferenceSlotAutoFeederConfigurationWizard
         
         ckBoxMoveBeforeFeed = new JCheckBox();
         panelActuator.add(ckBoxMoveBeforeFeed, "4, 8, left, default");
+        
+        JLabel lblFeedAhead = new JLabel("Feed ahead");
+        panelActuator.add(lblFeedAhead, "2, 10, right, default");
+        lblFeedAhead.setToolTipText("Actuate the feed actuator for the next part right after the picks of a job cycle");
+        
+        ckBoxFeedAhead = new JCheckBox();
+        panelActuator.add(ckBoxFeedAhead, "4, 10, left, default");
 
         try {
         }
@@ -398,6 +408,7 @@ public class ReferenceSlotAutoFeederConfigurationWizard
         addWrappedBinding(feeder, "postPickActuatorValue", postPickActuatorValue, "text", doubleConverter);
         
         addWrappedBinding(feeder, "moveBeforeFeed", ckBoxMoveBeforeFeed, "selected");
+        addWrappedBinding(feeder, "feedAhead", ckBoxFeedAhead, "selected");
         
         addWrappedBinding(feeder, "feedRetryCount", retryCountTf, "text", intConverter);
         addWrappedBinding(feeder, "pickRetryCount", pickRetryCount, "text", intConverter);
@@ -1,11 +1,19 @@
 package org.openpnp.machine.reference.vision;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
+import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.RotatedRect;
 import org.opencv.core.Size;
@@ -84,6 +92,17 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
     @ElementMap(required = false)
     protected Map<String, PartSettings> partSettingsByPartId = null;
 
+    /**
+     * Production mode clones of the settings' pipelines, for the deferred processing, see 
+     * {@link #takeProcessingPipeline(BottomVisionSettings)}.
+     */
+    private final Map<BottomVisionSettings, ProcessingPipelines> processingPipelines = new HashMap<>();
+
+    private static class ProcessingPipelines {
+        final Deque<CvPipeline> idle = new ArrayDeque<>();
+        final Set<CvPipeline> current = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
     public ReferenceBottomVision() {
         Configuration.get().addListener(new ConfigurationListener.Adapter() {
             @Override
@@ -120,13 +139,21 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
 
         Camera camera = VisionUtils.getBottomVisionCamera();
         PartAlignmentOffset offsets;
-        if ((bottomVisionSettings.getPreRotateUsage() == PreRotateUsage.Default && preRotate)
-                || (bottomVisionSettings.getPreRotateUsage() == PreRotateUsage.AlwaysOn)) {
-            offsets = findOffsetsPreRotate(part, boardLocation, placement, nozzle, camera, bottomVisionSettings);
+        if (isPreRotating(bottomVisionSettings)) {
+            offsets = findOffsetsPreRotate(part, boardLocation, placement, nozzle, camera, bottomVisionSettings, null);
         }
         else {
-            offsets = findOffsetsPostRotate(part, boardLocation, placement, nozzle, camera, bottomVisionSettings);
+            offsets = findOffsetsPostRotate(part, boardLocation, placement, nozzle, camera, bottomVisionSettings, null);
         }
+        return applyAligningRotationMode(nozzle, offsets);
+    }
+
+    private boolean isPreRotating(BottomVisionSettings bottomVisionSettings) {
+        return (bottomVisionSettings.getPreRotateUsage() == PreRotateUsage.Default && preRotate)
+                || (bottomVisionSettings.getPreRotateUsage() == PreRotateUsage.AlwaysOn);
+    }
+
+    private PartAlignmentOffset applyAligningRotationMode(Nozzle nozzle, PartAlignmentOffset offsets) {
         if (nozzle.isAligningRotationMode()) {
             // Add the rotation offset to the rotation mode rather than adjusting for it in placement. This has the advantage of
             // showing the rotation aligned with the part rotation in the DRO, cross-hairs etc.
@@ -138,26 +165,214 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
         return offsets;
     }
 
+    /**
+     * Moves the part over the camera and captures the images of all the shots, but defers the 
+     * pipeline processing. The processing is done on a clone of the pipeline, so the pipeline 
+     * is free to capture the next part. 
+     * 
+     * With pre-rotate, only the first vision pass is deferred. If its offsets are not good enough, 
+     * the further passes are done on completion, on the machine thread.   
+     */
     @Override
-    public Location getLocation(Part part, BoardLocation boardLocation,
+    public DeferredAlignment captureOffsets(Part part, BoardLocation boardLocation,
             Placement placement, Nozzle nozzle) throws Exception {
         BottomVisionSettings bottomVisionSettings = getInheritedVisionSettings(part);
 
         if (!isEnabled() || !bottomVisionSettings.isEnabled()) {
             return null;
         }
+        CvPipeline pipeline = bottomVisionSettings.getPipeline();
+        if (!pipeline.isCaptureSeparable()) {
+            return null;
+        }
+
+        if (part == null || nozzle.getPart() == null) {
+            throw new Exception("No part on nozzle.");
+        }
+        if (part != nozzle.getPart()) {
+            throw new Exception("Part mismatch with part on nozzle.");
+        }
 
         Camera camera = VisionUtils.getBottomVisionCamera();
-        double wantedAngle = 0.0;
-        if ((bottomVisionSettings.getPreRotateUsage() == PreRotateUsage.Default && preRotate)
-                || (bottomVisionSettings.getPreRotateUsage() == PreRotateUsage.AlwaysOn)) {
+        boolean preRotating = isPreRotating(bottomVisionSettings);
+        double wantedAngle = preRotating ? getWantedAngle(boardLocation, placement) : 0.;
+        Location wantedLocation = getCameraLocationAtPartHeight(part, camera, nozzle, wantedAngle);
+        preparePipeline(pipeline, bottomVisionSettings.getPipelineParameterAssignments(), camera, part.getPackage(), 
+                nozzle, nozzle.getNozzleTip(), wantedLocation, wantedLocation, bottomVisionSettings);
+        List<PipelineShot> pipelineShots = new ArrayList<>(pipeline.getPipelineShots());
+        List<Map<String, Mat>> capturedImages = new ArrayList<>();
+        try {
+            for (PipelineShot pipelineShot : pipelineShots) {
+                pipelineShot.apply();
+                capturedImages.add(pipeline.capture());
+            }
+        }
+        catch (Exception e) {
+            releaseCapturedImages(capturedImages);
+            throw e;
+        }
+        return new DeferredAlignment() {
+            private DeferredResult deferredResult;
+
+            @Override
+            public void process() throws Exception {
+                // The processing runs on a clone, which only copies the stages' configuration. That is not 
+                // changed by capturing or processing, so it is safe while the pipeline is used for the next part.
+                CvPipeline processingPipeline = takeProcessingPipeline(bottomVisionSettings);
+                try {
+                    for (int i = 0; i < pipelineShots.size(); i++) {
+                        processingPipeline.resetReusedPipeline();
+                        processingPipeline.addProperties(pipelineShots.get(i).getProperties());
+                        processingPipeline.setCapturedImages(capturedImages.set(i, null));
+                        processingPipeline.process();
+                        pipelineShots.get(i).processResult(getPipelineResult(processingPipeline, part));
+                    }
+                    RotatedRect rect = (RotatedRect) pipelineShots.get(pipelineShots.size() - 1)
+                            .processCompositeResult().getModel();
+                    deferredResult = new DeferredResult(rect, 
+                            OpenCvUtils.toBufferedImage(processingPipeline.getWorkingImage()));
+                }
+                finally {
+                    recycleProcessingPipeline(bottomVisionSettings, processingPipeline);
+                    releaseCapturedImages(capturedImages);
+                }
+            }
+
+            @Override
+            public PartAlignmentOffset complete() throws Exception {
+                if (deferredResult == null) {
+                    throw new Exception("Bottom vision of part "+part.getId()+" not processed.");
+                }
+                PartAlignmentOffset offsets;
+                if (preRotating) {
+                    offsets = findOffsetsPreRotate(part, boardLocation, placement, nozzle, camera, bottomVisionSettings, 
+                            deferredResult);
+                }
+                else {
+                    offsets = findOffsetsPostRotate(part, boardLocation, placement, nozzle, camera, bottomVisionSettings, 
+                            deferredResult);
+                }
+                return applyAligningRotationMode(nozzle, offsets);
+            }
+        };
+    }
+
+    private static void releaseCapturedImages(List<Map<String, Mat>> capturedImages) {
+        for (Map<String, Mat> images : capturedImages) {
+            if (images != null) {
+                for (Mat image : images.values()) {
+                    image.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a production mode clone of the settings' pipeline. Cloning is an XML round trip, so the 
+     * clones are reused, one for each processing running concurrently. The clones are dropped when 
+     * the settings' pipeline is changed. 
+     * 
+     * @param bottomVisionSettings
+     * @return The clone, to be handed back using 
+     * {@link #recycleProcessingPipeline(BottomVisionSettings, CvPipeline)}.
+     * @throws CloneNotSupportedException
+     */
+    protected CvPipeline takeProcessingPipeline(BottomVisionSettings bottomVisionSettings) 
+            throws CloneNotSupportedException {
+        ProcessingPipelines pipelines;
+        synchronized (processingPipelines) {
+            pipelines = processingPipelines.get(bottomVisionSettings);
+            if (pipelines == null) {
+                pipelines = new ProcessingPipelines();
+                processingPipelines.put(bottomVisionSettings, pipelines);
+                bottomVisionSettings.addPropertyChangeListener("pipeline", 
+                        e -> dropProcessingPipelines(bottomVisionSettings));
+            }
+            CvPipeline pipeline = pipelines.idle.poll();
+            if (pipeline != null) {
+                return pipeline;
+            }
+        }
+        CvPipeline pipeline = bottomVisionSettings.getPipeline().clone();
+        pipeline.setProductionMode(true);
+        synchronized (processingPipelines) {
+            pipelines.current.add(pipeline);
+        }
+        return pipeline;
+    }
+
+    protected void recycleProcessingPipeline(BottomVisionSettings bottomVisionSettings, CvPipeline pipeline) {
+        synchronized (processingPipelines) {
+            ProcessingPipelines pipelines = processingPipelines.get(bottomVisionSettings);
+            if (pipelines != null && pipelines.current.contains(pipeline)) {
+                // Keep the Mat pool, but not the results and images.
+                pipeline.release();
+                pipeline.setCapturedImages(null);
+                pipelines.idle.push(pipeline);
+                return;
+            }
+        }
+        // The settings' pipeline was changed meanwhile.
+        closeProcessingPipeline(pipeline);
+    }
 
-            wantedAngle = placement.getLocation().getRotation();
-            if (boardLocation != null) {
-                wantedAngle = Utils2D.calculateBoardPlacementLocation(boardLocation, placement.getLocation())
-                        .getRotation();
+    private void dropProcessingPipelines(BottomVisionSettings bottomVisionSettings) {
+        synchronized (processingPipelines) {
+            ProcessingPipelines pipelines = processingPipelines.get(bottomVisionSettings);
+            if (pipelines != null) {
+                for (CvPipeline pipeline : pipelines.idle) {
+                    closeProcessingPipeline(pipeline);
+                }
+                pipelines.idle.clear();
+                pipelines.current.clear();
             }
-            wantedAngle = Utils2D.angleNorm(wantedAngle, 180.);
+        }
+    }
+
+    private static void closeProcessingPipeline(CvPipeline pipeline) {
+        try {
+            pipeline.close();
+        }
+        catch (IOException e) {
+            Logger.warn(e);
+        }
+    }
+
+    /**
+     * The result of the deferred processing of the first vision pass. 
+     */
+    private static class DeferredResult {
+        final RotatedRect rect;
+        final BufferedImage image;
+
+        DeferredResult(RotatedRect rect, BufferedImage image) {
+            this.rect = rect;
+            this.image = image;
+        }
+    }
+
+    private double getWantedAngle(BoardLocation boardLocation, Placement placement) {
+        double wantedAngle = placement.getLocation().getRotation();
+        if (boardLocation != null) {
+            wantedAngle = Utils2D.calculateBoardPlacementLocation(boardLocation, placement.getLocation())
+                    .getRotation();
+        }
+        return Utils2D.angleNorm(wantedAngle, 180.);
+    }
+
+    @Override
+    public Location getLocation(Part part, BoardLocation boardLocation,
+            Placement placement, Nozzle nozzle) throws Exception {
+        BottomVisionSettings bottomVisionSettings = getInheritedVisionSettings(part);
+
+        if (!isEnabled() || !bottomVisionSettings.isEnabled()) {
+            return null;
+        }
+
+        Camera camera = VisionUtils.getBottomVisionCamera();
+        double wantedAngle = 0.0;
+        if (isPreRotating(bottomVisionSettings)) {
+            wantedAngle = getWantedAngle(boardLocation, placement);
         }
         
         Location wantedLocation = getCameraLocationAtPartHeight(part, camera, nozzle, wantedAngle);
@@ -214,14 +429,10 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
     }
 
     private PartAlignmentOffset findOffsetsPreRotate(Part part, BoardLocation boardLocation,
-            Placement placement, Nozzle nozzle, Camera camera, BottomVisionSettings bottomVisionSettings)
+            Placement placement, Nozzle nozzle, Camera camera, BottomVisionSettings bottomVisionSettings, 
+            DeferredResult deferredResult)
                     throws Exception {
-        double wantedAngle = placement.getLocation().getRotation();
-        if (boardLocation != null) {
-            wantedAngle = Utils2D.calculateBoardPlacementLocation(boardLocation, placement.getLocation())
-                    .getRotation();
-        }
-        wantedAngle = Utils2D.angleNorm(wantedAngle, 180.);
+        double wantedAngle = getWantedAngle(boardLocation, placement);
         // Wanted location.
         Location wantedLocation = getCameraLocationAtPartHeight(part, camera, nozzle, wantedAngle);
 
@@ -233,10 +444,19 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             // The running, iterative offset.
             Location offsets = new Location(nozzleLocation.getUnits());
             RotatedRect rect;
+            BufferedImage resultImage = null;
             // Try getting a good fix on the part in multiple passes.
             for(int pass = 0;;) {
-                rect = processPipelineAndGetResult(pipeline, camera, part, nozzle,
-                        wantedLocation, nozzleLocation, bottomVisionSettings);
+                if (pass == 0 && deferredResult != null) {
+                    // First pass already processed.
+                    rect = deferredResult.rect;
+                    resultImage = deferredResult.image;
+                }
+                else {
+                    rect = processPipelineAndGetResult(pipeline, camera, part, nozzle,
+                            wantedLocation, nozzleLocation, bottomVisionSettings);
+                    resultImage = null;
+                }
 
                 Logger.debug("Bottom vision part {} result rect {}", part.getId(), rect);
 
@@ -303,7 +523,8 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             // subtract visionCenterOffset
             offsets = offsets.subtract(bottomVisionSettings.getVisionOffset().rotateXy(wantedAngle));
 
-            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, offsets, camera, nozzle);
+            displayResult(resultImage != null ? resultImage : OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 
+                    part, offsets, camera, nozzle);
             offsetsCheck(part, nozzle, offsets);
 
             partSizeCheck(part, bottomVisionSettings, rect, camera);
@@ -313,14 +534,16 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
     }
 
     private PartAlignmentOffset findOffsetsPostRotate(Part part, BoardLocation boardLocation,
-            Placement placement, Nozzle nozzle, Camera camera, BottomVisionSettings bottomVisionSettings)
+            Placement placement, Nozzle nozzle, Camera camera, BottomVisionSettings bottomVisionSettings, 
+            DeferredResult deferredResult)
                     throws Exception {
         // Create a location that is the Camera's X, Y, it's Z + part height
         // and a rotation of 0, unless preRotate is enabled
         Location wantedLocation = getCameraLocationAtPartHeight(part, camera, nozzle, 0.);
 
         try (CvPipeline pipeline = bottomVisionSettings.getPipeline()) {
-            RotatedRect rect = processPipelineAndGetResult(pipeline, camera, part, nozzle, wantedLocation, wantedLocation, bottomVisionSettings);
+            RotatedRect rect = (deferredResult != null ? deferredResult.rect 
+                    : processPipelineAndGetResult(pipeline, camera, part, nozzle, wantedLocation, wantedLocation, bottomVisionSettings));
 
             Logger.debug("Bottom vision part {} result rect {}", part.getId(), rect);
 
@@ -348,7 +571,8 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             // subtract visionCenterOffset
             offsets = offsets.subtract(bottomVisionSettings.getVisionOffset().rotateXy(offsets.getRotation()));
 
-            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, offsets, camera, nozzle);
+            displayResult(deferredResult != null ? deferredResult.image : OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 
+                    part, offsets, camera, nozzle);
             offsetsCheck(part, nozzle, offsets);
 
             return new PartAlignmentOffset(offsets, false);
@@ -589,36 +813,40 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             pipelineShot.apply();
 
             pipeline.process();
-            Result result = pipeline.getResult(VisionUtils.PIPELINE_RESULTS_NAME);
+            pipelineShot.processResult(getPipelineResult(pipeline, part));
+            // Display the shot result.   
+            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, null, camera, nozzle);
+        }
+        return (RotatedRect) pipeline.getCurrentPipelineShot().processCompositeResult().getModel();
+    }
 
-            // Fall back to the old name of "result" instead of "results" for backwards
-            // compatibility.
-            if (result == null) {
-                result = pipeline.getResult("result");
-            }
+    private Result getPipelineResult(CvPipeline pipeline, Part part) throws Exception {
+        Result result = pipeline.getResult(VisionUtils.PIPELINE_RESULTS_NAME);
 
-            if (result == null) {
-                throw new Exception(String.format(
-                        "ReferenceBottomVision (%s): Pipeline error. Pipeline must contain a result named '%s'.",
-                        part.getId(), VisionUtils.PIPELINE_RESULTS_NAME));
-            }
+        // Fall back to the old name of "result" instead of "results" for backwards
+        // compatibility.
+        if (result == null) {
+            result = pipeline.getResult("result");
+        }
 
-            if (result.model == null) {
-                throw new Exception(String.format(
-                        "ReferenceBottomVision (%s): No result found.",
-                        part.getId()));
-            }
+        if (result == null) {
+            throw new Exception(String.format(
+                    "ReferenceBottomVision (%s): Pipeline error. Pipeline must contain a result named '%s'.",
+                    part.getId(), VisionUtils.PIPELINE_RESULTS_NAME));
+        }
 
-            if (!(result.model instanceof RotatedRect)) {
-                throw new Exception(String.format(
-                        "ReferenceBottomVision (%s): Incorrect pipeline result type (%s). Expected RotatedRect.",
-                        part.getId(), result.model.getClass().getSimpleName()));
-            }
-            pipelineShot.processResult(result);
-            // Display the shot result.   
-            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, null, camera, nozzle);
+        if (result.model == null) {
+            throw new Exception(String.format(
+                    "ReferenceBottomVision (%s): No result found.",
+                    part.getId()));
         }
-        return (RotatedRect) pipeline.getCurrentPipelineShot().processCompositeResult().getModel();
+
+        if (!(result.model instanceof RotatedRect)) {
+            throw new Exception(String.format(
+                    "ReferenceBottomVision (%s): Incorrect pipeline result type (%s). Expected RotatedRect.",
+                    part.getId(), result.model.getClass().getSimpleName()));
+        }
+        return result;
     }
 
     @Override
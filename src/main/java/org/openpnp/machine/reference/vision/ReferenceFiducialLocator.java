@@ -22,6 +22,7 @@ import org.openpnp.gui.components.CameraView;
 import org.openpnp.gui.support.LengthConverter;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.ReferencePnpJobProcessor;
 import org.openpnp.machine.reference.vision.wizards.FiducialVisionSettingsConfigurationWizard;
 import org.openpnp.machine.reference.vision.wizards.ReferenceFiducialLocatorConfigurationWizard;
 import org.openpnp.model.Abstract2DLocatable.Side;
@@ -199,6 +200,11 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
                 currentCameraLocation,
                 // and end at the board origin
                 endLocation);
+        // Use the route solver configured on the job processor.
+        if (Configuration.get().getMachine().getPnpJobProcessor() instanceof ReferencePnpJobProcessor) {
+            ((ReferencePnpJobProcessor) Configuration.get().getMachine().getPnpJobProcessor())
+                .configureRouteSolver(tsm);
+        }
 
         // Solve it using the default heuristics.
         tsm.solve();
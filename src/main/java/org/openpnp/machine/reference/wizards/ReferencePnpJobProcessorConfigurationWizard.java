@@ -31,9 +31,11 @@ import org.openpnp.Translations;
 import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.IntegerConverter;
+import org.openpnp.gui.support.LongConverter;
 import org.openpnp.machine.reference.ReferencePnpJobProcessor;
 import org.openpnp.machine.reference.ReferencePnpJobProcessor.JobOrderHint;
 import org.openpnp.spi.PnpJobPlanner.Strategy;
+import org.openpnp.util.TravellingSalesman.SolverMode;
 
 import com.jgoodies.forms.layout.ColumnSpec;
 import com.jgoodies.forms.layout.FormLayout;
@@ -50,8 +52,11 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
     private JCheckBox steppingToNextMotion;
     private JCheckBox optimizeMultipleNozzles;
     private JCheckBox preRotateAllNozzles;
+    private JCheckBox pipelinedAlignment;
     private JTextField feederFaultLimitTextField;
     private JTextField feederFaultWindowSizeTextField;
+    private JComboBox<SolverMode> comboBoxRouteSolverMode;
+    private JTextField routeSolverTimeBudgetTextField;
 
     public ReferencePnpJobProcessorConfigurationWizard(ReferencePnpJobProcessor jobProcessor) {
         this.jobProcessor = jobProcessor;
@@ -84,6 +89,12 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
                         FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,}));
 
         JLabel lblMaxPlacementRetries = new JLabel(Translations.getString("MachineSetup.JobProcessors.ReferencePnpJobProcessor.Label.MaxPlacementRetries")); //$NON-NLS-1$
@@ -155,6 +166,28 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
         feederFaultWindowSizeTextField = new JTextField();
         panelGeneral.add(feederFaultWindowSizeTextField, "4, 18");
         feederFaultWindowSizeTextField.setColumns(10);
+
+        JLabel lblRouteSolverMode = new JLabel(Translations.getString("ReferencePnpJobProcessorConfigurationWizard.lblRouteSolverMode.text")); //$NON-NLS-1$
+        lblRouteSolverMode.setToolTipText(Translations.getString("ReferencePnpJobProcessorConfigurationWizard.lblRouteSolverMode.toolTipText")); //$NON-NLS-1$
+        panelGeneral.add(lblRouteSolverMode, "2, 20, right, default");
+
+        comboBoxRouteSolverMode = new JComboBox<SolverMode>(SolverMode.values());
+        panelGeneral.add(comboBoxRouteSolverMode, "4, 20");
+
+        JLabel lblRouteSolverTimeBudget = new JLabel(Translations.getString("ReferencePnpJobProcessorConfigurationWizard.lblRouteSolverTimeBudget.text")); //$NON-NLS-1$
+        lblRouteSolverTimeBudget.setToolTipText(Translations.getString("ReferencePnpJobProcessorConfigurationWizard.lblRouteSolverTimeBudget.toolTipText")); //$NON-NLS-1$
+        panelGeneral.add(lblRouteSolverTimeBudget, "2, 22, right, default");
+
+        routeSolverTimeBudgetTextField = new JTextField();
+        panelGeneral.add(routeSolverTimeBudgetTextField, "4, 22");
+        routeSolverTimeBudgetTextField.setColumns(10);
+
+        JLabel lblPipelinedAlignment = new JLabel(Translations.getString("ReferencePnpJobProcessorConfigurationWizard.lblPipelinedAlignment.text")); //$NON-NLS-1$
+        lblPipelinedAlignment.setToolTipText(Translations.getString("ReferencePnpJobProcessorConfigurationWizard.lblPipelinedAlignment.toolTipText")); //$NON-NLS-1$
+        panelGeneral.add(lblPipelinedAlignment, "2, 24, right, default");
+
+        pipelinedAlignment = new JCheckBox(); 
+        panelGeneral.add(pipelinedAlignment, "4, 24");
     }
 
     @Override
@@ -170,7 +203,11 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
         addWrappedBinding(jobProcessor, "preRotateAllNozzles", preRotateAllNozzles, "selected");
         addWrappedBinding(jobProcessor, "feederFaultLimit", feederFaultLimitTextField, "text", intConverter);
         addWrappedBinding(jobProcessor, "feederFaultWindowSize", feederFaultWindowSizeTextField, "text", intConverter);
+        addWrappedBinding(jobProcessor, "routeSolverMode", comboBoxRouteSolverMode, "selectedItem");
+        addWrappedBinding(jobProcessor, "routeSolverTimeBudgetMs", routeSolverTimeBudgetTextField, "text", new LongConverter());
+        addWrappedBinding(jobProcessor, "pipelinedAlignment", pipelinedAlignment, "selected");
 
         ComponentDecorators.decorateWithAutoSelect(maxVisionRetriesTextField);
+        ComponentDecorators.decorateWithAutoSelect(routeSolverTimeBudgetTextField);
     }
 }
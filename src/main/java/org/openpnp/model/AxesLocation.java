@@ -30,7 +30,10 @@ import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import org.openpnp.spi.Axis;
 import org.openpnp.spi.ControllerAxis;
@@ -56,12 +59,41 @@ import org.openpnp.util.Triplet;
  * missing axis means that it should not be included in an operation such as moveTo(), etc. Be careful to
  * determine which meaning applies. 
  * 
- * AxesLocations preserve the order of the axes. In particular the Configuration order of axis definitions is 
- * sometimes used to treat axes in their "natural" order, where it may matter.  
+ * AxesLocations do NOT preserve the order in which the axes were added. Instead, the axes are always 
+ * iterated (getAxes(), forEachCoordinate(), toString(), etc.) in the Configuration order of the axis 
+ * definitions, i.e. their "natural" order, where it may matter. Axes that are not (yet) added to the 
+ * machine follow at the end, in the order they were added. 
+ * 
+ * Internally, the machine assigns each axis a dense index (see Axis.getAxisIndex()), in Configuration order. 
+ * The coordinates are stored in a primitive array at that index, and a bitmask tells which axes are present.
+ * This avoids hashing and boxing in the motion planner, where AxesLocations are created and combined at 
+ * a high rate. Axes without a dense index are kept in a small insertion ordered map instead. AxesLocations 
+ * are immutable once created. 
  * 
  */
 public class AxesLocation {
-    final private LinkedHashMap<Axis, Double> location;
+    /**
+     * Number of dense axis indices that can be stored in the primitive arrays, as limited by the mask.  
+     */
+    final private static int DENSE_AXES = Long.SIZE;
+    final private static Axis[] NO_AXES = new Axis[0];
+    final private static double[] NO_COORDINATES = new double[0];
+
+    /**
+     * Bit i is set, if axes[i] and coordinates[i] are present.
+     */
+    private long mask;
+    /**
+     * The axes by dense index. Only ever written while constructing the AxesLocation, into an array owned 
+     * by it. Otherwise it may be shared among AxesLocations over the same axes.  
+     */
+    private Axis[] axes = NO_AXES;
+    private double[] coordinates = NO_COORDINATES;
+    /**
+     * Axes that cannot be stored by dense index, null if there are none.  
+     */
+    private LinkedHashMap<Axis, Double> overflow;
+
     final public static AxesLocation zero = new AxesLocation();
 
     /**
@@ -83,7 +115,6 @@ public class AxesLocation {
      */
     public AxesLocation() {
         // Empty.
-        location = new LinkedHashMap<>(0);
     }
     /**
      * Create a single Axis/coordinate pair AxesLocation.  
@@ -92,9 +123,8 @@ public class AxesLocation {
      * @param coordinate
      */
     public AxesLocation(Axis axis, double coordinate) {
-        location = new LinkedHashMap<>(1);
         if (axis != null) {
-            location.put(axis, coordinate);
+            set(axis, coordinate);
         }
     }
     /**
@@ -114,9 +144,8 @@ public class AxesLocation {
      * @param axes
      */
     public AxesLocation(CoordinateAxis... axis) {
-        location = new LinkedHashMap<>(axis.length);
         for (CoordinateAxis oneAxis : axis) {
-            location.put(oneAxis, oneAxis.getLengthCoordinate().convertToUnits(getUnits()).getValue());
+            set(oneAxis, oneAxis.getLengthCoordinate().convertToUnits(getUnits()).getValue());
         }
     }
     /**
@@ -136,11 +165,10 @@ public class AxesLocation {
      * @param initializer
      */
     public <T extends Axis> AxesLocation(Iterable<T> axes, Function<T, Length> initializer) {
-        location = new LinkedHashMap<>();
         for (T axis : axes) {
             Length coordinate = initializer.apply(axis);
             if (coordinate != null) {
-                location.put(axis, coordinate.convertToUnits(getUnits()).getValue());
+                set(axis, coordinate.convertToUnits(getUnits()).getValue());
             }
         }
     }
@@ -161,12 +189,13 @@ public class AxesLocation {
      * @param initializer
      */
     public AxesLocation(Machine machine, Function<CoordinateAxis, Length> initializer) {
-        location = new LinkedHashMap<>();
-        for (Axis axis : machine.getAxes()) {
+        List<Axis> machineAxes = machine.getAxes();
+        reserve(machineAxes.size());
+        for (Axis axis : machineAxes) {
             if (axis instanceof CoordinateAxis) {
                 Length coordinate = initializer.apply((CoordinateAxis) axis);
                 if (coordinate != null) {
-                    location.put(axis, coordinate.convertToUnits(getUnits()).getValue());
+                    set(axis, coordinate.convertToUnits(getUnits()).getValue());
                 }
             }
         }
@@ -180,13 +209,14 @@ public class AxesLocation {
      * @param initializer
      */
     public AxesLocation(Machine machine, Driver driver, Function<ControllerAxis, Length> initializer) {
-        location = new LinkedHashMap<>();
-        for (Axis axis : machine.getAxes()) {
+        List<Axis> machineAxes = machine.getAxes();
+        reserve(machineAxes.size());
+        for (Axis axis : machineAxes) {
             if (axis instanceof ControllerAxis) {
                 if (((ControllerAxis) axis).getDriver() == driver) {
                     Length coordinate = initializer.apply((ControllerAxis) axis);
                     if (coordinate != null) {
-                        location.put(axis, coordinate.convertToUnits(getUnits()).getValue());
+                        set(axis, coordinate.convertToUnits(getUnits()).getValue());
                     }
                 }
             }
@@ -199,12 +229,23 @@ public class AxesLocation {
      * @param axesLocation
      */
     public AxesLocation(BiFunction<Double, Double, Double> function, AxesLocation... axesLocation) {
-        location = new LinkedHashMap<>();
         for (AxesLocation oneAxesLocation : axesLocation) {
             if (oneAxesLocation != null) {
-                for (Axis axis : oneAxesLocation.getAxes()) {
-                    location.merge(axis, oneAxesLocation.getCoordinate(axis), function);
-                }
+                reserve(oneAxesLocation.axes.length);
+                oneAxesLocation.forEachCoordinate((axis, coordinate) -> {
+                    if (contains(axis)) {
+                        Double merged = function.apply(getCoordinate(axis), coordinate);
+                        if (merged != null) {
+                            set(axis, merged);
+                        }
+                        else {
+                            unset(axis);
+                        }
+                    }
+                    else {
+                        set(axis, coordinate);
+                    }
+                });
             }
         }
     }
@@ -215,26 +256,223 @@ public class AxesLocation {
      * @param axesLocation
      */
     public AxesLocation(Function<Double, Double> function, AxesLocation axesLocation) {
-        location = new LinkedHashMap<>();
-        for (Axis axis : axesLocation.getAxes()) {
-            location.put(axis, function.apply(axesLocation.getCoordinate(axis)));
+        this(axesLocation, (coordinate) -> function.apply(coordinate));
+    }
+    /**
+     * Create a new AxesLocation over the same axes as axesLocation, with the operator applied to the coordinates.
+     * 
+     * @param axesLocation
+     * @param operator
+     */
+    private AxesLocation(AxesLocation axesLocation, DoubleUnaryOperator operator) {
+        // Same axes, so the axes array can be shared.
+        mask = axesLocation.mask;
+        axes = axesLocation.axes;
+        coordinates = new double[axes.length];
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int i = Long.numberOfTrailingZeros(bits);
+            coordinates[i] = operator.applyAsDouble(axesLocation.coordinates[i]);
+        }
+        if (axesLocation.overflow != null) {
+            overflow = new LinkedHashMap<>();
+            for (Entry<Axis, Double> entry : axesLocation.overflow.entrySet()) {
+                overflow.put(entry.getKey(), operator.applyAsDouble(entry.getValue()));
+            }
+        }
+    }
+    /**
+     * Create a new AxesLocation with the axes of both locations. Where both contain an axis, the operator is
+     * applied to the coordinates, otherwise the coordinate is taken from the one that contains it. 
+     * 
+     * @param location0
+     * @param location1
+     * @param operator
+     */
+    private AxesLocation(AxesLocation location0, AxesLocation location1, DoubleBinaryOperator operator) {
+        if (location1.overflow == null && location0.containsDense(location1)) {
+            // Common case: location1 has a subset of the axes of location0, so the axes array can be shared.
+            mask = location0.mask;
+            axes = location0.axes;
+            coordinates = location0.coordinates.clone();
+            overflow = location0.overflow;
+            for (long bits = location1.mask; bits != 0; bits &= bits - 1) {
+                int i = Long.numberOfTrailingZeros(bits);
+                coordinates[i] = operator.applyAsDouble(coordinates[i], location1.coordinates[i]);
+            }
+        }
+        else {
+            reserve(Math.max(location0.axes.length, location1.axes.length));
+            location0.forEachCoordinate((axis, coordinate) -> set(axis, coordinate));
+            location1.forEachCoordinate((axis, coordinate) -> {
+                int slot = slotOf(axis);
+                if (slot >= 0) {
+                    coordinates[slot] = operator.applyAsDouble(coordinates[slot], coordinate);
+                }
+                else if (overflow != null && overflow.containsKey(axis)) {
+                    overflow.put(axis, operator.applyAsDouble(overflow.get(axis), coordinate));
+                }
+                else {
+                    set(axis, coordinate);
+                }
+            });
+        }
+    }
+
+    /**
+     * Create an AxesLocation with the given typed Axis Iterable and initialize coordinates with the given function
+     * returning the coordinate in AxesLocation.getUnits(). Unlike the Length based constructor, this does not create 
+     * any intermediate objects per axis.
+     * 
+     * @param <T>
+     * @param axes
+     * @param initializer
+     * @return
+     */
+    public static <T extends Axis> AxesLocation fromCoordinates(Iterable<T> axes, ToDoubleFunction<T> initializer) {
+        AxesLocation axesLocation = new AxesLocation();
+        for (T axis : axes) {
+            axesLocation.set(axis, initializer.applyAsDouble(axis));
+        }
+        return axesLocation;
+    }
+
+    /**
+     * Callback for iterating over the axes and coordinates of the AxesLocation without boxing.
+     */
+    @FunctionalInterface
+    public interface CoordinateConsumer {
+        void accept(Axis axis, double coordinate);
+    }
+
+    /**
+     * Iterate over the axes and coordinates of the AxesLocation, in Configuration order, see the class
+     * description.
+     * 
+     * @param consumer
+     */
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int i = Long.numberOfTrailingZeros(bits);
+            consumer.accept(axes[i], coordinates[i]);
+        }
+        if (overflow != null) {
+            for (Entry<Axis, Double> entry : overflow.entrySet()) {
+                consumer.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param axis
+     * @return The slot of the axis in the primitive arrays, or -1 if it is not stored there. 
+     */
+    private int slotOf(Axis axis) {
+        int index = axis.getAxisIndex();
+        if (index >= 0 && index < axes.length 
+                && (mask & (1L << index)) != 0 && axes[index] == axis) {
+            return index;
+        }
+        if (mask != 0) {
+            // The dense index may have been reassigned after this AxesLocation was created, 
+            // i.e. when axes were added, removed or permutated in Machine Setup.
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int i = Long.numberOfTrailingZeros(bits);
+                if (axes[i] == axis) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param other
+     * @return True if the dense axes of other are all contained in this, in the same slots.
+     */
+    private boolean containsDense(AxesLocation other) {
+        if ((other.mask & ~mask) != 0) {
+            return false;
+        }
+        for (long bits = other.mask; bits != 0; bits &= bits - 1) {
+            int i = Long.numberOfTrailingZeros(bits);
+            if (axes[i] != other.axes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Make room for the given number of dense axes. Only to be used while constructing.
+     * 
+     * @param length
+     */
+    private void reserve(int length) {
+        length = Math.min(length, DENSE_AXES);
+        if (axes.length < length) {
+            axes = Arrays.copyOf(axes, length);
+            coordinates = Arrays.copyOf(coordinates, length);
+        }
+    }
+
+    /**
+     * Set the coordinate of the axis. Only to be used while constructing.
+     * 
+     * @param axis
+     * @param coordinate
+     */
+    private void set(Axis axis, double coordinate) {
+        int slot = slotOf(axis);
+        if (slot >= 0) {
+            coordinates[slot] = coordinate;
+            return;
+        }
+        if (overflow == null || !overflow.containsKey(axis)) {
+            int index = axis.getAxisIndex();
+            if (index >= 0 && index < DENSE_AXES && (mask & (1L << index)) == 0) {
+                reserve(index + 1);
+                axes[index] = axis;
+                coordinates[index] = coordinate;
+                mask |= 1L << index;
+                return;
+            }
+            if (overflow == null) {
+                overflow = new LinkedHashMap<>();
+            }
+        }
+        overflow.put(axis, coordinate);
+    }
+
+    /**
+     * Remove the axis. Only to be used while constructing.
+     * 
+     * @param axis
+     */
+    private void unset(Axis axis) {
+        int slot = slotOf(axis);
+        if (slot >= 0) {
+            mask &= ~(1L << slot);
+            axes[slot] = null;
+        }
+        else if (overflow != null) {
+            overflow.remove(axis);
         }
     }
 
     public AxesLocation add(AxesLocation other) {
-        return new AxesLocation((a, b) -> (a + b), this, other);
+        return new AxesLocation(this, other, (a, b) -> (a + b));
     }
 
     public AxesLocation subtract(AxesLocation other) {
-        return new AxesLocation((a, b) -> (a - b), this, other);
+        return new AxesLocation(this, other, (a, b) -> (a - b));
     }
 
     public AxesLocation multiply(double factor) {
-        return new AxesLocation((a) -> (a*factor), this);
+        return new AxesLocation(this, (a) -> (a*factor));
     }
 
     public AxesLocation put(AxesLocation other) {
-        return new AxesLocation((a, b) -> (b), this, other);
+        return new AxesLocation(this, other, (a, b) -> (b));
     }
 
     public AxesLocation remove(Axis other) {
@@ -251,8 +489,21 @@ public class AxesLocation {
      */
     public double dotProduct(AxesLocation other) {
         double dot = 0;
-        for (Entry<Axis, Double> entry : this.location.entrySet()) {
-            dot += entry.getValue()*other.getCoordinate(entry.getKey());
+        if (overflow == null && other.containsDense(this)) {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int i = Long.numberOfTrailingZeros(bits);
+                dot += coordinates[i]*other.coordinates[i];
+            }
+            return dot;
+        }
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int i = Long.numberOfTrailingZeros(bits);
+            dot += coordinates[i]*other.getCoordinate(axes[i]);
+        }
+        if (overflow != null) {
+            for (Entry<Axis, Double> entry : overflow.entrySet()) {
+                dot += entry.getValue()*other.getCoordinate(entry.getKey());
+            }
         }
         return dot;
     }
@@ -308,7 +559,14 @@ public class AxesLocation {
      * @return
      */
     public Set<Axis> getAxes() {
-        return location.keySet();
+        LinkedHashSet<Axis> set = new LinkedHashSet<>();
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            set.add(axes[Long.numberOfTrailingZeros(bits)]);
+        }
+        if (overflow != null) {
+            set.addAll(overflow.keySet());
+        }
+        return set;
     }
 
     /**
@@ -335,13 +593,13 @@ public class AxesLocation {
      */
     @SuppressWarnings("unchecked")
     public <T extends Axis> LinkedHashSet<T> getAxes(Class<T> axisClass) {
-        LinkedHashSet<T> axes = new LinkedHashSet<>();
-        for (Axis axis : getAxes()) {
+        LinkedHashSet<T> set = new LinkedHashSet<>();
+        forEachCoordinate((axis, coordinate) -> {
             if (axisClass.isInstance(axis)) {
-                axes.add((T) axis);
+                set.add((T) axis);
             }
-        }
-        return axes;
+        });
+        return set;
     }
 
     /**
@@ -358,7 +616,8 @@ public class AxesLocation {
         if (axis == null) {
             return true;
         }
-        return (location.containsKey(axis));
+        return slotOf(axis) >= 0 
+                || (overflow != null && overflow.containsKey(axis));
     }
 
     /**
@@ -386,11 +645,11 @@ public class AxesLocation {
     }
 
     public int size() {
-        return getAxes().size();
+        return Long.bitCount(mask) + (overflow != null ? overflow.size() : 0);
     }
 
     public boolean isEmpty() {
-        return getAxes().isEmpty();
+        return size() == 0;
     }
 
     /**
@@ -421,9 +680,15 @@ public class AxesLocation {
      */
     public double getCoordinate(Axis axis) {
         if (axis != null) {
-            Double coordinate = location.get(axis);
-            if (coordinate != null) {
-                return coordinate;
+            int slot = slotOf(axis);
+            if (slot >= 0) {
+                return coordinates[slot];
+            }
+            if (overflow != null) {
+                Double coordinate = overflow.get(axis);
+                if (coordinate != null) {
+                    return coordinate;
+                }
             }
         }
         return 0.0;
@@ -458,15 +723,14 @@ public class AxesLocation {
     public String toString() {
         StringBuilder str = new StringBuilder();
         str.append("(");
-        int i = 0;
-        for (Entry<Axis, Double> entry : location.entrySet()) {
-            if (i++ > 0) {
+        forEachCoordinate((axis, coordinate) -> {
+            if (str.length() > 1) {
                 str.append(", ");
             }
-            str.append(entry.getKey().getName());
+            str.append(axis.getName());
             str.append(":");
-            str.append(String.format(Locale.US, "%f", entry.getValue())); 
-        }
+            str.append(String.format(Locale.US, "%f", coordinate)); 
+        });
         str.append(")");
         return str.toString();
     }
@@ -614,9 +878,17 @@ public class AxesLocation {
      */
     public double getEuclideanMetric() {
         double sumSq = 0;
-        for (Entry<Axis, Double> entry : location.entrySet()) {
-            if (entry.getKey() instanceof ControllerAxis) {
-                sumSq += Math.pow(entry.getValue(), 2);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int i = Long.numberOfTrailingZeros(bits);
+            if (axes[i] instanceof ControllerAxis) {
+                sumSq += Math.pow(coordinates[i], 2);
+            }
+        }
+        if (overflow != null) {
+            for (Entry<Axis, Double> entry : overflow.entrySet()) {
+                if (entry.getKey() instanceof ControllerAxis) {
+                    sumSq += Math.pow(entry.getValue(), 2);
+                }
             }
         }
         return Math.sqrt(sumSq);
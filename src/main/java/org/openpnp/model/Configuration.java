@@ -27,13 +27,18 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.TreeMap;
@@ -41,6 +46,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.prefs.Preferences;
 
 import javax.swing.JOptionPane;
@@ -130,6 +139,18 @@ public class Configuration extends AbstractModelObject {
     private EventBus bus = new EventBus();
     public TreeMap<String, String> scriptState = new TreeMap<>();
 
+    /**
+     * Delay of the asynchronous save, any further saves requested within it are coalesced.
+     */
+    private static final long SAVE_ASYNC_DELAY_MS = 500;
+    private Map<String, byte[]> savedDocumentDigests = new HashMap<>();
+    private final Object saveAsyncLock = new Object();
+    private CompletableFuture<Void> pendingSave;
+    private SerializedDocuments pendingDocuments;
+    private long serializedSequence;
+    private long writtenSequence;
+    private ScheduledExecutorService saveExecutor;
+
     public static boolean isInstanceInitialized() {
         return (instance != null);
     }
@@ -589,49 +610,165 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
+    /**
+     * Saves the configuration files. The files are serialized in memory first and only written,
+     * if their content has changed since the last save. Files are written through a temporary file
+     * and an atomic rename, so a crash in the middle of writing cannot corrupt the configuration.
+     * 
+     * Finally asks the user whether modified Boards and Panels should be saved too.
+     * 
+     * @throws Exception
+     */
     public synchronized void save() throws Exception {
-        LocalDateTime now = LocalDateTime.now();
-        try {
-           saveMachine(createBackedUpFile("machine.xml", now));
-        }
-        catch (Exception e) {
-            throw new Exception("Error while saving machine.xml (" + e.getMessage() + ")", e);
-        }
-        try {
-            savePackages(createBackedUpFile("packages.xml", now));
-        }
-        catch (Exception e) {
-            throw new Exception("Error while saving packages.xml (" + e.getMessage() + ")", e);
+        SerializedDocuments documents = serializeDocuments();
+        synchronized (saveAsyncLock) {
+            // Supersedes any pending asynchronous save.
+            pendingDocuments = null;
         }
-        try {
-            saveParts(createBackedUpFile("parts.xml", now));
-        }
-        catch (Exception e) {
-            throw new Exception("Error while saving parts.xml (" + e.getMessage() + ")", e);
-        }
-        try {
-            saveBoards(createBackedUpFile("boards.xml", now));
+        writeDocuments(documents);
+        confirmSaveOfModifiedPlacementsHolders();
+    }
+
+    /**
+     * Saves the configuration files like {@link #save()}, but writes them on a background thread, so
+     * neither the GUI nor the machine thread are stalled by the file I/O. The configuration is 
+     * serialized on the calling thread, i.e. the files contain the configuration as it is when this 
+     * is called. The write is delayed by {@value #SAVE_ASYNC_DELAY_MS}ms and repeated requests within 
+     * that time are coalesced into one write of the latest configuration. Modified Boards and Panels 
+     * are not saved, use {@link #confirmSaveOfModifiedPlacementsHolders()} on the GUI thread for these.
+     * 
+     * @return The future of the write, completed exceptionally if the write failed.
+     * @throws Exception if the configuration cannot be serialized.
+     */
+    public CompletableFuture<Void> saveAsync() throws Exception {
+        SerializedDocuments documents = serializeDocuments();
+        synchronized (saveAsyncLock) {
+            // The latest configuration is written.
+            pendingDocuments = documents;
+            if (pendingSave != null) {
+                return pendingSave;
+            }
+            if (saveExecutor == null) {
+                saveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "Configuration Save");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pendingSave = future;
+            saveExecutor.schedule(() -> {
+                SerializedDocuments pending;
+                synchronized (saveAsyncLock) {
+                    // Changes made from now on need another save.
+                    pending = pendingDocuments;
+                    pendingDocuments = null;
+                    pendingSave = null;
+                }
+                try {
+                    if (pending != null) {
+                        writeDocuments(pending);
+                    }
+                    future.complete(null);
+                }
+                catch (Exception e) {
+                    Logger.error(e, "Asynchronous configuration save failed");
+                    future.completeExceptionally(e);
+                }
+            }, SAVE_ASYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+            return future;
         }
-        catch (Exception e) {
-            throw new Exception("Error while saving boards.xml (" + e.getMessage() + ")", e);
+    }
+
+    /**
+     * The serialized configuration documents by file name, numbered in the order of serialization.
+     */
+    private static class SerializedDocuments {
+        final long sequence;
+        final Map<String, byte[]> documents;
+
+        SerializedDocuments(long sequence, Map<String, byte[]> documents) {
+            this.sequence = sequence;
+            this.documents = documents;
         }
+    }
+
+    /**
+     * Serializes the configuration documents in memory, so errors happen before any file is written.
+     * 
+     * @return The serialized content.
+     * @throws Exception
+     */
+    private synchronized SerializedDocuments serializeDocuments() throws Exception {
+        Map<String, byte[]> documents = new LinkedHashMap<>();
+        MachineConfigurationHolder machineHolder = new MachineConfigurationHolder();
+        machineHolder.machine = machine;
+        serializeDocument(documents, machineHolder, "machine.xml");
+        PackagesConfigurationHolder packagesHolder = new PackagesConfigurationHolder();
+        packagesHolder.packages = new ArrayList<>(packages.values());
+        serializeDocument(documents, packagesHolder, "packages.xml");
+        PartsConfigurationHolder partsHolder = new PartsConfigurationHolder();
+        partsHolder.parts = new ArrayList<>(parts.values());
+        serializeDocument(documents, partsHolder, "parts.xml");
+        BoardsConfigurationHolder boardsHolder = new BoardsConfigurationHolder();
+        boardsHolder.boards = new ArrayList<>(boards.keySet());
+        serializeDocument(documents, boardsHolder, "boards.xml");
+        PanelsConfigurationHolder panelsHolder = new PanelsConfigurationHolder();
+        panelsHolder.panels = new ArrayList<>(panels.keySet());
+        serializeDocument(documents, panelsHolder, "panels.xml");
+        VisionSettingsConfigurationHolder visionSettingsHolder = new VisionSettingsConfigurationHolder();
+        visionSettingsHolder.visionSettings = new ArrayList<>(visionSettings.values());
+        serializeDocument(documents, visionSettingsHolder, "vision-settings.xml");
+        ScriptStateConfigurationHolder scriptStateHolder = new ScriptStateConfigurationHolder();
+        scriptStateHolder.scriptState = scriptState;
+        serializeDocument(documents, scriptStateHolder, "script-state.xml");
+        return new SerializedDocuments(++serializedSequence, documents);
+    }
+
+    private static void serializeDocument(Map<String, byte[]> documents, Object holder, String fileName) 
+            throws Exception {
         try {
-            savePanels(createBackedUpFile("panels.xml", now));
+            documents.put(fileName, serializeObject(holder));
         }
         catch (Exception e) {
-            throw new Exception("Error while saving panels.xml (" + e.getMessage() + ")", e);
-        }
-        try {
-            saveVisionSettings(createBackedUpFile("vision-settings.xml", now));
+            throw new Exception("Error while saving " + fileName + " (" + e.getMessage() + ")", e);
         }
-        catch (Exception e) {
-            throw new Exception("Error while saving vision-settings.xml (" + e.getMessage() + ")", e);
+    }
+
+    /**
+     * Writes the serialized configuration documents, see {@link #saveDocument(byte[], String, LocalDateTime)}.
+     * Documents older than the last written ones are skipped, so the latest configuration wins, even 
+     * if an asynchronous write is overtaken by a synchronous one.
+     */
+    private void writeDocuments(SerializedDocuments documents) throws Exception {
+        synchronized (savedDocumentDigests) {
+            if (documents.sequence < writtenSequence) {
+                Logger.debug("Skipping the write of superseded configuration documents");
+                return;
+            }
+            writtenSequence = documents.sequence;
+            LocalDateTime now = LocalDateTime.now();
+            for (Map.Entry<String, byte[]> document : documents.documents.entrySet()) {
+                try {
+                    saveDocument(document.getValue(), document.getKey(), now);
+                }
+                catch (Exception e) {
+                    throw new Exception("Error while saving " + document.getKey() + " (" + e.getMessage() + ")", e);
+                }
+            }
         }
-        try {
-            saveScriptState(createBackedUpFile("script-state.xml", now));
+    }
+
+    /**
+     * Asks the user whether modified Boards and Panels should be saved. Must be called on the GUI
+     * thread.
+     */
+    public void confirmSaveOfModifiedPlacementsHolders() {
+        for (Board board : getBoards()) {
+            confirmSaveOfModified(board);
         }
-        catch (Exception e) {
-            throw new Exception("Error while saving script-state.xml (" + e.getMessage() + ")", e);
+        for (Panel panel : getPanels()) {
+            confirmSaveOfModified(panel);
         }
     }
 
@@ -886,15 +1023,54 @@ public class Configuration extends AbstractModelObject {
         return board;
     }
     
-    private static void serializeObject(Object o, File file) throws Exception {
+    private static byte[] serializeObject(Object o) throws Exception {
         Serializer serializer = createSerializer();
-        // This write forces any errors that will appear to happen before we start writing to
-        // the file, which keeps us from writing a partial configuration to the real file.
-        serializer.write(o, new ByteArrayOutputStream());
-        FileOutputStream out = new FileOutputStream(file);
+        // Serializing in memory forces any errors that will appear to happen before we start 
+        // writing to the file, which keeps us from writing a partial configuration to the real file.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
         serializer.write(o, out);
         out.write('\n');
-        out.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the content to a temporary file in the same directory, then renames it to the file,
+     * atomically if the file system supports it.
+     */
+    private static void writeAtomically(byte[] content, File file) throws IOException {
+        Path path = file.toPath();
+        Path temporary = path.resolveSibling(file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+            out.write(content);
+            out.getFD().sync();
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Saves the configuration document, if its serialized content has changed since the last
+     * save, or the file is missing. The previous file is backed up first.
+     * 
+     * @param content
+     * @param fileName
+     * @param now
+     * @throws Exception
+     */
+    private void saveDocument(byte[] content, String fileName, LocalDateTime now) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+        File file = new File(configurationDirectory, fileName);
+        if (file.exists() && Arrays.equals(digest, savedDocumentDigests.get(fileName))) {
+            Logger.trace("{} unchanged, not saved.", fileName);
+            return;
+        }
+        writeAtomically(content, createBackedUpFile(fileName, now));
+        savedDocumentDigests.put(fileName, digest);
     }
 
     private void loadMachine(File file) throws Exception {
@@ -903,12 +1079,6 @@ public class Configuration extends AbstractModelObject {
         machine = holder.machine;
     }
 
-    private void saveMachine(File file) throws Exception {
-        MachineConfigurationHolder holder = new MachineConfigurationHolder();
-        holder.machine = machine;
-        serializeObject(holder, file);
-    }
-
     private void loadPackages(File file) throws Exception {
         Serializer serializer = createSerializer();
         PackagesConfigurationHolder holder =
@@ -918,12 +1088,6 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
-    private void savePackages(File file) throws Exception {
-        PackagesConfigurationHolder holder = new PackagesConfigurationHolder();
-        holder.packages = new ArrayList<>(packages.values());
-        serializeObject(holder, file);
-    }
-
     private void loadParts(File file) throws Exception {
         Serializer serializer = createSerializer();
         PartsConfigurationHolder holder = serializer.read(PartsConfigurationHolder.class, file);
@@ -932,12 +1096,6 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
-    private void saveParts(File file) throws Exception {
-        PartsConfigurationHolder holder = new PartsConfigurationHolder();
-        holder.parts = new ArrayList<>(parts.values());
-        serializeObject(holder, file);
-    }
-
     /**
      * Loads the Boards listed in the specified file into the configuration.  Any Boards listed that
      * can't be loaded are skipped and an error message is logged.
@@ -961,21 +1119,6 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
-    /**
-     * Saves the Boards that are currently loaded in the configuration to the specified file
-     * @param file - the file in which to save the Boards
-     * @throws Exception if the file can't be written successfully
-     */
-    private void saveBoards(File file) throws Exception {
-        BoardsConfigurationHolder holder = new BoardsConfigurationHolder();
-        holder.boards = new ArrayList<>(boards.keySet());
-        serializeObject(holder, file);
-        
-        for (Board board : getBoards()) {
-            confirmSaveOfModified(board);
-        }
-    }
-
     /**
      * Loads the Panels listed in the specified file into the configuration.  Any Panels listed that
      * can't be loaded are skipped and an error message is logged.
@@ -999,21 +1142,6 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
-    /**
-     * Saves the Panels that are currently loaded in the configuration to the specified file
-     * @param file - the file in which to save the Panels
-     * @throws Exception if the file can't be written successfully
-     */
-    private void savePanels(File file) throws Exception {
-        PanelsConfigurationHolder holder = new PanelsConfigurationHolder();
-        holder.panels = new ArrayList<>(panels.keySet());
-        serializeObject(holder, file);
-        
-        for (Panel panel : getPanels()) {
-            confirmSaveOfModified(panel);
-        }
-    }
-
     private void confirmSaveOfModified(PlacementsHolder<?> placementsHolder) {
         if (placementsHolder.isDirty()) {
             int result = JOptionPane.showConfirmDialog(MainFrame.get(),
@@ -1050,24 +1178,12 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
-    private void saveVisionSettings(File file) throws Exception {
-        VisionSettingsConfigurationHolder holder = new VisionSettingsConfigurationHolder();
-        holder.visionSettings = new ArrayList<>(visionSettings.values());
-        serializeObject(holder, file);
-    }
-
     private void loadScriptState(File file) throws Exception {
         Serializer serializer = createSerializer();
         ScriptStateConfigurationHolder holder = serializer.read(ScriptStateConfigurationHolder.class, file);
         scriptState = holder.scriptState;
     }
 
-    private void saveScriptState(File file) throws Exception {
-        ScriptStateConfigurationHolder holder = new ScriptStateConfigurationHolder();
-        holder.scriptState = scriptState;
-        serializeObject(holder, file);
-    }
-
     /**
      * Returns the Job contained within the specified file 
      * @param file - the file containing the Job
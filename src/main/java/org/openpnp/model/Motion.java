@@ -570,20 +570,20 @@ public class Motion {
     }
 
     public AxesLocation getMomentaryLocation(double time) {
-        return new AxesLocation(axisIndex.keySet(),
-                (axis) -> new Length(getAxisProfile(axis).getMomentaryLocation(time), AxesLocation.getUnits()));
+        return AxesLocation.fromCoordinates(axisIndex.keySet(),
+                (axis) -> getAxisProfile(axis).getMomentaryLocation(time));
     }
     public AxesLocation getMomentaryVelocity(double time) {
-        return new AxesLocation(axisIndex.keySet(),
-                (axis) -> new Length(getAxisProfile(axis).getMomentaryVelocity(time), AxesLocation.getUnits()));
+        return AxesLocation.fromCoordinates(axisIndex.keySet(),
+                (axis) -> getAxisProfile(axis).getMomentaryVelocity(time));
     }
     public AxesLocation getMomentaryAcceleration(double time) {
-        return new AxesLocation(axisIndex.keySet(),
-                (axis) -> new Length(getAxisProfile(axis).getMomentaryAcceleration(time), AxesLocation.getUnits()));
+        return AxesLocation.fromCoordinates(axisIndex.keySet(),
+                (axis) -> getAxisProfile(axis).getMomentaryAcceleration(time));
     }
     public AxesLocation getMomentaryJerk(double time) {
-        return new AxesLocation(axisIndex.keySet(),
-                (axis) -> new Length(getAxisProfile(axis).getMomentaryJerk(time), AxesLocation.getUnits()));
+        return AxesLocation.fromCoordinates(axisIndex.keySet(),
+                (axis) -> getAxisProfile(axis).getMomentaryJerk(time));
     }
 
     /**
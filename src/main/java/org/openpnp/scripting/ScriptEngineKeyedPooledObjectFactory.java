@@ -1,5 +1,7 @@
 package org.openpnp.scripting;
 
+import java.util.function.Consumer;
+
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 
@@ -11,9 +13,21 @@ import org.pmw.tinylog.Logger;
 public class ScriptEngineKeyedPooledObjectFactory
         extends BaseKeyedPooledObjectFactory<String, ScriptEngine> {
     private final ScriptEngineManager manager;
+    private final Consumer<ScriptEngine> destroyListener;
 
     public ScriptEngineKeyedPooledObjectFactory(ScriptEngineManager manager) {
+        this(manager, null);
+    }
+
+    /**
+     * @param manager
+     * @param destroyListener Called when an engine is destroyed, e.g. evicted from the pool, so any 
+     * state held for it can be dropped.
+     */
+    public ScriptEngineKeyedPooledObjectFactory(ScriptEngineManager manager, 
+            Consumer<ScriptEngine> destroyListener) {
         this.manager = manager;
+        this.destroyListener = destroyListener;
     }
 
     @Override
@@ -34,6 +48,15 @@ public class ScriptEngineKeyedPooledObjectFactory
         return engine;
     }
 
+    @Override
+    public void destroyObject(String engineName, PooledObject<ScriptEngine> pooledObject) 
+            throws Exception {
+        if (destroyListener != null) {
+            destroyListener.accept(pooledObject.getObject());
+        }
+        super.destroyObject(engineName, pooledObject);
+    }
+
     @Override
     public PooledObject<ScriptEngine> wrap(ScriptEngine value) {
         return new DefaultPooledObject<ScriptEngine>(value);
@@ -138,6 +138,8 @@ public class ScriptFileWatcher {
         try {
             fileWatcher = FileSystems.getDefault().newWatchService();
             watchDirectory(scripting.getScriptsDirectory());
+            // The Events are not in the menu, but their index and compiled scripts must be refreshed.
+            watchDirectory(scripting.getEventsDirectory());
             Thread thread = new Thread(() -> {
                 for (;;) {
                     try {
@@ -145,6 +147,7 @@ public class ScriptFileWatcher {
                         WatchKey key = fileWatcher.take();
                         key.pollEvents();
                         key.reset();
+                        scripting.invalidateScripts();
                         // rescan
                         synchronizeMenu(menu, scripting.getScriptsDirectory());
                     }
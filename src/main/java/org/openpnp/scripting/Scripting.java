@@ -8,10 +8,14 @@ import java.util.Comparator;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
@@ -36,14 +40,81 @@ public class Scripting {
     private final File eventsDirectory;
     private final HashMap<String, String> extensionToEngineNameMap;
     private final GenericKeyedObjectPool<String, ScriptEngine> enginePool;
-    private final HashSet<String> eventsWithoutScripts;
+    // Compiled scripts are bound to the engine that compiled them, so they are cached per
+    // (pooled) engine. The compiled scripts reference their engine, so the entry is removed
+    // explicitly, when the engine is destroyed by the pool, e.g. evicted when idle.
+    private final Map<ScriptEngine, Map<File, CachedScript>> compiledScripts =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    private volatile EventIndex eventIndex;
+
+    // File systems store modification times with limited resolution, down to 2s on FAT. A file
+    // changed within that time after it was read might still show the same time, so the cached
+    // state is only trusted, once it was taken after that time.
+    private static final long MODIFICATION_TIME_RESOLUTION_MS = 2000;
+
+    private static boolean isUnchanged(File file, long lastModified, long cachedTime) {
+        return file.lastModified() == lastModified
+                && cachedTime - lastModified > MODIFICATION_TIME_RESOLUTION_MS;
+    }
+
+    private static class CachedScript {
+        final CompiledScript compiledScript;
+        final long lastModified;
+        final long length;
+        final long compiledTime;
+
+        CachedScript(CompiledScript compiledScript, long lastModified, long length, long compiledTime) {
+            this.compiledScript = compiledScript;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.compiledTime = compiledTime;
+        }
+    }
+
+    /**
+     * Maps each event to its scripts, sorted by name. A script named "Job.Placement.Starting.1.js"
+     * is listed under "Job", "Job.Placement", "Job.Placement.Starting" and
+     * "Job.Placement.Starting.1", so a lookup gives the same scripts as matching the file names.
+     */
+    private static class EventIndex {
+        final Map<String, List<File>> scripts = new HashMap<>();
+        final long lastModified;
+        final long indexedTime;
+
+        EventIndex(File eventsDirectory, String[] extensions) {
+            // Taken before listing, so a concurrent change will cause a rebuild.
+            lastModified = eventsDirectory.lastModified();
+            indexedTime = System.currentTimeMillis();
+            if (!eventsDirectory.isDirectory()) {
+                return;
+            }
+            ArrayList<File> sortedFiles = new ArrayList<File>(FileUtils.listFiles(eventsDirectory, extensions, false));
+            Collections.sort(sortedFiles, new Comparator<File>() {
+                @Override
+                public int compare(File a, File b) {
+                    return a.getName().compareTo(b.getName());
+                }});
+            for (File script : sortedFiles) {
+                if (!script.isFile()) {
+                    continue;
+                }
+                String baseName = FilenameUtils.getBaseName(script.getName());
+                int dot = baseName.indexOf('.');
+                while (dot > 0) {
+                    scripts.computeIfAbsent(baseName.substring(0, dot), (e) -> new ArrayList<>()).add(script);
+                    dot = baseName.indexOf('.', dot + 1);
+                }
+                scripts.computeIfAbsent(baseName, (e) -> new ArrayList<>()).add(script);
+            }
+        }
+    }
 
     public Scripting(File scriptsDirectory) {
         this.scriptsDirectory = scriptsDirectory;
         extensionToEngineNameMap = new HashMap<>();
-        eventsWithoutScripts = new HashSet<>();
         enginePool = new GenericKeyedObjectPool<>(
-                new ScriptEngineKeyedPooledObjectFactory(this.manager));
+                new ScriptEngineKeyedPooledObjectFactory(this.manager, 
+                        (engine) -> compiledScripts.remove(engine)));
         // Allow unlimited engines, but evict all but five per key after a short idle time
         enginePool.setMaxTotal(-1);
         enginePool.setMaxTotalPerKey(-1);
@@ -190,8 +261,17 @@ public class Scripting {
 
         boolean execError = false;
         startTimeNs = System.nanoTime();
-        try (FileReader reader = new FileReader(script)) {
-            engine.eval(reader);
+        try {
+            // Only pooled engines are reused, so only then compiling pays off.
+            CompiledScript compiledScript = usePool ? getCompiledScript(engine, script) : null;
+            if (compiledScript != null) {
+                compiledScript.eval();
+            }
+            else {
+                try (FileReader reader = new FileReader(script)) {
+                    engine.eval(reader);
+                }
+            }
         }
         catch (Exception e) {
             execError = true;
@@ -216,23 +296,82 @@ public class Scripting {
         }
     }
 
-    // This function returns false if event has some scripts, or if we do not yet know.
-    // It returns true if and only if we have found there to be no scripts
-    // associated with this event
-    public Boolean hasNoScript(String event) {
-        if (eventsDirectory == null) {
-            return true;
+    /**
+     * Get the compiled script from the cache of the engine, or compile it, if the engine supports
+     * it. The cache is keyed by the file and its modification time and size, so edited scripts are
+     * recompiled, even if the ScriptFileWatcher is not running.
+     * 
+     * @param engine
+     * @param script
+     * @return The compiled script or null if the engine does not support compiling.
+     * @throws Exception
+     */
+    CompiledScript getCompiledScript(ScriptEngine engine, File script) throws Exception {
+        if (!(engine instanceof Compilable)) {
+            return null;
+        }
+        File file = script.getAbsoluteFile();
+        long compiledTime = System.currentTimeMillis();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        Map<File, CachedScript> engineScripts;
+        synchronized (compiledScripts) {
+            engineScripts = compiledScripts.computeIfAbsent(engine, (e) -> new ConcurrentHashMap<>());
+        }
+        CachedScript cachedScript = engineScripts.get(file);
+        if (cachedScript == null 
+                || cachedScript.length != length
+                || !isUnchanged(file, cachedScript.lastModified, cachedScript.compiledTime)) {
+            long startTimeNs = System.nanoTime();
+            try (FileReader reader = new FileReader(file)) {
+                cachedScript = new CachedScript(((Compilable) engine).compile(reader), lastModified, length,
+                        compiledTime);
+            }
+            engineScripts.put(file, cachedScript);
+            Logger.trace("Script " + script.getName() + " compiled in " 
+                    + (System.nanoTime() - startTimeNs) / 1E6 + " milliseconds");
         }
+        return cachedScript.compiledScript;
+    }
+
+    /**
+     * @return The number of engines that have compiled scripts cached.
+     */
+    int getCompiledScriptEngineCount() {
+        return compiledScripts.size();
+    }
 
-        if(eventsWithoutScripts.contains(event)) {
-            // We know for certain that this event will not run any scripts.
-            // This might enable some optimisation where a client can avoid
-            // preparing all the script parameters if it knows there is no
-            // script to receive them.
+    /**
+     * Drop the compiled scripts and the event index, called by the ScriptFileWatcher when scripts
+     * change.
+     */
+    public void invalidateScripts() {
+        synchronized (compiledScripts) {
+            for (Map<File, CachedScript> engineScripts : compiledScripts.values()) {
+                engineScripts.clear();
+            }
+        }
+        eventIndex = null;
+    }
+
+    private List<File> getEventScripts(String event) {
+        EventIndex index = eventIndex;
+        if (index == null || !isUnchanged(eventsDirectory, index.lastModified, index.indexedTime)) {
+            // Adding, removing or renaming scripts changes the directory modification time.
+            index = new EventIndex(eventsDirectory, getExtensions());
+            eventIndex = index;
+        }
+        return index.scripts.getOrDefault(event, Collections.emptyList());
+    }
+
+    // This function returns true if and only if there are no scripts associated with this event.
+    // This enables some optimisation where a client can avoid preparing all the script parameters
+    // if it knows there is no script to receive them.
+    public Boolean hasNoScript(String event) {
+        if (eventsDirectory == null) {
             return true;
-        } else {
-            return false;
         }
+        return getEventScripts(event).isEmpty();
     }
 
     public void on(String event, Map<String, Object> globals) throws Exception {
@@ -240,41 +379,18 @@ public class Scripting {
         if (eventsDirectory == null) {
             return;
         }
-        if (hasNoScript(event)) {
-            return;
-        }
-        Boolean foundEventScript = false;
-        ArrayList<File> sortedFiles = new ArrayList<File>(FileUtils.listFiles(eventsDirectory, getExtensions(), false));
-        Collections.sort(sortedFiles, new Comparator<File>() {
-            @Override
-            public int compare(File a, File b) {
-                return a.getName().compareTo(b.getName());
-            }});
-        for (File script : sortedFiles) {
-            if (!script.isFile()) {
-                continue;
-            }
-            String baseName = FilenameUtils.getBaseName(script.getName());
-            if (baseName.equals(event) || baseName.startsWith(event+".")) {
-                Logger.trace("Scripting.on found " + script.getName());
-                foundEventScript = true;
-                execute(script, globals);
-            }
-        }
-        if (!foundEventScript) {
-            // Remember that this event does not have any scripts. This saves
-            // having to iterate over the directory when the same event
-            // is triggered subsequently
-            eventsWithoutScripts.add(event);
+        for (File script : getEventScripts(event)) {
+            Logger.trace("Scripting.on found " + script.getName());
+            execute(script, globals);
         }
     }
 
     public Boolean enableClearScriptingEnginePool() {
-        return (getScriptingEnginePoolObjectCount() > 0) || (!eventsWithoutScripts.isEmpty());
+        return (getScriptingEnginePoolObjectCount() > 0) || (eventIndex != null);
     }
 
     public void clearScriptingEnginePool() {
-        eventsWithoutScripts.clear();
+        invalidateScripts();
 
         if (enginePool.listAllObjects()
                       .size() == 0) {
@@ -49,4 +49,12 @@ public interface Axis extends Identifiable, Named, WizardConfigurable, PropertyS
     public Type getType();
 
     public void setType(Type type);
+
+    /**
+     * @return The dense index of the axis, as assigned by the machine in Configuration order, or -1 if 
+     * none is assigned. Used by AxesLocation to store coordinates in primitive arrays. 
+     */
+    default int getAxisIndex() {
+        return -1;
+    }
 }
@@ -107,6 +107,23 @@ public interface Feeder extends Identifiable, Named, WizardConfigurable, Propert
      */
     public void feed(Nozzle nozzle) throws Exception;
 
+    /**
+     * Optionally starts feeding the next part ahead of time, so it can be presented while the head
+     * is busy elsewhere. The JobProcessor calls this after the picks of a cycle, for the feeders that
+     * still have parts to feed in the Job. The following feed() then completes the prepared feed,
+     * i.e. it only waits until the part is ready, instead of starting a new one.
+     *
+     * This is called on the machine thread, like feed(), but without a Nozzle, so it must not move
+     * the head. Feeders that need the head or a camera to feed must not support it.
+     *
+     * @return True if a feed was started, false if the feeder does not support preparing feeds or
+     *        no feed is needed.
+     * @throws Exception
+     */
+    default boolean prepareFeed() throws Exception {
+        return false;
+    }
+
     public void postPick(Nozzle nozzle) throws Exception;
 
     /*
@@ -56,6 +56,48 @@ public interface PartAlignment extends PartSettingsHolder, Named, Solutions.Subj
      * @throws Exception if the alignment fails for any reason. The caller may retry.
      */
     PartAlignmentOffset findOffsets(Part part, BoardLocation boardLocation, Placement placement, Nozzle nozzle) throws Exception;
+
+    /**
+     * A part alignment operation, where the image processing is deferred, see 
+     * {@link PartAlignment#captureOffsets(Part, BoardLocation, Placement, Nozzle)}.
+     */
+    public interface DeferredAlignment {
+        /**
+         * Process the captured images. This may be called on a worker thread, concurrently with
+         * further machine operations. It must not access the machine.
+         * 
+         * @throws Exception if the alignment fails for any reason.
+         */
+        void process() throws Exception;
+
+        /**
+         * Complete the alignment operation on the machine thread, after {@link #process()} has 
+         * returned.
+         * 
+         * @return The offsets, as returned by 
+         * {@link PartAlignment#findOffsets(Part, BoardLocation, Placement, Nozzle)}.
+         * @throws Exception if the alignment fails for any reason.
+         */
+        PartAlignmentOffset complete() throws Exception;
+    }
+
+    /**
+     * Perform the machine part of the alignment operation, i.e. move the part over the camera and
+     * capture the images, but defer the image processing to the returned DeferredAlignment. This
+     * allows the job processor to overlap the image processing with further machine motion. 
+     * 
+     * @param part
+     * @param boardLocation
+     * @param placement
+     * @param nozzle
+     * @return The DeferredAlignment, or null if this alignment cannot be deferred, in which case
+     * {@link #findOffsets(Part, BoardLocation, Placement, Nozzle)} must be used.
+     * @throws Exception if the alignment fails for any reason. The caller may retry.
+     */
+    default DeferredAlignment captureOffsets(Part part, BoardLocation boardLocation, Placement placement, 
+            Nozzle nozzle) throws Exception {
+        return null;
+    }
     
     /**
      * Return the location where the alignment will take place.
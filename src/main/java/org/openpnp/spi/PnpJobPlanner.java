@@ -65,5 +65,13 @@ public interface PnpJobPlanner {
     public Strategy getStrategy();
     public void setStrategy(Strategy strategy);
     public List<PlannedPlacement> plan(Head head, List<JobPlacement> jobPlacements, List<NozzleTip> nozzleTips);
+
+    /**
+     * Called after restart(), before the job starts, with the placements and nozzle tips like the 
+     * first plan() call will get them, so the planner can prepare a plan for the whole job ahead.
+     * The default does nothing.
+     */
+    public default void prepare(Head head, List<JobPlacement> jobPlacements, List<NozzleTip> nozzleTips) {
+    }
     public List<PlannedPlacement> sort(List<PlannedPlacement> plannedPlacements);
 }
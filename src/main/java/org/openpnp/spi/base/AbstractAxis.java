@@ -57,6 +57,11 @@ public abstract class AbstractAxis extends AbstractModelObject implements Axis {
     @Attribute(required = false)
     protected Axis.Type type;
 
+    /**
+     * Dense index assigned by the machine, not persisted.
+     */
+    private int axisIndex = -1;
+
     public AbstractAxis() {
         this.id = Configuration.createId("AXS");
         this.name = getClass().getSimpleName();
@@ -89,6 +94,15 @@ public abstract class AbstractAxis extends AbstractModelObject implements Axis {
         this.type = type;
     }
 
+    @Override
+    public int getAxisIndex() {
+        return axisIndex;
+    }
+
+    public void setAxisIndex(int axisIndex) {
+        this.axisIndex = axisIndex;
+    }
+
     /**
      * @param machine The Machine with the axes to be considered.
      * @return The set of ControllerAxes that are the ultimate input axes of the axis stack. 
@@ -112,6 +112,20 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
         for (Head head : heads) {
             head.setMachine(this);
         }
+        indexAxes();
+    }
+
+    /**
+     * Assign the axes their dense index in Configuration order, see Axis.getAxisIndex(). 
+     */
+    protected void indexAxes() {
+        int index = 0;
+        for (Axis axis : axes) {
+            if (axis instanceof AbstractAxis) {
+                ((AbstractAxis) axis).setAxisIndex(index);
+            }
+            index++;
+        }
     }
 
     public void addHead(Head head) {
@@ -321,6 +335,7 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
     @Override
     public void addAxis(Axis axis) throws Exception {
         axes.add(axis);
+        indexAxes();
         fireIndexedPropertyChange("axes", axes.size() - 1, null, axis);
     }
 
@@ -328,6 +343,10 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
     public void removeAxis(Axis axis) {
         int index = axes.indexOf(axis);
         if (axes.remove(axis)) {
+            if (axis instanceof AbstractAxis) {
+                ((AbstractAxis) axis).setAxisIndex(-1);
+            }
+            indexAxes();
             fireIndexedPropertyChange("axes", index, axis, null);
             // Purge it out of Head-Mountables.
             for (Head head : getHeads()) {
@@ -347,6 +366,7 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
         if (0 <= index1 && axes.size() > index1) {
             axes.remove(axis);
             axes.add(index1, axis);
+            indexAxes();
             fireIndexedPropertyChange("axes", index0, axis, axes.get(index0));
             fireIndexedPropertyChange("axes", index1, axes.get(index0), axis);
         }
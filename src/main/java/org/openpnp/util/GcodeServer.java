@@ -633,7 +633,8 @@ public class GcodeServer extends Thread {
                         dwellMilliseconds = maxDwellTimeMilliseconds;
                     }
                     Logger.trace("Waiting "+dwellMilliseconds+"ms");
-                    Thread.sleep(dwellMilliseconds);
+                    // The driver is blocked until acknowledged, so the dwell is simulated machine time.
+                    NanosecondTime.sleepOnBehalf(dwellMilliseconds);
 
                     // Remove old stuff.
                     double time = NanosecondTime.getRuntimeSeconds() - 30;
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the timing of job steps and sub-operations (feed, pick vacuum dwell, camera settle, vision
+ * pipeline, motion wait) into a fixed size ring buffer, for the {@link JobTimingReport}.
+ *
+ * The recording is only active while a job runs, i.e. between {@link #start()} and {@link #stop()}.
+ * Instrumented code calls {@link #begin()} and {@link #end(String, long)} around the operation.
+ * When no job is active, these are reduced to a volatile read. When active, the recording takes
+ * two {@link NanosecondTime#getRuntime()} calls and a short synchronized array store, no
+ * allocations. When the ring buffer is full, the oldest entries are overwritten.
+ */
+public class JobTiming {
+    public static final String CYCLE = "Cycle";
+    public static final String FEED = "Feed";
+    public static final String PICK_DWELL = "PickDwell";
+    public static final String SETTLE = "Settle";
+    public static final String VISION_PIPELINE = "VisionPipeline";
+    public static final String MOTION_WAIT = "MotionWait";
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static volatile JobTiming active;
+    private static volatile JobTiming last;
+
+    private final String[] operations;
+    private final long[] startTimes;
+    private final long[] durations;
+    private final int mask;
+    private long recorded;
+
+    private final long jobStartTime;
+    private long jobEndTime;
+    private int placements;
+
+    /**
+     * @param capacity The ring buffer capacity, rounded up to the next power of two.
+     */
+    public JobTiming(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        operations = new String[size];
+        startTimes = new long[size];
+        durations = new long[size];
+        mask = size - 1;
+        jobStartTime = NanosecondTime.getRuntime();
+    }
+
+    /**
+     * Starts recording a new job. Any previously active recording is stopped.
+     *
+     * @return The new active recording.
+     */
+    public static JobTiming start() {
+        JobTiming timing = new JobTiming(DEFAULT_CAPACITY);
+        JobTiming previous = active;
+        if (previous != null) {
+            previous.stop();
+        }
+        active = timing;
+        last = timing;
+        return timing;
+    }
+
+    /**
+     * Stops this recording. It is kept as the last recording for reporting.
+     */
+    public synchronized void stop() {
+        if (jobEndTime == 0) {
+            jobEndTime = NanosecondTime.getRuntime();
+        }
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    /**
+     * @return The recording of the running job, or null if no job is running.
+     */
+    public static JobTiming getActive() {
+        return active;
+    }
+
+    /**
+     * @return The recording of the running or the last job, or null if no job was run yet.
+     */
+    public static JobTiming getLast() {
+        return last;
+    }
+
+    /**
+     * Marks the begin of an operation.
+     *
+     * @return The begin time to be handed to {@link #end(String, long)}, or 0 if no job is active.
+     */
+    public static long begin() {
+        if (active == null) {
+            return 0;
+        }
+        return NanosecondTime.getRuntime();
+    }
+
+    /**
+     * Records the end of an operation, if a job is active.
+     *
+     * @param operation The operation name. Must be a constant String, it is stored as is.
+     * @param beginTime The time obtained from {@link #begin()}.
+     */
+    public static void end(String operation, long beginTime) {
+        JobTiming timing = active;
+        if (timing != null && beginTime != 0) {
+            timing.record(operation, beginTime, NanosecondTime.getRuntime());
+        }
+    }
+
+    /**
+     * Same as {@link #end(String, long)}, but the recorded duration excludes the given time, spent in
+     * nested operations that are recorded on their own.
+     *
+     * @param operation
+     * @param beginTime
+     * @param excludedTime The time to subtract from the duration, in nanoseconds.
+     */
+    public static void end(String operation, long beginTime, long excludedTime) {
+        JobTiming timing = active;
+        if (timing != null && beginTime != 0) {
+            timing.record(operation, beginTime, NanosecondTime.getRuntime() - excludedTime);
+        }
+    }
+
+    /**
+     * Counts a placement, if a job is active.
+     */
+    public static void placed() {
+        JobTiming timing = active;
+        if (timing != null) {
+            timing.addPlacement();
+        }
+    }
+
+    public synchronized void record(String operation, long beginTime, long endTime) {
+        int index = (int) (recorded++ & mask);
+        operations[index] = operation;
+        startTimes[index] = beginTime;
+        durations[index] = endTime - beginTime;
+    }
+
+    public synchronized void addPlacement() {
+        placements++;
+    }
+
+    public synchronized int getPlacements() {
+        return placements;
+    }
+
+    public long getJobStartTime() {
+        return jobStartTime;
+    }
+
+    /**
+     * @return The job duration in nanoseconds, up to now if still active.
+     */
+    public synchronized long getJobDuration() {
+        return (jobEndTime != 0 ? jobEndTime : NanosecondTime.getRuntime()) - jobStartTime;
+    }
+
+    public int getCapacity() {
+        return operations.length;
+    }
+
+    /**
+     * @return The number of entries that were overwritten, because the ring buffer was full.
+     */
+    public synchronized long getDropped() {
+        return Math.max(0, recorded - operations.length);
+    }
+
+    /**
+     * @return A snapshot of the retained entries, oldest first.
+     */
+    public synchronized List<Entry> getEntries() {
+        long first = Math.max(0, recorded - operations.length);
+        List<Entry> entries = new ArrayList<>((int) (recorded - first));
+        for (long i = first; i < recorded; i++) {
+            int index = (int) (i & mask);
+            entries.add(new Entry(operations[index], startTimes[index], durations[index]));
+        }
+        return entries;
+    }
+
+    public static class Entry {
+        private final String operation;
+        private final long startTime;
+        private final long duration;
+
+        public Entry(String operation, long startTime, long duration) {
+            this.operation = operation;
+            this.startTime = startTime;
+            this.duration = duration;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return The start time in {@link NanosecondTime#getRuntime()} nanoseconds.
+         */
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * @return The duration in nanoseconds.
+         */
+        public long getDuration() {
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2023 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.openpnp.util.JobTiming.Entry;
+import org.pmw.tinylog.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Aggregates a {@link JobTiming} recording into per-operation statistics and a per-cycle breakdown
+ * of where the milliseconds go. Exports as CSV and JSON.
+ *
+ * Note that operations nest: the job steps contain the sub-operations, e.g. the Pick step contains
+ * the Feed, the PickDwell and the MotionWait operations, therefore the shares do not add up to
+ * 100%.
+ */
+public class JobTimingReport {
+    /**
+     * Number of most recent reports kept when saving.
+     */
+    public static final int DEFAULT_KEPT_REPORTS = 20;
+    private static final String FILE_PREFIX = "job-timing-";
+
+    private final int placements;
+    private final double jobSeconds;
+    private final double placementsPerHour;
+    private final long dropped;
+    private final Map<String, OperationStatistics> operations = new LinkedHashMap<>();
+    private final List<Cycle> cycles = new ArrayList<>();
+
+    private transient final Map<String, double[]> durationsMs = new LinkedHashMap<>();
+
+    public JobTimingReport(JobTiming timing) {
+        placements = timing.getPlacements();
+        jobSeconds = timing.getJobDuration()*1e-9;
+        placementsPerHour = (jobSeconds > 0 ? placements*3600.0/jobSeconds : 0);
+        dropped = timing.getDropped();
+
+        List<Entry> entries = timing.getEntries();
+        // Cycles first, in start time order, so the other entries can be assigned to them.
+        for (Entry entry : entries) {
+            if (JobTiming.CYCLE.equals(entry.getOperation())) {
+                cycles.add(new Cycle(entry));
+            }
+        }
+        cycles.sort((a, b) -> Long.compare(a.startTime, b.startTime));
+        for (int i = 0; i < cycles.size(); i++) {
+            cycles.get(i).index = i + 1;
+        }
+
+        Map<String, List<Entry>> byOperation = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            byOperation.computeIfAbsent(entry.getOperation(), k -> new ArrayList<>()).add(entry);
+            if (!JobTiming.CYCLE.equals(entry.getOperation())) {
+                Cycle cycle = findCycle(entry.getStartTime());
+                if (cycle != null) {
+                    cycle.operationsMs.merge(entry.getOperation(), entry.getDuration()*1e-6, Double::sum);
+                }
+            }
+        }
+        for (Map.Entry<String, List<Entry>> e : byOperation.entrySet()) {
+            double[] durations = new double[e.getValue().size()];
+            for (int i = 0; i < durations.length; i++) {
+                durations[i] = e.getValue().get(i).getDuration()*1e-6;
+            }
+            Arrays.sort(durations);
+            durationsMs.put(e.getKey(), durations);
+            operations.put(e.getKey(), new OperationStatistics(e.getKey(), durations, jobSeconds));
+        }
+    }
+
+    private Cycle findCycle(long time) {
+        int low = 0;
+        int high = cycles.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Cycle cycle = cycles.get(mid);
+            if (time < cycle.startTime) {
+                high = mid - 1;
+            }
+            else if (time >= cycle.startTime + cycle.durationNs) {
+                low = mid + 1;
+            }
+            else {
+                return cycle;
+            }
+        }
+        return null;
+    }
+
+    public int getPlacements() {
+        return placements;
+    }
+
+    public double getJobSeconds() {
+        return jobSeconds;
+    }
+
+    public double getPlacementsPerHour() {
+        return placementsPerHour;
+    }
+
+    /**
+     * @return The number of recorded entries that were lost, because the ring buffer was full.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public Map<String, OperationStatistics> getOperations() {
+        return operations;
+    }
+
+    public List<Cycle> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Counts the durations of the operation into equal width bins between 0 and the maximum.
+     *
+     * @param operation
+     * @param bins
+     * @return The counts per bin, or null if the operation was not recorded.
+     */
+    public int[] getHistogram(String operation, int bins) {
+        double[] durations = durationsMs.get(operation);
+        if (durations == null || durations.length == 0) {
+            return null;
+        }
+        int[] histogram = new int[bins];
+        double max = durations[durations.length - 1];
+        for (double duration : durations) {
+            int bin = (max > 0 ? (int) (duration/max*bins) : 0);
+            histogram[Math.min(bin, bins - 1)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Writes the per-cycle breakdown as CSV, one row per cycle, one column per operation in
+     * milliseconds.
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        List<String> names = new ArrayList<>(operations.keySet());
+        names.remove(JobTiming.CYCLE);
+        writer.write("Cycle,CycleMs");
+        for (String name : names) {
+            writer.write(",");
+            writer.write(name);
+            writer.write("Ms");
+        }
+        writer.write("\n");
+        for (Cycle cycle : cycles) {
+            writer.write(String.format(Locale.US, "%d,%.3f", cycle.index, cycle.getDurationMs()));
+            for (String name : names) {
+                Double ms = cycle.operationsMs.get(name);
+                writer.write(String.format(Locale.US, ",%.3f", ms != null ? ms : 0.0));
+            }
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Writes the whole report as JSON.
+     */
+    public void writeJson(Writer writer) throws IOException {
+        Gson gson = new GsonBuilder()
+                .setPrettyPrinting()
+                .create();
+        gson.toJson(this, writer);
+    }
+
+    /**
+     * Saves the report as a time-stamped pair of CSV and JSON files, keeping the 
+     * {@link #DEFAULT_KEPT_REPORTS} most recent reports in the directory.
+     *
+     * @param directory
+     * @return The JSON file.
+     * @throws IOException
+     */
+    public File save(File directory) throws IOException {
+        return save(directory, DEFAULT_KEPT_REPORTS);
+    }
+
+    /**
+     * Saves the report as a time-stamped pair of CSV and JSON files. Older reports in the directory
+     * are deleted, so only the given number of most recent reports are kept.
+     *
+     * @param directory
+     * @param keptReports
+     * @return The JSON file.
+     * @throws IOException
+     */
+    public File save(File directory, int keptReports) throws IOException {
+        directory.mkdirs();
+        String name = FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        try (Writer writer = new FileWriter(new File(directory, name + ".csv"))) {
+            writeCsv(writer);
+        }
+        File file = new File(directory, name + ".json");
+        try (Writer writer = new FileWriter(file)) {
+            writeJson(writer);
+        }
+        deleteOldReports(directory, keptReports);
+        return file;
+    }
+
+    /**
+     * Deletes the reports in the directory, except for the given number of most recent ones. The
+     * time-stamped file names sort by age.
+     *
+     * @param directory
+     * @param keptReports
+     */
+    public static void deleteOldReports(File directory, int keptReports) {
+        File[] files = directory.listFiles((dir, fileName) -> fileName.startsWith(FILE_PREFIX) 
+                && (fileName.endsWith(".csv") || fileName.endsWith(".json")));
+        if (files == null) {
+            return;
+        }
+        TreeSet<String> names = new TreeSet<>();
+        for (File file : files) {
+            String fileName = file.getName();
+            names.add(fileName.substring(0, fileName.lastIndexOf('.')));
+        }
+        while (names.size() > keptReports) {
+            String name = names.pollFirst();
+            for (File file : files) {
+                if (file.getName().startsWith(name + ".")) {
+                    if (!file.delete()) {
+                        Logger.warn("Cannot delete old job timing report {}", file);
+                    }
+                }
+            }
+        }
+    }
+
+    public static class OperationStatistics {
+        private final String operation;
+        private final int count;
+        private final double totalMs;
+        private final double meanMs;
+        private final double minMs;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double maxMs;
+        private final double jobShare;
+
+        OperationStatistics(String operation, double[] sortedDurationsMs, double jobSeconds) {
+            this.operation = operation;
+            count = sortedDurationsMs.length;
+            double total = 0;
+            for (double duration : sortedDurationsMs) {
+                total += duration;
+            }
+            totalMs = total;
+            meanMs = total/count;
+            minMs = sortedDurationsMs[0];
+            p50Ms = percentile(sortedDurationsMs, 0.5);
+            p95Ms = percentile(sortedDurationsMs, 0.95);
+            maxMs = sortedDurationsMs[count - 1];
+            jobShare = (jobSeconds > 0 ? totalMs*1e-3/jobSeconds : 0);
+        }
+
+        private static double percentile(double[] sorted, double p) {
+            int index = (int) Math.ceil(p*sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getTotalMs() {
+            return totalMs;
+        }
+
+        public double getMeanMs() {
+            return meanMs;
+        }
+
+        public double getMinMs() {
+            return minMs;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public double getP95Ms() {
+            return p95Ms;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        /**
+         * @return The share of the whole job time spent in this operation, 0 to 1.
+         */
+        public double getJobShare() {
+            return jobShare;
+        }
+    }
+
+    public static class Cycle {
+        private int index;
+        private transient final long startTime;
+        private transient final long durationNs;
+        private final double durationMs;
+        private final Map<String, Double> operationsMs = new LinkedHashMap<>();
+
+        Cycle(Entry entry) {
+            startTime = entry.getStartTime();
+            durationNs = entry.getDuration();
+            durationMs = durationNs*1e-6;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getDurationMs() {
+            return durationMs;
+        }
+
+        /**
+         * @return The milliseconds spent per operation within this cycle.
+         */
+        public Map<String, Double> getOperationsMs() {
+            return operationsMs;
+        }
+    }
+}
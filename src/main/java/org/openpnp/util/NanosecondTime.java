@@ -22,6 +22,7 @@
 package org.openpnp.util;
 
 import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Simple Nanosecond time-keeper. Combines real-time (epoch) with nanosecond resolution by using BigInteger math.
@@ -32,8 +33,86 @@ import java.math.BigInteger;
 public class NanosecondTime implements Comparable<NanosecondTime> {
 
     private static long nanosecondsLast = Long.MIN_VALUE;
+
+    /**
+     * When the virtual clock is active, {@link #sleep(long)} on the clock thread does not actually 
+     * wait, but advances the runtime clock by the given time, i.e. simulated waits are compressed to 
+     * nothing. The clock thread is the thread that activated the virtual clock, typically the machine 
+     * thread. Other threads still sleep in real time, which the runtime clock counts anyway, so 
+     * concurrent sleeps are not added up. Only a simulated controller that waits on behalf of the
+     * blocked clock thread uses {@link #sleepOnBehalf(long)}.  
+     */
+    private static volatile Thread virtualClockThread = null;
+    private static final AtomicLong virtualTimeOffset = new AtomicLong();
+
+    public static boolean isVirtualClock() {
+        return virtualClockThread != null;
+    }
+
+    /**
+     * Activates the virtual clock for the calling thread, or deactivates it.
+     * 
+     * @param virtualClock
+     */
+    public static void setVirtualClock(boolean virtualClock) {
+        NanosecondTime.virtualClockThread = (virtualClock ? Thread.currentThread() : null);
+    }
+
+    /**
+     * Waits for the given time, or advances the virtual clock by it, if active. Use this for waits
+     * that simulate machine time, such as dwells or camera settling. 
+     * 
+     * @param milliseconds
+     * @throws InterruptedException
+     */
+    public static void sleep(long milliseconds) throws InterruptedException {
+        sleep(milliseconds, 0);
+    }
+
+    /**
+     * Same as {@link #sleep(long)} with additional nanoseconds.
+     * 
+     * @param milliseconds
+     * @param nanoseconds
+     * @throws InterruptedException
+     */
+    public static void sleep(long milliseconds, int nanoseconds) throws InterruptedException {
+        if (virtualClockThread == Thread.currentThread()) {
+            virtualTimeOffset.addAndGet(milliseconds*1000000 + nanoseconds);
+            // Give other threads a chance to run, as a real sleep would. 
+            Thread.yield();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        else {
+            Thread.sleep(milliseconds, nanoseconds);
+        }
+    }
+
+    /**
+     * Same as {@link #sleep(long)}, but advances the virtual clock from any thread. Use this for 
+     * simulated machine waits that the clock thread is blocked on, such as the dwell of a simulated
+     * controller, that the clock thread waits for to acknowledge. 
+     * 
+     * @param milliseconds
+     * @throws InterruptedException
+     */
+    public static void sleepOnBehalf(long milliseconds) throws InterruptedException {
+        if (virtualClockThread != null) {
+            virtualTimeOffset.addAndGet(milliseconds*1000000);
+            Thread.yield();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        else {
+            Thread.sleep(milliseconds);
+        }
+    }
+
     public static long getRuntime() {
-        long nanoTime = System.nanoTime();
+        long nanoTime = System.nanoTime() + virtualTimeOffset.get();
         if (nanoTime <= nanosecondsLast) {
             // Make it unique even if the calls are more frequent than the underlying nanoTime timer resolution. 
             nanoTime = ++nanosecondsLast;
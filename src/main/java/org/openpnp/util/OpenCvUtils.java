@@ -77,6 +77,18 @@ public class OpenCvUtils {
     }
 
     public static Mat toMat(BufferedImage img) {
+        return toMat(img, null);
+    }
+
+    /**
+     * Same as {@link #toMat(BufferedImage)} but the pixels are copied into the given Mat. Its native
+     * buffer is only reallocated, if it does not have the matching size and type.
+     * 
+     * @param img
+     * @param mat The Mat to be reused, or null.
+     * @return
+     */
+    public static Mat toMat(BufferedImage img, Mat mat) {
         Integer type = null;
         if (img.getType() == BufferedImage.TYPE_BYTE_GRAY) {
             type = CvType.CV_8UC1;
@@ -88,7 +100,12 @@ public class OpenCvUtils {
             img = ImageUtils.convertBufferedImage(img, BufferedImage.TYPE_3BYTE_BGR);
             type = CvType.CV_8UC3;
         }
-        Mat mat = new Mat(img.getHeight(), img.getWidth(), type);
+        if (mat == null) {
+            mat = new Mat(img.getHeight(), img.getWidth(), type);
+        }
+        else {
+            mat.create(img.getHeight(), img.getWidth(), type);
+        }
         mat.put(0, 0, ((DataBufferByte) img.getRaster().getDataBuffer()).getData());
         return mat;
     }
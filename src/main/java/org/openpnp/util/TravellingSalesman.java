@@ -22,6 +22,9 @@ package org.openpnp.util;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
 
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
@@ -45,6 +48,10 @@ import org.pmw.tinylog.Logger;
  * solutions a lot, because it allows the solver to quickly "untwist" routes at (or near) crossing points. These crossing 
  * points appear frequently for the rectangularly arrayed Location patterns assumed to be typically found on a PNP machine. 
  * 
+ * Alternatively, the {@link SolverMode#ParallelMultiStart} mode pre-computes the travel cost matrix and runs several 
+ * independent chains of Simulated Annealing, followed by 2-opt and Or-opt local search, in parallel. The best route 
+ * found within a wall-clock time budget is taken.  
+ * 
  * @param <T> The class of the objects to be travelled to. Use a Locator<T> to query the Location from these objects.  
  */
 public class TravellingSalesman<T> {
@@ -90,6 +97,18 @@ public class TravellingSalesman<T> {
         this(travelInput, locator, startLocation, endLocation, null);
     }
     
+    public enum SolverMode {
+        /**
+         * Single-threaded Simulated Annealing, with the travel cost computed on the fly.  
+         */
+        SimulatedAnnealing,
+        /**
+         * Several independent Simulated Annealing, 2-opt and Or-opt chains, run in parallel on a 
+         * pre-computed travel cost matrix, within a wall-clock time budget.   
+         */
+        ParallelMultiStart;
+    }
+
     public interface Locator<T> {
         // The TSM requires that the return value is not null, but other subsystems use the
         // same interface and do permit the location to be null.
@@ -138,10 +157,41 @@ public class TravellingSalesman<T> {
     
     private long solverDuration = 0; 
 
+    private SolverMode solverMode = SolverMode.SimulatedAnnealing;
+
+    private long solverTimeBudgetMs = defaultSolverTimeBudgetMs;
+
+    /**
+     * Default wall-clock time budget for the ParallelMultiStart solver.
+     */
+    public static final long defaultSolverTimeBudgetMs = 2000;
+
+    /**
+     * Maximum number of Locations, for which a travel cost matrix is pre-computed. Above that, the cost
+     * matrix would take too much memory, and the SimulatedAnnealing solver is used instead. 
+     */
+    private static final int maxCostMatrixSize = 2500;
+
     public void setTravelCost (TravelCost t) {
         travelCost = t;
     }
 
+    public SolverMode getSolverMode() {
+        return solverMode;
+    }
+
+    public void setSolverMode(SolverMode solverMode) {
+        this.solverMode = solverMode;
+    }
+
+    public long getSolverTimeBudgetMs() {
+        return solverTimeBudgetMs;
+    }
+
+    public void setSolverTimeBudgetMs(long solverTimeBudgetMs) {
+        this.solverTimeBudgetMs = solverTimeBudgetMs;
+    }
+
     private TravelLocation getLocation(int i) {
         if (i < 0) {
             return this.startLocation;
@@ -351,11 +401,304 @@ public class TravellingSalesman<T> {
     }
 
     public double solve() {
+        if (solverMode == SolverMode.ParallelMultiStart 
+                && this.travelSize > 3 && this.travelSize <= maxCostMatrixSize) {
+            return solveParallel(Runtime.getRuntime().availableProcessors(), solverTimeBudgetMs);
+        }
         // heuristic for the simulated annealing params
         int size = Math.max(1, this.travelSize);
         return simulateAnnealing(getTravellingDistance()/size*2.0, 1.0-0.001/size, size*1000+10000000);
     }
 
+    /**
+     * Solves the route using several independent chains on a pre-computed travel cost matrix, run in 
+     * parallel on the common ForkJoinPool. Each chain starts from a different initial route (the given 
+     * order, the nearest neighbor route and seeded random routes) and performs Simulated Annealing with 
+     * swap and twist moves, followed by 2-opt and Or-opt local search until no more improvement is found. 
+     * The best route of all the chains is taken.
+     * 
+     * The result is repeatable, as long as all chains complete within the time budget.  
+     * 
+     * @param chains Number of independent chains.
+     * @param timeBudgetMs Wall-clock time budget. When it expires, the chains return the best route found 
+     * so far. 
+     * @return The travelling distance (or cost) of the best route.
+     */
+    public double solveParallel(int chains, long timeBudgetMs) {
+        long startTime = System.currentTimeMillis();
+        if (this.travelSize > 3) {
+            final int n = this.travelSize;
+            final int stride = n + 2;
+            // Node 0 is the start, nodes 1..n are the travel locations in current order, node n+1 is the end.
+            // Matrix index m corresponds to getDistance() index m-1. 
+            final double [] cost = new double[stride*stride];
+            IntStream.range(0, stride).parallel().forEach(a -> {
+                for (int b = a + 1; b < stride; b++) {
+                    double d = getDistance(a - 1, b - 1);
+                    cost[a*stride + b] = d;
+                    cost[b*stride + a] = d;
+                }
+            });
+            final long deadline = System.nanoTime() + timeBudgetMs*1000000L;
+            List<ForkJoinTask<TravelChain>> tasks = new ArrayList<>();
+            for (int c = 0; c < Math.max(1, chains); c++) {
+                final int chain = c;
+                tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                    TravelChain travelChain = new TravelChain(cost, n, chain, deadline);
+                    travelChain.solve();
+                    return travelChain;
+                }));
+            }
+            TravelChain best = null;
+            for (ForkJoinTask<TravelChain> task : tasks) {
+                TravelChain travelChain = task.join();
+                // Tasks are joined in chain order, so ties go to the lower chain, for repeatability.
+                if (best == null || travelChain.tourCost < best.tourCost) {
+                    best = travelChain;
+                }
+            }
+            if (debugLevel > 0) {
+                System.out.println("Parallel Multi-Start, size: "+n+", chains: "+tasks.size()+", best chain: "+best.chain+", distance of travel: "+best.tourCost);
+            }
+            List<TravelLocation> bestTravel = new ArrayList<>(n);
+            for (int k = 1; k <= n; k++) {
+                bestTravel.add(this.travel.get(best.tour[k] - 1));
+            }
+            this.travel.clear();
+            this.travel.addAll(bestTravel);
+        }
+        double bestDistance = getTravellingDistance();
+        this.solverDuration = System.currentTimeMillis() - startTime;
+        return bestDistance;
+    }
+
+    /**
+     * One chain of the ParallelMultiStart solver. The tour array includes the start node 0 at index 0 and the 
+     * end node n+1 at index n+1, so the route can be handled without special cases. The cost matrix is symmetric.  
+     */
+    private static class TravelChain {
+        private static final double eps = 1e-9;
+        private final double [] cost;
+        private final int n;
+        private final int stride;
+        private final int chain;
+        private final long deadline;
+        private final Random rnd;
+        private final int [] tour;
+        private final int [] segment = new int[3];
+        private double tourCost;
+
+        private TravelChain(double [] cost, int n, int chain, long deadline) {
+            this.cost = cost;
+            this.n = n;
+            this.stride = n + 2;
+            this.chain = chain;
+            this.deadline = deadline;
+            this.rnd = new Random(chain);
+            this.tour = new int[n + 2];
+        }
+
+        private double cost(int a, int b) {
+            return cost[a*stride + b];
+        }
+
+        private double edge(int i) {
+            return cost(tour[i], tour[i + 1]);
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() > deadline;
+        }
+
+        private void solve() {
+            initialTour();
+            anneal();
+            localSearch();
+            tourCost = computeTourCost();
+        }
+
+        private void initialTour() {
+            tour[0] = 0;
+            tour[n + 1] = n + 1;
+            for (int k = 1; k <= n; k++) {
+                tour[k] = k;
+            }
+            if (chain == 1) {
+                // Nearest neighbor route from the start.
+                for (int k = 1; k < n; k++) {
+                    int best = k;
+                    for (int m = k + 1; m <= n; m++) {
+                        if (cost(tour[k - 1], tour[m]) < cost(tour[k - 1], tour[best])) {
+                            best = m;
+                        }
+                    }
+                    int t = tour[k];
+                    tour[k] = tour[best];
+                    tour[best] = t;
+                }
+            }
+            else if (chain > 1) {
+                // Seeded random route.
+                for (int k = n; k > 1; k--) {
+                    int m = 1 + rnd.nextInt(k);
+                    int t = tour[k];
+                    tour[k] = tour[m];
+                    tour[m] = t;
+                }
+            }
+        }
+
+        private double computeTourCost() {
+            double sum = 0;
+            for (int i = 0; i <= n; i++) {
+                sum += edge(i);
+            }
+            return sum;
+        }
+
+        private double getTwistDistance(int a, int b) {
+            return cost(tour[a - 1], tour[b]) + cost(tour[a], tour[b + 1]) 
+                    - edge(a - 1) - edge(b);
+        }
+
+        private double getSwapDistance(int a, int b) {
+            if (a + 1 == b) {
+                return cost(tour[a - 1], tour[b]) + cost(tour[b], tour[a]) + cost(tour[a], tour[b + 1])
+                        - edge(a - 1) - edge(a) - edge(b);
+            }
+            return cost(tour[a - 1], tour[b]) + cost(tour[b], tour[a + 1]) 
+                    + cost(tour[b - 1], tour[a]) + cost(tour[a], tour[b + 1])
+                    - edge(a - 1) - edge(a) - edge(b - 1) - edge(b);
+        }
+
+        private void reverse(int a, int b) {
+            for (; a < b; a++, b--) {
+                int t = tour[a];
+                tour[a] = tour[b];
+                tour[b] = t;
+            }
+        }
+
+        /**
+         * Same heuristics and schedule as simulateAnnealing(), on the cost matrix.
+         */
+        private void anneal() {
+            double temperature = computeTourCost()/n*2.0;
+            double endTemperature = temperature/1000;
+            double coolingRate = 1.0 - 0.001/n;
+            for (int i = 0; temperature > endTemperature; i++) {
+                if ((i & 0xFFF) == 0 && isExpired()) {
+                    return;
+                }
+                int a = 1 + rnd.nextInt(n);
+                int b;
+                do {
+                    b = 1 + rnd.nextInt(n);
+                }
+                while (b == a);
+                if (a > b) {
+                    int t = a;
+                    a = b;
+                    b = t;
+                }
+                double swapDistance = getSwapDistance(a, b);
+                double twistDistance = getTwistDistance(a, b);
+                boolean twist = (twistDistance < swapDistance);
+                double distance = Math.min(swapDistance, twistDistance);
+                if (distance < 0.0 || Math.exp(-distance / temperature) >= rnd.nextDouble()) {
+                    if (twist) {
+                        reverse(a, b);
+                    }
+                    else {
+                        int t = tour[a];
+                        tour[a] = tour[b];
+                        tour[b] = t;
+                    }
+                }
+                temperature *= coolingRate;
+            }
+        }
+
+        /**
+         * Alternates 2-opt and Or-opt passes until neither improves the route. 
+         */
+        private void localSearch() {
+            boolean improved = true;
+            while (improved && !isExpired()) {
+                improved = twoOpt();
+                improved = orOpt() || improved;
+            }
+        }
+
+        private boolean twoOpt() {
+            boolean improved = false;
+            for (int a = 1; a < n; a++) {
+                if (isExpired()) {
+                    break;
+                }
+                for (int b = a + 1; b <= n; b++) {
+                    if (getTwistDistance(a, b) < -eps) {
+                        reverse(a, b);
+                        improved = true;
+                    }
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Tries to move segments of one to three locations to a better position in the route, also reversed.
+         */
+        private boolean orOpt() {
+            boolean improved = false;
+            for (int len = 1; len <= 3; len++) {
+                for (int i = 1; i + len - 1 <= n; i++) {
+                    if (isExpired()) {
+                        return improved;
+                    }
+                    int last = i + len - 1;
+                    double removeGain = edge(i - 1) + edge(last) - cost(tour[i - 1], tour[last + 1]);
+                    if (removeGain <= eps) {
+                        continue;
+                    }
+                    for (int j = 0; j <= n; j++) {
+                        if (j >= i - 1 && j <= last) {
+                            continue;
+                        }
+                        double insertForward = cost(tour[j], tour[i]) + cost(tour[last], tour[j + 1]) - edge(j);
+                        double insertReversed = cost(tour[j], tour[last]) + cost(tour[i], tour[j + 1]) - edge(j);
+                        boolean reversed = insertReversed < insertForward; 
+                        if (Math.min(insertForward, insertReversed) - removeGain < -eps) {
+                            moveSegment(i, len, j, reversed);
+                            improved = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Moves the segment of len locations at i to after position j.
+         */
+        private void moveSegment(int i, int len, int j, boolean reversed) {
+            for (int k = 0; k < len; k++) {
+                segment[k] = tour[reversed ? i + len - 1 - k : i + k];
+            }
+            if (j < i) {
+                // Shift the locations in between to the right.
+                System.arraycopy(tour, j + 1, tour, j + 1 + len, i - j - 1);
+                System.arraycopy(segment, 0, tour, j + 1, len);
+            }
+            else {
+                // Shift the locations in between to the left.
+                System.arraycopy(tour, i + len, tour, i, j - i - len + 1);
+                System.arraycopy(segment, 0, tour, j - len + 1, len);
+            }
+        }
+    }
+
     public List<T> getTravel() {
         // convert the working list back to a list of the input objects using the now rearranged t.index order. 
         List<T> travelOutput = new ArrayList<>();
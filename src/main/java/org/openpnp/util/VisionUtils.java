@@ -30,6 +30,7 @@ import org.openpnp.spi.CameraBatchOperation;
 import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.PartAlignment;
+import org.openpnp.spi.PartAlignment.DeferredAlignment;
 import org.openpnp.spi.PartAlignment.PartAlignmentOffset;
 import org.openpnp.vision.pipeline.CvPipeline;
 
@@ -289,6 +290,82 @@ public class VisionUtils {
         }
     }
 
+    /**
+     * Like findPartAlignmentOffsets(), but only the images are captured, and the image processing is
+     * deferred to the returned DeferredAlignment, see 
+     * {@link PartAlignment#captureOffsets(Part, BoardLocation, Placement, Nozzle)}. If the part 
+     * alignment cannot be deferred, it is performed right away and the returned DeferredAlignment 
+     * just holds the result.
+     * 
+     * @param p
+     * @param part
+     * @param boardLocation
+     * @param placement
+     * @param nozzle
+     * @return
+     * @throws Exception
+     */
+    public static DeferredAlignment capturePartAlignmentOffsets(PartAlignment p, Part part, BoardLocation boardLocation, Placement placement, Nozzle nozzle) throws Exception {
+        Map<String, Object> globals = new HashMap<>();
+        globals.put("part", part);
+        globals.put("nozzle", nozzle);
+        Configuration.get().getScripting().on("Vision.PartAlignment.Before", globals);
+
+        DeferredAlignment deferredAlignment = null;
+        PartAlignmentOffset offsets = null;
+        CameraBatchOperation cbo = Configuration.get().getMachine().getCameraBatchOperation();
+        if (cbo!=null) {
+            cbo.startBatchOperation("visionutils");
+        }
+        try {
+            deferredAlignment = p.captureOffsets(part, boardLocation, placement, nozzle);
+            if (deferredAlignment == null) {
+                offsets = p.findOffsets(part, boardLocation, placement, nozzle);
+            }
+        }
+        finally {
+            if (cbo!=null) {
+                cbo.endBatchOperation("visionutils");
+            }
+            if (deferredAlignment == null) {
+                globals.put("offsets", offsets);
+                Configuration.get().getScripting().on("Vision.PartAlignment.After", globals);
+            }
+        }
+        final DeferredAlignment captured = deferredAlignment;
+        final PartAlignmentOffset found = offsets;
+        return new DeferredAlignment() {
+            @Override
+            public void process() throws Exception {
+                if (captured != null) {
+                    captured.process();
+                }
+            }
+
+            @Override
+            public PartAlignmentOffset complete() throws Exception {
+                if (captured == null) {
+                    return found;
+                }
+                PartAlignmentOffset offsets = null;
+                if (cbo!=null) {
+                    cbo.startBatchOperation("visionutils");
+                }
+                try {
+                    offsets = captured.complete();
+                    return offsets;
+                }
+                finally {
+                    if (cbo!=null) {
+                        cbo.endBatchOperation("visionutils");
+                    }
+                    globals.put("offsets", offsets);
+                    Configuration.get().getScripting().on("Vision.PartAlignment.After", globals);
+                }
+            }
+        };
+    }
+
     /**
      * Return the location where the alignment will take place
      * 
@@ -4,11 +4,16 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.opencv.core.CvType;
@@ -16,8 +21,13 @@ import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.Scalar;
 import org.opencv.imgproc.Imgproc;
+import org.openpnp.util.JobTiming;
+import org.openpnp.util.NanosecondTime;
 import org.openpnp.vision.FluentCv.ColorSpace;
 import org.openpnp.vision.pipeline.CvStage.Result;
+import org.openpnp.vision.pipeline.stages.ActuatorWrite;
+import org.openpnp.vision.pipeline.stages.ImageCapture;
+import org.openpnp.vision.pipeline.stages.ScriptRun;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.ElementList;
 import org.simpleframework.xml.Root;
@@ -71,8 +81,28 @@ public class CvPipeline implements AutoCloseable {
 
     private BufferedImage lastCapturedImage;
 
+    /**
+     * Images pre-captured by #capture(), by ImageCapture stage name.
+     */
+    private final Map<String, Mat> capturedImages = new HashMap<>();
+
     private int currentShot;
 
+    private boolean productionMode;
+
+    /**
+     * Names of the stages whose result images are referenced by other stages, in production mode. 
+     * Null if all the result images must be retained.  
+     */
+    private Set<String> imageReferencedStageNames;
+
+    /**
+     * Native Mat buffers for reuse, keyed by size and type.
+     */
+    private final Map<String, Deque<Mat>> matPool = new HashMap<>();
+    private int matPoolSize;
+    private static final int maxMatPoolSize = 32;
+
     public CvPipeline() {
         
     }
@@ -256,16 +286,45 @@ public class CvPipeline implements AutoCloseable {
       this.totalProcessingTimeNs = totalProcessingTimeNs;
     }
 
+    /**
+     * @return True if the pipeline is processed in production mode. 
+     * @see #setProductionMode(boolean)
+     */
+    public boolean isProductionMode() {
+        return productionMode;
+    }
+
+    /**
+     * Sets the pipeline to production mode. In production mode, the result images of the stages 
+     * are only retained if they are referenced by other stages, such as ImageRecall, Add, 
+     * MatchTemplate or the Draw* stages. The results of all other stages will have a null image.
+     * This saves the cloning of the working image for every stage. Production mode is meant for 
+     * vision operations during machine operation, where only the results' models and the final
+     * working image are used. It must not be used, when the results are to be displayed, like in 
+     * the pipeline editor. Therefore it should only be set on a private clone, not on the pipeline 
+     * held by the vision settings, which is shared with the editor.
+     * 
+     * @param productionMode
+     */
+    public void setProductionMode(boolean productionMode) {
+        this.productionMode = productionMode;
+    }
+
     public void process() throws Exception {
+        long t0 = JobTiming.begin();
+        // Time spent in the capture stages, which settle the camera, timed as Settle on its own.
+        long captureNs = 0;
         terminalException = null;
         totalProcessingTimeNs = 0;
         release();
         for (CvStage stage : stages) {
             stage.processPrepare(this);
         }
+        imageReferencedStageNames = (productionMode ? findImageReferencedStageNames() : null);
         for (CvStage stage : stages) {
             // Process and time the stage and get the result.
             long processingTimeNs = System.nanoTime();
+            long stageBeginTime = NanosecondTime.getRuntime();
             Result result = null;
             try {
                 if (!stage.isEnabled()) {
@@ -286,6 +345,9 @@ public class CvPipeline implements AutoCloseable {
             }
             processingTimeNs = System.nanoTime() - processingTimeNs;
             totalProcessingTimeNs += processingTimeNs;
+            if (stage instanceof ImageCapture) {
+                captureNs += NanosecondTime.getRuntime() - stageBeginTime;
+            }
 
             Mat image = null;
             Object model = null;
@@ -302,22 +364,22 @@ public class CvPipeline implements AutoCloseable {
                 workingColorSpace = colorSpace;
             }
             // If the result image is null and there is a working image,
-            // replace the result image with a clone of the working image.
+            // replace the result image with a copy of the working image.
             if (image == null) {
                 if (workingImage != null) {
-                    image = workingImage.clone();
+                    image = retainResultImage(stage, workingImage);
                 }
             }
             // If the result image is not null:
             // Release the working image if the result image is different.
             // Replace the working image with the result image.
-            // Clone the result image for storage.
+            // Copy the result image for storage.
             else {
                 if (workingImage != null && workingImage != image) {
                     workingImage.release();
                 }
                 workingImage = image;
-                image = image.clone();
+                image = retainResultImage(stage, image);
             }
 
             // If the result colorSpace is null and there is a working colorSpace,
@@ -330,11 +392,123 @@ public class CvPipeline implements AutoCloseable {
 
             results.put(stage, new Result(image, colorSpace, model, processingTimeNs, stage));
         }
+        JobTiming.end(JobTiming.VISION_PIPELINE, t0, captureNs);
         if (terminalException != null) {
             throw (terminalException);
         }
     }
 
+    /**
+     * Returns a copy of the given image, to be stored as the result image of the stage, or null if
+     * the result image is not needed in production mode. The copy is taken from the Mat pool. 
+     * 
+     * @param stage
+     * @param image
+     * @return
+     */
+    private Mat retainResultImage(CvStage stage, Mat image) {
+        if (imageReferencedStageNames != null 
+                && !imageReferencedStageNames.contains(stage.getName())) {
+            return null;
+        }
+        Mat copy = acquireMat(image.rows(), image.cols(), image.type());
+        image.copyTo(copy);
+        return copy;
+    }
+
+    /**
+     * Finds the names of the stages that are referenced by other stages, through their 
+     * "...StageName" properties. This is conservative, as some of these stages are only referenced
+     * for their model, but cheap enough. 
+     * 
+     * @return The set of referenced stage names, or null if the stages might reference any result.
+     */
+    private Set<String> findImageReferencedStageNames() {
+        Set<String> stageNames = new HashSet<>();
+        for (CvStage stage : stages) {
+            if (!stage.isEnabled()) {
+                continue;
+            }
+            if (stage instanceof ScriptRun) {
+                // Scripts can access any result.
+                return null;
+            }
+            Class<?> cls = stage.getClass();
+            while (cls != null && cls != CvStage.class) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (field.getType() == String.class && field.getName().endsWith("StageName")) {
+                        try {
+                            field.setAccessible(true);
+                            Object stageName = field.get(stage);
+                            if (stageName != null) {
+                                stageNames.add(((String) stageName).trim());
+                            }
+                        }
+                        catch (Exception e) {
+                            // Cannot tell, so retain all.
+                            return null;
+                        }
+                    }
+                }
+                cls = cls.getSuperclass();
+            }
+        }
+        return stageNames;
+    }
+
+    private static String matPoolKey(int rows, int cols, int type) {
+        return rows+"x"+cols+":"+type;
+    }
+
+    /**
+     * Acquire a Mat of the given size and type from the pipeline's Mat pool, for a retained result
+     * image. If none is available, a new one is allocated. 
+     * 
+     * @param rows
+     * @param cols
+     * @param type
+     * @return
+     */
+    private synchronized Mat acquireMat(int rows, int cols, int type) {
+        Deque<Mat> pooled = matPool.get(matPoolKey(rows, cols, type));
+        if (pooled != null && !pooled.isEmpty()) {
+            matPoolSize--;
+            return pooled.pop();
+        }
+        return new Mat(rows, cols, type);
+    }
+
+    /**
+     * Hand a Mat back to the pipeline's Mat pool for reuse. If the pool is full, the Mat is 
+     * released. The Mat must no longer be used by the caller. 
+     * 
+     * @param mat
+     */
+    private synchronized void recycleMat(Mat mat) {
+        if (mat.empty() || !mat.isContinuous() || mat.isSubmatrix() 
+                || matPoolSize >= maxMatPoolSize) {
+            mat.release();
+            return;
+        }
+        matPool.computeIfAbsent(matPoolKey(mat.rows(), mat.cols(), mat.type()), 
+                k -> new ArrayDeque<>())
+        .push(mat);
+        matPoolSize++;
+    }
+
+    /**
+     * Release the native buffers held in the pipeline's Mat pool.
+     */
+    private synchronized void releaseMatPool() {
+        for (Deque<Mat> pooled : matPool.values()) {
+            for (Mat mat : pooled) {
+                mat.release();
+            }
+        }
+        matPool.clear();
+        matPoolSize = 0;
+    }
+
     /**
      * Reset all the modified parameters to default values
      * (we do not want the parameters to permanently modify the pipeline). 
@@ -348,7 +522,8 @@ public class CvPipeline implements AutoCloseable {
     /**
      * Release any temporary resources associated with the processing of the pipeline. Should be
      * called when the pipeline is no longer needed. This is primarily to release retained native
-     * resources from OpenCV.
+     * resources from OpenCV. The result images are handed back to the pipeline's Mat pool, to be
+     * reused when the pipeline is processed again.
      */
     public void release() {
         if (workingImage != null) {
@@ -357,7 +532,7 @@ public class CvPipeline implements AutoCloseable {
         }
         for (Result result : results.values()) {
             if (result.image != null) {
-                result.image.release();
+                recycleMat(result.image);
             }
         }
         workingModel = null;
@@ -367,11 +542,15 @@ public class CvPipeline implements AutoCloseable {
     @Override
     public void close() throws IOException {
         release();
+        releaseCapturedImages();
+        releaseMatPool();
     }
     
     @Override
     protected void finalize() throws Throwable {
         release();
+        releaseCapturedImages();
+        releaseMatPool();
         super.finalize();
     }
 
@@ -476,6 +655,80 @@ public class CvPipeline implements AutoCloseable {
         this.lastCapturedImage = lastCapturedImage;
     }
 
+    /**
+     * @return True if the image capturing can be separated from the processing of the pipeline, 
+     * i.e. if no stage other than ImageCapture accesses the machine. The processing may then be 
+     * done later, on a different thread, or on a clone of the pipeline. 
+     * @see #capture()
+     */
+    public boolean isCaptureSeparable() {
+        for (CvStage stage : stages) {
+            if (stage.isEnabled() 
+                    && (stage instanceof ScriptRun || stage instanceof ActuatorWrite)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Capture the images of all the enabled ImageCapture stages, in pipeline order, without
+     * processing the pipeline. Hand the captured images to a pipeline with 
+     * #setCapturedImages(Map) and then process it, in order to process the captured images rather
+     * than capturing new ones. 
+     * 
+     * @return The captured images by stage name.
+     * @throws Exception
+     */
+    public Map<String, Mat> capture() throws Exception {
+        Map<String, Mat> images = new HashMap<>();
+        try {
+            for (CvStage stage : stages) {
+                if (stage.isEnabled() && stage instanceof ImageCapture) {
+                    images.put(stage.getName(), ((ImageCapture) stage).capture(this));
+                }
+            }
+        }
+        catch (Exception e) {
+            for (Mat image : images.values()) {
+                image.release();
+            }
+            throw e;
+        }
+        return images;
+    }
+
+    /**
+     * Set the images pre-captured by #capture(), to be taken by the ImageCapture stages when the 
+     * pipeline is next processed. Any images not yet taken are released. 
+     * 
+     * @param images
+     */
+    public synchronized void setCapturedImages(Map<String, Mat> images) {
+        releaseCapturedImages();
+        if (images != null) {
+            capturedImages.putAll(images);
+        }
+    }
+
+    /**
+     * Take the image pre-captured for the ImageCapture stage with the given name. The caller takes
+     * ownership of the image. 
+     * 
+     * @param stageName
+     * @return The image, or null if none was pre-captured. 
+     */
+    public synchronized Mat takeCapturedImage(String stageName) {
+        return capturedImages.remove(stageName);
+    }
+
+    private synchronized void releaseCapturedImages() {
+        for (Mat image : capturedImages.values()) {
+            image.release();
+        }
+        capturedImages.clear();
+    }
+
     public abstract class PipelineShot {
         private Map<String, Object> properties;
         private final int index; 
@@ -500,6 +753,13 @@ public class CvPipeline implements AutoCloseable {
             return index;
         }
 
+        /**
+         * @return The recorded pipeline properties for this shot.
+         */
+        public Map<String, Object> getProperties() {
+            return Collections.unmodifiableMap(properties);
+        }
+
         /**
          * Apply the recorded pipeline properties for this shot to the pipeline.
          * Override this method to define custom actions, such as moving the 
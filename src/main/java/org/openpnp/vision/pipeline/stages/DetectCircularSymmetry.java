@@ -23,7 +23,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.opencv.core.Mat;
 import org.openpnp.model.Length;
@@ -324,6 +328,13 @@ public class DetectCircularSymmetry extends CvStage {
                 n++;
             }
         }
+        void add(ScoreRange other) {
+            minScore = Math.min(minScore, other.minScore); 
+            maxScore = Math.max(maxScore, other.maxScore);
+            finalScore = Math.max(finalScore, other.finalScore);
+            sumScore += other.sumScore;
+            n += other.n;
+        }
         private double scoreHeat(double score) {
             double range = maxScore - minScore;
             double avg = (sumScore/n - minScore)/range;
@@ -459,53 +470,43 @@ public class DetectCircularSymmetry extends CvStage {
             superSamplingOffsets = new double[] { 0.0 };
         }
 
-        // Get the pixels out of the Mat.
-        final int wPixels = maxDiameter + wSearchRange;
+        // Get the pixels out of the Mat, into the reusable buffer of this thread. 
         final int hPixels = maxDiameter + hSearchRange;
-        byte[] pixelSamples = new byte[width*hPixels*channels]; 
-        image.get(y0SearchRange, 0, pixelSamples);
+        final byte[] pixelSamples = getPixelBuffer(width*hPixels*channels); 
+        Mat band = image.rowRange(y0SearchRange, y0SearchRange + hPixels);
+        band.get(0, 0, pixelSamples);
+        band.release();
 
         // Running best results.
         double scoreBest = Double.NEGATIVE_INFINITY;
         double xBest = 0;
         double yBest = 0;
         int rContrastBest = 0;
-        double [] scoreMap = null;
-        int[] radiusMap = null;
-        double [] xOffsetMap = null;
-        double [] yOffsetMap = null;
-        boolean showDiagnostics = ((diagnostics || heatMap) && superSamplingOffsets.length == 1);
-        int wSearchRangeMap = wSearchRange/subSamplingEff;
-        int hSearchRangeMap = hSearchRange/subSamplingEff;
-        if (showDiagnostics || maxTargetCount > 1) {
-            scoreMap = new double[wSearchRangeMap*hSearchRangeMap];
+        final boolean showDiagnostics = ((diagnostics || heatMap) && superSamplingOffsets.length == 1);
+        final int wSearchRangeMap = wSearchRange/subSamplingEff;
+        final int hSearchRangeMap = hSearchRange/subSamplingEff;
+        final boolean mapped = (showDiagnostics || maxTargetCount > 1);
+        final double [] scoreMap = mapped ? new double[wSearchRangeMap*hSearchRangeMap] : null;
+        final int[] radiusMap = mapped ? new int[wSearchRangeMap*hSearchRangeMap] : null;
+        final double [] xOffsetMap = mapped ? new double[wSearchRangeMap*hSearchRangeMap] : null;
+        final double [] yOffsetMap = mapped ? new double[wSearchRangeMap*hSearchRangeMap] : null;
+        if (mapped) {
             Arrays.fill(scoreMap, Double.NEGATIVE_INFINITY);
-            radiusMap = new int[wSearchRangeMap*hSearchRangeMap];
-            xOffsetMap = new double[wSearchRangeMap*hSearchRangeMap];
-            yOffsetMap = new double[wSearchRangeMap*hSearchRangeMap];
             // The final score is reset here so it will reflect the last pass' maximum score. 
             scoreRange.finalScore = 0;
         }
         
-        final int xDim = maxDiameter/subSamplingEff+1;
-        final int yDim = maxDiameter/subSamplingEff+1;
-        final int maxPixelDataDim = xDim*yDim*channels;
+        final int rRange = r;
+        final int minDiameterRing = minDiameter;
         final int rDim = (r - r0 + 1)/subSamplingEff;
         final int angleDim = symmetryScore.getAngularBins(); 
-        final int angleMask = angleDim-1; 
-        final double fa = angleDim/(Math.PI*2);
         final int histogramDim = angleDim*rDim*channels;
-        int [] idxPixelData = new int[maxPixelDataDim]; // Index into the pixel data, relative from the left upper corner.
-        int [] idxHistogram = new int[maxPixelDataDim]; // Index into the result histogram.
-        int [] rRing = new int [rDim];
-        double [] segmentValues = new double[angleDim]; 
+        final int [] rRing = new int [rDim];
         for (int ri = 0; ri < rDim; ri++) {
             rRing[ri] = r0 + ri*subSamplingEff;
         }
-        int [] histogramN = new int[histogramDim];
-        double [] histogramFactor = new double[histogramDim];
-        long [] histogramSum = new long[histogramDim]; 
-        long [] histogramSumSq = new long[histogramDim]; 
+        final int rowCount = (hSearchRange + subSamplingEff - 1)/subSamplingEff;
+        final int columnCount = (wSearchRange + subSamplingEff - 1)/subSamplingEff;
 
         // Outer super-sampling loop. 
         for (double xOffset : superSamplingOffsets) {
@@ -514,39 +515,32 @@ public class DetectCircularSymmetry extends CvStage {
                 double xBestSampling = 0;
                 double yBestSampling = 0;
 
-                // Map the concentric rings of circular symmetry from the flat array of pixel channels to the 
-                // radial x angular histogram.
-                // The pixel indices are relative to the origin but they can be offset to any x, y (within
-                // range) and still remain valid, thanks to modulo behavior.
-                int samples = 0;
-                Arrays.fill(histogramN, 0);
-                for (int y = -r, yi = 0; y <= r; y += subSamplingEff, yi += subSamplingEff) {
-                    for (int x = -r, idx = yi*width*channels; 
-                            x <= r; 
-                            x += subSamplingEff, idx += channels*subSamplingEff) {
-                        double dx = x - xOffset;
-                        double dy = y - yOffset;
-                        double d = Math.hypot(dx, dy);
-                        int idxR = (-r0 + (int) Math.round(d))/subSamplingEff;
-                        if (idxR >= 0 && idxR < rDim) {
-                            double angle = angleMask == 0 ? 0 : Math.atan2(dy, dx);
-                            int idxAngle = angleMask & (int) Math.round(angle*fa);
-                            int idxHisto = (idxR*angleDim + idxAngle)*channels;
-                            for (int ch = 0; ch < channels; ch++) {
-                                idxPixelData[samples] = idx+ch;
-                                idxHistogram[samples] = idxHisto+ch;
-                                histogramN[idxHisto+ch]++;
-                                samples++;
-                            }
-                        }
-                    }
-                }
-                for (int i = 0; i < histogramDim; i++) {
-                    histogramFactor[i] = histogramN[i] > 0 ? 1.0/histogramN[i] : 0;
+                // Get the concentric rings of circular symmetry, mapped from the flat array of pixel channels to the 
+                // radial x angular histogram. 
+                final SamplingTable table = getSamplingTable(width, channels, r, r0, subSamplingEff, angleDim, 
+                        xOffset, yOffset);
+                final int [] idxPixelData = table.idxPixelData;
+                final int [] idxHistogram = table.idxHistogram;
+                final int [] histogramN = table.histogramN;
+                final double [] histogramFactor = table.histogramFactor;
+                final int samples = table.samples;
+
+                // Now iterate through all the pixel offsets and find the maximum circular symmetry. The rows are 
+                // scanned in parallel, if it is worth it. 
+                IntStream rows = IntStream.range(0, rowCount);
+                if ((long)rowCount*columnCount*samples >= parallelScanMinWork) {
+                    rows = rows.parallel();
                 }
-
-                // Now iterate through all the pixel offsets and find the maximum circular symmetry.
-                for (int yi = 0, yis = 0; yi < hSearchRange; yi += subSamplingEff, yis++) {
+                List<CandidateRow> candidateRows = rows.mapToObj(yis -> {
+                    final int yi = yis*subSamplingEff;
+                    CandidateRow row = new CandidateRow();
+                    long [] histogramSum = new long[histogramDim]; 
+                    long [] histogramSumSq = new long[histogramDim]; 
+                    double [] segmentValues = new double[angleDim]; 
+                    double [] sumAcross = new double[channels];
+                    double [] sumSqAcross = new double[channels];
+                    double [] lastAvg = new double[channels];
+                    int [] nAcross = new int[channels];
                     for (int xi = 0, xis = 0, idxOffset = (yi*width + x0SearchRange) * channels; 
                             xi < wSearchRange; 
                             xi += subSamplingEff, xis++, idxOffset += channels*subSamplingEff) {
@@ -573,10 +567,10 @@ public class DetectCircularSymmetry extends CvStage {
                             double contrastBest = Double.NEGATIVE_INFINITY;
                             int riContrastBest = 0;
                             double varianceRing = 0;
-                            double [] sumAcross = new double[channels];
-                            double [] sumSqAcross = new double[channels];
-                            double [] lastAvg = new double[channels];
-                            int [] nAcross = new int[channels];
+                            Arrays.fill(sumAcross, 0);
+                            Arrays.fill(sumSqAcross, 0);
+                            Arrays.fill(lastAvg, 0);
+                            Arrays.fill(nAcross, 0);
                             for (int idxR = 0; idxR < rDim; idxR++) {
                                 double contrast = 0;
                                 for (int ch = 0; ch < channels; ch++) {
@@ -644,7 +638,7 @@ public class DetectCircularSymmetry extends CvStage {
                                     contrast += Math.pow(lastAvg[ch] - avg1, 2);
                                     lastAvg[ch] = avg1;
                                 }
-                                if (rRing[idxR]*2 >= minDiameter) {
+                                if (rRing[idxR]*2 >= minDiameterRing) {
                                     if (contrastBest < contrast) {
                                         contrastBest = contrast;
                                         riContrastBest = rRing[idxR];
@@ -656,19 +650,15 @@ public class DetectCircularSymmetry extends CvStage {
                                 varianceAcross += (sumSqAcross[ch] - Math.pow(sumAcross[ch], 2) / nAcross[ch]);
                             }
                             score = (varianceAcross + div0Guard)/(varianceRing + div0Guard);
-                            scoreRange.add(score);
-                            if (scoreBestSampling < score) {
-                                scoreBestSampling = score;
-                                xBestSampling = xi + x0SearchRange + r + 0.5 + xOffset;
-                                yBestSampling = yi + y0SearchRange + r + 0.5 + yOffset;
-                                if (scoreBest < score) {
-                                    scoreBest = score;
-                                    xBest = xBestSampling;
-                                    yBest = yBestSampling;
-                                    rContrastBest = riContrastBest;
-                                }
+                            row.scoreRange.add(score);
+                            if (row.score < score) {
+                                row.score = score;
+                                row.xi = xi;
+                                row.yi = yi;
+                                row.rContrast = riContrastBest;
                             }
                             if (scoreMap != null) {
+                                // Each pass writes its own map cells, no need to synchronize.
                                 int idx = yis*wSearchRangeMap + xis;
                                 if (scoreMap[idx] < score) {
                                     scoreMap[idx] = score;
@@ -679,6 +669,23 @@ public class DetectCircularSymmetry extends CvStage {
                             }
                         }
                     }
+                    return row;
+                }).collect(Collectors.toList());
+
+                // Reduce the rows in scan order, so the result is the same as with a serial scan.
+                for (CandidateRow row : candidateRows) {
+                    scoreRange.add(row.scoreRange);
+                    if (scoreBestSampling < row.score) {
+                        scoreBestSampling = row.score;
+                        xBestSampling = row.xi + x0SearchRange + rRange + 0.5 + xOffset;
+                        yBestSampling = row.yi + y0SearchRange + rRange + 0.5 + yOffset;
+                        if (scoreBest < row.score) {
+                            scoreBest = row.score;
+                            xBest = xBestSampling;
+                            yBest = yBestSampling;
+                            rContrastBest = row.rContrast;
+                        }
+                    }
                 }
                 if (DEBUG >= 1) {
                     Logger.trace("best circular symmetry at subSampling "+subSamplingEff+", range W"+wSearchRange+" H"+hSearchRange
@@ -912,6 +919,118 @@ public class DetectCircularSymmetry extends CvStage {
         return ret;
     }
 
+    /**
+     * Best candidate of a scanned row, with the row's score range.
+     */
+    private static class CandidateRow {
+        double score = Double.NEGATIVE_INFINITY;
+        int xi;
+        int yi;
+        int rContrast;
+        ScoreRange scoreRange = new ScoreRange();
+    }
+
+    /**
+     * The radial x angular sampling of the concentric rings, as a table of pixel data indices and 
+     * corresponding histogram indices. The pixel indices are relative to the origin but they can be 
+     * offset to any x, y (within range) and still remain valid, thanks to modulo behavior.
+     */
+    private static class SamplingTable {
+        final int samples;
+        final int [] idxPixelData;
+        final int [] idxHistogram;
+        final int [] histogramN;
+        final double [] histogramFactor;
+
+        SamplingTable(int width, int channels, int r, int r0, int subSamplingEff, int angleDim, 
+                double xOffset, double yOffset) {
+            final int xDim = (2*r)/subSamplingEff+1;
+            final int yDim = (2*r)/subSamplingEff+1;
+            final int maxPixelDataDim = xDim*yDim*channels;
+            final int rDim = (r - r0 + 1)/subSamplingEff;
+            final int angleMask = angleDim-1; 
+            final double fa = angleDim/(Math.PI*2);
+            final int histogramDim = angleDim*rDim*channels;
+            int [] idxPixelData = new int[maxPixelDataDim];
+            int [] idxHistogram = new int[maxPixelDataDim];
+            histogramN = new int[histogramDim];
+            histogramFactor = new double[histogramDim];
+            int samples = 0;
+            for (int y = -r, yi = 0; y <= r; y += subSamplingEff, yi += subSamplingEff) {
+                for (int x = -r, idx = yi*width*channels; 
+                        x <= r; 
+                        x += subSamplingEff, idx += channels*subSamplingEff) {
+                    double dx = x - xOffset;
+                    double dy = y - yOffset;
+                    double d = Math.hypot(dx, dy);
+                    int idxR = (-r0 + (int) Math.round(d))/subSamplingEff;
+                    if (idxR >= 0 && idxR < rDim) {
+                        double angle = angleMask == 0 ? 0 : Math.atan2(dy, dx);
+                        int idxAngle = angleMask & (int) Math.round(angle*fa);
+                        int idxHisto = (idxR*angleDim + idxAngle)*channels;
+                        for (int ch = 0; ch < channels; ch++) {
+                            idxPixelData[samples] = idx+ch;
+                            idxHistogram[samples] = idxHisto+ch;
+                            histogramN[idxHisto+ch]++;
+                            samples++;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < histogramDim; i++) {
+                histogramFactor[i] = histogramN[i] > 0 ? 1.0/histogramN[i] : 0;
+            }
+            this.samples = samples;
+            this.idxPixelData = Arrays.copyOf(idxPixelData, samples);
+            this.idxHistogram = Arrays.copyOf(idxHistogram, samples);
+        }
+    }
+
+    /**
+     * The sampling tables only depend on the geometry, they are cached, as the same geometry is 
+     * typically searched again and again, e.g. in nozzle tip calibration. 
+     */
+    private static final int samplingTableCacheSize = 64;
+    private static final Map<String, SamplingTable> samplingTableCache = 
+            new LinkedHashMap<String, SamplingTable>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SamplingTable> eldest) {
+            return size() > samplingTableCacheSize;
+        }
+    };
+
+    private static SamplingTable getSamplingTable(int width, int channels, int r, int r0, int subSamplingEff, 
+            int angleDim, double xOffset, double yOffset) {
+        String key = width+"|"+channels+"|"+r+"|"+r0+"|"+subSamplingEff+"|"+angleDim+"|"+xOffset+"|"+yOffset;
+        synchronized (samplingTableCache) {
+            SamplingTable table = samplingTableCache.get(key);
+            if (table == null) {
+                table = new SamplingTable(width, channels, r, r0, subSamplingEff, angleDim, xOffset, yOffset);
+                samplingTableCache.put(key, table);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Minimum work (candidates x samples) for the candidate scan to be split across the ForkJoin pool.
+     */
+    private static final long parallelScanMinWork = 1L << 18;
+
+    /**
+     * The pixel buffer is reused across calls on the same thread. 
+     */
+    private static final ThreadLocal<byte[]> pixelBuffer = new ThreadLocal<>();
+
+    private static byte[] getPixelBuffer(int size) {
+        byte[] buffer = pixelBuffer.get();
+        if (buffer == null || buffer.length < size) {
+            buffer = new byte[size];
+            pixelBuffer.set(buffer);
+        }
+        return buffer;
+    }
+
     protected static List<SymmetryCircle> sortAndLimit(List<SymmetryCircle> circles,
             int maxTargetCount, double corrSymmetry) {
         // Sort best results first.
@@ -91,47 +91,63 @@ public class ImageCapture extends CvStage {
     }
     @Override
     public Result process(CvPipeline pipeline) throws Exception {
+        // Take the image pre-captured by CvPipeline.capture(), if any. 
+        Mat image = pipeline.takeCapturedImage(getName());
+        if (image != null) {
+            return new Result(image, ColorSpace.Bgr);
+        }
+        try {
+            return new Result(capture(pipeline), ColorSpace.Bgr);
+        }
+        catch (Exception e) {
+            // These machine exceptions are terminal to the pipeline.
+            throw new TerminalException(e);
+        }
+    }
+
+    /**
+     * Light, settle and capture the image from the pipeline camera, including averaging. 
+     * 
+     * @param pipeline
+     * @return The captured image.
+     * @throws Exception
+     */
+    public Mat capture(CvPipeline pipeline) throws Exception {
         Camera camera = (Camera) pipeline.getProperty("camera");
         if (camera == null) {
             throw new Exception("No Camera set on pipeline.");
         }
+        // Light, settle and capture the image. Keep the lights on for possible averaging.
+        camera.actuateLightBeforeCapture((defaultLight ? null : getLight()));
         try {
-            // Light, settle and capture the image. Keep the lights on for possible averaging.
-            camera.actuateLightBeforeCapture((defaultLight ? null : getLight()));
-            try {
-                BufferedImage bufferedImage = camera.settleAndCapture(settleOption); 
-                // Remember the last captured image. This specifically records the native camera image, 
-                // i.e. it does not apply averaging (we want an unaltered raw image for analysis purposes).
-                pipeline.setLastCapturedImage(bufferedImage);
-                Mat image = OpenCvUtils.toMat(bufferedImage);
-                if (count <= 1) { 
-                    return new Result(image, ColorSpace.Bgr);
-                }
-                else {
-                    // Perform averaging in channel type double.
+            BufferedImage bufferedImage = camera.settleAndCapture(settleOption); 
+            // Remember the last captured image. This specifically records the native camera image, 
+            // i.e. it does not apply averaging (we want an unaltered raw image for analysis purposes).
+            pipeline.setLastCapturedImage(bufferedImage);
+            Mat image = OpenCvUtils.toMat(bufferedImage);
+            if (count <= 1) { 
+                return image;
+            }
+            else {
+                // Perform averaging in channel type double.
+                image.convertTo(image, CvType.CV_64F);
+                Mat avgImage = image;
+                double beta = 1.0 / count;
+                Core.addWeighted(avgImage, 0, image, beta, 0, avgImage); // avgImage = image/count
+                for (int i = 1; i < count; i++) {
+                    image = OpenCvUtils.toMat(camera.capture());
                     image.convertTo(image, CvType.CV_64F);
-                    Mat avgImage = image;
-                    double beta = 1.0 / count;
-                    Core.addWeighted(avgImage, 0, image, beta, 0, avgImage); // avgImage = image/count
-                    for (int i = 1; i < count; i++) {
-                        image = OpenCvUtils.toMat(camera.capture());
-                        image.convertTo(image, CvType.CV_64F);
-                        Core.addWeighted(avgImage, 1, image, beta, 0, avgImage); // avgImage = avgImag + image/count
-                        // Release the additional image.
-                        image.release();
-                    }
-                    avgImage.convertTo(avgImage, CvType.CV_8U);
-                    return new Result(avgImage, ColorSpace.Bgr);
+                    Core.addWeighted(avgImage, 1, image, beta, 0, avgImage); // avgImage = avgImag + image/count
+                    // Release the additional image.
+                    image.release();
                 }
-            }
-            finally {
-                // Always switch off the light. 
-                camera.actuateLightAfterCapture();
+                avgImage.convertTo(avgImage, CvType.CV_8U);
+                return avgImage;
             }
         }
-        catch (Exception e) {
-            // These machine exceptions are terminal to the pipeline.
-            throw new TerminalException(e);
+        finally {
+            // Always switch off the light. 
+            camera.actuateLightAfterCapture();
         }
     }
 
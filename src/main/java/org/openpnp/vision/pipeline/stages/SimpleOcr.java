@@ -29,10 +29,15 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
 
@@ -195,6 +200,122 @@ public class SimpleOcr extends CvStage {
         this.propertyName = propertyName;
     }
 
+    /**
+     * The rendered templates of the alphabet characters for one font, pixel size and image type. 
+     * The font pixel size combines the font point size and the camera scale. 
+     */
+    protected static class GlyphTemplates {
+        final int maxAscent;
+        final int fontHeight;
+        final char[] characters;
+        final Mat[] templates;
+        /**
+         * Number of OCR runs currently using the templates, guarded by the glyphCache.
+         */
+        private int users = 0;
+        private boolean evicted = false;
+
+        GlyphTemplates(String fontName, int fontPixelSize, String alphabet, int type) {
+            Font font = new Font(fontName, Font.PLAIN, fontPixelSize);
+            // Create a pseudo graphics context to get font metrics 
+            Graphics2D gfm = new BufferedImage(1, 1, type).createGraphics();
+            FontMetrics fm = gfm.getFontMetrics(font);
+            gfm.dispose();
+            maxAscent = fm.getAscent();// fm.getMaxAscent();
+            fontHeight = maxAscent+fm.getDescent();//fm.getHeight();
+            final int margin = 0; // tests have shown that no margin is best
+            final int height = fontHeight+2*margin;
+            StringBuilder glyphs = new StringBuilder();
+            for (char ch : (fontHeight < 5 ? "" : alphabet).toCharArray()) {
+                // (no templates for a dud font size)
+                if (ch != ' ' ) {
+                    // we can't search for nothing :-) 
+                    // spaces will be recognized by discontinuity
+                    glyphs.append(ch);
+                }
+            }
+            characters = glyphs.toString().toCharArray();
+            templates = new Mat[characters.length];
+            for (int i = 0; i < characters.length; i++) {
+                String character = new String(new char[] { characters[i] });
+                // create a template image of the current character
+                int width = fm.stringWidth(character)+2*margin;
+                BufferedImage templateImage =
+                        new BufferedImage(width, height, type);
+                Graphics2D g2d = (Graphics2D) templateImage.getGraphics();
+                g2d.setColor(Color.white);
+                g2d.fillRect(0, 0, width, height);
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.setColor(Color.black);
+                g2d.setFont(font);
+                g2d.drawString(character, margin, margin+maxAscent);
+                g2d.dispose();
+                templates[i] = OpenCvUtils.toMat(templateImage);
+            }
+        }
+
+        /**
+         * Releases the template Mats, once the templates are evicted from the cache and no longer
+         * used. Must be called synchronized on the glyphCache.
+         */
+        private void releaseIfUnused() {
+            if (evicted && users == 0) {
+                for (Mat template : templates) {
+                    template.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Cache of the GlyphTemplates, in least recently used order. The auto-detection of the font size
+     * goes through ~30 sizes, so there is room for that plus a few more fonts in use by feeders. 
+     * Evicted templates are released, as soon as no other thread is using them anymore, see 
+     * {@link #getGlyphTemplates(String, int, String, int)} and {@link #releaseGlyphTemplates(GlyphTemplates)}.
+     */
+    private static final int GLYPH_CACHE_SIZE = 64;
+    private static final Map<String, GlyphTemplates> glyphCache = 
+            new LinkedHashMap<String, GlyphTemplates>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GlyphTemplates> eldest) {
+            if (size() > GLYPH_CACHE_SIZE) {
+                GlyphTemplates glyphTemplates = eldest.getValue();
+                glyphTemplates.evicted = true;
+                glyphTemplates.releaseIfUnused();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Gets the (cached) GlyphTemplates. Must be paired with a 
+     * {@link #releaseGlyphTemplates(GlyphTemplates)}, once the templates are no longer used.
+     */
+    protected static GlyphTemplates getGlyphTemplates(String fontName, int fontPixelSize, String alphabet, int type) {
+        String key = fontName+"|"+fontPixelSize+"|"+type+"|"+alphabet;
+        synchronized (glyphCache) {
+            GlyphTemplates glyphTemplates = glyphCache.get(key);
+            if (glyphTemplates == null) {
+                glyphTemplates = new GlyphTemplates(fontName, fontPixelSize, alphabet, type);
+                // Take it before it is put, so it is not released if evicted right away. 
+                glyphTemplates.users++;
+                glyphCache.put(key, glyphTemplates);
+            }
+            else {
+                glyphTemplates.users++;
+            }
+            return glyphTemplates;
+        }
+    }
+
+    protected static void releaseGlyphTemplates(GlyphTemplates glyphTemplates) {
+        synchronized (glyphCache) {
+            glyphTemplates.users--;
+            glyphTemplates.releaseIfUnused();
+        }
+    }
+
     protected static class CharacterMatch extends TemplateMatch {
         public CharacterMatch(char ch, double x, double y, double width, double height, double score) {
             super(x, y, width, height, score);
@@ -397,79 +518,46 @@ public class SimpleOcr extends CvStage {
                     textImage.type(), textImage.channels(), textImage.depth()));
         }
 
-        // create the font
-        Font font = new Font(fontName, Font.PLAIN, (int)Math.round(scalePt*fontSizePt));
-        // Create a pseudo graphics context to get font metrics 
-        Graphics2D gfm = new BufferedImage(1, 1, type).createGraphics();
-        FontMetrics fm = gfm.getFontMetrics(font);
-        final int maxAscent = fm.getAscent();// fm.getMaxAscent();
-        final int fontHeight = maxAscent+fm.getDescent();//fm.getHeight();
-        final int margin = 0; // tests have shown that no margin is best
-        final int height = fontHeight+2*margin;
-        if (fontHeight < 5 || fontHeight >= textImage.rows()) {
-            // dud
-            return new Result(textImage, new OcrModel("", 0, 0.0));
-        }
-
-        // try find each character of the alphabet in the text image 
-        List<CharacterMatch> matches = new ArrayList<>();
-        for (char ch : alphabet.toCharArray()) {
-            if (ch == ' ' ) {
-                // we can't search for nothing :-) 
-                // spaces will be recognized by discontinuity
-                continue;
-            }
-            String character = new String(new char[] { ch });
-            String characterTag = (Character.isLetterOrDigit(ch) ? character : String.valueOf((int)ch))+"-";
-            // create a template image of the current character
-            int width = fm.stringWidth(character)+2*margin;
-            BufferedImage templateImage =
-                    new BufferedImage(width, height, type);
-            Graphics2D g2d = (Graphics2D) templateImage.getGraphics();
-            g2d.setColor(Color.white);
-            g2d.fillRect(0, 0, width, height);
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setColor(Color.black);
-            g2d.setFont(font);
-            g2d.drawString(character, margin, margin+maxAscent);
-            g2d.dispose();
-            Mat template = OpenCvUtils.toMat(templateImage);
-            if (debug) {
-                File file = Configuration.get().createResourceFile(getClass(), "character-"+characterTag, ".png");
-                Imgcodecs.imwrite(file.getAbsolutePath(), template);
-            }
-
-            // do the actual template match
-            Mat matchMap = new Mat();
-            Imgproc.matchTemplate(textImage, template, matchMap, Imgproc.TM_CCOEFF_NORMED);
-
-            // determine the range
-            MinMaxLocResult mmr = Core.minMaxLoc(matchMap);
-            double maxVal = mmr.maxVal;
-            double rangeMin = threshold;
-            double rangeMax = maxVal;
-
-            // create the matches
-            for (Point point : OpenCvUtils.matMaxima(matchMap, rangeMin, rangeMax)) {
-                int x = point.x;
-                int y = point.y;
-                CharacterMatch match = new CharacterMatch(ch, 
-                        x, y, template.cols(), template.rows(),
-                        matchMap.get(y, x)[0]);
-                matches.add(match);
+        // get the (cached) character templates of the font
+        GlyphTemplates glyphTemplates = getGlyphTemplates(fontName, (int)Math.round(scalePt*fontSizePt), alphabet, type);
+        List<List<CharacterMatch>> characterMatches;
+        try {
+            if (glyphTemplates.fontHeight < 5 || glyphTemplates.fontHeight >= textImage.rows()) {
+                // dud
+                return new Result(textImage, new OcrModel("", 0, 0.0));
             }
 
-            if (debug) {
-                File file = Configuration.get().createResourceFile(getClass(), "match-map-"+characterTag, ".png");
-                // this is a 3x32bit image, cannot save this as .png, need to convert to known image format first
-                BufferedImage img = OpenCvUtils.toBufferedImage(matchMap);
-                ImageIO.write(img, "png", file);
+            // try find each character of the alphabet in the text image, in parallel, unless 
+            // debug images are written
+            final Mat searchImage = textImage;
+            IntStream characterIndices = IntStream.range(0, glyphTemplates.characters.length);
+            if (!debug) {
+                characterIndices = characterIndices.parallel();
             }
-
-            // cleanup
-            matchMap.release();
-            template.release();
+            // the ordered collect keeps the alphabet order, as if matched sequentially
+            characterMatches = characterIndices
+                    .mapToObj(i -> {
+                        try {
+                            return matchCharacter(searchImage, glyphTemplates.characters[i], 
+                                    glyphTemplates.templates[i]);
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            releaseGlyphTemplates(glyphTemplates);
+        }
+        List<CharacterMatch> matches = new ArrayList<>();
+        for (List<CharacterMatch> list : characterMatches) {
+            matches.addAll(list);
         }
+        final int height = glyphTemplates.fontHeight;
 
         // ready to harvest
         StringBuilder text = new StringBuilder();
@@ -663,6 +751,47 @@ public class SimpleOcr extends CvStage {
         return new Result(textImage, new OcrModel(text.toString(), numChars, overallScore));
     }
 
+    private List<CharacterMatch> matchCharacter(Mat textImage, char ch, Mat template) throws IOException {
+        String character = new String(new char[] { ch });
+        String characterTag = (Character.isLetterOrDigit(ch) ? character : String.valueOf((int)ch))+"-";
+        if (debug) {
+            File file = Configuration.get().createResourceFile(getClass(), "character-"+characterTag, ".png");
+            Imgcodecs.imwrite(file.getAbsolutePath(), template);
+        }
+
+        // do the actual template match
+        Mat matchMap = new Mat();
+        Imgproc.matchTemplate(textImage, template, matchMap, Imgproc.TM_CCOEFF_NORMED);
+
+        // determine the range
+        MinMaxLocResult mmr = Core.minMaxLoc(matchMap);
+        double maxVal = mmr.maxVal;
+        double rangeMin = threshold;
+        double rangeMax = maxVal;
+
+        // create the matches
+        List<CharacterMatch> matches = new ArrayList<>();
+        for (Point point : OpenCvUtils.matMaxima(matchMap, rangeMin, rangeMax)) {
+            int x = point.x;
+            int y = point.y;
+            CharacterMatch match = new CharacterMatch(ch, 
+                    x, y, template.cols(), template.rows(),
+                    matchMap.get(y, x)[0]);
+            matches.add(match);
+        }
+
+        if (debug) {
+            File file = Configuration.get().createResourceFile(getClass(), "match-map-"+characterTag, ".png");
+            // this is a 3x32bit image, cannot save this as .png, need to convert to known image format first
+            BufferedImage img = OpenCvUtils.toBufferedImage(matchMap);
+            ImageIO.write(img, "png", file);
+        }
+
+        // cleanup, but not the template, it is cached
+        matchMap.release();
+        return matches;
+    }
+
     private Result decodeBarcode(CvPipeline pipeline) {
         Mat workingImage = pipeline.getWorkingImage();
         BufferedImage image = OpenCvUtils.toBufferedImage(workingImage);
@@ -185,6 +185,8 @@ public class CvPipelineEditor extends JPanel {
 
     public CvPipelineEditor(CvPipeline pipeline) {
         this.pipeline = pipeline;
+        // The editor displays all the stage results.
+        pipeline.setProductionMode(false);
         try {
             originalVersion = pipeline.toXmlString();
         }
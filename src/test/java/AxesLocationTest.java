@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.axis.ReferenceControllerAxis;
+import org.openpnp.model.AxesLocation;
+import org.openpnp.spi.Axis;
+
+public class AxesLocationTest {
+    private static ReferenceControllerAxis createAxis(String name, Axis.Type type, int index) {
+        ReferenceControllerAxis axis = new ReferenceControllerAxis();
+        axis.setName(name);
+        axis.setType(type);
+        axis.setAxisIndex(index);
+        return axis;
+    }
+
+    @Test
+    public void testArithmetic() {
+        ReferenceControllerAxis x = createAxis("X", Axis.Type.X, 0);
+        ReferenceControllerAxis y = createAxis("Y", Axis.Type.Y, 1);
+        // Not indexed, stored in the overflow map.
+        ReferenceControllerAxis z = createAxis("Z", Axis.Type.Z, -1);
+
+        AxesLocation a = new AxesLocation((p, q) -> q, 
+                new AxesLocation(y, 2), new AxesLocation(z, 3), new AxesLocation(x, 1));
+        assertEquals(3, a.size());
+        // Indexed axes in index order, followed by the others.
+        assertEquals("(X:1.000000, Y:2.000000, Z:3.000000)", a.toString());
+
+        AxesLocation b = new AxesLocation(x, 10);
+        assertEquals(11, a.add(b).getCoordinate(x), 1e-9);
+        assertEquals(-9, a.subtract(b).getCoordinate(x), 1e-9);
+        assertEquals(10, a.put(b).getCoordinate(x), 1e-9);
+        assertEquals(2, a.put(b).getCoordinate(y), 1e-9);
+        assertEquals(6, a.multiply(2).getCoordinate(z), 1e-9);
+        assertEquals(10, a.dotProduct(b), 1e-9);
+        assertEquals(Math.sqrt(14), a.getEuclideanMetric(), 1e-9);
+
+        // Axes only contained in the other are taken as is.
+        AxesLocation c = b.subtract(new AxesLocation(y, 5));
+        assertEquals(5, c.getCoordinate(y), 1e-9);
+        assertEquals(Arrays.asList(x, y), Arrays.asList(c.getAxes().toArray()));
+
+        AxesLocation d = a.remove(y);
+        assertFalse(d.contains(y));
+        assertTrue(d.contains(z));
+        assertEquals(0, d.getCoordinate(y), 1e-9);
+        assertTrue(AxesLocation.zero.isEmpty());
+    }
+
+    @Test
+    public void testAxisOrder() {
+        ReferenceControllerAxis x = createAxis("X", Axis.Type.X, 0);
+        ReferenceControllerAxis y = createAxis("Y", Axis.Type.Y, 1);
+        ReferenceControllerAxis z2 = createAxis("Z2", Axis.Type.Z, -1);
+        ReferenceControllerAxis z1 = createAxis("Z1", Axis.Type.Z, -1);
+        // Added out of order.
+        AxesLocation a = new AxesLocation((p, q) -> q, 
+                new AxesLocation(z2, 4), new AxesLocation(y, 2), new AxesLocation(z1, 3), 
+                new AxesLocation(x, 1));
+        // Indexed axes in Configuration order, the others in insertion order.
+        assertEquals(Arrays.asList(x, y, z2, z1), Arrays.asList(a.getAxes().toArray()));
+        assertEquals("(X:1.000000, Y:2.000000, Z2:4.000000, Z1:3.000000)", a.toString());
+    }
+
+    @Test
+    public void testReassignedIndex() {
+        ReferenceControllerAxis x = createAxis("X", Axis.Type.X, 0);
+        ReferenceControllerAxis y = createAxis("Y", Axis.Type.Y, 1);
+        AxesLocation a = new AxesLocation((p, q) -> q, new AxesLocation(x, 1), new AxesLocation(y, 2));
+        // Permutated in Machine Setup.
+        x.setAxisIndex(1);
+        y.setAxisIndex(0);
+        assertEquals(1, a.getCoordinate(x), 1e-9);
+        assertEquals(2, a.getCoordinate(y), 1e-9);
+        AxesLocation b = a.add(new AxesLocation(x, 1)).add(new AxesLocation(y, 1));
+        assertEquals(2, b.size());
+        assertEquals(2, b.getCoordinate(x), 1e-9);
+        assertEquals(3, b.getCoordinate(y), 1e-9);
+    }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Mat;
+import org.openpnp.machine.reference.camera.BufferedImageCamera;
+import org.openpnp.model.Configuration;
+
+import com.google.common.io.Files;
+
+public class CameraCaptureBufferTest {
+    static class TestCamera extends BufferedImageCamera {
+        TestCamera() {
+            super(null);
+        }
+
+        void setTestImage(BufferedImage image) {
+            setImage(image);
+        }
+
+        Mat takeBuffer() {
+            return takeCaptureBuffer();
+        }
+
+        void recycleBuffer(Mat mat) {
+            recycleCaptureBuffer(mat);
+        }
+    }
+
+    /**
+     * Runs frames through the cropping and flipping transforms and checks that the capture buffer
+     * is handed back to the pool alive and is reused for the next frame.
+     */
+    @Test
+    public void testCaptureBufferReuse() throws Exception {
+        nu.pattern.OpenCV.loadLocally();
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        TestCamera camera = new TestCamera();
+        camera.setCropWidth(8);
+        camera.setCropHeight(6);
+        camera.setFlipX(true);
+        camera.setTestImage(new BufferedImage(20, 10, BufferedImage.TYPE_3BYTE_BGR));
+
+        BufferedImage image = camera.captureTransformed();
+        assertEquals(8, image.getWidth());
+        assertEquals(6, image.getHeight());
+
+        // The capture buffer is back in the pool, alive and with the full frame size.
+        Mat buffer = camera.takeBuffer();
+        assertFalse(buffer.empty());
+        assertEquals(20, buffer.cols());
+        assertEquals(10, buffer.rows());
+        camera.recycleBuffer(buffer);
+
+        // The next frame is converted into the same buffer.
+        image = camera.captureTransformed();
+        assertEquals(8, image.getWidth());
+        assertSame(buffer, camera.takeBuffer());
+        assertFalse(buffer.empty());
+        camera.recycleBuffer(buffer);
+
+        // A released buffer is not taken back.
+        Mat released = camera.takeBuffer();
+        assertSame(buffer, released);
+        released.release();
+        camera.recycleBuffer(released);
+        Mat fresh = camera.takeBuffer();
+        assertFalse(fresh == released);
+    }
+}
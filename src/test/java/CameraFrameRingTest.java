@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.camera.AbstractBroadcastingCamera.Frame;
+import org.openpnp.machine.reference.camera.AbstractSettlingCamera.SettleMethod;
+import org.openpnp.machine.reference.camera.BufferedImageCamera;
+import org.openpnp.model.Configuration;
+import org.openpnp.spi.Camera.SettleOption;
+import org.openpnp.util.NanosecondTime;
+
+import com.google.common.io.Files;
+
+public class CameraFrameRingTest {
+    static class TestCamera extends BufferedImageCamera {
+        TestCamera() {
+            super(null);
+        }
+
+        long previewFrameWaitMs = 0;
+
+        void setTestImage(BufferedImage image) {
+            setImage(image);
+        }
+
+        void broadcastTestImage(BufferedImage image) {
+            setLastTransformedImage(image);
+        }
+
+        @Override
+        protected long getPreviewFrameWaitMs() {
+            return previewFrameWaitMs;
+        }
+    }
+
+    @Test
+    public void testFrameRing() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        TestCamera camera = new TestCamera();
+        camera.setFrameRingSize(3);
+        assertNull(camera.getLatestFrame());
+
+        BufferedImage image0 = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        camera.setTestImage(image0);
+        camera.captureTransformed();
+        long t = NanosecondTime.getRuntime();
+        assertNull(camera.getFirstFrameAfter(t));
+
+        // Rounded up to 4 frames, fill it, overwriting the first.
+        BufferedImage [] images = new BufferedImage[4];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+            camera.setTestImage(images[i]);
+            camera.captureTransformed();
+        }
+        Frame first = camera.getFirstFrameAfter(t);
+        assertSame(images[0], first.getImage());
+        assertTrue(first.getCaptureTime() >= t);
+        Frame latest = camera.getLatestFrame();
+        assertSame(images[3], latest.getImage());
+        assertEquals(first.getSequence() + 3, latest.getSequence());
+
+        // Captures a new frame, when none is in the ring yet.
+        BufferedImage image1 = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        camera.setTestImage(image1);
+        long t1 = NanosecondTime.getRuntime();
+        assertSame(image1, camera.captureFrameAfter(t1, 1000).getImage());
+
+        // Resizing keeps the most recent frames.
+        Frame before = camera.getLatestFrame();
+        camera.setFrameRingSize(2);
+        assertSame(before, camera.getLatestFrame());
+        assertSame(images[3], camera.getFirstFrameAfter(before.getCaptureTime() - 1000000000L).getImage());
+        camera.setFrameRingSize(8);
+        assertSame(before, camera.getLatestFrame());
+    }
+
+    /**
+     * With the preview running, a frame broadcast after the given time is taken, rather than 
+     * capturing a new one.
+     */
+    @Test
+    public void testCaptureFrameAfterBroadcast() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        TestCamera camera = new TestCamera();
+        camera.previewFrameWaitMs = 5000;
+        BufferedImage captured = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        camera.setTestImage(captured);
+        BufferedImage broadcast = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+
+        long t = NanosecondTime.getRuntime() + 50000000L;
+        Thread preview = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+            }
+            camera.broadcastTestImage(broadcast);
+        });
+        preview.start();
+        Frame frame = camera.captureFrameAfter(t, 1000);
+        preview.join();
+        assertSame(broadcast, frame.getImage());
+        assertTrue(frame.getCaptureTime() >= t);
+    }
+
+    /**
+     * With a capture script, a frame broadcast by the preview was taken without the script, so 
+     * a new one must be captured.
+     */
+    @Test
+    public void testCaptureFrameAfterBroadcastWithScript() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        File script = new File(Configuration.get().getScripting().getEventsDirectory(), 
+                "Camera.BeforeCapture.js");
+        FileUtils.writeStringToFile(script, "// Switch the lights.", StandardCharsets.UTF_8);
+        TestCamera camera = new TestCamera();
+        camera.previewFrameWaitMs = 5000;
+        BufferedImage captured = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        camera.setTestImage(captured);
+        BufferedImage broadcast = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+
+        long t = NanosecondTime.getRuntime();
+        camera.broadcastTestImage(broadcast);
+        assertSame(broadcast, camera.getFirstFrameAfter(t).getImage());
+        Frame frame = camera.captureFrameAfter(t, 1000);
+        assertSame(captured, frame.getImage());
+        assertTrue(frame.isCaptured());
+    }
+
+    /**
+     * The fixed time settling captures through the frame ring.
+     */
+    @Test
+    public void testSettleAndCapture() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        Configuration.get().load();
+        TestCamera camera = new TestCamera();
+        camera.setSettleMethod(SettleMethod.FixedTime);
+        camera.setSettleTimeMs(20);
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        camera.setTestImage(image);
+        long t = NanosecondTime.getRuntime();
+        assertSame(image, camera.settleAndCapture(SettleOption.Settle));
+        Frame frame = camera.getLatestFrame();
+        assertSame(image, frame.getImage());
+        assertTrue(frame.getCaptureTime() - t >= 20000000L);
+    }
+}
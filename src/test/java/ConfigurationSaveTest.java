@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Part;
+
+import com.google.common.io.Files;
+
+public class ConfigurationSaveTest {
+    @Test
+    public void testSave() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+        Configuration.get().save();
+
+        // Mark the files as old, so any rewrite shows in the modification time.
+        File machineFile = new File(workingDirectory, "machine.xml");
+        File partsFile = new File(workingDirectory, "parts.xml");
+        machineFile.setLastModified(1000);
+        partsFile.setLastModified(1000);
+
+        // Unchanged, nothing is written.
+        Configuration.get().save();
+        assertEquals(1000, machineFile.lastModified());
+        assertEquals(1000, partsFile.lastModified());
+
+        // Only the changed file is written.
+        Configuration.get().addPart(new Part("ConfigurationSaveTest"));
+        Configuration.get().save();
+        assertEquals(1000, machineFile.lastModified());
+        assertNotEquals(1000, partsFile.lastModified());
+        assertFalse(new File(workingDirectory, "parts.xml.tmp").exists());
+
+        // Missing files are always written.
+        machineFile.delete();
+        Configuration.get().save();
+        assertNotEquals(1000, machineFile.lastModified());
+    }
+
+    @Test
+    public void testSaveAsync() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        File partsFile = new File(workingDirectory, "parts.xml");
+        partsFile.setLastModified(1000);
+        Configuration.get().addPart(new Part("ConfigurationSaveTest1"));
+        CompletableFuture<Void> future = Configuration.get().saveAsync();
+        Configuration.get().addPart(new Part("ConfigurationSaveTest2"));
+        // Coalesced into the pending save.
+        assertSame(future, Configuration.get().saveAsync());
+        // Changed after the save was requested, so not part of it.
+        Configuration.get().addPart(new Part("ConfigurationSaveTest3"));
+        future.get(10, TimeUnit.SECONDS);
+        assertNotEquals(1000, partsFile.lastModified());
+        String parts = new String(java.nio.file.Files.readAllBytes(partsFile.toPath()), "UTF-8");
+        assertTrue(parts.contains("ConfigurationSaveTest2"));
+        assertFalse(parts.contains("ConfigurationSaveTest3"));
+    }
+
+    @Test
+    public void testSaveAfterSaveAsync() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        File partsFile = new File(workingDirectory, "parts.xml");
+        Configuration.get().addPart(new Part("ConfigurationSaveTest1"));
+        CompletableFuture<Void> future = Configuration.get().saveAsync();
+        // The synchronous save overtakes the pending asynchronous save.
+        Configuration.get().addPart(new Part("ConfigurationSaveTest2"));
+        Configuration.get().save();
+        future.get(10, TimeUnit.SECONDS);
+        // The last write wins.
+        String parts = new String(java.nio.file.Files.readAllBytes(partsFile.toPath()), "UTF-8");
+        assertTrue(parts.contains("ConfigurationSaveTest1"));
+        assertTrue(parts.contains("ConfigurationSaveTest2"));
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvStage;
+import org.openpnp.vision.pipeline.stages.ImageCapture;
+import org.openpnp.vision.pipeline.stages.ImageRecall;
+import org.openpnp.vision.pipeline.stages.ScriptRun;
+
+public class CvPipelineTest {
+    static class CreateImage extends CvStage {
+        @Override
+        public Result process(CvPipeline pipeline) throws Exception {
+            return new Result(new Mat(10, 10, CvType.CV_8UC1, new Scalar(1)));
+        }
+    }
+
+    static class OverwriteImage extends CvStage {
+        @Override
+        public Result process(CvPipeline pipeline) throws Exception {
+            pipeline.getWorkingImage().setTo(new Scalar(2));
+            return null;
+        }
+    }
+
+    private CvPipeline createPipeline() {
+        CvPipeline pipeline = new CvPipeline();
+        pipeline.add("create", new CreateImage());
+        pipeline.add("overwrite", new OverwriteImage());
+        ImageRecall recall = new ImageRecall();
+        recall.setImageStageName("create");
+        pipeline.add("recall", recall);
+        pipeline.add("overwrite2", new OverwriteImage());
+        return pipeline;
+    }
+
+    @Test
+    public void testRetainAllResultImages() throws Exception {
+        try (CvPipeline pipeline = createPipeline()) {
+            pipeline.process();
+            assertEquals(1, pipeline.getResult("create").image.get(0, 0)[0]);
+            assertEquals(2, pipeline.getResult("overwrite").image.get(0, 0)[0]);
+            assertEquals(1, pipeline.getResult("recall").image.get(0, 0)[0]);
+            assertEquals(2, pipeline.getResult("overwrite2").image.get(0, 0)[0]);
+        }
+    }
+
+    @Test
+    public void testProductionMode() throws Exception {
+        try (CvPipeline pipeline = createPipeline()) {
+            pipeline.setProductionMode(true);
+            // Process twice, so the second run takes the result images from the Mat pool.
+            long retainedNativeObj = 0;
+            for (int i = 0; i < 2; i++) {
+                pipeline.process();
+                // Referenced by ImageRecall, must be retained unaltered.
+                assertNotNull(pipeline.getResult("create").image);
+                assertEquals(1, pipeline.getResult("create").image.get(0, 0)[0]);
+                if (i == 0) {
+                    retainedNativeObj = pipeline.getResult("create").image.nativeObj;
+                }
+                else {
+                    // The retained image of the first run was recycled.
+                    assertEquals(retainedNativeObj, pipeline.getResult("create").image.nativeObj);
+                }
+                // Not referenced.
+                assertNull(pipeline.getResult("overwrite").image);
+                assertNull(pipeline.getResult("recall").image);
+                assertNull(pipeline.getResult("overwrite2").image);
+                assertEquals(2, pipeline.getWorkingImage().get(0, 0)[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testCapturedImages() throws Exception {
+        try (CvPipeline pipeline = new CvPipeline()) {
+            pipeline.add("capture", new ImageCapture());
+            pipeline.add("overwrite", new OverwriteImage());
+            assertTrue(pipeline.isCaptureSeparable());
+            // No camera set, the pre-captured image must be taken instead of capturing.
+            Map<String, Mat> images = new HashMap<>();
+            images.put("capture", new Mat(10, 10, CvType.CV_8UC3, new Scalar(1, 1, 1)));
+            pipeline.setCapturedImages(images);
+            pipeline.process();
+            assertEquals(1, pipeline.getResult("capture").image.get(0, 0)[0]);
+            assertEquals(2, pipeline.getWorkingImage().get(0, 0)[0]);
+            // Taken, so the next run would capture again, and fail for lack of a camera.
+            assertNull(pipeline.takeCapturedImage("capture"));
+
+            pipeline.add("script", new ScriptRun());
+            assertFalse(pipeline.isCaptureSeparable());
+        }
+    }
+}
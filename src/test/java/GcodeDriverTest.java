@@ -1,4 +1,8 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 
@@ -9,7 +13,9 @@ import org.openpnp.machine.reference.ReferenceActuator;
 import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.machine.reference.driver.AbstractReferenceDriver.CommunicationsType;
 import org.openpnp.machine.reference.driver.GcodeDriver;
+import org.openpnp.machine.reference.driver.GcodeDriver.Command;
 import org.openpnp.machine.reference.driver.GcodeDriver.CommandType;
+import org.openpnp.machine.reference.driver.GcodeDriver.ResponseRegex;
 import org.openpnp.machine.reference.driver.TcpCommunications;
 import org.openpnp.model.Configuration;
 import org.openpnp.spi.Actuator;
@@ -171,6 +177,33 @@ public class GcodeDriverTest {
         }
     }
     
+    @Test
+    public void testResponseRegex() throws Exception {
+        // Literal prefix regexes are matched without the regex engine, but must behave the same.
+        for (String regex : new String[] { "^ok.*", "^error:.*$", "^(ok|done).*", "^X:(?<X>-?\\d+\\.\\d+).*" }) {
+            ResponseRegex responseRegex = new ResponseRegex(regex);
+            for (String line : new String[] { "ok", "ok T:21.0 /0.0", "nok", "o", "", "error:2", 
+                    "done", "X:12.500 Y:3.000", "ok\rok" }) {
+                assertEquals(line.matches(regex), responseRegex.matches(line), regex+" on "+line);
+            }
+        }
+    }
+
+    @Test
+    public void testResponseRegexInvalidatedOnEdit() throws Exception {
+        Machine machine = Configuration.get().getMachine();
+        GcodeDriver driver = (GcodeDriver) ((ReferenceMachine) machine).getDefaultDriver();
+        Command command = driver.getCommand(null, CommandType.COMMAND_CONFIRM_REGEX, true);
+        ResponseRegex responseRegex = command.getResponseRegex();
+        assertSame(responseRegex, command.getResponseRegex());
+        assertTrue(responseRegex.matches("ok"));
+
+        driver.setCommand(null, CommandType.COMMAND_CONFIRM_REGEX, "^done.*");
+        assertNotSame(responseRegex, command.getResponseRegex());
+        assertFalse(command.getResponseRegex().matches("ok"));
+        assertTrue(command.getResponseRegex().matches("done"));
+    }
+
     @AfterEach
     public void after() throws Exception {
         /**
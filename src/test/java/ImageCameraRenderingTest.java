@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.openpnp.machine.reference.SimulationModeMachine;
+import org.openpnp.machine.reference.camera.ImageCamera;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+
+import com.google.common.io.Files;
+
+public class ImageCameraRenderingTest {
+    static File workingDirectory;
+
+    static class TestCamera extends ImageCamera {
+        BufferedImage render(boolean openCvRendering, Location location, int width, int height) {
+            setOpenCvRendering(openCvRendering);
+            return locationCapture(location, width, height, false);
+        }
+    }
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        nu.pattern.OpenCV.loadLocally();
+        workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        // A simulated machine with camera noise, so the exposure is simulated.
+        FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/SampleJobTest/machine.xml"),
+                new File(workingDirectory, "machine.xml"));
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+    }
+
+    @Test
+    public void testGraySource() throws Exception {
+        compareRenderers(BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    @Test
+    public void testColorSource() throws Exception {
+        compareRenderers(BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Renders the same view of a source image with the Java2D and the OpenCV renderer and checks
+     * that the frames are the same, up to rounding.
+     */
+    private void compareRenderers(int sourceType) throws Exception {
+        BufferedImage source = new BufferedImage(200, 200, sourceType);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int level = (x + 2*y) % 256;
+                source.setRGB(x, y, (level << 16) | ((255 - level) << 8) | (level/2));
+            }
+        }
+        File sourceFile = new File(workingDirectory, "source-"+sourceType+".png");
+        ImageIO.write(source, "png", sourceFile);
+
+        TestCamera camera = new TestCamera();
+        camera.setSourceUri(sourceFile.toURI().toURL().toString());
+        camera.open();
+        try {
+            // Look at the center of the source image.
+            Location upp = camera.getImageUnitsPerPixel().convertToUnits(LengthUnit.Millimeters);
+            Location location = new Location(LengthUnit.Millimeters,
+                    100*upp.getX(), 100*upp.getY(), 0, 0);
+            BufferedImage java2dFrame = camera.render(false, location, 64, 48);
+            BufferedImage openCvFrame = camera.render(true, location, 64, 48);
+            assertEquals(java2dFrame.getWidth(), openCvFrame.getWidth());
+            assertEquals(java2dFrame.getHeight(), openCvFrame.getHeight());
+            int compared = 0;
+            for (int y = 2; y < java2dFrame.getHeight() - 2; y++) {
+                for (int x = 2; x < java2dFrame.getWidth() - 2; x++) {
+                    int rgb1 = java2dFrame.getRGB(x, y);
+                    int rgb2 = openCvFrame.getRGB(x, y);
+                    for (int shift = 0; shift <= 16; shift += 8) {
+                        int c1 = (rgb1 >> shift) & 0xff;
+                        int c2 = (rgb2 >> shift) & 0xff;
+                        assertTrue(Math.abs(c1 - c2) <= 2,
+                                "pixel "+x+","+y+" differs: "+Integer.toHexString(rgb1)+" vs. "+Integer.toHexString(rgb2));
+                    }
+                    compared++;
+                }
+            }
+            assertTrue(compared > 0);
+        }
+        finally {
+            camera.close();
+        }
+    }
+
+    /**
+     * The simulated exposure must work on gray as well as on color frames.
+     */
+    @Test
+    public void testExposureChannels() throws Exception {
+        TestCamera camera = new TestCamera();
+        for (int type : new int[] { CvType.CV_8UC1, CvType.CV_8UC3 }) {
+            Mat frame = new Mat(48, 64, type, new Scalar(100, 100, 100));
+            for (int i = 0; i < 10; i++) {
+                SimulationModeMachine.simulateCameraExposure(camera, frame);
+            }
+            assertEquals(type, frame.type());
+            frame.release();
+        }
+    }
+}
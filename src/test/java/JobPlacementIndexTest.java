@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.JobPlacementIndex;
+import org.openpnp.model.BoardLocation;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+import org.openpnp.model.Part;
+import org.openpnp.model.Placement;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement.Status;
+
+import com.google.common.io.Files;
+
+public class JobPlacementIndexTest {
+    private static JobPlacement createJobPlacement(String id, Part part, int rank) {
+        Placement placement = new Placement(id);
+        placement.setPart(part);
+        placement.setRank(rank);
+        return new JobPlacement(new BoardLocation(), placement);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        Part part = new Part("P1");
+        JobPlacement r1a = createJobPlacement("R1A", part, 1);
+        JobPlacement r20 = createJobPlacement("R20", part, 20);
+        JobPlacement r1b = createJobPlacement("R1B", part, 1);
+
+        JobPlacementIndex index = new JobPlacementIndex();
+        for (JobPlacement jobPlacement : Arrays.asList(r1a, r20, r1b)) {
+            index.add(jobPlacement);
+        }
+        assertEquals(1, index.getCurrentRank(0));
+        // Job order is kept.
+        assertEquals(Arrays.asList(r1a, r20, r1b), index.getPendingJobPlacements());
+        // Rank 20 is blocked.
+        assertEquals(Arrays.asList(r1a, r1b), index.getOpenPendingJobPlacements(11));
+        assertTrue(index.hasOpenPendingJobPlacements(11));
+
+        r1a.setStatus(Status.Processing);
+        r1b.setStatus(Status.Processing);
+        assertEquals(Arrays.asList(r20), index.getPendingJobPlacements());
+        assertFalse(index.hasOpenPendingJobPlacements(11));
+        assertEquals(1, index.getCurrentRank(0));
+
+        // Retry.
+        r1b.setStatus(Status.Pending);
+        assertEquals(Arrays.asList(r20, r1b), index.getPendingJobPlacements());
+        r1b.setStatus(Status.Processing);
+
+        r1a.setStatus(Status.Complete);
+        r1b.setStatus(Status.Complete);
+        assertEquals(20, index.getCurrentRank(0));
+        assertTrue(index.hasOpenPendingJobPlacements(30));
+
+        r20.setStatus(Status.Processing);
+        r20.setError(new Exception("test"));
+        // Errored placements block.
+        assertEquals(20, index.getCurrentRank(0));
+        assertFalse(index.hasOpenPendingJobPlacements(30));
+
+        index.clear();
+        assertEquals(0, index.getCurrentRank(0));
+        assertTrue(index.getPendingJobPlacements().isEmpty());
+    }
+
+    @Test
+    public void testPickLocationCache() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        Configuration.initialize(new File(workingDirectory, ".openpnp"));
+        Part part = new Part("P1");
+        JobPlacement jobPlacement = createJobPlacement("R1", part, 0);
+        JobPlacementIndex index = new JobPlacementIndex();
+        index.add(jobPlacement);
+
+        assertNull(index.getPickLocation(part));
+        index.putPickLocation(part, new Location(LengthUnit.Millimeters, 1, 2, 0, 0));
+        assertNotNull(index.getPickLocation(part));
+
+        // The part is fed, so the pick location is invalidated.
+        jobPlacement.setStatus(Status.Processing);
+        assertNull(index.getPickLocation(part));
+    }
+}
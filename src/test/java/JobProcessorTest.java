@@ -13,9 +13,12 @@ import org.jcodec.api.awt.SequenceEncoder;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.openpnp.machine.reference.LookAheadPnpJobPlanner;
 import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.machine.reference.ReferencePnpJobProcessor;
 import org.openpnp.machine.reference.vision.ReferenceBottomVision;
+import org.openpnp.spi.Head;
 import org.openpnp.spi.Locatable.LocationOption;
 import org.openpnp.spi.PnpJobPlanner;
 import org.openpnp.spi.PnpJobProcessor.JobPlacement;
@@ -311,6 +314,65 @@ public class JobProcessorTest {
         assertEquals(27, partChanges(), 3);
     }
 
+    @Test
+    public void testLookAheadPlanner() throws Exception {
+        // The LookAheadPnpJobPlanner must keep the ranks and group the nozzle tips at least as well
+        // as the SimplePnpJobPlanner does in the baseline test.
+        setup("testLookAheadPlanner");
+        jobProcessor.planner = new LookAheadPnpJobPlanner();
+        run();
+        saveCsv();
+        saveSvg();
+        checkRanks();
+        assertTrue(tipChanges() <= 3);
+    }
+
+    @Test
+    public void testLookAheadPlannerPrepared() throws Exception {
+        // The job processor lets the planner schedule the whole job in the PreFlight step, with the 
+        // same placements the first plan() call gets.
+        setup("testLookAheadPlannerPrepared");
+        List<List<JobPlacement>> prepared = new ArrayList<>();
+        List<List<JobPlacement>> planned = new ArrayList<>();
+        jobProcessor.planner = new LookAheadPnpJobPlanner() {
+            @Override
+            public void prepare(Head head, List<JobPlacement> jobPlacements, List<NozzleTip> nozzleTips) {
+                prepared.add(new ArrayList<>(jobPlacements));
+                super.prepare(head, jobPlacements, nozzleTips);
+            }
+
+            @Override
+            public List<PlannedPlacement> plan(Head head, List<JobPlacement> jobPlacements, 
+                    List<NozzleTip> nozzleTips) {
+                planned.add(new ArrayList<>(jobPlacements));
+                return super.plan(head, jobPlacements, nozzleTips);
+            }
+        };
+        run();
+        checkRanks();
+        assertEquals(1, prepared.size());
+        assertTrue(planned.size() > 0);
+        assertEquals(new HashSet<>(prepared.get(0)), new HashSet<>(planned.get(0)));
+        assertTrue(tipChanges() <= 3);
+    }
+
+    @Test
+    public void testLookAheadPlannerRankRounded() throws Exception {
+        setup("testLookAheadPlannerRankRounded");
+        jobProcessor.planner = new LookAheadPnpJobPlanner();
+        for (BoardLocation boardLocation : job.getBoardLocations()) {
+            for (Placement placement : boardLocation.getBoard().getPlacements()) {
+                int rank = Integer.parseInt(placement.getId().substring(1));
+                placement.setRank(rank-rank%5);
+            }
+        }
+        run();
+        saveCsv();
+        saveSvg();
+        checkRanks();
+        assertTrue(tipChanges() <= 5);
+    }
+
     private void setup(String testName) throws Exception {
         this.testName = testName;
         workingDirectory = Files.createTempDir();
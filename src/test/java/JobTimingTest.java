@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.util.JobTiming;
+import org.openpnp.util.JobTimingReport;
+import org.openpnp.util.JobTimingReport.Cycle;
+
+import com.google.common.io.Files;
+
+public class JobTimingTest {
+    @Test
+    public void testRingBuffer() {
+        JobTiming timing = new JobTiming(5);
+        assertEquals(8, timing.getCapacity());
+        for (int i = 0; i < 10; i++) {
+            timing.record(JobTiming.FEED, i*1000, i*1000 + i);
+        }
+        assertEquals(2, timing.getDropped());
+        List<JobTiming.Entry> entries = timing.getEntries();
+        assertEquals(8, entries.size());
+        // Oldest retained first.
+        assertEquals(2000, entries.get(0).getStartTime());
+        assertEquals(9, entries.get(7).getDuration());
+    }
+
+    @Test
+    public void testInactive() {
+        JobTiming timing = JobTiming.start();
+        timing.stop();
+        assertNull(JobTiming.getActive());
+        assertEquals(0, JobTiming.begin());
+        JobTiming.end(JobTiming.FEED, 1);
+        JobTiming.placed();
+        assertEquals(0, timing.getEntries().size());
+        assertEquals(0, timing.getPlacements());
+    }
+
+    @Test
+    public void testExcludedTime() throws Exception {
+        JobTiming timing = JobTiming.start();
+        long wallTime0 = System.nanoTime();
+        try {
+            long t0 = JobTiming.begin();
+            Thread.sleep(20);
+            // 10ms of it were spent in a nested operation, timed on its own.
+            JobTiming.end(JobTiming.VISION_PIPELINE, t0, 10_000_000);
+        }
+        finally {
+            timing.stop();
+        }
+        long wallTime = System.nanoTime() - wallTime0;
+        List<JobTiming.Entry> entries = timing.getEntries();
+        assertEquals(1, entries.size());
+        assertTrue(entries.get(0).getDuration() >= 10_000_000);
+        assertTrue(entries.get(0).getDuration() <= wallTime - 10_000_000 + 1_000_000);
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        JobTiming timing = new JobTiming(64);
+        // Two cycles of 10ms, with feeds of 1ms and 3ms in the first and 2ms in the second.
+        timing.record(JobTiming.FEED, 1_000_000, 2_000_000);
+        timing.record(JobTiming.FEED, 4_000_000, 7_000_000);
+        timing.record(JobTiming.CYCLE, 0, 10_000_000);
+        timing.record(JobTiming.FEED, 11_000_000, 13_000_000);
+        timing.record(JobTiming.CYCLE, 10_000_000, 20_000_000);
+        timing.addPlacement();
+        timing.addPlacement();
+        timing.stop();
+
+        JobTimingReport report = new JobTimingReport(timing);
+        assertEquals(2, report.getPlacements());
+        JobTimingReport.OperationStatistics feed = report.getOperations().get(JobTiming.FEED);
+        assertEquals(3, feed.getCount());
+        assertEquals(6.0, feed.getTotalMs(), 1e-9);
+        assertEquals(2.0, feed.getP50Ms(), 1e-9);
+        assertEquals(3.0, feed.getMaxMs(), 1e-9);
+
+        List<Cycle> cycles = report.getCycles();
+        assertEquals(2, cycles.size());
+        assertEquals(4.0, cycles.get(0).getOperationsMs().get(JobTiming.FEED), 1e-9);
+        assertEquals(2.0, cycles.get(1).getOperationsMs().get(JobTiming.FEED), 1e-9);
+
+        int[] histogram = report.getHistogram(JobTiming.FEED, 3);
+        assertArrayEquals(new int[] { 0, 1, 2 }, histogram);
+
+        StringWriter csv = new StringWriter();
+        report.writeCsv(csv);
+        assertEquals("Cycle,CycleMs,FeedMs\n1,10.000,4.000\n2,10.000,2.000\n", csv.toString());
+    }
+
+    @Test
+    public void testReportRetention() throws Exception {
+        File directory = new File(Files.createTempDir(), "jobtiming");
+        directory.mkdirs();
+        // Older reports, and an unrelated file.
+        for (String name : new String[] { "job-timing-20200101-000000", "job-timing-20200102-000000", 
+                "job-timing-20200103-000000" }) {
+            new File(directory, name + ".csv").createNewFile();
+            new File(directory, name + ".json").createNewFile();
+        }
+        File other = new File(directory, "other.txt");
+        other.createNewFile();
+
+        JobTiming timing = new JobTiming(8);
+        timing.stop();
+        File file = new JobTimingReport(timing).save(directory, 2);
+        assertTrue(file.exists());
+        assertTrue(other.exists());
+        assertTrue(new File(directory, "job-timing-20200103-000000.json").exists());
+        assertFalse(new File(directory, "job-timing-20200102-000000.csv").exists());
+        assertFalse(new File(directory, "job-timing-20200101-000000.json").exists());
+        assertEquals(5, directory.listFiles().length);
+    }
+}
@@ -0,0 +1,192 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.ReferenceMachine;
+import org.openpnp.machine.reference.ReferenceNozzle;
+import org.openpnp.machine.reference.ReferenceNozzleTip;
+import org.openpnp.machine.reference.ReferenceNozzleTipCalibration;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Part;
+import org.openpnp.spi.Camera;
+import org.openpnp.spi.Nozzle;
+
+import com.google.common.io.Files;
+
+public class NozzleTipCalibrationHomeTest {
+    /**
+     * A nozzle that can be made to hold a part, so the calibration fails.
+     */
+    public static class TestNozzle extends ReferenceNozzle {
+        void holdPart(Part part) {
+            setPart(part);
+        }
+    }
+
+    /**
+     * Loads the simulated machine of the SampleJobTest, with a second nozzle N2 20mm beside N1,
+     * that has its own nozzle tip NT2, calibrated on homing like NT1.
+     */
+    private ReferenceMachine loadTwoNozzleMachine() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        String xml = IOUtils.toString(ClassLoader.getSystemResource("config/SampleJobTest/machine.xml"),
+                StandardCharsets.UTF_8);
+
+        // Clone the nozzle.
+        int nozzleBegin = xml.indexOf("<nozzle class=\"org.openpnp.machine.reference.ReferenceNozzle\"");
+        int nozzleEnd = xml.indexOf("</nozzle>", nozzleBegin) + "</nozzle>".length();
+        String nozzle = xml.substring(nozzleBegin, nozzleEnd)
+                .replace("org.openpnp.machine.reference.ReferenceNozzle", TestNozzle.class.getName());
+        String nozzle2 = nozzle
+                .replace("id=\"N1\" name=\"N1\"", "id=\"N2\" name=\"N2\"")
+                .replace("current-nozzle-tip-id=\"NT1\"", "current-nozzle-tip-id=\"NT2\"")
+                .replace("<string>NT1</string>", "<string>NT2</string>")
+                .replace("<head-offsets units=\"Millimeters\" x=\"0.0\"", "<head-offsets units=\"Millimeters\" x=\"20.0\"");
+        xml = xml.substring(0, nozzleBegin) + nozzle + "\n" + nozzle2 + xml.substring(nozzleEnd);
+
+        // Clone the nozzle tip.
+        int nozzleTipBegin = xml.indexOf("<nozzle-tip class=\"org.openpnp.machine.reference.ReferenceNozzleTip\" id=\"NT1\"");
+        int nozzleTipEnd = xml.indexOf("</nozzle-tip>", nozzleTipBegin) + "</nozzle-tip>".length();
+        String nozzleTip2 = xml.substring(nozzleTipBegin, nozzleTipEnd)
+                .replace("id=\"NT1\" name=\"NT1\"", "id=\"NT2\" name=\"NT2\"");
+        xml = xml.substring(0, nozzleTipEnd) + "\n" + nozzleTip2 + xml.substring(nozzleTipEnd);
+
+        FileUtils.writeStringToFile(new File(workingDirectory, "machine.xml"), xml, StandardCharsets.UTF_8);
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        ReferenceMachine machine = (ReferenceMachine) Configuration.get().getMachine();
+        // Like in the SampleJobTest, let the simulated camera get ready.
+        Camera camera = machine.getDefaultHead().getDefaultCamera();
+        for (int i = 0; i < 2; i++) {
+            try {
+                camera.capture();
+            }
+            catch (Exception e) {
+            }
+        }
+        assertTrue(machine.getDefaultHead().getNozzles().size() == 2);
+        ReferenceNozzleTipCalibration.resetAllNozzleTips();
+        return machine;
+    }
+
+    private List<ReferenceNozzle> getNozzles(ReferenceMachine machine) {
+        List<ReferenceNozzle> nozzles = new ArrayList<>();
+        for (Nozzle nozzle : machine.getDefaultHead().getNozzles()) {
+            nozzles.add((ReferenceNozzle) nozzle);
+        }
+        return nozzles;
+    }
+
+    private void assertCalibrated(List<ReferenceNozzle> nozzles, boolean calibrated) {
+        for (ReferenceNozzle nozzle : nozzles) {
+            ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
+            assertTrue(nozzleTip.getCalibration().isCalibrated(nozzle) == calibrated,
+                    nozzle.getName()+" with "+nozzleTip.getName()+(calibrated ? " not calibrated" : " calibrated"));
+        }
+    }
+
+    /**
+     * Homes the two nozzle head and checks that both the nozzle tips were calibrated in the
+     * combined pass.
+     */
+    @Test
+    public void testCalibrateOnHome() throws Exception {
+        ReferenceMachine machine = loadTwoNozzleMachine();
+        List<ReferenceNozzle> nozzles = getNozzles(machine);
+        assertCalibrated(nozzles, false);
+
+        machine.setEnabled(true);
+        machine.home();
+        assertCalibrated(nozzles, true);
+    }
+
+    /**
+     * Calibrates the nozzles directly, the captures of one nozzle are processed while the next one
+     * is captured, then all are applied.
+     */
+    @Test
+    public void testCalibrateAll() throws Exception {
+        ReferenceMachine machine = loadTwoNozzleMachine();
+        List<ReferenceNozzle> nozzles = getNozzles(machine);
+        machine.setEnabled(true);
+        machine.home();
+        ReferenceNozzleTipCalibration.resetAllNozzleTips();
+        assertCalibrated(nozzles, false);
+
+        Map<ReferenceNozzle, Exception> failures = machine.execute(() ->
+            ReferenceNozzleTipCalibration.calibrateAll(nozzles, false));
+        assertTrue(failures.isEmpty(), "failures "+failures);
+        assertCalibrated(nozzles, true);
+
+        // A nozzle holding a part fails, the other is still calibrated.
+        ReferenceNozzleTipCalibration.resetAllNozzleTips();
+        ((TestNozzle) nozzles.get(0)).holdPart(new Part("P1"));
+        failures = machine.execute(() ->
+            ReferenceNozzleTipCalibration.calibrateAll(nozzles, false));
+        assertTrue(failures.keySet().equals(Collections.singleton(nozzles.get(0))), "failures "+failures);
+        assertFalse(nozzles.get(0).getCalibrationNozzleTip().getCalibration().isCalibrated(nozzles.get(0)));
+        assertTrue(nozzles.get(1).getCalibrationNozzleTip().getCalibration().isCalibrated(nozzles.get(1)));
+    }
+
+    /**
+     * Nozzles without a loaded nozzle tip are both calibrated with the "unloaded" nozzle tip 
+     * stand-in, i.e. they share the same calibration.
+     */
+    @Test
+    public void testCalibrateAllUnloaded() throws Exception {
+        ReferenceMachine machine = loadTwoNozzleMachine();
+        List<ReferenceNozzle> nozzles = getNozzles(machine);
+        machine.setEnabled(true);
+        machine.home();
+        ReferenceNozzleTip standin = (ReferenceNozzleTip) machine.getNozzleTip("NT2");
+        standin.setName("unloaded");
+        for (ReferenceNozzle nozzle : nozzles) {
+            if (!nozzle.getCompatibleNozzleTips().contains(standin)) {
+                nozzle.addCompatibleNozzleTip(standin);
+            }
+            nozzle.setNozzleTip(null);
+            assertSame(standin, nozzle.getCalibrationNozzleTip());
+        }
+        ReferenceNozzleTipCalibration.resetAllNozzleTips();
+        assertCalibrated(nozzles, false);
+
+        Map<ReferenceNozzle, Exception> failures = machine.execute(() ->
+            ReferenceNozzleTipCalibration.calibrateAll(nozzles, false));
+        assertTrue(failures.isEmpty(), "failures "+failures);
+        assertCalibrated(nozzles, true);
+    }
+
+    /**
+     * Both nozzles fail their calibration on homing, both failures must be reported.
+     */
+    @Test
+    public void testCalibrateOnHomeFailures() throws Exception {
+        ReferenceMachine machine = loadTwoNozzleMachine();
+        List<ReferenceNozzle> nozzles = getNozzles(machine);
+        for (ReferenceNozzle nozzle : nozzles) {
+            nozzle.getCalibrationNozzleTip().getCalibration().setFailHoming(true);
+            ((TestNozzle) nozzle).holdPart(new Part("P1"));
+        }
+
+        machine.setEnabled(true);
+        Exception e = assertThrows(Exception.class, () -> machine.home());
+        String messages = "";
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            messages += t.getMessage()+"\n";
+        }
+        assertTrue(messages.contains("N1") && messages.contains("N2"), messages);
+    }
+}
@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.camera.SettlePrediction;
+
+public class SettlePredictionTest {
+    @Test
+    public void testBuckets() {
+        assertEquals(0, SettlePrediction.getBucketIndex(0.5));
+        assertEquals(1, SettlePrediction.getBucketIndex(1.0));
+        assertEquals(2, SettlePrediction.getBucketIndex(3.9));
+        assertEquals(9, SettlePrediction.getBucketIndex(300));
+    }
+
+    @Test
+    public void testPrediction() {
+        SettlePrediction prediction = new SettlePrediction();
+        for (int i = 0; i < 4; i++) {
+            prediction.learn("X", 300, 120);
+            prediction.learn("X", 3, 20);
+        }
+        // Not enough samples yet.
+        assertNull(prediction.predict("X", 3, 5));
+        prediction.learn("X", 300, 120);
+        // Short move borrows from the long move, as long as it has not learned its own.
+        assertEquals(120, prediction.predict("X", 3, 5), 1e-6);
+        prediction.learn("X", 3, 20);
+        assertEquals(20, prediction.predict("X", 3, 5), 1e-6);
+        // Other axes are unknown.
+        assertNull(prediction.predict("Y", 3, 5));
+        // Variance adds a margin.
+        prediction.learn("X", 3, 40);
+        assertTrue(prediction.predict("X", 3, 5) > 24);
+    }
+}
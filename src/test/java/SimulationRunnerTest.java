@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.SimulationRunner;
+import org.openpnp.util.NanosecondTime;
+
+import com.google.common.io.Files;
+
+public class SimulationRunnerTest {
+    @Test
+    public void testVirtualClock() throws Exception {
+        NanosecondTime.setVirtualClock(true);
+        try {
+            long t0 = NanosecondTime.getRuntime();
+            long wallTime0 = System.nanoTime();
+            NanosecondTime.sleep(10000);
+            assertTrue(NanosecondTime.getRuntime() - t0 >= 10_000_000_000L);
+            assertTrue(System.nanoTime() - wallTime0 < 5_000_000_000L);
+        }
+        finally {
+            NanosecondTime.setVirtualClock(false);
+        }
+    }
+
+    @Test
+    public void testVirtualClockOtherThread() throws Exception {
+        NanosecondTime.setVirtualClock(true);
+        try {
+            long t0 = NanosecondTime.getRuntime();
+            // Sleeps on other threads take real time and do not advance the virtual clock.
+            Thread thread = new Thread(() -> {
+                try {
+                    NanosecondTime.sleep(100);
+                }
+                catch (InterruptedException e) {
+                }
+            });
+            thread.start();
+            thread.join();
+            long dt = NanosecondTime.getRuntime() - t0;
+            assertTrue(dt >= 100_000_000L);
+            assertTrue(dt < 5_000_000_000L);
+        }
+        finally {
+            NanosecondTime.setVirtualClock(false);
+        }
+    }
+
+    @Test
+    public void testVirtualClockOnBehalf() throws Exception {
+        NanosecondTime.setVirtualClock(true);
+        try {
+            long t0 = NanosecondTime.getRuntime();
+            long wallTime0 = System.nanoTime();
+            // A simulated controller dwells on behalf of the blocked clock thread.
+            Thread thread = new Thread(() -> {
+                try {
+                    NanosecondTime.sleepOnBehalf(10000);
+                }
+                catch (InterruptedException e) {
+                }
+            });
+            thread.start();
+            thread.join();
+            assertTrue(NanosecondTime.getRuntime() - t0 >= 10_000_000_000L);
+            assertTrue(System.nanoTime() - wallTime0 < 5_000_000_000L);
+        }
+        finally {
+            NanosecondTime.setVirtualClock(false);
+        }
+    }
+
+    /**
+     * Runs the pnp-test sample job on the default machine, which uses the NullDriver.
+     */
+    @Test
+    public void testSampleJob() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        File jobFile = new File("samples");
+        jobFile = new File(jobFile, "pnp-test");
+        jobFile = new File(jobFile, "pnp-test.job.xml");
+
+        SimulationRunner.Result result = new SimulationRunner(workingDirectory, jobFile).run();
+        assertTrue(result.getPlacements() > 0);
+        assertTrue(result.getMotionSeconds() > 0);
+        assertTrue(result.getMachineSeconds() > 0);
+        assertTrue(!NanosecondTime.isVirtualClock());
+    }
+}
@@ -17,11 +17,18 @@
  * For more information about OpenPnP visit http://openpnp.org
  */
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.File;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
@@ -68,6 +75,67 @@ public class TavellingSalesmanTest {
         test("C",new Length(3000, LengthUnit.Millimeters), new Length(3000, LengthUnit.Millimeters), new double [] { 2870, 5000, 11500 });
     }
 
+    /**
+     * Test the ParallelMultiStart solver against the Simulated Annealing solver, on the linear distance. 
+     * The route must be a permutation of the input, no longer than the Simulated Annealing route, and 
+     * repeatable with the same number of chains.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testTravellingSalesmanParallelMultiStart() throws Exception {
+        Random rnd = new java.util.Random(42);
+        List<Location> list = new ArrayList<Location>();
+        for (int i = 0; i < 80; i++) {
+            list.add(new Location(LengthUnit.Millimeters, rnd.nextDouble()*1000.0, rnd.nextDouble()*500.0, 0.0, 0.0));
+        }
+        double annealingDistance = createSolver(list).solve();
+
+        List<Location> travel = null;
+        for (int run = 0; run < 2; run++) {
+            TravellingSalesman<Location> tsm = createSolver(list);
+            tsm.setSolverMode(TravellingSalesman.SolverMode.ParallelMultiStart);
+            double parallelDistance = tsm.solveParallel(4, 60000);
+            System.out.println("TavellingSalesmanTest.testTravellingSalesmanParallelMultiStart() run "+run+" distance: "+parallelDistance+" mm, simulated annealing: "+annealingDistance+" mm, time: "+tsm.getSolverDuration()+"ms");
+
+            // Must be a permutation of the input.
+            List<Location> solved = tsm.getTravel();
+            assertEquals(list.size(), solved.size());
+            Set<Location> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            visited.addAll(solved);
+            assertEquals(list.size(), visited.size());
+            for (Location location : list) {
+                assertTrue(visited.contains(location));
+            }
+            // Must be no longer than the Simulated Annealing route.
+            assertTrue(parallelDistance <= annealingDistance + 1e-6, 
+                    "ParallelMultiStart distance "+parallelDistance+" longer than Simulated Annealing "+annealingDistance);
+            // Must be repeatable.
+            if (travel != null) {
+                for (int i = 0; i < travel.size(); i++) {
+                    assertSame(travel.get(i), solved.get(i));
+                }
+            }
+            travel = solved;
+        }
+    }
+
+    private TravellingSalesman<Location> createSolver(List<Location> list) {
+        TravellingSalesman<Location> tsm = new TravellingSalesman<>(
+                list, 
+                new TravellingSalesman.Locator<Location>() { 
+                    @Override
+                    public Location getLocation(Location locatable) {
+                        return locatable;
+                    }
+                }, 
+                new Location(LengthUnit.Millimeters), 
+                new Location(LengthUnit.Millimeters));
+        // Solve for the linear distance, independent of any machine configuration.
+        tsm.setTravelCost(null);
+        return tsm;
+    }
+
     public void test(String name,Length xacceleration, Length yacceleration, double targets[]) throws Exception {
         File workingDirectory = Files.createTempDir();
         workingDirectory = new File(workingDirectory, ".openpnp");
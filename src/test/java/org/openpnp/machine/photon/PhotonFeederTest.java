@@ -612,6 +612,38 @@ public class PhotonFeederTest {
         bus.verifyInMockedOrder();
     }
 
+    @Test
+    public void feedAfterPrepareFeedOnlyWaitsForTheFeed() throws Exception {
+        feeder.setHardwareId(hardwareId);
+        feeder.setPartPitch(2);
+        feeder.setOffset(feederOffset);
+        feeder.setSlotAddress(feederAddress);
+        feeder.setMoveWhileFeeding(false);
+        setSlotLocation(feederAddress, baseLocation);
+
+        InitializeFeeder initializeFeeder = new InitializeFeeder(feederAddress, hardwareId);
+        bus.when(initializeFeeder)
+                .reply(responses.initializeFeeder.ok(feederAddress, hardwareId));
+
+        MoveFeedForward moveFeedForward = new MoveFeedForward(feederAddress, 20);
+        bus.when(moveFeedForward)
+                .reply(responses.moveFeedForward.ok(feederAddress, 0));
+
+        MoveFeedStatus moveFeedStatus = new MoveFeedStatus(feederAddress);
+        bus.when(moveFeedStatus)
+                .reply(responses.moveFeedStatus.ok(feederAddress));
+
+        assertTrue(feeder.prepareFeed());
+        // Only one feed can be prepared.
+        assertFalse(feeder.prepareFeed());
+        feeder.feed(mockedNozzle);
+
+        bus.verify(initializeFeeder)
+                .then(moveFeedForward)
+                .then(moveFeedStatus)
+                .nothingElseSent();
+    }
+
     @Test
     public void feedInitializesIfUninitializedErrorIsReturned() throws Exception {
         feeder.setHardwareId(hardwareId);
@@ -975,6 +1007,84 @@ public class PhotonFeederTest {
         bus.verifyInMockedOrder();
     }
 
+    @Test
+    public void initializeAllInitializesFeedersWithSlotAddress() throws Exception {
+        String otherHardwareId = "FFEEDDCCBBAA998877665544";
+        int otherFeederAddress = 7;
+        feeder.setHardwareId(hardwareId);
+        feeder.setSlotAddress(feederAddress);
+
+        PhotonFeeder otherFeeder = new PhotonFeeder();
+        otherFeeder.setHardwareId(otherHardwareId);
+        otherFeeder.setSlotAddress(otherFeederAddress);
+        machine.addFeeder(otherFeeder);
+
+        // Has no slot address, so it is skipped.
+        PhotonFeeder missingFeeder = new PhotonFeeder();
+        missingFeeder.setHardwareId(randomUUID());
+        machine.addFeeder(missingFeeder);
+
+        bus.when(new InitializeFeeder(feederAddress, hardwareId))
+                .reply(responses.initializeFeeder.ok(feederAddress, hardwareId));
+        bus.when(new InitializeFeeder(otherFeederAddress, otherHardwareId)).timeout();
+
+        PhotonFeeder.initializeAll(PhotonFeeder.getAllFeeders());
+
+        assertTrue(feeder.isInitialized());
+        assertFalse(otherFeeder.isInitialized());
+        assertNull(otherFeeder.getSlotAddress());
+        assertFalse(missingFeeder.isInitialized());
+
+        bus.verifyInMockedOrder();
+    }
+
+    @Test
+    public void initializeAllContinuesPastFailures() throws Exception {
+        String otherHardwareId = "FFEEDDCCBBAA998877665544";
+        int otherFeederAddress = 7;
+        feeder.setHardwareId(hardwareId);
+        feeder.setSlotAddress(feederAddress);
+
+        PhotonFeeder otherFeeder = new PhotonFeeder();
+        otherFeeder.setHardwareId(otherHardwareId);
+        otherFeeder.setSlotAddress(otherFeederAddress);
+        machine.addFeeder(otherFeeder);
+
+        // The first feeder's initialization is not mocked, so the bus throws.
+        bus.when(new InitializeFeeder(otherFeederAddress, otherHardwareId))
+                .reply(responses.initializeFeeder.ok(otherFeederAddress, otherHardwareId));
+
+        Exception exception = assertThrows(Exception.class,
+                () -> PhotonFeeder.initializeAll(PhotonFeeder.getAllFeeders()));
+        assertTrue(exception instanceof TestBus.NoPacketMocking);
+
+        assertFalse(feeder.isInitialized());
+        assertTrue(otherFeeder.isInitialized());
+    }
+
+    @Test
+    public void initializeAllFindsFeederInWrongSlot() throws Exception {
+        feeder.setHardwareId(hardwareId);
+        feeder.setSlotAddress(feederAddress);
+        String otherHardwareId = "445566778899AABBCCDDEEFF";
+
+        assertNull(PhotonFeeder.findByHardwareId(otherHardwareId));
+
+        bus.when(new InitializeFeeder(feederAddress, hardwareId))
+                .reply(responses.errors.wrongFeederUUID(feederAddress, otherHardwareId));
+
+        PhotonFeeder.initializeAll(PhotonFeeder.getAllFeeders());
+
+        assertFalse(feeder.isInitialized());
+
+        PhotonFeeder otherFeeder = PhotonFeeder.findByHardwareId(otherHardwareId);
+        assertNotNull(otherFeeder);
+        assertFalse(otherFeeder.initialized);
+        assertEquals(feederAddress, (int) otherFeeder.slotAddress);
+
+        bus.verifyInMockedOrder();
+    }
+
     /**
      * If we go past our max feeder address, we will get an exception from the test bus
      * since it has no mock set up. For everything in range, we just verify that it
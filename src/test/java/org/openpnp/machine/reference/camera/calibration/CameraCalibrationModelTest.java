@@ -0,0 +1,124 @@
+package org.openpnp.machine.reference.camera.calibration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.util.Pair;
+import org.junit.jupiter.api.Test;
+
+public class CameraCalibrationModelTest {
+    private static final int testPatterns = 6;
+    private static final int pointsPerTestPattern = 200;
+
+    private double[][][] testPattern3dPoints;
+    private Set<Integer> outlierPoints;
+    private double[] parameters;
+
+    /**
+     * Lays out synthetic test patterns, alternating between two Z, like the AdvancedCalibration
+     * collects them, and marks some points as outliers.
+     */
+    private void setupTestPatterns() {
+        Random random = new Random(4711);
+        // fx, fy, cx, cy, k1, k2, p1, p2, k3, Rx, Ry, Rz, cam_z, then cam_x, cam_y per test pattern.
+        parameters = new double[13 + 2*testPatterns];
+        parameters[0] = 1400;
+        parameters[1] = 1390;
+        parameters[2] = 640;
+        parameters[3] = 360;
+        parameters[4] = -0.12;
+        parameters[5] = 0.05;
+        parameters[6] = 0.001;
+        parameters[7] = -0.0005;
+        parameters[8] = -0.01;
+        parameters[9] = Math.PI + 0.003;
+        parameters[10] = 0.002;
+        parameters[11] = 0.01;
+        parameters[12] = 40;
+
+        testPattern3dPoints = new double[testPatterns][pointsPerTestPattern][];
+        outlierPoints = new TreeSet<>();
+        int iPoint = 0;
+        for (int iTP = 0; iTP < testPatterns; iTP++) {
+            double camX = 100 + random.nextDouble() - 0.5;
+            double camY = 50 + random.nextDouble() - 0.5;
+            parameters[13 + 2*iTP] = camX;
+            parameters[14 + 2*iTP] = camY;
+            double z = (iTP % 2 == 0) ? 0 : 10;
+            for (int iPt = 0; iPt < pointsPerTestPattern; iPt++) {
+                double angle = 2*Math.PI*random.nextDouble();
+                double r = 5*random.nextDouble();
+                if (random.nextInt(20) == 0) {
+                    // Gross measurement error, to be excluded.
+                    r += 20;
+                    outlierPoints.add(iPoint);
+                }
+                testPattern3dPoints[iTP][iPt] = new double[] {
+                        camX + r*Math.cos(angle),
+                        camY + r*Math.sin(angle),
+                        z };
+                iPoint++;
+            }
+        }
+    }
+
+    private Pair<RealVector, RealMatrix> evaluate(boolean parallel, double[] parameters) {
+        boolean parallelEvaluation = CameraCalibrationUtils.isParallelEvaluation();
+        CameraCalibrationUtils.setParallelEvaluation(parallel);
+        try {
+            return CameraCalibrationUtils.evaluateCameraModel(testPattern3dPoints, outlierPoints,
+                    parameters, 0);
+        }
+        finally {
+            CameraCalibrationUtils.setParallelEvaluation(parallelEvaluation);
+        }
+    }
+
+    @Test
+    public void testParallelEqualsSequential() {
+        setupTestPatterns();
+        Pair<RealVector, RealMatrix> sequential = evaluate(false, parameters);
+        Pair<RealVector, RealMatrix> parallel = evaluate(true, parameters);
+
+        int rows = 2*(testPatterns*pointsPerTestPattern - outlierPoints.size());
+        assertTrue(!outlierPoints.isEmpty());
+        assertEquals(rows, sequential.getFirst().getDimension());
+        assertEquals(rows, sequential.getSecond().getRowDimension());
+        assertArrayEquals(sequential.getFirst().toArray(), parallel.getFirst().toArray());
+        for (int row = 0; row < rows; row++) {
+            assertArrayEquals(sequential.getSecond().getRow(row), parallel.getSecond().getRow(row));
+        }
+    }
+
+    @Test
+    public void testJacobianMatchesFiniteDifferences() {
+        setupTestPatterns();
+        for (boolean parallel : new boolean[] { false, true }) {
+            Pair<RealVector, RealMatrix> model = evaluate(parallel, parameters);
+            RealMatrix jacobian = model.getSecond();
+            for (int iParameter = 0; iParameter < parameters.length; iParameter++) {
+                // Central differences.
+                double h = 1e-6*Math.max(1, Math.abs(parameters[iParameter]));
+                double[] plus = parameters.clone();
+                plus[iParameter] += h;
+                double[] minus = parameters.clone();
+                minus[iParameter] -= h;
+                RealVector valuePlus = evaluate(parallel, plus).getFirst();
+                RealVector valueMinus = evaluate(parallel, minus).getFirst();
+                for (int row = 0; row < jacobian.getRowDimension(); row++) {
+                    double finiteDifference = (valuePlus.getEntry(row) - valueMinus.getEntry(row))/(2*h);
+                    double derivative = jacobian.getEntry(row, iParameter);
+                    assertEquals(finiteDifference, derivative, 1e-4*(1 + Math.abs(derivative)),
+                            "parameter "+iParameter+", row "+row);
+                }
+            }
+        }
+    }
+}
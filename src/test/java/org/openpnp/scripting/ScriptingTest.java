@@ -1,6 +1,12 @@
 package org.openpnp.scripting;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -10,10 +16,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
+import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
 import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.model.Configuration;
 
@@ -211,4 +220,90 @@ public class ScriptingTest {
         }
         System.out.println("All " + numThreads + " threads returned the expected results");
     }
+
+    /**
+     * Checks that compiled scripts are reused by pooled engines and recompiled when the file
+     * changes, and that the event index picks up new scripts.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCompiledScriptCache() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        File scriptsDirectory = new File(workingDirectory, "scripts");
+
+        Configuration.initialize(workingDirectory);
+        Configuration.get()
+                     .load();
+        ReferenceMachine referenceMachine = (ReferenceMachine) Configuration.get()
+                                                                            .getMachine();
+        referenceMachine.setPoolScriptingEngines(true);
+        Scripting scripting = new Scripting(scriptsDirectory);
+
+        ConcurrentHashMap<String, String> testResults = new ConcurrentHashMap<>();
+        HashMap<String, Object> testGlobals = new HashMap<>();
+        testGlobals.put("testResults", testResults);
+
+        File script = new File(scripting.getEventsDirectory(), "testCache.js");
+        FileUtils.writeStringToFile(script, "testResults.put('cache', 'first');",
+                StandardCharsets.UTF_8);
+        script.setLastModified(System.currentTimeMillis() - 10000);
+        assertFalse(scripting.hasNoScript("testCache"));
+        assertTrue(scripting.hasNoScript("testOther"));
+        scripting.on("testCache", testGlobals);
+        assertEquals("first", testResults.get("cache"));
+        testResults.clear();
+        scripting.on("testCache", testGlobals);
+        assertEquals("first", testResults.get("cache"));
+
+        // Same length, but a different modification time.
+        FileUtils.writeStringToFile(script, "testResults.put('cache', 'again');",
+                StandardCharsets.UTF_8);
+        script.setLastModified(System.currentTimeMillis() - 5000);
+        scripting.on("testCache", testGlobals);
+        assertEquals("again", testResults.get("cache"));
+
+        FileUtils.writeStringToFile(new File(scripting.getEventsDirectory(), "testOther.1.js"),
+                "testResults.put('other', 'ok');", StandardCharsets.UTF_8);
+        assertFalse(scripting.hasNoScript("testOther"));
+        scripting.on("testOther", testGlobals);
+        assertEquals("ok", testResults.get("other"));
+    }
+
+    /**
+     * Checks that a compiled script is reused by its engine, and that the cache entry of an engine
+     * goes away, when the engine is destroyed by the pool.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCompiledScriptCacheEviction() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        File scriptsDirectory = new File(workingDirectory, "scripts");
+
+        Configuration.initialize(workingDirectory);
+        Configuration.get()
+                     .load();
+        ReferenceMachine referenceMachine = (ReferenceMachine) Configuration.get()
+                                                                            .getMachine();
+        referenceMachine.setPoolScriptingEngines(true);
+        Scripting scripting = new Scripting(scriptsDirectory);
+
+        File script = new File(scripting.getEventsDirectory(), "testEviction.js");
+        FileUtils.writeStringToFile(script, "var x = 1;", StandardCharsets.UTF_8);
+        script.setLastModified(System.currentTimeMillis() - 10000);
+
+        // Reused by the same engine.
+        ScriptEngine engine = new NashornScriptEngineFactory().getScriptEngine();
+        CompiledScript compiledScript = scripting.getCompiledScript(engine, script);
+        assertSame(compiledScript, scripting.getCompiledScript(engine, script));
+
+        // Pooled engines are dropped from the cache, when destroyed.
+        scripting.on("testEviction", new HashMap<>());
+        assertEquals(2, scripting.getCompiledScriptEngineCount());
+        scripting.clearScriptingEnginePool();
+        assertEquals(1, scripting.getCompiledScriptEngineCount());
+    }
 }